@@ -49,6 +49,7 @@ KW_NOT : 'NOT' | '!';
 KW_ORDER : 'ORDER';
 KW_GROUP : 'GROUP';
 KW_FILL : 'FILL';
+KW_LAST : 'LAST';
 KW_BY : 'BY';
 
 KW_LIMIT : 'LIMIT';
@@ -72,6 +72,7 @@ TOK_DELETE;
 TOK_INDEX_KV;
 TOK_FUNC;
 TOK_SELECT_INDEX;
+TOK_SELECT_LAST;
 TOK_LIST;
 TOK_ALL;
 TOK_SLIMIT;
@@ -133,6 +134,7 @@ ArrayList<ParseError> errors = new ArrayList<ParseError>();
         xlateMap.put("KW_BY", "BY");
         xlateMap.put("KW_GROUP", "GROUP");
         xlateMap.put("KW_FILL", "FILL");
+        xlateMap.put("KW_LAST", "LAST");
         xlateMap.put("KW_LINEAR", "LINEAR");
         xlateMap.put("KW_PREVIOUS", "PREVIOUS");
         xlateMap.put("KW_WHERE", "WHERE");
@@ -608,8 +610,8 @@ Assit to multi insert, target grammar:  insert into root.<deviceType>.<deviceNam
 
 multidentifier
 	:
-	LPAREN KW_TIMESTAMP (COMMA Identifier)* RPAREN
-	-> ^(TOK_MULT_IDENTIFIER TOK_TIME Identifier*)
+	LPAREN KW_TIMESTAMP (COMMA identifier)* RPAREN
+	-> ^(TOK_MULT_IDENTIFIER TOK_TIME identifier*)
 	;
 multiValue
 	:
@@ -693,7 +695,7 @@ Basic Blocks
 
 identifier
     :
-    Identifier | integer
+    Identifier | integer | KW_LAST
     ;
 
 //selectClause
@@ -706,6 +708,8 @@ identifier
 selectClause
     : KW_SELECT KW_INDEX func=Identifier LPAREN p1=timeseries COMMA p2=timeseries COMMA n1=dateFormatWithNumber COMMA n2=dateFormatWithNumber COMMA epsilon=Float (COMMA alpha=Float COMMA beta=Float)? RPAREN (fromClause)?
     -> ^(TOK_SELECT_INDEX $func $p1 $p2 $n1 $n2 $epsilon ($alpha $beta)?) fromClause?
+    | (KW_SELECT KW_LAST suffixPath (COMMA | KW_FROM))=> KW_SELECT KW_LAST suffixPath (COMMA suffixPath)* fromClause
+    -> ^(TOK_SELECT_LAST suffixPath+) fromClause
     | KW_SELECT clusteredPath (COMMA clusteredPath)* fromClause
     -> ^(TOK_SELECT clusteredPath+) fromClause
     ;
@@ -730,7 +734,7 @@ whereClause
 
 groupbyClause
     :
-    KW_GROUP KW_BY LPAREN value=integer unit=Identifier (COMMA timeOrigin=dateFormatWithNumber)? COMMA timeInterval (COMMA timeInterval)* RPAREN
+    KW_GROUP KW_BY LPAREN value=integer unit=identifier (COMMA timeOrigin=dateFormatWithNumber)? COMMA timeInterval (COMMA timeInterval)* RPAREN
     -> ^(TOK_GROUPBY ^(TOK_TIMEUNIT $value $unit) ^(TOK_TIMEORIGIN $timeOrigin)? ^(TOK_TIMEINTERVAL timeInterval+))
     ;
 
@@ -764,16 +768,16 @@ soffsetClause
     ;
 
 typeClause
-    : type=Identifier LSQUARE c=interTypeClause RSQUARE
+    : type=identifier LSQUARE c=interTypeClause RSQUARE
     -> ^(TOK_TYPE $type $c)
     ;
 
 interTypeClause
     :
-    KW_LINEAR (COMMA value1=integer unit1=Identifier COMMA value2=integer unit2=Identifier)?
+    KW_LINEAR (COMMA value1=integer unit1=identifier COMMA value2=integer unit2=identifier)?
     -> ^(TOK_LINEAR (^(TOK_TIMEUNIT $value1 $unit1) ^(TOK_TIMEUNIT $value2 $unit2))?)
     |
-    KW_PREVIOUS (COMMA value1=integer unit1=Identifier)?
+    KW_PREVIOUS (COMMA value1=integer unit1=identifier)?
     -> ^(TOK_PREVIOUS ^(TOK_TIMEUNIT $value1 $unit1)?)
     ;
 
@@ -127,10 +127,12 @@ public class AuthorityChecker {
       case INDEXQUERY:
       case MERGEQUERY:
       case AGGREGATION:
+      case LAST:
         return PrivilegeType.READ_TIMESERIES.ordinal();
       case DELETE:
         return PrivilegeType.DELETE_TIMESERIES.ordinal();
       case INSERT:
+      case BATCHINSERT:
       case LOADDATA:
       case INDEX:
         return PrivilegeType.INSERT_TIMESERIES.ordinal();
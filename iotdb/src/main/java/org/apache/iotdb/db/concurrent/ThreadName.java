@@ -32,8 +32,14 @@ public enum ThreadName {
   FORCE_FLUSH_ALL_POLICY("IoTDB-ForceFlushAllPolicy-Thread"),
   STAT_MONITOR("StatMonitor-ServerServiceImpl"),
   FLUSH_SERVICE("Flush-ServerServiceImpl"),
+  FLUSH_ENCODE_SERVICE("Flush-Encode-ServerServiceImpl"),
+  QUERY_WORKER_SERVICE("Query-Worker-ServerServiceImpl"),
+  QUERY_PREFETCH_SERVICE("Query-Prefetch-ServerServiceImpl"),
+  QUERY_RESULT_PREFETCH_SERVICE("Query-Result-Prefetch-ServerServiceImpl"),
   WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
   WAL_FORCE_DAEMON("IoTDB-MultiFileLogNodeManager-Force-Thread"),
+  WAL_GROUP_COMMIT_DAEMON("IoTDB-WAL-GroupCommit-Thread"),
+  WAL_RECOVERY("IoTDB-WAL-Recovery"),
   INDEX_SERVICE("Index-ServerServiceImpl"),
   SYNC_CLIENT("Sync-Client"),
   SYNC_SERVER("Sync-Server"),
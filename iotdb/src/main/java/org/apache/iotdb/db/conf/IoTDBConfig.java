@@ -21,7 +21,9 @@ package org.apache.iotdb.db.conf;
 import java.io.File;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.iotdb.db.metadata.MManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,6 +68,44 @@ public class IoTDBConfig {
    */
   private long forceWalPeriodInMs = 10;
 
+  /**
+   * If true, every write ahead log is durable when the insertion returns. The logs of concurrent
+   * writers are appended to a shared buffer and a single log thread writes and forces them
+   * together, so that many insertions share one fsync.
+   */
+  private boolean enableWalGroupCommit = false;
+
+  /**
+   * How long (in milliseconds) the log thread waits for more logs before it writes and forces a
+   * group. A larger value puts more logs into one fsync (throughput) at the cost of a longer wait
+   * of each insertion (latency). If 0, a group is written as soon as the log thread is idle.
+   */
+  private long walGroupCommitWaitInMs = 0;
+
+  /**
+   * The size in byte of the buffer of each log node that collects the logs of a group. A writer
+   * waits when the buffer is full. A log larger than the buffer is written on its own.
+   */
+  private int walGroupCommitBufferSize = 1024 * 1024;
+
+  /**
+   * If true, the write ahead logs of a log node are written into pre-allocated segment files
+   * through memory mapping. A flush retires the segments it covers and they are recycled, instead
+   * of renaming and deleting a single log file.
+   */
+  private boolean enableWalSegment = false;
+
+  /**
+   * The size in byte of a write ahead log segment.
+   */
+  private long walSegmentSize = 16 * 1024 * 1024L;
+
+  /**
+   * How many storage groups replay their write ahead logs concurrently at startup. The log nodes
+   * of one storage group are always recovered one after another by the same thread.
+   */
+  private int walRecoveryThreadNum = Runtime.getRuntime().availableProcessors();
+
   /**
    * Data directory.
    */
@@ -170,6 +210,13 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads sort, encode and compress the series of flushing memtables. The pool is
+   * shared by all flushes, while the file of each flush is still written by its own flush thread.
+   * When <= 0, use CPU core number.
+   */
+  private int flushEncodeThreadNum = Runtime.getRuntime().availableProcessors();
+
   private ZoneId zoneID = ZoneId.systemDefault();
   /**
    * BufferWriteProcessor and OverflowProcessor will immediately flush if this threshold is
@@ -275,6 +322,107 @@ public class IoTDBConfig {
    * Examining period of cache file reader : 100 seconds.
    */
   private long cacheFileReaderClearPeriod = 100000;
+  /**
+   * The number of data points in one primitive array of a memtable. The arrays are allocated with
+   * this fixed size and recycled by PrimitiveArrayPool after a flush.
+   */
+  private int primitiveArraySize = 128;
+  /**
+   * Memory in bytes of the chunk cache shared by all queries on sealed TsFiles. When <= 0, chunks
+   * are not cached and always read from disk.
+   */
+  private long chunkCacheSizeInByte = (long) (0.1 * Runtime.getRuntime().maxMemory());
+  /**
+   * Memory in bytes of the metadata cache shared by all queries on sealed TsFiles, which holds the
+   * file metadata, device metadata and chunk metadata lists. When <= 0, metadata is not cached.
+   */
+  private long metaDataCacheSizeInByte = (long) (0.05 * Runtime.getRuntime().maxMemory());
+
+  /**
+   * How many threads read and aggregate the series of queries concurrently. The pool is shared by
+   * all queries. When <= 0, use CPU core number.
+   */
+  private int queryWorkerThreadNum = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many series of one query can be read and aggregated concurrently, so that a query over
+   * many series does not take all query workers. When <= 0, use half of queryWorkerThreadNum.
+   */
+  private int queryParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  /**
+   * The rollup intervals (in ms) of each storage group, in ascending order. The count, sum, min,
+   * max, first and last of each interval are pre-aggregated when a TsFile is flushed or merged, so
+   * that group by queries with a matching unit need not read the raw data.
+   */
+  private Map<String, long[]> rollupIntervals = new HashMap<>();
+
+  /**
+   * Whether to cache the last point of each series for the queries of the latest values.
+   */
+  private boolean enableLastCache = true;
+
+  /**
+   * Max number of series whose last points are cached.
+   */
+  private int lastCacheSize = 100000;
+
+  /**
+   * Max total size in byte of the sealed files memory-mapped by queries at the same time. A sealed
+   * file beyond it is read through its file channel. 0 means no file is mapped.
+   */
+  private long mmapFileReaderSizeLimitInByte = 1024L * 1024 * 1024;
+
+  /**
+   * Whether sequence readers read the next chunk and the metadata of the next file asynchronously
+   * while the current chunk is being decoded.
+   */
+  private boolean enableChunkPrefetch = false;
+
+  /**
+   * Max size in byte of the chunks a query has read ahead but not consumed yet. No more chunk is
+   * read ahead by the query beyond it.
+   */
+  private long chunkPrefetchSizePerQueryInByte = 16L * 1024 * 1024;
+
+  /**
+   * Whether the next blocks of query results are computed in the background while the current
+   * block is sent to the client.
+   */
+  private boolean enableResultPrefetch = false;
+
+  /**
+   * Max number of result blocks a query computes ahead of the client.
+   */
+  private int maxPrefetchedResultBlocks = 2;
+
+  /**
+   * Max total size in byte of the result blocks computed ahead by all queries. No more block is
+   * computed ahead beyond it.
+   */
+  private long resultPrefetchMemoryInByte = 64L * 1024 * 1024;
+
+  /**
+   * Memory in bytes shared by the readers of all queries. A query is admitted when its estimated
+   * memory fits in it, and waits otherwise.
+   */
+  private long queryMemoryBudgetInByte = (long) (0.2 * Runtime.getRuntime().maxMemory());
+
+  /**
+   * Max memory in bytes the readers of one query may use. A query needing more fails. When <= 0,
+   * a query may use the whole query memory budget.
+   */
+  private long maxMemoryPerQueryInByte = 0;
+
+  /**
+   * Estimated memory in bytes of reading one series, used to admit queries by their series number.
+   */
+  private long estimatedMemoryPerSeriesInByte = 256L * 1024;
+
+  /**
+   * How long in ms a query waits for the memory of other queries to be released before it fails.
+   */
+  private long queryAdmissionTimeoutInMs = 60000;
 
   public IoTDBConfig() {
     // empty constructor
@@ -464,6 +612,54 @@ public class IoTDBConfig {
     this.forceWalPeriodInMs = forceWalPeriodInMs;
   }
 
+  public boolean isEnableWalGroupCommit() {
+    return enableWalGroupCommit;
+  }
+
+  public void setEnableWalGroupCommit(boolean enableWalGroupCommit) {
+    this.enableWalGroupCommit = enableWalGroupCommit;
+  }
+
+  public long getWalGroupCommitWaitInMs() {
+    return walGroupCommitWaitInMs;
+  }
+
+  public void setWalGroupCommitWaitInMs(long walGroupCommitWaitInMs) {
+    this.walGroupCommitWaitInMs = walGroupCommitWaitInMs;
+  }
+
+  public int getWalGroupCommitBufferSize() {
+    return walGroupCommitBufferSize;
+  }
+
+  public void setWalGroupCommitBufferSize(int walGroupCommitBufferSize) {
+    this.walGroupCommitBufferSize = walGroupCommitBufferSize;
+  }
+
+  public boolean isEnableWalSegment() {
+    return enableWalSegment;
+  }
+
+  public void setEnableWalSegment(boolean enableWalSegment) {
+    this.enableWalSegment = enableWalSegment;
+  }
+
+  public long getWalSegmentSize() {
+    return walSegmentSize;
+  }
+
+  public void setWalSegmentSize(long walSegmentSize) {
+    this.walSegmentSize = walSegmentSize;
+  }
+
+  public int getWalRecoveryThreadNum() {
+    return walRecoveryThreadNum;
+  }
+
+  public void setWalRecoveryThreadNum(int walRecoveryThreadNum) {
+    this.walRecoveryThreadNum = walRecoveryThreadNum;
+  }
+
   public String getDataDir() {
     return dataDir;
   }
@@ -620,6 +816,14 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getFlushEncodeThreadNum() {
+    return flushEncodeThreadNum;
+  }
+
+  public void setFlushEncodeThreadNum(int flushEncodeThreadNum) {
+    this.flushEncodeThreadNum = flushEncodeThreadNum;
+  }
+
   public void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -815,4 +1019,158 @@ public class IoTDBConfig {
   public void setCacheFileReaderClearPeriod(long cacheFileReaderClearPeriod) {
     this.cacheFileReaderClearPeriod = cacheFileReaderClearPeriod;
   }
+
+  public long getChunkCacheSizeInByte() {
+    return chunkCacheSizeInByte;
+  }
+
+  public void setChunkCacheSizeInByte(long chunkCacheSizeInByte) {
+    this.chunkCacheSizeInByte = chunkCacheSizeInByte;
+  }
+
+  public long getMetaDataCacheSizeInByte() {
+    return metaDataCacheSizeInByte;
+  }
+
+  public void setMetaDataCacheSizeInByte(long metaDataCacheSizeInByte) {
+    this.metaDataCacheSizeInByte = metaDataCacheSizeInByte;
+  }
+
+  public int getPrimitiveArraySize() {
+    return primitiveArraySize;
+  }
+
+  public void setPrimitiveArraySize(int primitiveArraySize) {
+    this.primitiveArraySize = primitiveArraySize;
+  }
+
+  public int getQueryWorkerThreadNum() {
+    return queryWorkerThreadNum;
+  }
+
+  public void setQueryWorkerThreadNum(int queryWorkerThreadNum) {
+    this.queryWorkerThreadNum = queryWorkerThreadNum;
+  }
+
+  public int getQueryParallelism() {
+    return queryParallelism;
+  }
+
+  public void setQueryParallelism(int queryParallelism) {
+    this.queryParallelism = queryParallelism;
+  }
+
+  /**
+   * get the rollup intervals of a storage group.
+   *
+   * @return an empty array if the storage group has no rollup
+   */
+  public long[] getRollupIntervals(String storageGroup) {
+    long[] intervals = rollupIntervals.get(storageGroup);
+    return intervals == null ? new long[0] : intervals;
+  }
+
+  public Map<String, long[]> getRollupIntervals() {
+    return rollupIntervals;
+  }
+
+  public void setRollupIntervals(Map<String, long[]> rollupIntervals) {
+    this.rollupIntervals = rollupIntervals;
+  }
+
+  public boolean isEnableLastCache() {
+    return enableLastCache;
+  }
+
+  public void setEnableLastCache(boolean enableLastCache) {
+    this.enableLastCache = enableLastCache;
+  }
+
+  public int getLastCacheSize() {
+    return lastCacheSize;
+  }
+
+  public void setLastCacheSize(int lastCacheSize) {
+    this.lastCacheSize = lastCacheSize;
+  }
+
+  public long getMmapFileReaderSizeLimitInByte() {
+    return mmapFileReaderSizeLimitInByte;
+  }
+
+  public void setMmapFileReaderSizeLimitInByte(long mmapFileReaderSizeLimitInByte) {
+    this.mmapFileReaderSizeLimitInByte = mmapFileReaderSizeLimitInByte;
+  }
+
+  public boolean isEnableChunkPrefetch() {
+    return enableChunkPrefetch;
+  }
+
+  public void setEnableChunkPrefetch(boolean enableChunkPrefetch) {
+    this.enableChunkPrefetch = enableChunkPrefetch;
+  }
+
+  public long getChunkPrefetchSizePerQueryInByte() {
+    return chunkPrefetchSizePerQueryInByte;
+  }
+
+  public void setChunkPrefetchSizePerQueryInByte(long chunkPrefetchSizePerQueryInByte) {
+    this.chunkPrefetchSizePerQueryInByte = chunkPrefetchSizePerQueryInByte;
+  }
+
+  public boolean isEnableResultPrefetch() {
+    return enableResultPrefetch;
+  }
+
+  public void setEnableResultPrefetch(boolean enableResultPrefetch) {
+    this.enableResultPrefetch = enableResultPrefetch;
+  }
+
+  public int getMaxPrefetchedResultBlocks() {
+    return maxPrefetchedResultBlocks;
+  }
+
+  public void setMaxPrefetchedResultBlocks(int maxPrefetchedResultBlocks) {
+    this.maxPrefetchedResultBlocks = maxPrefetchedResultBlocks;
+  }
+
+  public long getQueryMemoryBudgetInByte() {
+    return queryMemoryBudgetInByte;
+  }
+
+  public void setQueryMemoryBudgetInByte(long queryMemoryBudgetInByte) {
+    this.queryMemoryBudgetInByte = queryMemoryBudgetInByte;
+  }
+
+  public long getMaxMemoryPerQueryInByte() {
+    return maxMemoryPerQueryInByte;
+  }
+
+  public void setMaxMemoryPerQueryInByte(long maxMemoryPerQueryInByte) {
+    this.maxMemoryPerQueryInByte = maxMemoryPerQueryInByte;
+  }
+
+  public long getEstimatedMemoryPerSeriesInByte() {
+    return estimatedMemoryPerSeriesInByte;
+  }
+
+  public void setEstimatedMemoryPerSeriesInByte(long estimatedMemoryPerSeriesInByte) {
+    this.estimatedMemoryPerSeriesInByte = estimatedMemoryPerSeriesInByte;
+  }
+
+  public long getQueryAdmissionTimeoutInMs() {
+    return queryAdmissionTimeoutInMs;
+  }
+
+  public void setQueryAdmissionTimeoutInMs(long queryAdmissionTimeoutInMs) {
+    this.queryAdmissionTimeoutInMs = queryAdmissionTimeoutInMs;
+  }
+
+  public long getResultPrefetchMemoryInByte() {
+    return resultPrefetchMemoryInByte;
+  }
+
+  public void setResultPrefetchMemoryInByte(long resultPrefetchMemoryInByte) {
+    this.resultPrefetchMemoryInByte = resultPrefetchMemoryInByte;
+  }
 }
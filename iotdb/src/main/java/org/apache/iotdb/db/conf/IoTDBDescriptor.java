@@ -24,6 +24,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import org.apache.iotdb.db.engine.memcontrol.BasicMemController.ControllerType;
 import org.slf4j.Logger;
@@ -126,6 +129,31 @@ public class IoTDBDescriptor {
       conf.setForceWalPeriodInMs(Long
           .parseLong(properties.getProperty("force_wal_period_in_ms",
                   Long.toString(conf.getForceWalPeriodInMs()))));
+      conf.setEnableWalGroupCommit(Boolean
+          .parseBoolean(properties.getProperty("enable_wal_group_commit",
+              Boolean.toString(conf.isEnableWalGroupCommit())).trim()));
+      long walGroupCommitWaitInMs = Long
+          .parseLong(properties.getProperty("wal_group_commit_wait_in_ms",
+              Long.toString(conf.getWalGroupCommitWaitInMs())).trim());
+      conf.setWalGroupCommitWaitInMs(walGroupCommitWaitInMs >= 0 ? walGroupCommitWaitInMs :
+          conf.getWalGroupCommitWaitInMs());
+      int walGroupCommitBufferSize = Integer
+          .parseInt(properties.getProperty("wal_group_commit_buffer_size",
+              Integer.toString(conf.getWalGroupCommitBufferSize())).trim());
+      conf.setWalGroupCommitBufferSize(walGroupCommitBufferSize > 0 ? walGroupCommitBufferSize :
+          conf.getWalGroupCommitBufferSize());
+      conf.setEnableWalSegment(Boolean
+          .parseBoolean(properties.getProperty("enable_wal_segment",
+              Boolean.toString(conf.isEnableWalSegment())).trim()));
+      long walSegmentSize = Long
+          .parseLong(properties.getProperty("wal_segment_size",
+              Long.toString(conf.getWalSegmentSize())).trim());
+      conf.setWalSegmentSize(walSegmentSize > 0 ? walSegmentSize : conf.getWalSegmentSize());
+      int walRecoveryThreadNum = Integer
+          .parseInt(properties.getProperty("wal_recovery_thread_num",
+              Integer.toString(conf.getWalRecoveryThreadNum())).trim());
+      conf.setWalRecoveryThreadNum(walRecoveryThreadNum > 0 ? walRecoveryThreadNum :
+          conf.getWalRecoveryThreadNum());
 
       conf.setDataDir(properties.getProperty("data_dir", conf.getDataDir()));
       conf.setBufferWriteDirs(properties.getProperty("tsfile_dir", conf.DEFAULT_TSFILE_DIR)
@@ -216,6 +244,13 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setFlushEncodeThreadNum(Integer
+          .parseInt(properties.getProperty("flush_encode_thread_num",
+              Integer.toString(conf.getFlushEncodeThreadNum()))));
+      if (conf.getFlushEncodeThreadNum() <= 0) {
+        conf.setFlushEncodeThreadNum(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setEnableMemMonitor(Boolean
           .parseBoolean(properties.getProperty("enable_mem_monitor",
                   Boolean.toString(conf.isEnableMemMonitor())).trim()));
@@ -238,6 +273,113 @@ public class IoTDBDescriptor {
       conf.setMaxLogEntrySize(maxLogEntrySize > 0 ? maxLogEntrySize :
           conf.getMaxLogEntrySize());
 
+      int primitiveArraySize = Integer.parseInt(properties.getProperty("primitive_array_size",
+          Integer.toString(conf.getPrimitiveArraySize())).trim());
+      conf.setPrimitiveArraySize(primitiveArraySize > 0 ? primitiveArraySize :
+          conf.getPrimitiveArraySize());
+
+      double chunkCacheProportion = Double.parseDouble(properties
+          .getProperty("chunk_cache_proportion", Double.toString(
+              (double) conf.getChunkCacheSizeInByte() / Runtime.getRuntime().maxMemory())).trim());
+      if (chunkCacheProportion >= 0 && chunkCacheProportion < 1) {
+        conf.setChunkCacheSizeInByte(
+            (long) (chunkCacheProportion * Runtime.getRuntime().maxMemory()));
+      }
+
+      double metaDataCacheProportion = Double.parseDouble(properties
+          .getProperty("metadata_cache_proportion", Double.toString(
+              (double) conf.getMetaDataCacheSizeInByte() / Runtime.getRuntime().maxMemory()))
+          .trim());
+      if (metaDataCacheProportion >= 0 && metaDataCacheProportion < 1) {
+        conf.setMetaDataCacheSizeInByte(
+            (long) (metaDataCacheProportion * Runtime.getRuntime().maxMemory()));
+      }
+
+      conf.setQueryWorkerThreadNum(Integer
+          .parseInt(properties.getProperty("query_worker_thread_num",
+              Integer.toString(conf.getQueryWorkerThreadNum())).trim()));
+      if (conf.getQueryWorkerThreadNum() <= 0) {
+        conf.setQueryWorkerThreadNum(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setQueryParallelism(Integer
+          .parseInt(properties.getProperty("query_parallelism",
+              Integer.toString(conf.getQueryParallelism())).trim()));
+      if (conf.getQueryParallelism() <= 0) {
+        conf.setQueryParallelism(Math.max(1, conf.getQueryWorkerThreadNum() / 2));
+      }
+
+      String rollupIntervals = properties.getProperty("rollup_intervals");
+      if (rollupIntervals != null) {
+        conf.setRollupIntervals(parseRollupIntervals(rollupIntervals));
+      }
+
+      conf.setEnableLastCache(Boolean.parseBoolean(properties.getProperty("enable_last_cache",
+          Boolean.toString(conf.isEnableLastCache())).trim()));
+      conf.setLastCacheSize(Integer.parseInt(properties.getProperty("last_cache_size",
+          Integer.toString(conf.getLastCacheSize())).trim()));
+
+      long mmapSizeLimitInMb = Long.parseLong(properties.getProperty(
+          "mmap_file_reader_size_limit_in_mb",
+          Long.toString(conf.getMmapFileReaderSizeLimitInByte() / 1024 / 1024)).trim());
+      if (mmapSizeLimitInMb >= 0) {
+        conf.setMmapFileReaderSizeLimitInByte(mmapSizeLimitInMb * 1024 * 1024);
+      }
+
+      conf.setEnableChunkPrefetch(Boolean.parseBoolean(properties.getProperty(
+          "enable_chunk_prefetch", Boolean.toString(conf.isEnableChunkPrefetch())).trim()));
+
+      long prefetchSizeInKb = Long.parseLong(properties.getProperty(
+          "chunk_prefetch_size_per_query_in_kb",
+          Long.toString(conf.getChunkPrefetchSizePerQueryInByte() / 1024)).trim());
+      if (prefetchSizeInKb > 0) {
+        conf.setChunkPrefetchSizePerQueryInByte(prefetchSizeInKb * 1024);
+      }
+
+      conf.setEnableResultPrefetch(Boolean.parseBoolean(properties.getProperty(
+          "enable_result_prefetch", Boolean.toString(conf.isEnableResultPrefetch())).trim()));
+
+      int prefetchedResultBlocks = Integer.parseInt(properties.getProperty(
+          "max_prefetched_result_blocks",
+          Integer.toString(conf.getMaxPrefetchedResultBlocks())).trim());
+      if (prefetchedResultBlocks > 0) {
+        conf.setMaxPrefetchedResultBlocks(prefetchedResultBlocks);
+      }
+
+      long resultPrefetchMemoryInMb = Long.parseLong(properties.getProperty(
+          "result_prefetch_memory_in_mb",
+          Long.toString(conf.getResultPrefetchMemoryInByte() / 1024 / 1024)).trim());
+      if (resultPrefetchMemoryInMb >= 0) {
+        conf.setResultPrefetchMemoryInByte(resultPrefetchMemoryInMb * 1024 * 1024);
+      }
+
+      double queryMemoryProportion = Double.parseDouble(properties
+          .getProperty("query_memory_proportion", Double.toString(
+              (double) conf.getQueryMemoryBudgetInByte() / Runtime.getRuntime().maxMemory()))
+          .trim());
+      if (queryMemoryProportion > 0 && queryMemoryProportion < 1) {
+        conf.setQueryMemoryBudgetInByte(
+            (long) (queryMemoryProportion * Runtime.getRuntime().maxMemory()));
+      }
+
+      conf.setMaxMemoryPerQueryInByte(Long.parseLong(properties.getProperty(
+          "max_memory_per_query_in_mb",
+          Long.toString(conf.getMaxMemoryPerQueryInByte() / 1024 / 1024)).trim()) * 1024 * 1024);
+
+      long memoryPerSeriesInKb = Long.parseLong(properties.getProperty(
+          "estimated_memory_per_series_in_kb",
+          Long.toString(conf.getEstimatedMemoryPerSeriesInByte() / 1024)).trim());
+      if (memoryPerSeriesInKb >= 0) {
+        conf.setEstimatedMemoryPerSeriesInByte(memoryPerSeriesInKb * 1024);
+      }
+
+      long admissionTimeout = Long.parseLong(properties.getProperty(
+          "query_admission_timeout_in_ms",
+          Long.toString(conf.getQueryAdmissionTimeoutInMs())).trim());
+      if (admissionTimeout >= 0) {
+        conf.setQueryAdmissionTimeoutInMs(admissionTimeout);
+      }
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -265,6 +407,36 @@ public class IoTDBDescriptor {
     }
   }
 
+  /**
+   * parse rollup intervals like "root.sg1:60000,3600000;root.sg2:60000".
+   */
+  static Map<String, long[]> parseRollupIntervals(String value) {
+    Map<String, long[]> rollupIntervals = new HashMap<>();
+    for (String storageGroupIntervals : value.split(";")) {
+      if (storageGroupIntervals.trim().isEmpty()) {
+        continue;
+      }
+      int separator = storageGroupIntervals.lastIndexOf(':');
+      if (separator <= 0) {
+        throw new IllegalArgumentException(
+            "Rollup intervals should be like <storage group>:<interval>,<interval>, but got "
+                + storageGroupIntervals);
+      }
+      String[] intervalStrings = storageGroupIntervals.substring(separator + 1).split(",");
+      long[] intervals = new long[intervalStrings.length];
+      for (int i = 0; i < intervals.length; i++) {
+        intervals[i] = Long.parseLong(intervalStrings[i].trim());
+        if (intervals[i] <= 0) {
+          throw new IllegalArgumentException("Rollup interval should be positive, but got "
+              + intervals[i]);
+        }
+      }
+      Arrays.sort(intervals);
+      rollupIntervals.put(storageGroupIntervals.substring(0, separator).trim(), intervals);
+    }
+    return rollupIntervals;
+  }
+
   private static class IoTDBDescriptorHolder {
     private static final IoTDBDescriptor INSTANCE = new IoTDBDescriptor();
   }
@@ -40,9 +40,12 @@ import org.apache.iotdb.db.engine.memtable.MemTableFlushUtil;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
 import org.apache.iotdb.db.engine.pool.FlushManager;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.BufferWriteProcessorException;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.utils.ImmediateFuture;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
@@ -66,7 +69,7 @@ public class BufferWriteProcessor extends Processor {
   private ReentrantLock flushQueryLock = new ReentrantLock();
   private AtomicLong memSize = new AtomicLong();
   private long memThreshold = TSFileDescriptor.getInstance().getConfig().groupSizeInByte;
-  private IMemTable workMemTable;
+  private volatile IMemTable workMemTable;
   private IMemTable flushMemTable;
   private Action bufferwriteFlushAction;
   private Action bufferwriteCloseAction;
@@ -74,7 +77,7 @@ public class BufferWriteProcessor extends Processor {
 
   //lastFlushTime time unit: nanosecond
   private long lastFlushTime = -1;
-  private long valueCount = 0;
+  private AtomicLong valueCount = new AtomicLong();
 
   private String baseDir;
   private String fileName;
@@ -168,24 +171,77 @@ public class BufferWriteProcessor extends Processor {
    * @throws BufferWriteProcessorException if a flushing operation occurs and failed.
    */
   public boolean write(TSRecord tsRecord) throws BufferWriteProcessorException {
+    boolean isSafe = insert(tsRecord);
+    if (isSafe) {
+      flushIfFull();
+    }
+    return isSafe;
+  }
+
+  /**
+   * write all rows of a batch into the memtable column by column. The memory is reported and
+   * checked once for the whole batch.
+   *
+   * @param plan the rows of one device
+   * @return false if the memory usage is dangerous
+   * @throws BufferWriteProcessorException if a flushing operation occurs and failed.
+   */
+  public boolean write(BatchInsertPlan plan) throws BufferWriteProcessorException {
+    boolean isSafe = insert(plan);
+    if (isSafe) {
+      flushIfFull();
+    }
+    return isSafe;
+  }
+
+  /**
+   * write a ts record into the work memtable without flushing it. Unlike {@link
+   * #write(TSRecord)}, it can be called concurrently by insertions sharing the read lock of the
+   * filenode processor, which call {@link #flushIfFull()} later under the write lock.
+   *
+   * @return false if the memory usage is dangerous
+   */
+  public boolean insert(TSRecord tsRecord) {
     long memUsage = MemUtils.getRecordSize(tsRecord);
     BasicMemController.UsageLevel level = BasicMemController.getInstance()
         .reportUse(this, memUsage);
     for (DataPoint dataPoint : tsRecord.dataPointList) {
       workMemTable.write(tsRecord.deviceId, dataPoint.getMeasurementId(), dataPoint.getType(),
           tsRecord.time,
-          dataPoint.getValue().toString());
+          dataPoint.getValue());
     }
-    valueCount++;
+    valueCount.incrementAndGet();
+    return checkMemUsage(level, memUsage);
+  }
+
+  /**
+   * write all rows of a batch into the work memtable without flushing it, see {@link
+   * #insert(TSRecord)}.
+   *
+   * @return false if the memory usage is dangerous
+   */
+  public boolean insert(BatchInsertPlan plan) {
+    long memUsage = MemUtils.getBatchInsertPlanSize(plan);
+    BasicMemController.UsageLevel level = BasicMemController.getInstance()
+        .reportUse(this, memUsage);
+    for (int i = 0; i < plan.getMeasurements().size(); i++) {
+      workMemTable.write(plan.getDeviceId(), plan.getMeasurements().get(i),
+          plan.getDataTypes().get(i), plan.getTimes(), plan.getColumns()[i], plan.getRowCount());
+    }
+    valueCount.addAndGet(plan.getRowCount());
+    return checkMemUsage(level, memUsage);
+  }
+
+  private boolean checkMemUsage(BasicMemController.UsageLevel level, long memUsage) {
     String memory;
     switch (level) {
       case SAFE:
-        checkMemThreshold4Flush(memUsage);
+        memSize.addAndGet(memUsage);
         return true;
       case WARNING:
         memory = MemUtils.bytesCntToStr(BasicMemController.getInstance().getTotalUsage());
         LOGGER.warn("Memory usage will exceed warning threshold, current : {}.", memory);
-        checkMemThreshold4Flush(memUsage);
+        memSize.addAndGet(memUsage);
         return true;
       case DANGEROUS:
       default:
@@ -195,20 +251,33 @@ public class BufferWriteProcessor extends Processor {
     }
   }
 
-  private void checkMemThreshold4Flush(long addedMemory) throws BufferWriteProcessorException {
-    long newMem = memSize.addAndGet(addedMemory);
-    if (newMem > memThreshold) {
-      String usageMem = MemUtils.bytesCntToStr(newMem);
-      String threshold = MemUtils.bytesCntToStr(memThreshold);
-      String processorName = getProcessorName();
-      LOGGER.info("The usage of memory {} in bufferwrite processor {} reaches the threshold {}",
-          usageMem, processorName, threshold);
-      try {
-        flush();
-      } catch (IOException e) {
-        LOGGER.error("Flush bufferwrite error.", e);
-        throw new BufferWriteProcessorException(e);
-      }
+  /**
+   * @return true if the memory usage of the work memtable is beyond the memThreshold.
+   */
+  public boolean shouldFlush() {
+    return memSize.get() > memThreshold;
+  }
+
+  /**
+   * flush the work memtable asynchronously if its memory usage is beyond the memThreshold. The
+   * caller must guarantee that no insertion is writing into this processor.
+   *
+   * @throws BufferWriteProcessorException if a flushing operation occurs and failed.
+   */
+  public void flushIfFull() throws BufferWriteProcessorException {
+    if (!shouldFlush()) {
+      return;
+    }
+    String usageMem = MemUtils.bytesCntToStr(memSize.get());
+    String threshold = MemUtils.bytesCntToStr(memThreshold);
+    String processorName = getProcessorName();
+    LOGGER.info("The usage of memory {} in bufferwrite processor {} reaches the threshold {}",
+        usageMem, processorName, threshold);
+    try {
+      flush();
+    } catch (IOException e) {
+      LOGGER.error("Flush bufferwrite error.", e);
+      throw new BufferWriteProcessorException(e);
     }
   }
 
@@ -281,10 +350,13 @@ public class BufferWriteProcessor extends Processor {
     try {
       if (flushMemTable != null && !flushMemTable.isEmpty()) {
         // flush data
-        MemTableFlushUtil.flushMemTable(fileSchema, writer, flushMemTable,
-            version);
+        List<Rollup> rollups = MemTableFlushUtil.flushMemTable(fileSchema, writer, flushMemTable,
+            version, IoTDBDescriptor.getInstance().getConfig()
+                .getRollupIntervals(getProcessorName()));
         // write restore information
         writer.flush();
+        // append the rollups after their chunks are written
+        RollupFile.append(insertFilePath, rollups);
       }
 
       filenodeFlushAction.act();
@@ -332,7 +404,7 @@ public class BufferWriteProcessor extends Processor {
     }
     lastFlushTime = System.nanoTime();
     // check value count
-    if (valueCount > 0) {
+    if (valueCount.get() > 0) {
       // waiting for the end of last flush operation.
       try {
         flushFuture.get();
@@ -352,7 +424,7 @@ public class BufferWriteProcessor extends Processor {
       if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
         logNode.notifyStartFlush();
       }
-      valueCount = 0;
+      valueCount.set(0);
       switchWorkToFlush();
       long version = versionController.nextVersion();
       BasicMemController.getInstance().reportFree(this, memSize.get());
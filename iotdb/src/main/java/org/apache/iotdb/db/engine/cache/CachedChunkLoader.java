@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
+
+/**
+ * Read the chunks of a sealed TsFile through the {@link ChunkCache} shared by all queries. When
+ * chunk prefetch is enabled and a query context is given, the chunk hinted by {@link
+ * #prefetch(ChunkMetaData)} is read in the background, bounded by the prefetch size of the query.
+ * The chunk being read is charged to the memory of the query, standing for the pages decoded from
+ * it, until the next chunk is read or the loader is released.
+ */
+public class CachedChunkLoader implements ChunkLoader {
+
+  private TsFileSequenceReader reader;
+  private QueryContext context;
+  private PrefetchTask prefetchTask;
+  /**
+   * memory charged to the query for the current chunk.
+   */
+  private long allocatedMemory;
+
+  public CachedChunkLoader(TsFileSequenceReader reader) {
+    this(reader, null);
+  }
+
+  /**
+   * @param context the query reading ahead, null if chunks are only read on demand
+   */
+  public CachedChunkLoader(TsFileSequenceReader reader, QueryContext context) {
+    this.reader = reader;
+    this.context = context;
+  }
+
+  @Override
+  public Chunk getChunk(ChunkMetaData chunkMetaData) throws IOException {
+    Chunk chunk = null;
+    if (prefetchTask != null) {
+      if (prefetchTask.metaData == chunkMetaData) {
+        chunk = prefetchTask.take();
+      } else {
+        prefetchTask.discard();
+      }
+      prefetchTask = null;
+    }
+    if (chunk == null) {
+      chunk = ChunkCache.getInstance().get(chunkMetaData, reader);
+    }
+    if (context != null) {
+      releaseMemory();
+      context.allocateMemory(chunk.getData().capacity());
+      allocatedMemory = chunk.getData().capacity();
+    }
+    Chunk chunkRet = new Chunk(chunk.getHeader(), chunk.getData().duplicate());
+    chunkRet.setDeletedAt(chunkMetaData.getDeletedAt());
+    return chunkRet;
+  }
+
+  /**
+   * read the chunk in the background if no chunk is being read ahead and the query has not used up
+   * its prefetch size.
+   */
+  @Override
+  public void prefetch(ChunkMetaData chunkMetaData) {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    if (context == null || !config.isEnableChunkPrefetch() || prefetchTask != null
+        || context.getPrefetchedChunkSize() >= config.getChunkPrefetchSizePerQueryInByte()) {
+      return;
+    }
+    prefetchTask = new PrefetchTask(chunkMetaData);
+    QueryTaskPoolManager.getInstance().prefetch(prefetchTask);
+  }
+
+  /**
+   * drop the chunk being read ahead, if any, and return the memory of the current chunk to the
+   * query. The underlying reader is left open.
+   */
+  public void release() {
+    if (prefetchTask != null) {
+      prefetchTask.discard();
+      prefetchTask = null;
+    }
+    releaseMemory();
+  }
+
+  private void releaseMemory() {
+    if (allocatedMemory > 0) {
+      context.releaseMemory(allocatedMemory);
+      allocatedMemory = 0;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    release();
+    reader.close();
+  }
+
+  /**
+   * PrefetchTask reads one chunk ahead. Its size is counted in the prefetched size of the query
+   * from when it is read until it is taken or discarded.
+   */
+  private class PrefetchTask implements Runnable {
+
+    private final ChunkMetaData metaData;
+    private boolean started;
+    private boolean finished;
+    private boolean released;
+    private Chunk chunk;
+    private IOException exception;
+
+    private PrefetchTask(ChunkMetaData metaData) {
+      this.metaData = metaData;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (released) {
+          return;
+        }
+        started = true;
+      }
+      Chunk result = null;
+      IOException error = null;
+      try {
+        result = ChunkCache.getInstance().get(metaData, reader);
+      } catch (IOException e) {
+        error = e;
+      }
+      synchronized (this) {
+        chunk = result;
+        exception = error;
+        finished = true;
+        if (!released && chunk != null) {
+          context.addPrefetchedChunkSize(chunk.getData().capacity());
+        }
+        notifyAll();
+      }
+    }
+
+    /**
+     * @return the chunk read ahead, or null if the read has not started and the caller should read
+     * by itself
+     */
+    private synchronized Chunk take() throws IOException {
+      if (!started) {
+        released = true;
+        return null;
+      }
+      while (!finished) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          released = true;
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted when waiting for a chunk read ahead", e);
+        }
+      }
+      release();
+      if (exception != null) {
+        throw exception;
+      }
+      return chunk;
+    }
+
+    private synchronized void discard() {
+      if (finished) {
+        release();
+      } else {
+        // the size of a chunk still being read is never counted
+        released = true;
+      }
+    }
+
+    private void release() {
+      if (!released && chunk != null) {
+        context.addPrefetchedChunkSize(-chunk.getData().capacity());
+      }
+      released = true;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Objects;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+
+/**
+ * This class caches the chunks of sealed TsFiles for all queries. A chunk is identified by its
+ * file path and the offset of its chunk header, and the cache is bounded by the bytes of the
+ * cached chunks instead of the number of them. The chunks of a file must be removed by {@link
+ * #remove(String)} once the file is deleted or replaced.
+ */
+public class ChunkCache implements ChunkCacheMBean {
+
+  public static final String MBEAN_NAME = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE, "ChunkCache");
+
+  /**
+   * estimated memory of the key, the chunk header and the map entry of a cached chunk.
+   */
+  private static final int ENTRY_OVERHEAD_IN_BYTE = 128;
+
+  private final ShardedLruCache<ChunkCacheKey, Chunk> cache;
+
+  ChunkCache(long capacityInByte) {
+    cache = new ShardedLruCache<>(capacityInByte,
+        chunk -> chunk.getData().capacity() + (long) ENTRY_OVERHEAD_IN_BYTE);
+  }
+
+  public static ChunkCache getInstance() {
+    return ChunkCacheHolder.INSTANCE;
+  }
+
+  /**
+   * get the chunk of the given metadata, reading it by the reader if it is not cached. The
+   * returned chunk is shared by all callers, so its data must not be consumed directly but through
+   * a duplicate.
+   */
+  public Chunk get(ChunkMetaData metaData, TsFileSequenceReader reader) throws IOException {
+    ChunkCacheKey key = new ChunkCacheKey(reader.getFileName(),
+        metaData.getOffsetOfChunkHeader());
+    return cache.get(key, () -> reader.readMemChunk(metaData));
+  }
+
+  /**
+   * remove all cached chunks of the given file.
+   */
+  public void remove(String filePath) {
+    cache.removeIf(key -> key.filePath.equals(filePath));
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+  }
+
+  @Override
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return cache.getHitRate();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  @Override
+  public long getEntryNum() {
+    return cache.getEntryNum();
+  }
+
+  @Override
+  public long getUsedMemoryInByte() {
+    return cache.getUsedMemoryInByte();
+  }
+
+  @Override
+  public long getCapacityInByte() {
+    return cache.getCapacityInByte();
+  }
+
+  private static class ChunkCacheKey {
+
+    private final String filePath;
+    private final long offset;
+
+    private ChunkCacheKey(String filePath, long offset) {
+      this.filePath = filePath;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ChunkCacheKey that = (ChunkCacheKey) o;
+      return offset == that.offset && filePath.equals(that.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, offset);
+    }
+  }
+
+  /*
+   * Singleton pattern
+   */
+  private static class ChunkCacheHolder {
+
+    private ChunkCacheHolder() {}
+
+    private static final ChunkCache INSTANCE = new ChunkCache(
+        IoTDBDescriptor.getInstance().getConfig().getChunkCacheSizeInByte());
+
+    static {
+      JMXService.registerMBean(INSTANCE, MBEAN_NAME);
+    }
+  }
+}
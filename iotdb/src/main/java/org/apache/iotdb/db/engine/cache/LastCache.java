@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * This class caches the last point of each series, so that the latest value of a series is
+ * answered without reading any file. The cache is filled lazily: a query missing the cache takes a
+ * stamp of the series by {@link #getFillStamp}, reads the last point from the data and offers it by
+ * {@link #fill}. Insertions keep the cached points up to date by {@link #update}, while deletions
+ * and overflow updates, which may remove or change the last point, {@link #invalidate} them. At
+ * most a configured number of series are cached, the series are spread over shards, each evicting
+ * its least recently used series.
+ */
+public class LastCache {
+
+  private static final boolean ENABLE_LAST_CACHE = IoTDBDescriptor.getInstance().getConfig()
+      .isEnableLastCache();
+
+  private static final int SHARD_NUM = 16;
+
+  /**
+   * the stamp of a series which needs no fill, either because it is cached or because the cache is
+   * disabled.
+   */
+  private static final long NO_FILL = -1;
+
+  private final Shard[] shards;
+
+  /**
+   * @param capacity the max number of cached series, when < 16 nothing is cached
+   */
+  LastCache(int capacity) {
+    shards = new Shard[SHARD_NUM];
+    for (int i = 0; i < SHARD_NUM; i++) {
+      shards[i] = new Shard(capacity / SHARD_NUM);
+    }
+  }
+
+  public static LastCache getInstance() {
+    return LastCacheHolder.INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return ENABLE_LAST_CACHE;
+  }
+
+  /**
+   * get the cached last point of a series.
+   *
+   * @param seriesPath full path of the series
+   * @return null if the last point is not cached
+   */
+  public TimeValuePair get(String seriesPath) {
+    return shardOf(seriesPath).get(seriesPath);
+  }
+
+  /**
+   * get the stamp to be passed to {@link #fill}, which must be taken before the last point is read
+   * from the data. From then on the points inserted into the series are remembered, and an
+   * invalidation of the series makes the fill ignored.
+   */
+  public long getFillStamp(String seriesPath) {
+    if (!ENABLE_LAST_CACHE) {
+      return NO_FILL;
+    }
+    return shardOf(seriesPath).startFill(seriesPath);
+  }
+
+  /**
+   * offer the last point of a series read from the data. It is ignored if the series has been
+   * invalidated, or its fill evicted, since the stamp was taken, and the points inserted meanwhile
+   * are kept if they are newer.
+   *
+   * @param last null if the series has no data, which is not cached
+   * @param stamp the stamp from {@link #getFillStamp} taken before reading the data
+   */
+  public void fill(String seriesPath, TimeValuePair last, long stamp) {
+    if (stamp == NO_FILL) {
+      return;
+    }
+    shardOf(seriesPath).endFill(seriesPath, last, stamp);
+  }
+
+  /**
+   * update the last point of a series by an inserted point. A series which is neither cached nor
+   * being filled is not added.
+   */
+  public void update(String seriesPath, TSDataType dataType, long time, Object value) {
+    if (!ENABLE_LAST_CACHE) {
+      return;
+    }
+    shardOf(seriesPath).update(seriesPath, dataType, time, value);
+  }
+
+  /**
+   * remove the cached last point of a series, and make the fills in progress ignored.
+   */
+  public void invalidate(String seriesPath) {
+    shardOf(seriesPath).remove(seriesPath);
+  }
+
+  /**
+   * remove all cached last points, and make the fills in progress ignored.
+   */
+  public void clear() {
+    for (Shard shard : shards) {
+      shard.clear();
+    }
+  }
+
+  /**
+   * @return the number of cached series, excluding the ones being filled.
+   */
+  public int size() {
+    int size = 0;
+    for (Shard shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  private Shard shardOf(String seriesPath) {
+    return shards[(seriesPath.hashCode() & Integer.MAX_VALUE) % SHARD_NUM];
+  }
+
+  private static TimeValuePair newer(TimeValuePair inserted, TimeValuePair read) {
+    if (inserted == null) {
+      return read;
+    }
+    if (read == null || inserted.getTimestamp() >= read.getTimestamp()) {
+      return inserted;
+    }
+    return read;
+  }
+
+  /**
+   * A series being filled: the stamp given to its fills and the newest point inserted since.
+   */
+  private static class PendingFill {
+
+    private final long stamp;
+    private TimeValuePair inserted;
+
+    private PendingFill(long stamp) {
+      this.stamp = stamp;
+    }
+  }
+
+  /**
+   * A part of the cache with its own lock. The cached series are kept in LRU order, the series
+   * being filled are kept apart in the order they start, so that neither of them evicts the other.
+   */
+  private static class Shard {
+
+    private final int capacity;
+    private LinkedHashMap<String, TimeValuePair> lruMap = new LinkedHashMap<>(16, 0.75f, true);
+    private LinkedHashMap<String, PendingFill> pendingMap = new LinkedHashMap<>();
+    private long nextStamp = 0;
+
+    private Shard(int capacity) {
+      this.capacity = capacity;
+    }
+
+    private synchronized TimeValuePair get(String seriesPath) {
+      return lruMap.get(seriesPath);
+    }
+
+    private synchronized long startFill(String seriesPath) {
+      if (lruMap.containsKey(seriesPath)) {
+        return NO_FILL;
+      }
+      // the queries filling a series at the same time share its stamp, the first fill wins
+      PendingFill pending = pendingMap.get(seriesPath);
+      if (pending == null) {
+        pending = new PendingFill(nextStamp++);
+        pendingMap.put(seriesPath, pending);
+        evict(pendingMap);
+      }
+      return pending.stamp;
+    }
+
+    private synchronized void endFill(String seriesPath, TimeValuePair last, long stamp) {
+      PendingFill pending = pendingMap.get(seriesPath);
+      if (pending == null || pending.stamp != stamp) {
+        return;
+      }
+      pendingMap.remove(seriesPath);
+      // the inserted point wins a tie as it may overwrite the one read
+      TimeValuePair point = newer(pending.inserted, last);
+      if (point != null) {
+        lruMap.put(seriesPath, point);
+        evict(lruMap);
+      }
+    }
+
+    private synchronized void update(String seriesPath, TSDataType dataType, long time,
+        Object value) {
+      TimeValuePair cached = lruMap.get(seriesPath);
+      if (cached != null) {
+        if (cached.getTimestamp() <= time) {
+          lruMap.put(seriesPath, new TimeValuePair(time, TsPrimitiveType.getByType(dataType,
+              value)));
+        }
+        return;
+      }
+      PendingFill pending = pendingMap.get(seriesPath);
+      if (pending != null && (pending.inserted == null
+          || pending.inserted.getTimestamp() <= time)) {
+        pending.inserted = new TimeValuePair(time, TsPrimitiveType.getByType(dataType, value));
+      }
+    }
+
+    /**
+     * evict the eldest series until the map fits the capacity of the shard. An evicted fill is
+     * ignored, as the points inserted into its series are no longer remembered.
+     */
+    private void evict(LinkedHashMap<String, ?> map) {
+      Iterator<String> iterator = map.keySet().iterator();
+      while (map.size() > capacity && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+
+    private synchronized void remove(String seriesPath) {
+      lruMap.remove(seriesPath);
+      pendingMap.remove(seriesPath);
+    }
+
+    private synchronized void clear() {
+      lruMap.clear();
+      pendingMap.clear();
+    }
+
+    private synchronized int size() {
+      return lruMap.size();
+    }
+  }
+
+  private static class LastCacheHolder {
+
+    private static final LastCache INSTANCE = new LastCache(
+        IoTDBDescriptor.getInstance().getConfig().getLastCacheSize());
+  }
+}
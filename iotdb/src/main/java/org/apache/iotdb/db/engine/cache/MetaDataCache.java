@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+/**
+ * This class caches the metadata of sealed TsFiles for all queries: the
+ * <code>TsFileMetaData</code> of each file, the <code>TsDeviceMetadata</code> of each device in a
+ * file, the <code>ChunkMetaData</code> list of each series in a file and the rollups of each
+ * file indexed by series. The four kinds of metadata are kept in separate {@link ShardedLruCache}s
+ * sharing the configured memory, 1/5 of it for file metadata, 3/10 for device metadata, 2/5 for
+ * chunk metadata and 1/10 for rollups. The metadata of a file must be removed by
+ * {@link #remove(String)} once the file is deleted or replaced.
+ */
+public class MetaDataCache implements MetaDataCacheMBean {
+
+  public static final String MBEAN_NAME = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE, "MetaDataCache");
+
+  /**
+   * estimated memory of an object and its map entry in the cache besides its serialized content.
+   */
+  private static final int ENTRY_OVERHEAD_IN_BYTE = 128;
+
+  private final ShardedLruCache<String, TsFileMetaData> fileMetaDataCache;
+  private final ShardedLruCache<DeviceKey, TsDeviceMetadata> deviceMetaDataCache;
+  private final ShardedLruCache<SeriesKey, List<ChunkMetaData>> chunkMetaDataCache;
+  private final ShardedLruCache<String, Map<Path, List<Rollup>>> rollupCache;
+
+  MetaDataCache(long capacityInByte) {
+    fileMetaDataCache = new ShardedLruCache<>(capacityInByte / 5,
+        MetaDataCache::weighFileMetaData);
+    deviceMetaDataCache = new ShardedLruCache<>(capacityInByte / 10 * 3,
+        deviceMetaData -> deviceMetaData.getSerializedSize() + (long) ENTRY_OVERHEAD_IN_BYTE);
+    chunkMetaDataCache = new ShardedLruCache<>(capacityInByte / 5 * 2,
+        MetaDataCache::weighChunkMetaDataList);
+    rollupCache = new ShardedLruCache<>(capacityInByte / 10, MetaDataCache::weighRollups);
+  }
+
+  public static MetaDataCache getInstance() {
+    return MetaDataCacheHolder.INSTANCE;
+  }
+
+  /**
+   * get the TsFileMetaData of the file of the reader.
+   */
+  public TsFileMetaData getFileMetaData(TsFileSequenceReader reader) throws IOException {
+    return fileMetaDataCache.get(reader.getFileName(), reader::readFileMetadata);
+  }
+
+  /**
+   * get the TsDeviceMetadata of the device in the file of the reader.
+   *
+   * @return null if the file has no data of the device
+   */
+  public TsDeviceMetadata getDeviceMetaData(TsFileSequenceReader reader, String deviceId)
+      throws IOException {
+    TsFileMetaData fileMetaData = getFileMetaData(reader);
+    if (!fileMetaData.containsDevice(deviceId)) {
+      return null;
+    }
+    return deviceMetaDataCache.get(new DeviceKey(reader.getFileName(), deviceId),
+        () -> reader.readTsDeviceMetaData(fileMetaData.getDeviceMetadataIndex(deviceId)));
+  }
+
+  /**
+   * get the ChunkMetaData of the series in the file of the reader, with the version of the chunk
+   * group each chunk belongs to. The returned list and its elements are copies owned by the
+   * caller, so that they can be modified by deletions and reordered freely.
+   */
+  public List<ChunkMetaData> getChunkMetaDataList(TsFileSequenceReader reader, Path path)
+      throws IOException {
+    List<ChunkMetaData> cachedList = chunkMetaDataCache
+        .get(new SeriesKey(reader.getFileName(), path), () -> loadChunkMetaDataList(reader, path));
+    List<ChunkMetaData> chunkMetaDataList = new ArrayList<>(cachedList.size());
+    for (ChunkMetaData chunkMetaData : cachedList) {
+      chunkMetaDataList.add(copyOf(chunkMetaData));
+    }
+    return chunkMetaDataList;
+  }
+
+  private List<ChunkMetaData> loadChunkMetaDataList(TsFileSequenceReader reader, Path path)
+      throws IOException {
+    TsDeviceMetadata deviceMetaData = getDeviceMetaData(reader, path.getDevice());
+    List<ChunkMetaData> chunkMetaDataList = new ArrayList<>();
+    if (deviceMetaData == null) {
+      return chunkMetaDataList;
+    }
+    for (ChunkGroupMetaData chunkGroupMetaData : deviceMetaData.getChunkGroupMetaDataList()) {
+      for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+        if (path.getMeasurement().equals(chunkMetaData.getMeasurementUid())) {
+          // the cached device metadata is shared, so the version is set on a copy
+          ChunkMetaData copy = copyOf(chunkMetaData);
+          copy.setVersion(chunkGroupMetaData.getVersion());
+          chunkMetaDataList.add(copy);
+        }
+      }
+    }
+    return chunkMetaDataList;
+  }
+
+  /**
+   * get the rollups of a series in one interval from the rollup file of a sealed TsFile. The whole
+   * rollup file is read once and indexed by series. The returned rollups are shared by all queries
+   * and must not be modified.
+   *
+   * @return an empty list if the series has no rollup in the interval
+   */
+  public List<Rollup> getRollups(String tsFilePath, Path path, long interval)
+      throws IOException {
+    List<Rollup> seriesRollups = rollupCache.get(tsFilePath, () -> loadRollups(tsFilePath))
+        .getOrDefault(path, Collections.emptyList());
+    List<Rollup> rollups = new ArrayList<>();
+    for (Rollup rollup : seriesRollups) {
+      if (rollup.getInterval() == interval) {
+        rollups.add(rollup);
+      }
+    }
+    return rollups;
+  }
+
+  private static Map<Path, List<Rollup>> loadRollups(String tsFilePath) throws IOException {
+    Map<Path, List<Rollup>> rollupMap = new HashMap<>();
+    for (Rollup rollup : RollupFile.read(tsFilePath)) {
+      rollupMap.computeIfAbsent(new Path(rollup.getDeviceId(), rollup.getMeasurementId()),
+          k -> new ArrayList<>()).add(rollup);
+    }
+    return rollupMap;
+  }
+
+  private static ChunkMetaData copyOf(ChunkMetaData chunkMetaData) {
+    ChunkMetaData copy = new ChunkMetaData(chunkMetaData.getMeasurementUid(),
+        chunkMetaData.getTsDataType(), chunkMetaData.getOffsetOfChunkHeader(),
+        chunkMetaData.getStartTime(), chunkMetaData.getEndTime());
+    copy.setNumOfPoints(chunkMetaData.getNumOfPoints());
+    copy.setDigest(chunkMetaData.getDigest());
+    copy.setVersion(chunkMetaData.getVersion());
+    copy.setDeletedAt(chunkMetaData.getDeletedAt());
+    return copy;
+  }
+
+  private static long weighFileMetaData(TsFileMetaData fileMetaData) {
+    return (long) ENTRY_OVERHEAD_IN_BYTE * (1 + fileMetaData.getDeviceMap().size()
+        + fileMetaData.getMeasurementSchema().size());
+  }
+
+  private static long weighChunkMetaDataList(List<ChunkMetaData> chunkMetaDataList) {
+    long weight = ENTRY_OVERHEAD_IN_BYTE;
+    for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+      weight += chunkMetaData.getSerializedSize() + ENTRY_OVERHEAD_IN_BYTE;
+    }
+    return weight;
+  }
+
+  private static long weighRollups(Map<Path, List<Rollup>> rollupMap) {
+    long weight = ENTRY_OVERHEAD_IN_BYTE;
+    for (List<Rollup> rollups : rollupMap.values()) {
+      for (Rollup rollup : rollups) {
+        weight += (long) ENTRY_OVERHEAD_IN_BYTE * (1 + rollup.getBuckets().size());
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * remove all cached metadata of the given file.
+   */
+  public void remove(String filePath) {
+    fileMetaDataCache.removeIf(filePath::equals);
+    deviceMetaDataCache.removeIf(key -> key.filePath.equals(filePath));
+    chunkMetaDataCache.removeIf(key -> key.filePath.equals(filePath));
+    rollupCache.removeIf(filePath::equals);
+  }
+
+  @Override
+  public void clear() {
+    fileMetaDataCache.clear();
+    deviceMetaDataCache.clear();
+    chunkMetaDataCache.clear();
+    rollupCache.clear();
+  }
+
+  @Override
+  public double getFileMetaDataHitRate() {
+    return fileMetaDataCache.getHitRate();
+  }
+
+  @Override
+  public double getDeviceMetaDataHitRate() {
+    return deviceMetaDataCache.getHitRate();
+  }
+
+  @Override
+  public double getChunkMetaDataHitRate() {
+    return chunkMetaDataCache.getHitRate();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return fileMetaDataCache.getEvictionCount() + deviceMetaDataCache.getEvictionCount()
+        + chunkMetaDataCache.getEvictionCount() + rollupCache.getEvictionCount();
+  }
+
+  @Override
+  public long getEntryNum() {
+    return fileMetaDataCache.getEntryNum() + deviceMetaDataCache.getEntryNum()
+        + chunkMetaDataCache.getEntryNum() + rollupCache.getEntryNum();
+  }
+
+  @Override
+  public long getUsedMemoryInByte() {
+    return fileMetaDataCache.getUsedMemoryInByte() + deviceMetaDataCache.getUsedMemoryInByte()
+        + chunkMetaDataCache.getUsedMemoryInByte() + rollupCache.getUsedMemoryInByte();
+  }
+
+  @Override
+  public long getCapacityInByte() {
+    return fileMetaDataCache.getCapacityInByte() + deviceMetaDataCache.getCapacityInByte()
+        + chunkMetaDataCache.getCapacityInByte() + rollupCache.getCapacityInByte();
+  }
+
+  private static class DeviceKey {
+
+    private final String filePath;
+    private final String deviceId;
+
+    private DeviceKey(String filePath, String deviceId) {
+      this.filePath = filePath;
+      this.deviceId = deviceId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DeviceKey that = (DeviceKey) o;
+      return filePath.equals(that.filePath) && deviceId.equals(that.deviceId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, deviceId);
+    }
+  }
+
+  private static class SeriesKey {
+
+    private final String filePath;
+    private final Path path;
+
+    private SeriesKey(String filePath, Path path) {
+      this.filePath = filePath;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SeriesKey that = (SeriesKey) o;
+      return filePath.equals(that.filePath) && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, path);
+    }
+  }
+
+  /*
+   * Singleton pattern
+   */
+  private static class MetaDataCacheHolder {
+
+    private MetaDataCacheHolder() {}
+
+    private static final MetaDataCache INSTANCE = new MetaDataCache(
+        IoTDBDescriptor.getInstance().getConfig().getMetaDataCacheSizeInByte());
+
+    static {
+      JMXService.registerMBean(INSTANCE, MBEAN_NAME);
+    }
+  }
+}
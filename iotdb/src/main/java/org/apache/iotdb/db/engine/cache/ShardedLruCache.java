@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache bounded by the estimated bytes of its values rather than the number of them. The
+ * entries are spread over shards, each with its own lock, byte budget and LRU order, so that
+ * concurrent readers rarely wait for each other. A missing value is loaded only once when many
+ * threads request it together, the other threads wait for the loading one and share its result.
+ *
+ * @param <K> the key, which must implement equals() and hashCode()
+ * @param <V> the cached value, which is shared by all callers and must not be modified by them
+ */
+public class ShardedLruCache<K, V> {
+
+  private static final int SHARD_NUM = 16;
+
+  private final long capacityInByte;
+  private final ToLongFunction<V> weigher;
+  private final Shard<K, V>[] shards;
+  /**
+   * the values being loaded, a thread missing a key being loaded waits for the future.
+   */
+  private final ConcurrentHashMap<K, CompletableFuture<V>> loadingMap = new ConcurrentHashMap<>();
+
+  private AtomicLong hitCount = new AtomicLong();
+  private AtomicLong missCount = new AtomicLong();
+  private AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * @param capacityInByte the total memory of the cached values, when <= 0 nothing is cached
+   * @param weigher the estimated memory of a value in bytes
+   */
+  @SuppressWarnings("unchecked")
+  public ShardedLruCache(long capacityInByte, ToLongFunction<V> weigher) {
+    this.capacityInByte = capacityInByte;
+    this.weigher = weigher;
+    shards = new Shard[SHARD_NUM];
+    for (int i = 0; i < SHARD_NUM; i++) {
+      shards[i] = new Shard<>(capacityInByte / SHARD_NUM);
+    }
+  }
+
+  /**
+   * get the value of the key, or load it by the loader if it is not cached. A null value is
+   * returned but not cached.
+   */
+  public V get(K key, Loader<V> loader) throws IOException {
+    if (capacityInByte <= 0) {
+      missCount.incrementAndGet();
+      return loader.load();
+    }
+    Shard<K, V> shard = shardOf(key);
+    V value = shard.get(key);
+    if (value != null) {
+      hitCount.incrementAndGet();
+      return value;
+    }
+    missCount.incrementAndGet();
+
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> loading = loadingMap.putIfAbsent(key, future);
+    if (loading != null) {
+      return waitForLoading(loading);
+    }
+    try {
+      // the value may have been put by a loading that finished after the first lookup
+      value = shard.get(key);
+      if (value == null) {
+        value = loader.load();
+        if (value != null) {
+          evictionCount.addAndGet(shard.put(key, value, weigher.applyAsLong(value)));
+        }
+      }
+      future.complete(value);
+      return value;
+    } catch (IOException | RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      loadingMap.remove(key, future);
+    }
+  }
+
+  private V waitForLoading(CompletableFuture<V> loading) throws IOException {
+    try {
+      return loading.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a cache entry to be loaded", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * remove all entries whose keys match the predicate.
+   */
+  public void removeIf(Predicate<K> predicate) {
+    for (Shard<K, V> shard : shards) {
+      shard.removeIf(predicate);
+    }
+  }
+
+  public void clear() {
+    for (Shard<K, V> shard : shards) {
+      shard.clear();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return hits divided by requests, 0 if there is no request yet.
+   */
+  public double getHitRate() {
+    long hit = hitCount.get();
+    long request = hit + missCount.get();
+    return request == 0 ? 0 : (double) hit / request;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public long getEntryNum() {
+    long entryNum = 0;
+    for (Shard<K, V> shard : shards) {
+      entryNum += shard.size();
+    }
+    return entryNum;
+  }
+
+  public long getUsedMemoryInByte() {
+    long usedMemory = 0;
+    for (Shard<K, V> shard : shards) {
+      usedMemory += shard.getUsedMemory();
+    }
+    return usedMemory;
+  }
+
+  public long getCapacityInByte() {
+    return capacityInByte;
+  }
+
+  private Shard<K, V> shardOf(K key) {
+    return shards[(key.hashCode() & Integer.MAX_VALUE) % SHARD_NUM];
+  }
+
+  @FunctionalInterface
+  public interface Loader<V> {
+
+    V load() throws IOException;
+  }
+
+  /**
+   * A part of the cache with its own lock, byte budget and LRU order.
+   */
+  private static class Shard<K, V> {
+
+    private final long capacity;
+    private long usedMemory = 0;
+    private LinkedHashMap<K, WeightedValue<V>> lruMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Shard(long capacity) {
+      this.capacity = capacity;
+    }
+
+    private synchronized V get(K key) {
+      WeightedValue<V> weightedValue = lruMap.get(key);
+      return weightedValue == null ? null : weightedValue.value;
+    }
+
+    /**
+     * put the value and evict the least recently used values until the shard fits its capacity.
+     * A value larger than the capacity of the shard is not cached.
+     *
+     * @return the number of evicted values
+     */
+    private synchronized int put(K key, V value, long weight) {
+      if (weight > capacity) {
+        return 0;
+      }
+      WeightedValue<V> old = lruMap.put(key, new WeightedValue<>(value, weight));
+      if (old != null) {
+        usedMemory -= old.weight;
+      }
+      usedMemory += weight;
+      int evicted = 0;
+      Iterator<Entry<K, WeightedValue<V>>> iterator = lruMap.entrySet().iterator();
+      while (usedMemory > capacity && iterator.hasNext()) {
+        usedMemory -= iterator.next().getValue().weight;
+        iterator.remove();
+        evicted++;
+      }
+      return evicted;
+    }
+
+    private synchronized void removeIf(Predicate<K> predicate) {
+      Iterator<Entry<K, WeightedValue<V>>> iterator = lruMap.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Entry<K, WeightedValue<V>> entry = iterator.next();
+        if (predicate.test(entry.getKey())) {
+          usedMemory -= entry.getValue().weight;
+          iterator.remove();
+        }
+      }
+    }
+
+    private synchronized void clear() {
+      lruMap.clear();
+      usedMemory = 0;
+    }
+
+    private synchronized int size() {
+      return lruMap.size();
+    }
+
+    private synchronized long getUsedMemory() {
+      return usedMemory;
+    }
+  }
+
+  /**
+   * the weight is kept with the value, so that an estimation changing with the value cannot break
+   * the accounting of the shard.
+   */
+  private static class WeightedValue<V> {
+
+    private final V value;
+    private final long weight;
+
+    private WeightedValue(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
@@ -22,11 +22,14 @@ package org.apache.iotdb.db.engine.filenode;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -36,22 +39,26 @@ import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.Directories;
 import org.apache.iotdb.db.engine.Processor;
+import org.apache.iotdb.db.engine.bufferwrite.ActionException;
 import org.apache.iotdb.db.engine.bufferwrite.BufferWriteProcessor;
+import org.apache.iotdb.db.engine.cache.LastCache;
 import org.apache.iotdb.db.engine.memcontrol.BasicMemController;
 import org.apache.iotdb.db.engine.overflow.io.OverflowProcessor;
 import org.apache.iotdb.db.engine.pool.FlushManager;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.BatchInsertException;
 import org.apache.iotdb.db.exception.BufferWriteProcessorException;
 import org.apache.iotdb.db.exception.FileNodeManagerException;
 import org.apache.iotdb.db.exception.FileNodeProcessorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.WALOverSizedException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.monitor.IStatistic;
 import org.apache.iotdb.db.monitor.MonitorConstants;
 import org.apache.iotdb.db.monitor.StatMonitor;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
-import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
@@ -60,12 +67,15 @@ import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
+import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
 import org.slf4j.Logger;
@@ -91,6 +101,12 @@ public class FileNodeManager implements IStatistic, IService {
    * This set is used to store overflowed filenode name.<br> The overflowed filenode will be merge.
    */
   private volatile FileNodeManagerStatus fileNodeManagerStatus = FileNodeManagerStatus.NONE;
+  /**
+   * The number of closeOneFileNode() in progress. Different filenodes may be closed concurrently
+   * (e.g., by the parallel recovery of write ahead logs), the status is reset by the last one.
+   */
+  private int closingOneNum = 0;
+  private final Object closeOneLock = new Object();
   // There is no need to add concurrently
   private HashMap<String, AtomicLong> statParamsHashMap;
 
@@ -125,10 +141,14 @@ public class FileNodeManager implements IStatistic, IService {
   }
 
   private void updateStatHashMapWhenFail(TSRecord tsRecord) {
+    updateStatHashMapWhenFail(tsRecord.dataPointList.size());
+  }
+
+  private void updateStatHashMapWhenFail(long pointCount) {
     statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_REQ_FAIL.name())
         .incrementAndGet();
     statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS_FAIL.name())
-        .addAndGet(tsRecord.dataPointList.size());
+        .addAndGet(pointCount);
   }
 
   /**
@@ -284,55 +304,298 @@ public class FileNodeManager implements IStatistic, IService {
     checkTimestamp(tsRecord);
     updateStat(isMonitor, tsRecord);
 
-    FileNodeProcessor fileNodeProcessor = getProcessor(deviceId, true);
+    // insertions share the read lock, the flush and close they trigger take the write lock later
+    FileNodeProcessor fileNodeProcessor = getProcessor(deviceId, false);
     int insertType;
+    Future<?> walFuture;
 
     try {
       long lastUpdateTime = fileNodeProcessor.getFlushLastUpdateTime(deviceId);
       if (timestamp < lastUpdateTime) {
-        insertOverflow(fileNodeProcessor, timestamp, tsRecord, isMonitor, deviceId);
+        walFuture = insertOverflow(fileNodeProcessor, timestamp, tsRecord, isMonitor, deviceId);
         insertType = 1;
       } else {
-        insertBufferWrite(fileNodeProcessor, timestamp, isMonitor, tsRecord, deviceId);
+        walFuture = insertBufferWrite(fileNodeProcessor, timestamp, isMonitor, tsRecord,
+            deviceId);
         insertType = 2;
       }
-    } catch (FileNodeProcessorException e) {
-      LOGGER.error(String.format("Encounter an error when closing the buffer write processor %s.",
-          fileNodeProcessor.getProcessorName()), e);
-      throw new FileNodeManagerException(e);
+      updateLastCache(tsRecord);
     } finally {
-      fileNodeProcessor.writeUnlock();
+      fileNodeProcessor.readUnlock();
     }
+    flushOrCloseIfFull(fileNodeProcessor);
+    // the log is waited for out of the lock so that the following insertions share its force
+    waitForLog(walFuture, isMonitor, tsRecord.dataPointList.size());
     // Modify the insert
     if (!isMonitor) {
-      fileNodeProcessor.getStatParamsHashMap()
-          .get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_POINTS_SUCCESS.name())
-          .addAndGet(tsRecord.dataPointList.size());
-      fileNodeProcessor.getStatParamsHashMap()
-          .get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_REQ_SUCCESS.name())
-          .incrementAndGet();
-      statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_REQ_SUCCESS.name())
-          .incrementAndGet();
-      statParamsHashMap
-          .get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS_SUCCESS.name())
-          .addAndGet(tsRecord.dataPointList.size());
+      updateStatWhenSuccess(fileNodeProcessor, tsRecord.dataPointList.size());
     }
     return insertType;
   }
 
-  private void writeLog(TSRecord tsRecord, boolean isMonitor, WriteLogNode logNode)
+  private void updateStatWhenSuccess(FileNodeProcessor fileNodeProcessor, long pointCount) {
+    fileNodeProcessor.getStatParamsHashMap()
+        .get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_POINTS_SUCCESS.name())
+        .addAndGet(pointCount);
+    fileNodeProcessor.getStatParamsHashMap()
+        .get(MonitorConstants.FileNodeProcessorStatConstants.TOTAL_REQ_SUCCESS.name())
+        .incrementAndGet();
+    statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_REQ_SUCCESS.name())
+        .incrementAndGet();
+    statParamsHashMap
+        .get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS_SUCCESS.name())
+        .addAndGet(pointCount);
+  }
+
+  /**
+   * insert a batch of rows of one device into storage group. The read lock of the filenode
+   * processor is acquired once for the whole batch. The rows older than the last flushed time of
+   * the device are inserted into overflow and the others into bufferwrite, each part is written to
+   * its WAL in as few log entries as max_log_entry_size allows.
+   *
+   * @param plan the rows of one device in columnar form
+   * @param isMonitor if true, the statistic Info will not be recorded.
+   * @return the number of inserted rows
+   * @throws BatchInsertException if the bufferwrite part fails after the overflow part is inserted
+   */
+  public int insertBatch(BatchInsertPlan plan, boolean isMonitor)
       throws FileNodeManagerException {
+    String deviceId = plan.getDeviceId();
+    int rowCount = plan.getRowCount();
+    long[] times = plan.getTimes();
+    for (int i = 0; i < rowCount; i++) {
+      if (times[i] < 0) {
+        LOGGER.error("The insert time lt 0, device {}, time {}.", deviceId, times[i]);
+        throw new FileNodeManagerException(
+            String.format("The insert time lt 0, device %s, time %d", deviceId, times[i]));
+      }
+    }
+    if (rowCount == 0) {
+      return 0;
+    }
+    long pointCount = (long) rowCount * plan.getMeasurements().size();
+    if (!isMonitor) {
+      statParamsHashMap.get(MonitorConstants.FileNodeManagerStatConstants.TOTAL_POINTS.name())
+          .addAndGet(pointCount);
+    }
+
+    FileNodeProcessor fileNodeProcessor = getProcessor(deviceId, false);
+    List<Future<?>> walFutures = new ArrayList<>();
     try {
-      if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-        List<String> measurementList = new ArrayList<>();
-        List<String> insertValues = new ArrayList<>();
-        for (DataPoint dp : tsRecord.dataPointList) {
-          measurementList.add(dp.getMeasurementId());
-          insertValues.add(dp.getValue().toString());
+      long lastUpdateTime = fileNodeProcessor.getFlushLastUpdateTime(deviceId);
+      int[] overflowRows = new int[rowCount];
+      int[] bufferWriteRows = new int[rowCount];
+      int overflowCount = 0;
+      int bufferWriteCount = 0;
+      for (int i = 0; i < rowCount; i++) {
+        if (times[i] < lastUpdateTime) {
+          overflowRows[overflowCount++] = i;
+        } else {
+          bufferWriteRows[bufferWriteCount++] = i;
+        }
+      }
+      BatchInsertPlan overflowPlan = null;
+      BatchInsertPlan bufferWritePlan = null;
+      if (overflowCount == rowCount) {
+        overflowPlan = plan;
+      } else if (bufferWriteCount == rowCount) {
+        bufferWritePlan = plan;
+      } else {
+        overflowPlan = plan.subPlan(overflowRows, overflowCount);
+        bufferWritePlan = plan.subPlan(bufferWriteRows, bufferWriteCount);
+      }
+      // the logs are split before any row is inserted, so that a batch which cannot be logged is
+      // rejected as a whole
+      List<BatchInsertPlan> overflowLogs = splitToLogEntries(overflowPlan, isMonitor);
+      List<BatchInsertPlan> bufferWriteLogs = splitToLogEntries(bufferWritePlan, isMonitor);
+
+      if (overflowPlan != null) {
+        insertOverflow(fileNodeProcessor, overflowPlan, overflowLogs, walFutures, isMonitor);
+      }
+      if (bufferWritePlan != null) {
+        try {
+          insertBufferWrite(fileNodeProcessor, bufferWritePlan, bufferWriteLogs, walFutures,
+              isMonitor);
+        } catch (FileNodeManagerException e) {
+          if (overflowPlan == null) {
+            throw e;
+          }
+          updateLastCache(overflowPlan);
+          throw new BatchInsertException(String.format(
+              "Only %d of the %d rows of the batch of %s are inserted, the rows with time before "
+                  + "%d. Inserting the other rows failed because %s", overflowCount, rowCount,
+              deviceId, lastUpdateTime, e.getMessage()),
+              Arrays.copyOf(overflowRows, overflowCount));
         }
-        logNode.write(new InsertPlan(2, tsRecord.deviceId, tsRecord.time, measurementList,
-            insertValues));
       }
+      updateLastCache(plan);
+    } finally {
+      fileNodeProcessor.readUnlock();
+    }
+    flushOrCloseIfFull(fileNodeProcessor);
+    for (Future<?> walFuture : walFutures) {
+      waitForLog(walFuture, isMonitor, pointCount);
+    }
+    if (!isMonitor) {
+      updateStatWhenSuccess(fileNodeProcessor, pointCount);
+    }
+    return rowCount;
+  }
+
+  /**
+   * update the cached last points by an inserted record. It is called under the lock of the
+   * filenode processor, so that it is ordered with the invalidations by deletions and updates.
+   */
+  private void updateLastCache(TSRecord tsRecord) {
+    LastCache lastCache = LastCache.getInstance();
+    if (!lastCache.isEnabled()) {
+      return;
+    }
+    for (DataPoint dataPoint : tsRecord.dataPointList) {
+      lastCache.update(tsRecord.deviceId + IoTDBConstant.PATH_SEPARATOR
+              + dataPoint.getMeasurementId(), dataPoint.getType(), tsRecord.time,
+          dataPoint.getValue());
+    }
+  }
+
+  /**
+   * update the cached last points by the latest row of an inserted batch.
+   */
+  private void updateLastCache(BatchInsertPlan plan) {
+    LastCache lastCache = LastCache.getInstance();
+    if (!lastCache.isEnabled()) {
+      return;
+    }
+    long[] times = plan.getTimes();
+    int lastRow = 0;
+    for (int i = 1; i < plan.getRowCount(); i++) {
+      if (times[i] >= times[lastRow]) {
+        lastRow = i;
+      }
+    }
+    List<String> measurements = plan.getMeasurements();
+    List<TSDataType> dataTypes = plan.getDataTypes();
+    Object[] columns = plan.getColumns();
+    for (int i = 0; i < measurements.size(); i++) {
+      lastCache.update(plan.getDeviceId() + IoTDBConstant.PATH_SEPARATOR + measurements.get(i),
+          dataTypes.get(i), times[lastRow], getValue(dataTypes.get(i), columns[i], lastRow));
+    }
+  }
+
+  private static Object getValue(TSDataType dataType, Object column, int row) {
+    switch (dataType) {
+      case BOOLEAN:
+        return ((boolean[]) column)[row];
+      case INT32:
+        return ((int[]) column)[row];
+      case INT64:
+        return ((long[]) column)[row];
+      case FLOAT:
+        return ((float[]) column)[row];
+      case DOUBLE:
+        return ((double[]) column)[row];
+      case TEXT:
+        return ((Binary[]) column)[row];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * split the log of a batch to fit into log entries.
+   *
+   * @return the batches to be logged, empty if the batch is null or WAL is disabled
+   */
+  private List<BatchInsertPlan> splitToLogEntries(BatchInsertPlan plan, boolean isMonitor)
+      throws FileNodeManagerException {
+    if (plan == null || !IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
+      return Collections.emptyList();
+    }
+    try {
+      return PhysicalPlanLogTransfer.splitToLogEntries(plan);
+    } catch (WALOverSizedException e) {
+      if (!isMonitor) {
+        updateStatHashMapWhenFail((long) plan.getRowCount() * plan.getMeasurements().size());
+      }
+      throw new FileNodeManagerException(e);
+    }
+  }
+
+  private void insertOverflow(FileNodeProcessor fileNodeProcessor, BatchInsertPlan plan,
+      List<BatchInsertPlan> logs, List<Future<?>> walFutures, boolean isMonitor)
+      throws FileNodeManagerException {
+    String filenodeName = fileNodeProcessor.getProcessorName();
+    long pointCount = (long) plan.getRowCount() * plan.getMeasurements().size();
+    try {
+      OverflowProcessor overflowProcessor;
+      fileNodeProcessor.lockMetadata();
+      try {
+        overflowProcessor = fileNodeProcessor.getOverflowProcessor(filenodeName);
+        fileNodeProcessor
+            .changeTypeToChanged(plan.getDeviceId(), plan.getMinTime(), plan.getMaxTime());
+      } finally {
+        fileNodeProcessor.unlockMetadata();
+      }
+      writeLogs(logs, overflowProcessor.getLogNode(), walFutures);
+      overflowProcessor.insertWithoutFlush(plan);
+      fileNodeProcessor.setOverflowed(true);
+    } catch (IOException e) {
+      LOGGER.error("Insert a batch into overflow error, the filenode is {}", filenodeName, e);
+      if (!isMonitor) {
+        updateStatHashMapWhenFail(pointCount);
+      }
+      throw new FileNodeManagerException(e);
+    }
+  }
+
+  private void insertBufferWrite(FileNodeProcessor fileNodeProcessor, BatchInsertPlan plan,
+      List<BatchInsertPlan> logs, List<Future<?>> walFutures, boolean isMonitor)
+      throws FileNodeManagerException {
+    String filenodeName = fileNodeProcessor.getProcessorName();
+    String deviceId = plan.getDeviceId();
+    long pointCount = (long) plan.getRowCount() * plan.getMeasurements().size();
+    BufferWriteProcessor bufferWriteProcessor;
+    try {
+      fileNodeProcessor.lockMetadata();
+      try {
+        bufferWriteProcessor = fileNodeProcessor
+            .getBufferWriteProcessor(filenodeName, plan.getMinTime());
+        addIntervalFileNodeIfNew(fileNodeProcessor, bufferWriteProcessor);
+        fileNodeProcessor.setIntervalFileNodeStartTime(deviceId);
+        fileNodeProcessor.setLastUpdateTime(deviceId, plan.getMaxTime());
+      } finally {
+        fileNodeProcessor.unlockMetadata();
+      }
+      writeLogs(logs, bufferWriteProcessor.getLogNode(), walFutures);
+      bufferWriteProcessor.insert(plan);
+    } catch (FileNodeProcessorException | ActionException | IOException e) {
+      LOGGER.error("Insert a batch into bufferwrite error, the filenode is {}", filenodeName, e);
+      if (!isMonitor) {
+        updateStatHashMapWhenFail(pointCount);
+      }
+      throw new FileNodeManagerException(e);
+    }
+  }
+
+  /**
+   * write the logs of a batch into the WAL, adding the futures done when they are durable.
+   */
+  private void writeLogs(List<BatchInsertPlan> logs, WriteLogNode logNode,
+      List<Future<?>> walFutures) throws IOException {
+    for (BatchInsertPlan log : logs) {
+      walFutures.add(logNode.append(log));
+    }
+  }
+
+  private Future<?> writeLog(TSRecord tsRecord, boolean isMonitor, WriteLogNode logNode)
+      throws FileNodeManagerException {
+    try {
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
+        // logged as a batch of one row, so that the values are neither written nor replayed as
+        // strings
+        return logNode.append(new BatchInsertPlan(tsRecord));
+      }
+      return null;
     } catch (IOException e) {
       if (!isMonitor) {
         updateStatHashMapWhenFail(tsRecord);
@@ -341,6 +604,29 @@ public class FileNodeManager implements IStatistic, IService {
     }
   }
 
+  /**
+   * wait until the log of an insertion is durable. It must be called after the lock of the
+   * filenode processor is released.
+   */
+  private void waitForLog(Future<?> walFuture, boolean isMonitor, long pointCount)
+      throws FileNodeManagerException {
+    if (walFuture == null) {
+      return;
+    }
+    try {
+      walFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FileNodeManagerException(e);
+    } catch (ExecutionException e) {
+      LOGGER.error("Write ahead log failed.", e.getCause());
+      if (!isMonitor) {
+        updateStatHashMapWhenFail(pointCount);
+      }
+      throw new FileNodeManagerException(e.getCause());
+    }
+  }
+
   private void checkTimestamp(TSRecord tsRecord) throws FileNodeManagerException {
     if (tsRecord.time < 0) {
       LOGGER.error("The insert time lt 0, {}.", tsRecord);
@@ -355,14 +641,16 @@ public class FileNodeManager implements IStatistic, IService {
     }
   }
 
-  private void insertOverflow(FileNodeProcessor fileNodeProcessor, long timestamp,
+  private Future<?> insertOverflow(FileNodeProcessor fileNodeProcessor, long timestamp,
       TSRecord tsRecord, boolean isMonitor, String deviceId)
       throws FileNodeManagerException {
     // get overflow processor
     OverflowProcessor overflowProcessor;
     String filenodeName = fileNodeProcessor.getProcessorName();
+    fileNodeProcessor.lockMetadata();
     try {
       overflowProcessor = fileNodeProcessor.getOverflowProcessor(filenodeName);
+      fileNodeProcessor.changeTypeToChanged(deviceId, timestamp);
     } catch (IOException e) {
       LOGGER.error("Get the overflow processor failed, the filenode is {}, insert time is {}",
           filenodeName, timestamp);
@@ -370,67 +658,98 @@ public class FileNodeManager implements IStatistic, IService {
         updateStatHashMapWhenFail(tsRecord);
       }
       throw new FileNodeManagerException(e);
+    } finally {
+      fileNodeProcessor.unlockMetadata();
     }
     // write wal
-    writeLog(tsRecord, isMonitor, overflowProcessor.getLogNode());
+    Future<?> walFuture = writeLog(tsRecord, isMonitor, overflowProcessor.getLogNode());
     // write overflow data
-    try {
-      overflowProcessor.insert(tsRecord);
-      fileNodeProcessor.changeTypeToChanged(deviceId, timestamp);
-      fileNodeProcessor.setOverflowed(true);
-    } catch (IOException e) {
-      LOGGER.error("Insert into overflow error, the reason is {}", e);
-      if (!isMonitor) {
-        updateStatHashMapWhenFail(tsRecord);
-      }
-      throw new FileNodeManagerException(e);
-    }
+    overflowProcessor.insertWithoutFlush(tsRecord);
+    fileNodeProcessor.setOverflowed(true);
+    return walFuture;
   }
 
-  private void insertBufferWrite(FileNodeProcessor fileNodeProcessor, long timestamp,
+  private Future<?> insertBufferWrite(FileNodeProcessor fileNodeProcessor, long timestamp,
       boolean isMonitor, TSRecord tsRecord, String deviceId)
-      throws FileNodeManagerException, FileNodeProcessorException {
+      throws FileNodeManagerException {
     // get bufferwrite processor
     BufferWriteProcessor bufferWriteProcessor;
     String filenodeName = fileNodeProcessor.getProcessorName();
+    fileNodeProcessor.lockMetadata();
     try {
-      bufferWriteProcessor = fileNodeProcessor.getBufferWriteProcessor(filenodeName, timestamp);
-    } catch (FileNodeProcessorException e) {
-      LOGGER.error("Get the bufferwrite processor failed, the filenode is {}, insert time is {}",
-          filenodeName, timestamp);
-      if (!isMonitor) {
-        updateStatHashMapWhenFail(tsRecord);
+      try {
+        bufferWriteProcessor = fileNodeProcessor.getBufferWriteProcessor(filenodeName, timestamp);
+      } catch (FileNodeProcessorException e) {
+        LOGGER.error("Get the bufferwrite processor failed, the filenode is {}, insert time is {}",
+            filenodeName, timestamp);
+        if (!isMonitor) {
+          updateStatHashMapWhenFail(tsRecord);
+        }
+        throw new FileNodeManagerException(e);
       }
-      throw new FileNodeManagerException(e);
-    }
-    // Add a new interval file to newfilelist
-    if (bufferWriteProcessor.isNewProcessor()) {
-      bufferWriteProcessor.setNewProcessor(false);
-      String bufferwriteBaseDir = bufferWriteProcessor.getBaseDir();
-      String bufferwriteRelativePath = bufferWriteProcessor.getFileRelativePath();
+      // Add a new interval file to newfilelist
       try {
-        fileNodeProcessor.addIntervalFileNode(bufferwriteBaseDir, bufferwriteRelativePath);
+        addIntervalFileNodeIfNew(fileNodeProcessor, bufferWriteProcessor);
       } catch (Exception e) {
         if (!isMonitor) {
           updateStatHashMapWhenFail(tsRecord);
         }
         throw new FileNodeManagerException(e);
       }
+      fileNodeProcessor.setIntervalFileNodeStartTime(deviceId);
+      fileNodeProcessor.setLastUpdateTime(deviceId, timestamp);
+    } finally {
+      fileNodeProcessor.unlockMetadata();
     }
     // write wal
-    writeLog(tsRecord, isMonitor, bufferWriteProcessor.getLogNode());
+    Future<?> walFuture = writeLog(tsRecord, isMonitor, bufferWriteProcessor.getLogNode());
     // Write data
-    fileNodeProcessor.setIntervalFileNodeStartTime(deviceId);
-    fileNodeProcessor.setLastUpdateTime(deviceId, timestamp);
+    bufferWriteProcessor.insert(tsRecord);
+    return walFuture;
+  }
+
+  private void addIntervalFileNodeIfNew(FileNodeProcessor fileNodeProcessor,
+      BufferWriteProcessor bufferWriteProcessor) throws ActionException {
+    if (bufferWriteProcessor.isNewProcessor()) {
+      bufferWriteProcessor.setNewProcessor(false);
+      String bufferwriteBaseDir = bufferWriteProcessor.getBaseDir();
+      String bufferwriteRelativePath = bufferWriteProcessor.getFileRelativePath();
+      fileNodeProcessor.addIntervalFileNode(bufferwriteBaseDir, bufferwriteRelativePath);
+    }
+  }
+
+  /**
+   * flush the memtables of the filenode processor that reach their threshold, and close the
+   * bufferwrite file that reaches its size threshold. Insertions only hold the read lock of the
+   * filenode processor, so these transitions are done afterwards under its write lock.
+   */
+  private void flushOrCloseIfFull(FileNodeProcessor fileNodeProcessor)
+      throws FileNodeManagerException {
+    if (!fileNodeProcessor.shouldFlushOrClose()) {
+      return;
+    }
+    fileNodeProcessor.writeLock();
     try {
-      bufferWriteProcessor.write(tsRecord);
-    } catch (BufferWriteProcessorException e) {
-      if (!isMonitor) {
-        updateStatHashMapWhenFail(tsRecord);
+      if (fileNodeProcessor.hasBufferwriteProcessor()) {
+        BufferWriteProcessor bufferWriteProcessor = fileNodeProcessor.getBufferWriteProcessor();
+        bufferWriteProcessor.flushIfFull();
+        closeBufferWriteIfFull(fileNodeProcessor, bufferWriteProcessor);
+      }
+      if (fileNodeProcessor.hasOverflowProcessor()) {
+        fileNodeProcessor.getOverflowProcessor().flushIfFull();
       }
+    } catch (FileNodeProcessorException | BufferWriteProcessorException | IOException e) {
+      LOGGER.error("Encounter an error when flushing or closing the filenode processor {}.",
+          fileNodeProcessor.getProcessorName(), e);
       throw new FileNodeManagerException(e);
+    } finally {
+      fileNodeProcessor.writeUnlock();
     }
+  }
 
+  private void closeBufferWriteIfFull(FileNodeProcessor fileNodeProcessor,
+      BufferWriteProcessor bufferWriteProcessor) throws FileNodeProcessorException {
+    String filenodeName = fileNodeProcessor.getProcessorName();
     if (bufferWriteProcessor
         .getFileSize() > IoTDBDescriptor.getInstance()
         .getConfig().getBufferwriteFileSizeThreshold()) {
@@ -479,6 +798,7 @@ public class FileNodeManager implements IStatistic, IService {
         throw new FileNodeManagerException(e);
       }
       overflowProcessor.update(deviceId, measurementId, startTime, finalEndTime, type, v);
+      LastCache.getInstance().invalidate(deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId);
       // change the type of tsfile to overflowed
       fileNodeProcessor.changeTypeToChanged(deviceId, startTime, finalEndTime);
       fileNodeProcessor.setOverflowed(true);
@@ -546,6 +866,8 @@ public class FileNodeManager implements IStatistic, IService {
         } catch (IOException e) {
           throw new FileNodeManagerException(e);
         }
+        LastCache.getInstance()
+            .invalidate(deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId);
         // change the type of tsfile to overflowed
         fileNodeProcessor.changeTypeToChangedForDelete(deviceId, timestamp);
         fileNodeProcessor.setOverflowed(true);
@@ -655,16 +977,20 @@ public class FileNodeManager implements IStatistic, IService {
       QueryDataSource queryDataSource;
       // query operation must have overflow processor
       if (!fileNodeProcessor.hasOverflowProcessor()) {
+        fileNodeProcessor.lockMetadata();
         try {
           fileNodeProcessor.getOverflowProcessor(fileNodeProcessor.getProcessorName());
         } catch (IOException e) {
           LOGGER.error("Get the overflow processor failed, the filenode is {}, query is {},{}",
               fileNodeProcessor.getProcessorName(), deviceId, measurementId);
           throw new FileNodeManagerException(e);
+        } finally {
+          fileNodeProcessor.unlockMetadata();
         }
       }
       try {
-        queryDataSource = fileNodeProcessor.query(deviceId, measurementId, context);
+        queryDataSource = fileNodeProcessor.query(deviceId, measurementId,
+            seriesExpression.getFilter(), context);
       } catch (FileNodeProcessorException e) {
         LOGGER.error("Query error: the deviceId {}, the measurementId {}", deviceId, measurementId,
             e);
@@ -850,6 +1176,7 @@ public class FileNodeManager implements IStatistic, IService {
       FileUtils.deleteDirectory(new File(fileNodePath));
 
       cleanBufferWrite(processorName);
+      LastCache.getInstance().clear();
 
       MultiFileLogNodeManager.getInstance()
           .deleteNode(processorName + IoTDBConstant.BUFFERWRITE_LOG_NODE_SUFFIX);
@@ -947,11 +1274,13 @@ public class FileNodeManager implements IStatistic, IService {
    * Force to close the filenode processor.
    */
   public void closeOneFileNode(String processorName) throws FileNodeManagerException {
-    if (fileNodeManagerStatus != FileNodeManagerStatus.NONE) {
-      return;
+    synchronized (closeOneLock) {
+      if (fileNodeManagerStatus != FileNodeManagerStatus.NONE && closingOneNum == 0) {
+        return;
+      }
+      fileNodeManagerStatus = FileNodeManagerStatus.CLOSE;
+      closingOneNum++;
     }
-
-    fileNodeManagerStatus = FileNodeManagerStatus.CLOSE;
     try {
       LOGGER.info("Force to close the filenode processor {}.", processorName);
       while (!closeOneProcessor(processorName)) {
@@ -966,7 +1295,11 @@ public class FileNodeManager implements IStatistic, IService {
         }
       }
     } finally {
-      fileNodeManagerStatus = FileNodeManagerStatus.NONE;
+      synchronized (closeOneLock) {
+        if (--closingOneNum == 0) {
+          fileNodeManagerStatus = FileNodeManagerStatus.NONE;
+        }
+      }
     }
   }
 
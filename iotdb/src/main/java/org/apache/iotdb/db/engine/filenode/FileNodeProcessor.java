@@ -38,6 +38,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -64,6 +65,9 @@ import org.apache.iotdb.db.engine.querycontext.OverflowSeriesDataSource;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.querycontext.UnsealedTsFile;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupBuilder;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
 import org.apache.iotdb.db.engine.version.SimpleFileVersionController;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.BufferWriteProcessorException;
@@ -84,6 +88,7 @@ import org.apache.iotdb.db.sync.conf.Constans;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
@@ -136,8 +141,15 @@ public class FileNodeProcessor extends Processor implements IStatistic {
   private final Object fileNodeRestoreLock = new Object();
   // last merge time
   private long lastMergeTime = -1;
-  private BufferWriteProcessor bufferWriteProcessor = null;
-  private OverflowProcessor overflowProcessor = null;
+  private volatile BufferWriteProcessor bufferWriteProcessor = null;
+  private volatile OverflowProcessor overflowProcessor = null;
+  /**
+   * Insertions share the read lock of this processor and run concurrently, only flush, close and
+   * merge take its write lock. The in-memory metadata updated by insertions (the bufferwrite and
+   * overflow processors, the interval files and their index) is guarded by this lock, and queries
+   * read it under the read lock.
+   */
+  private final ReadWriteLock metadataLock = new ReentrantReadWriteLock();
   private Set<Integer> oldMultiPassTokenSet = null;
   private Set<Integer> newMultiPassTokenSet = new HashSet<>();
   private ReadWriteLock oldMultiPassLock = null;
@@ -219,6 +231,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
   private String mergeFileName = null;
   private boolean mergeIsChunkGroupHasData = false;
   private long mergeStartPos;
+  private List<Rollup> mergeRollups;
 
   /**
    * constructor of FileNodeProcessor.
@@ -260,15 +273,16 @@ public class FileNodeProcessor extends Processor implements IStatistic {
           processorName, e);
       throw new FileNodeProcessorException(e);
     }
-    // TODO deep clone the lastupdate time
-    lastUpdateTimeMap = fileNodeProcessorStore.getLastUpdateTimeMap();
+    // updated concurrently by insertions, the store shares the same map
+    lastUpdateTimeMap = new ConcurrentHashMap<>(fileNodeProcessorStore.getLastUpdateTimeMap());
+    fileNodeProcessorStore.setLastUpdateTimeMap(lastUpdateTimeMap);
     emptyTsFileResource = fileNodeProcessorStore.getEmptyTsFileResource();
     newFileNodes = fileNodeProcessorStore.getNewFileNodes();
     isMerging = fileNodeProcessorStore.getFileNodeProcessorStatus();
     numOfMergeFile = fileNodeProcessorStore.getNumOfMergeFile();
     invertedIndexOfFiles = new HashMap<>();
     // deep clone
-    flushLastUpdateTimeMap = new HashMap<>();
+    flushLastUpdateTimeMap = new ConcurrentHashMap<>();
     for (Entry<String, Long> entry : lastUpdateTimeMap.entrySet()) {
       flushLastUpdateTimeMap.put(entry.getKey(), entry.getValue() + 1);
     }
@@ -426,6 +440,32 @@ public class FileNodeProcessor extends Processor implements IStatistic {
     return isMerging;
   }
 
+  /**
+   * Acquire the lock of the in-memory metadata before an insertion holding the read lock of this
+   * processor updates it.
+   */
+  void lockMetadata() {
+    metadataLock.writeLock().lock();
+  }
+
+  void unlockMetadata() {
+    metadataLock.writeLock().unlock();
+  }
+
+  /**
+   * Check without locking whether the memtable of the bufferwrite or overflow processor reaches
+   * its threshold, or the bufferwrite file reaches its size threshold.
+   *
+   * @return true if a flush or close should be done under the write lock of this processor.
+   */
+  boolean shouldFlushOrClose() {
+    BufferWriteProcessor bwProcessor = bufferWriteProcessor;
+    OverflowProcessor ofProcessor = overflowProcessor;
+    return (bwProcessor != null && (bwProcessor.shouldFlush()
+        || bwProcessor.getFileSize() > TsFileDBConf.getBufferwriteFileSizeThreshold()))
+        || (ofProcessor != null && ofProcessor.shouldFlush());
+  }
+
   /**
    * execute filenode recovery.
    */
@@ -584,9 +624,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
    * set last update time.
    */
   public void setLastUpdateTime(String deviceId, long timestamp) {
-    if (!lastUpdateTimeMap.containsKey(deviceId) || lastUpdateTimeMap.get(deviceId) < timestamp) {
-      lastUpdateTimeMap.put(deviceId, timestamp);
-    }
+    lastUpdateTimeMap.merge(deviceId, timestamp, Math::max);
   }
 
   /**
@@ -605,10 +643,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
    * get flush last update time.
    */
   public long getFlushLastUpdateTime(String deviceId) {
-    if (!flushLastUpdateTimeMap.containsKey(deviceId)) {
-      flushLastUpdateTimeMap.put(deviceId, 0L);
-    }
-    return flushLastUpdateTimeMap.get(deviceId);
+    return flushLastUpdateTimeMap.computeIfAbsent(deviceId, k -> 0L);
   }
 
   public Map<String, Long> getLastUpdateTimeMap() {
@@ -694,15 +729,61 @@ public class FileNodeProcessor extends Processor implements IStatistic {
    */
   private int searchIndexNodeByTimestamp(String deviceId, long timestamp,
       List<TsFileResource> fileList) {
-    int index = 1;
-    while (index < fileList.size()) {
-      if (timestamp < fileList.get(index).getStartTime(deviceId)) {
-        break;
+    // the files of a device are ordered by their start time
+    int low = 1;
+    int high = fileList.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamp < fileList.get(mid).getStartTime(deviceId)) {
+        high = mid;
       } else {
-        index++;
+        low = mid + 1;
       }
     }
-    return index - 1;
+    return low - 1;
+  }
+
+  /**
+   * get the closed files holding data of the device which may satisfy the time filter. The
+   * sequence data of a device never overlaps, so its files are ordered by both their start and end
+   * time, and the files overlapping the range of the filter are found by binary searches.
+   *
+   * @param timeFilter null for all the closed files of the device
+   */
+  private List<TsFileResource> searchClosedFiles(String deviceId, Filter timeFilter) {
+    List<TsFileResource> fileList = invertedIndexOfFiles.get(deviceId);
+    if (fileList == null) {
+      return new ArrayList<>();
+    }
+    int size = fileList.size();
+    // the unsealed file is the last one and is queried by the bufferwrite processor
+    if (size > 0 && !fileList.get(size - 1).isClosed()) {
+      size--;
+    }
+    Pair<Long, Long> timeRange = QueryUtils.getTimeRange(timeFilter);
+    // the first file ending not before the range
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (fileList.get(mid).getEndTime(deviceId) < timeRange.left) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int begin = low;
+    // the first file starting after the range
+    high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (fileList.get(mid).getStartTime(deviceId) <= timeRange.right) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return new ArrayList<>(fileList.subList(begin, Math.max(begin, low)));
   }
 
   /**
@@ -747,9 +828,21 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 
   /**
    * query data.
+   *
+   * @param timeFilter only the sealed tsfiles which may satisfy it are queried, null for all
    */
   public <T extends Comparable<T>> QueryDataSource query(String deviceId, String measurementId,
-         QueryContext context) throws FileNodeProcessorException {
+      Filter timeFilter, QueryContext context) throws FileNodeProcessorException {
+    metadataLock.readLock().lock();
+    try {
+      return queryWithMetadataLocked(deviceId, measurementId, timeFilter, context);
+    } finally {
+      metadataLock.readLock().unlock();
+    }
+  }
+
+  private QueryDataSource queryWithMetadataLocked(String deviceId, String measurementId,
+      Filter timeFilter, QueryContext context) throws FileNodeProcessorException {
     // query overflow data
     MeasurementSchema mSchema;
     TSDataType dataType;
@@ -767,11 +860,9 @@ public class FileNodeProcessor extends Processor implements IStatistic {
     }
     // tsfile dataØØ
     List<TsFileResource> bufferwriteDataInFiles = new ArrayList<>();
-    for (TsFileResource tsFileResource : newFileNodes) {
+    for (TsFileResource tsFileResource : searchClosedFiles(deviceId, timeFilter)) {
       // add the same tsFileResource, but not the same reference
-      if (tsFileResource.isClosed()) {
-        bufferwriteDataInFiles.add(tsFileResource.backUp());
-      }
+      bufferwriteDataInFiles.add(tsFileResource.backUp());
     }
     Pair<ReadOnlyMemChunk, List<ChunkMetaData>> bufferwritedata = new Pair<>(null, null);
     // bufferwrite data
@@ -1404,6 +1495,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
       String bufferFilePath = bufferFileNode.getFilePath();
       if (bufferFilePath != null) {
         bufferFiles.add(bufferFilePath);
+        bufferFiles.add(bufferFilePath + RollupFile.FILE_SUFFIX);
       }
     }
   }
@@ -1443,6 +1535,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
     mergeOutputPath = null;
     mergeBaseDir = null;
     mergeFileName = null;
+    mergeRollups = new ArrayList<>();
     // modifications are blocked before mergeModification is created to avoid
     // losing some modification.
     mergeDeleteLock.lock();
@@ -1509,6 +1602,7 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 
     if (mergeFileWriter != null) {
       mergeFileWriter.endFile(fileSchema);
+      RollupFile.append(mergeOutputPath, mergeRollups);
     }
     backupIntervalFile.setBaseDirIndex(directories.getTsFileFolderIndex(mergeBaseDir));
     backupIntervalFile.setRelativePath(mergeFileName);
@@ -1561,12 +1655,16 @@ public class FileNodeProcessor extends Processor implements IStatistic {
         int pageSizeThreshold = TSFileConfig.pageSizeInByte;
         ChunkWriterImpl seriesWriterImpl = new ChunkWriterImpl(measurementSchema, pageWriter,
             pageSizeThreshold);
+        // the merged series is rolled up again as its data may be changed by overflow
+        RollupBuilder rollupBuilder = new RollupBuilder(path.getDevice(), path.getMeasurement(),
+            dataType, TsFileDBConf.getRollupIntervals(getProcessorName()));
         // write the series data
-        writeOneSeries(path.getDevice(), seriesWriterImpl, dataType,
+        writeOneSeries(path.getDevice(), seriesWriterImpl, rollupBuilder, dataType,
             seriesReader,
             startTimeMap, endTimeMap, timeValuePair);
         // flush the series data
         seriesWriterImpl.writeToFileWriter(mergeFileWriter);
+        mergeRollups.addAll(rollupBuilder.getRollups());
       }
     } finally {
       for (OverflowInsertFile overflowInsertFile : overflowSeriesDataSource.getOverflowInsertFileList()) {
@@ -1579,12 +1677,13 @@ public class FileNodeProcessor extends Processor implements IStatistic {
 
 
   private void writeOneSeries(String deviceId, ChunkWriterImpl seriesWriterImpl,
-      TSDataType dataType, IReader seriesReader, Map<String, Long> startTimeMap,
-      Map<String, Long> endTimeMap, TimeValuePair firstTVPair) throws IOException {
+      RollupBuilder rollupBuilder, TSDataType dataType, IReader seriesReader,
+      Map<String, Long> startTimeMap, Map<String, Long> endTimeMap, TimeValuePair firstTVPair)
+      throws IOException {
     long startTime;
     long endTime;
     TimeValuePair localTV = firstTVPair;
-    writeTVPair(seriesWriterImpl, dataType, localTV);
+    writeTVPair(seriesWriterImpl, rollupBuilder, dataType, localTV);
     startTime = endTime = localTV.getTimestamp();
     if (!startTimeMap.containsKey(deviceId) || startTimeMap.get(deviceId) > startTime) {
       startTimeMap.put(deviceId, startTime);
@@ -1595,33 +1694,41 @@ public class FileNodeProcessor extends Processor implements IStatistic {
     while (seriesReader.hasNext()) {
       localTV = seriesReader.next();
       endTime = localTV.getTimestamp();
-      writeTVPair(seriesWriterImpl, dataType, localTV);
+      writeTVPair(seriesWriterImpl, rollupBuilder, dataType, localTV);
     }
     if (!endTimeMap.containsKey(deviceId) || endTimeMap.get(deviceId) < endTime) {
       endTimeMap.put(deviceId, endTime);
     }
   }
 
-  private void writeTVPair(ChunkWriterImpl seriesWriterImpl, TSDataType dataType,
-      TimeValuePair timeValuePair) throws IOException {
+  private void writeTVPair(ChunkWriterImpl seriesWriterImpl, RollupBuilder rollupBuilder,
+      TSDataType dataType, TimeValuePair timeValuePair) throws IOException {
+    long time = timeValuePair.getTimestamp();
+    TsPrimitiveType value = timeValuePair.getValue();
     switch (dataType) {
       case BOOLEAN:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBoolean());
+        seriesWriterImpl.write(time, value.getBoolean());
+        rollupBuilder.update(time, value.getBoolean());
         break;
       case INT32:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getInt());
+        seriesWriterImpl.write(time, value.getInt());
+        rollupBuilder.update(time, value.getInt());
         break;
       case INT64:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getLong());
+        seriesWriterImpl.write(time, value.getLong());
+        rollupBuilder.update(time, value.getLong());
         break;
       case FLOAT:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getFloat());
+        seriesWriterImpl.write(time, value.getFloat());
+        rollupBuilder.update(time, value.getFloat());
         break;
       case DOUBLE:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getDouble());
+        seriesWriterImpl.write(time, value.getDouble());
+        rollupBuilder.update(time, value.getDouble());
         break;
       case TEXT:
-        seriesWriterImpl.write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBinary());
+        seriesWriterImpl.write(time, value.getBinary());
+        rollupBuilder.update(time, value.getBinary());
         break;
       default:
         LOGGER.error("Not support data type: {}", dataType);
@@ -23,6 +23,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.db.utils.datastructure.PrimitiveArrayPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,6 +124,27 @@ public abstract class BasicMemController implements IService {
 
   public abstract long getTotalUsage();
 
+  /**
+   * get the size of the primitive arrays which are cached in PrimitiveArrayPool and not used by any
+   * memtable. The arrays used by memtables are counted through the records written into them.
+   *
+   * @return size in byte
+   */
+  public long getPrimitiveArrayPoolUsage() {
+    return PrimitiveArrayPool.getInstance().getCachedSize();
+  }
+
+  /**
+   * check whether some memory which is not reported by any user, e.g., the arrays cached in
+   * PrimitiveArrayPool, can be kept without reaching the warning threshold.
+   *
+   * @param size size in byte of the memory to keep
+   * @return true if the usage is still safe
+   */
+  public boolean isSafeToKeep(long size) {
+    return getTotalUsage() + size < warningThreshold;
+  }
+
   public abstract UsageLevel getCurrLevel();
 
   public abstract void clear();
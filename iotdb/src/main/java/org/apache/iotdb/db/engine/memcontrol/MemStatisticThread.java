@@ -91,11 +91,14 @@ public class MemStatisticThread extends Thread {
     if (++cnt % reportCycle == 0 && logger.isDebugEnabled()) {
       logger.debug(
               "Monitored memory usage, min {}, max {}, mean {} \n"
-                      + "JVM memory usage, min {}, max {}, mean {}",
+                      + "JVM memory usage, min {}, max {}, mean {} \n"
+                      + "Cached primitive arrays {}",
               MemUtils.bytesCntToStr(minMemUsage), MemUtils.bytesCntToStr(maxMemUsage),
               MemUtils.bytesCntToStr((long) meanMemUsage),
               MemUtils.bytesCntToStr(minJvmUsage), MemUtils.bytesCntToStr(maxJvmUsage),
-              MemUtils.bytesCntToStr((long) meanJvmUsage));
+              MemUtils.bytesCntToStr((long) meanJvmUsage),
+              MemUtils.bytesCntToStr(
+                  BasicMemController.getInstance().getPrimitiveArrayPoolUsage()));
     }
   }
 
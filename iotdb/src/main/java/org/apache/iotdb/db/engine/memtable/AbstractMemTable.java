@@ -18,19 +18,24 @@
  */
 package org.apache.iotdb.db.engine.memtable;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
+/**
+ * The device and series maps are concurrent and each chunk synchronizes its own appends, so that
+ * insertions of different devices and series can write into one memtable concurrently.
+ */
 public abstract class AbstractMemTable implements IMemTable {
 
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
   public AbstractMemTable() {
-    this.memTableMap = new HashMap<>();
+    this.memTableMap = new ConcurrentHashMap<>();
   }
 
   public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
@@ -42,25 +47,11 @@ public abstract class AbstractMemTable implements IMemTable {
     return memTableMap;
   }
 
-  /**
-   * check whether the given seriesPath is within this memtable.
-   *
-   * @return true if seriesPath is within this memtable
-   */
-  private boolean checkPath(String deviceId, String measurement) {
-    return memTableMap.containsKey(deviceId) && memTableMap.get(deviceId).containsKey(measurement);
-  }
-
   private IWritableMemChunk createIfNotExistAndGet(String deviceId, String measurement,
       TSDataType dataType) {
-    if (!memTableMap.containsKey(deviceId)) {
-      memTableMap.put(deviceId, new HashMap<>());
-    }
-    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
-    if (!memSeries.containsKey(measurement)) {
-      memSeries.put(measurement, genMemSeries(dataType));
-    }
-    return memSeries.get(measurement);
+    Map<String, IWritableMemChunk> memSeries = memTableMap
+        .computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
+    return memSeries.computeIfAbsent(measurement, k -> genMemSeries(dataType));
   }
 
   protected abstract IWritableMemChunk genMemSeries(TSDataType dataType);
@@ -72,6 +63,20 @@ public abstract class AbstractMemTable implements IMemTable {
     memSeries.write(insertTime, insertValue);
   }
 
+  @Override
+  public void write(String deviceId, String measurement, TSDataType dataType, long insertTime,
+      Object insertValue) {
+    IWritableMemChunk memSeries = createIfNotExistAndGet(deviceId, measurement, dataType);
+    memSeries.write(insertTime, insertValue);
+  }
+
+  @Override
+  public void write(String deviceId, String measurement, TSDataType dataType, long[] times,
+      Object valueColumn, int length) {
+    IWritableMemChunk memSeries = createIfNotExistAndGet(deviceId, measurement, dataType);
+    memSeries.write(times, valueColumn, length);
+  }
+
   @Override
   public int size() {
     int sum = 0;
@@ -85,6 +90,12 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public void clear() {
+    // recycle the arrays of all chunks, the memtable must not be read any more
+    for (Map<String, IWritableMemChunk> seriesMap : memTableMap.values()) {
+      for (IWritableMemChunk writableMemChunk : seriesMap.values()) {
+        writableMemChunk.reset();
+      }
+    }
     memTableMap.clear();
   }
 
@@ -99,11 +110,14 @@ public abstract class AbstractMemTable implements IMemTable {
     return new ReadOnlyMemChunk(dataType, getSeriesData(deviceId, measurement, dataType), props);
   }
 
-  private TimeValuePairSorter getSeriesData(String deviceId, String measurement, TSDataType dataType) {
-    if (!checkPath(deviceId, measurement)) {
-      return new WritableMemChunk(dataType);
+  private TVList getSeriesData(String deviceId, String measurement, TSDataType dataType) {
+    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
+    IWritableMemChunk chunk = memSeries == null ? null : memSeries.get(measurement);
+    if (chunk == null) {
+      return TVList.newList(dataType);
     }
-    return memTableMap.get(deviceId).get(measurement);
+    // take a snapshot so that the query is not affected by later writes and the flush
+    return chunk.getSortedSnapshot();
   }
 
   @Override
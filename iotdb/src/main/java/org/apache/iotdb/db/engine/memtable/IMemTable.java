@@ -36,6 +36,18 @@ public interface IMemTable {
   void write(String deviceId, String measurement, TSDataType dataType,
       long insertTime, String insertValue);
 
+  /**
+   * write a typed value, e.g. the value of a DataPoint, without converting it to String.
+   */
+  void write(String deviceId, String measurement, TSDataType dataType,
+      long insertTime, Object insertValue);
+
+  /**
+   * write the first length points of a time column and a primitive value column of one series.
+   */
+  void write(String deviceId, String measurement, TSDataType dataType, long[] times,
+      Object valueColumn, int length);
+
   int size();
 
   ReadOnlyMemChunk query(String deviceId, String measurement, TSDataType dataType,
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.engine.memtable;
 
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
@@ -37,6 +38,36 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   void write(long insertTime, String insertValue);
 
+  /**
+   * write a value which is already of the java type matching the data type of this chunk, i.e.,
+   * Integer, Long, Float, Double, Boolean or Binary, so that no String conversion is needed.
+   */
+  void write(long insertTime, Object insertValue);
+
+  /**
+   * write the first length points of a time column and a value column at once. The value column is
+   * an array of the primitive type of this chunk, i.e., boolean[], int[], long[], float[],
+   * double[] or Binary[].
+   */
+  void write(long[] times, Object valueColumn, int length);
+
+  /**
+   * sort the data of this chunk by time in place and remove the duplicated timestamps. Only use
+   * it when the chunk will not be written any more, e.g., when flushing.
+   *
+   * @return the sorted list of this chunk
+   */
+  TVList getSortedTVList();
+
+  /**
+   * make a sorted and deduplicated copy of the data of this chunk, which is not affected by later
+   * writes, sorts and releases of this chunk.
+   */
+  TVList getSortedSnapshot();
+
+  /**
+   * remove all data of this chunk and give its arrays back to the PrimitiveArrayPool.
+   */
   void reset();
 
   int count();
@@ -20,9 +20,12 @@ package org.apache.iotdb.db.engine.memtable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 
 public class MemSeriesLazyMerger implements TimeValuePairSorter {
 
@@ -58,4 +61,45 @@ public class MemSeriesLazyMerger implements TimeValuePairSorter {
     }
     return res;
   }
+
+  /**
+   * @return the sorted lists of all series in ascending order of time, or null if any series is not
+   * held by sorted lists.
+   */
+  public List<TVList> getSortedTVLists() {
+    List<TVList> sortedLists = new ArrayList<>();
+    for (ReadOnlyMemChunk memSeries : memSeriesList) {
+      List<TVList> seriesLists = memSeries.getSortedTVLists();
+      if (seriesLists == null) {
+        return null;
+      }
+      sortedLists.addAll(seriesLists);
+    }
+    return sortedLists;
+  }
+
+  @Override
+  public Iterator<TimeValuePair> getIterator() {
+    // the series are in ascending order, so their iterators can be simply concatenated
+    return new Iterator<TimeValuePair>() {
+      private int seriesIndex = 0;
+      private Iterator<TimeValuePair> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext() && seriesIndex < memSeriesList.size()) {
+          current = memSeriesList.get(seriesIndex++).getIterator();
+        }
+        return current.hasNext();
+      }
+
+      @Override
+      public TimeValuePair next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return current.next();
+      }
+    };
+  }
 }
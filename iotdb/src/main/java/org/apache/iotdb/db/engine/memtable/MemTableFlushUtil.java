@@ -19,9 +19,19 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-
-import org.apache.iotdb.db.utils.TimeValuePair;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.engine.pool.FlushEncodeManager;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupBuilder;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -38,40 +48,68 @@ public class MemTableFlushUtil {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MemTableFlushUtil.class);
   private static final int PAGE_SIZE_THRESHOLD = TSFileConfig.pageSizeInByte;
+  /**
+   * how many series each encoding thread may run ahead of the writer.
+   */
+  private static final int ENCODE_WINDOW_PER_THREAD = 4;
 
   private MemTableFlushUtil() {
 
   }
 
-  private static void writeOneSeries(List<TimeValuePair> tvPairs, IChunkWriter seriesWriterImpl,
+  private static void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
       TSDataType dataType)
       throws IOException {
-    for (TimeValuePair timeValuePair : tvPairs) {
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
       switch (dataType) {
         case BOOLEAN:
-            seriesWriterImpl
-                    .write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBoolean());
+          seriesWriterImpl.write(time, tvPairs.getBoolean(i));
           break;
         case INT32:
-            seriesWriterImpl.write(timeValuePair.getTimestamp(),
-                    timeValuePair.getValue().getInt());
+          seriesWriterImpl.write(time, tvPairs.getInt(i));
           break;
         case INT64:
-            seriesWriterImpl.write(timeValuePair.getTimestamp(),
-                    timeValuePair.getValue().getLong());
+          seriesWriterImpl.write(time, tvPairs.getLong(i));
           break;
         case FLOAT:
-            seriesWriterImpl.write(timeValuePair.getTimestamp(),
-                    timeValuePair.getValue().getFloat());
+          seriesWriterImpl.write(time, tvPairs.getFloat(i));
           break;
         case DOUBLE:
-            seriesWriterImpl
-                    .write(timeValuePair.getTimestamp(),
-                            timeValuePair.getValue().getDouble());
+          seriesWriterImpl.write(time, tvPairs.getDouble(i));
           break;
         case TEXT:
-            seriesWriterImpl
-                    .write(timeValuePair.getTimestamp(), timeValuePair.getValue().getBinary());
+          seriesWriterImpl.write(time, tvPairs.getBinary(i));
+          break;
+        default:
+          LOGGER.error("don't support data type: {}", dataType);
+          break;
+      }
+    }
+  }
+
+  private static void rollupOneSeries(TVList tvPairs, RollupBuilder rollupBuilder,
+      TSDataType dataType) {
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
+      switch (dataType) {
+        case BOOLEAN:
+          rollupBuilder.update(time, tvPairs.getBoolean(i));
+          break;
+        case INT32:
+          rollupBuilder.update(time, tvPairs.getInt(i));
+          break;
+        case INT64:
+          rollupBuilder.update(time, tvPairs.getLong(i));
+          break;
+        case FLOAT:
+          rollupBuilder.update(time, tvPairs.getFloat(i));
+          break;
+        case DOUBLE:
+          rollupBuilder.update(time, tvPairs.getDouble(i));
+          break;
+        case TEXT:
+          rollupBuilder.update(time, tvPairs.getBinary(i));
           break;
         default:
           LOGGER.error("don't support data type: {}", dataType);
@@ -81,28 +119,113 @@ public class MemTableFlushUtil {
   }
 
   /**
-   * the function for flushing memtable.
+   * the function for flushing memtable without rollups.
    */
   public static void flushMemTable(FileSchema fileSchema, TsFileIOWriter tsFileIoWriter,
       IMemTable imemTable, long version)
       throws IOException {
-    for (String deviceId : imemTable.getMemTableMap().keySet()) {
-      long startPos = tsFileIoWriter.getPos();
-      tsFileIoWriter.startFlushChunkGroup(deviceId);
-      int seriesNumber = imemTable.getMemTableMap().get(deviceId).size();
-      for (String measurementId : imemTable.getMemTableMap().get(deviceId).keySet()) {
-        // TODO if we can not use TSFileIO writer, then we have to redesign the class of TSFileIO.
-        IWritableMemChunk series = imemTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = fileSchema.getMeasurementSchema(measurementId);
-        ChunkBuffer chunkBuffer = new ChunkBuffer(desc);
-        IChunkWriter seriesWriter = new ChunkWriterImpl(desc, chunkBuffer, PAGE_SIZE_THRESHOLD);
-        writeOneSeries(series.getSortedTimeValuePairList(), seriesWriter,
-            desc.getType());
-        seriesWriter.writeToFileWriter(tsFileIoWriter);
+    flushMemTable(fileSchema, tsFileIoWriter, imemTable, version, new long[0]);
+  }
+
+  /**
+   * the function for flushing memtable. Sorting, encoding and compressing each series runs on the
+   * shared {@link FlushEncodeManager} pool, while the calling thread appends the finished chunks
+   * to the file in device and series order. At most ENCODE_WINDOW_PER_THREAD series per encoding
+   * thread are submitted ahead of the writer, which bounds the memory of the encoded chunks.
+   *
+   * @param rollupIntervals the intervals to roll up the flushed chunks in, may be empty
+   * @return the rollups of the flushed chunks
+   */
+  public static List<Rollup> flushMemTable(FileSchema fileSchema, TsFileIOWriter tsFileIoWriter,
+      IMemTable imemTable, long version, long[] rollupIntervals)
+      throws IOException {
+    Map<String, Map<String, IWritableMemChunk>> memTableMap = imemTable.getMemTableMap();
+    List<String> deviceIds = new ArrayList<>(memTableMap.keySet());
+    List<Callable<IChunkWriter>> encodeTasks = new ArrayList<>();
+    List<RollupBuilder> rollupBuilders = new ArrayList<>();
+    List<Integer> seriesNumbers = new ArrayList<>(deviceIds.size());
+    for (String deviceId : deviceIds) {
+      Map<String, IWritableMemChunk> deviceMap = memTableMap.get(deviceId);
+      seriesNumbers.add(deviceMap.size());
+      for (Entry<String, IWritableMemChunk> entry : deviceMap.entrySet()) {
+        MeasurementSchema desc = fileSchema.getMeasurementSchema(entry.getKey());
+        IWritableMemChunk series = entry.getValue();
+        RollupBuilder rollupBuilder = rollupIntervals.length == 0 ? null
+            : new RollupBuilder(deviceId, entry.getKey(), desc.getType(), rollupIntervals);
+        if (rollupBuilder != null) {
+          rollupBuilders.add(rollupBuilder);
+        }
+        encodeTasks.add(() -> encodeOneSeries(desc, series, rollupBuilder));
+      }
+    }
+
+    FlushEncodeManager encodeManager = FlushEncodeManager.getInstance();
+    int window = encodeManager.getThreadCnt() * ENCODE_WINDOW_PER_THREAD;
+    Deque<Future<IChunkWriter>> encodingSeries = new ArrayDeque<>();
+    int nextTask = 0;
+    try {
+      for (int i = 0; i < deviceIds.size(); i++) {
+        String deviceId = deviceIds.get(i);
+        int seriesNumber = seriesNumbers.get(i);
+        long startPos = tsFileIoWriter.getPos();
+        tsFileIoWriter.startFlushChunkGroup(deviceId);
+        for (int j = 0; j < seriesNumber; j++) {
+          while (nextTask < encodeTasks.size() && encodingSeries.size() < window) {
+            encodingSeries.add(encodeManager.submit(encodeTasks.get(nextTask++)));
+          }
+          // TODO if we can not use TSFileIO writer, then we have to redesign the class of TSFileIO.
+          waitForEncoding(encodingSeries.poll()).writeToFileWriter(tsFileIoWriter);
+        }
+        long memSize = tsFileIoWriter.getPos() - startPos;
+        ChunkGroupFooter footer = new ChunkGroupFooter(deviceId, memSize, seriesNumber);
+        tsFileIoWriter.endChunkGroup(footer, version);
+      }
+    } finally {
+      // only left when the flush failed, the rest of the encoding is of no use
+      for (Future<IChunkWriter> future : encodingSeries) {
+        future.cancel(true);
+      }
+    }
+
+    // the builders are complete as all the encoding has finished
+    List<Rollup> rollups = new ArrayList<>();
+    for (RollupBuilder rollupBuilder : rollupBuilders) {
+      rollups.addAll(rollupBuilder.getRollups());
+    }
+    return rollups;
+  }
+
+  /**
+   * sort, encode and compress one series into pages held in memory, the chunk is written into
+   * the file later by IChunkWriter.writeToFileWriter().
+   *
+   * @param rollupBuilder null if the series is not rolled up
+   */
+  private static IChunkWriter encodeOneSeries(MeasurementSchema desc, IWritableMemChunk series,
+      RollupBuilder rollupBuilder) throws IOException {
+    ChunkBuffer chunkBuffer = new ChunkBuffer(desc);
+    IChunkWriter seriesWriter = new ChunkWriterImpl(desc, chunkBuffer, PAGE_SIZE_THRESHOLD);
+    TVList tvPairs = series.getSortedTVList();
+    writeOneSeries(tvPairs, seriesWriter, desc.getType());
+    if (rollupBuilder != null) {
+      rollupOneSeries(tvPairs, rollupBuilder, desc.getType());
+    }
+    seriesWriter.sealCurrentPage();
+    return seriesWriter;
+  }
+
+  private static IChunkWriter waitForEncoding(Future<IChunkWriter> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a series to be encoded", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
       }
-      long memSize = tsFileIoWriter.getPos() - startPos;
-      ChunkGroupFooter footer = new ChunkGroupFooter(deviceId, memSize, seriesNumber);
-      tsFileIoWriter.endChunkGroup(footer, version);
+      throw new IOException("Failed to encode a series of the flushing memtable", cause);
     }
   }
 }
@@ -19,14 +19,11 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import org.apache.iotdb.db.utils.PrimitiveArrayList;
-import org.apache.iotdb.db.utils.PrimitiveArrayListFactory;
+import java.util.NoSuchElementException;
 import org.apache.iotdb.db.utils.TimeValuePair;
-import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -34,11 +31,11 @@ import org.apache.iotdb.tsfile.utils.Binary;
 public class WritableMemChunk implements IWritableMemChunk {
 
   private TSDataType dataType;
-  private PrimitiveArrayList list;
+  private TVList list;
 
   public WritableMemChunk(TSDataType dataType) {
     this.dataType = dataType;
-    this.list = PrimitiveArrayListFactory.getByDataType(dataType);
+    this.list = TVList.newList(dataType);
   }
 
   @Override
@@ -68,54 +65,143 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public void putLong(long t, long v) {
-    list.putTimestamp(t, v);
+  public void write(long insertTime, Object insertValue) {
+    switch (dataType) {
+      case BOOLEAN:
+        putBoolean(insertTime, (Boolean) insertValue);
+        break;
+      case INT32:
+        putInt(insertTime, (Integer) insertValue);
+        break;
+      case INT64:
+        putLong(insertTime, (Long) insertValue);
+        break;
+      case FLOAT:
+        putFloat(insertTime, (Float) insertValue);
+        break;
+      case DOUBLE:
+        putDouble(insertTime, (Double) insertValue);
+        break;
+      case TEXT:
+        putBinary(insertTime, (Binary) insertValue);
+        break;
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
   }
 
   @Override
-  public void putInt(long t, int v) {
-    list.putTimestamp(t, v);
+  public synchronized void write(long[] times, Object valueColumn, int length) {
+    switch (dataType) {
+      case BOOLEAN:
+        list.putBooleans(times, (boolean[]) valueColumn, length);
+        break;
+      case INT32:
+        list.putInts(times, (int[]) valueColumn, length);
+        break;
+      case INT64:
+        list.putLongs(times, (long[]) valueColumn, length);
+        break;
+      case FLOAT:
+        list.putFloats(times, (float[]) valueColumn, length);
+        break;
+      case DOUBLE:
+        list.putDoubles(times, (double[]) valueColumn, length);
+        break;
+      case TEXT:
+        list.putBinaries(times, (Binary[]) valueColumn, length);
+        break;
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
   }
 
   @Override
-  public void putFloat(long t, float v) {
-    list.putTimestamp(t, v);
+  public synchronized void putLong(long t, long v) {
+    list.putLong(t, v);
   }
 
   @Override
-  public void putDouble(long t, double v) {
-    list.putTimestamp(t, v);
+  public synchronized void putInt(long t, int v) {
+    list.putInt(t, v);
   }
 
   @Override
-  public void putBinary(long t, Binary v) {
-    list.putTimestamp(t, v);
+  public synchronized void putFloat(long t, float v) {
+    list.putFloat(t, v);
   }
 
   @Override
-  public void putBoolean(long t, boolean v) {
-    list.putTimestamp(t, v);
+  public synchronized void putDouble(long t, double v) {
+    list.putDouble(t, v);
   }
 
   @Override
-  // TODO: Consider using arrays to sort and remove duplicates
-  public List<TimeValuePair> getSortedTimeValuePairList() {
-    int length = list.size();
+  public synchronized void putBinary(long t, Binary v) {
+    list.putBinary(t, v);
+  }
+
+  @Override
+  public synchronized void putBoolean(long t, boolean v) {
+    list.putBoolean(t, v);
+  }
 
-    Map<Long, TsPrimitiveType> map = new HashMap<>(length, 1.0f);
-    for (int i = 0; i < length; i++) {
-      map.put(list.getTimestamp(i), TsPrimitiveType.getByType(dataType, list.getValue(i)));
+  @Override
+  public synchronized TVList getSortedTVList() {
+    list.sort();
+    return list;
+  }
+
+  @Override
+  public TVList getSortedSnapshot() {
+    TVList snapshot;
+    synchronized (this) {
+      snapshot = list.clone();
+    }
+    // the copy is private, so it is sorted without blocking the writers
+    snapshot.sort();
+    return snapshot;
+  }
+
+  @Override
+  public List<TimeValuePair> getSortedTimeValuePairList() {
+    TVList sortedList = getSortedSnapshot();
+    List<TimeValuePair> ret = new ArrayList<>(sortedList.size());
+    for (int i = 0; i < sortedList.size(); i++) {
+      ret.add(sortedList.getTimeValuePair(i));
     }
-    List<TimeValuePair> ret = new ArrayList<>(map.size());
-    map.forEach((k, v) -> ret.add(new TimeValuePairInMemTable(k, v)));
-    ret.sort(TimeValuePair::compareTo);
     return ret;
+  }
+
+  @Override
+  public Iterator<TimeValuePair> getIterator() {
+    TVList sortedList = getSortedSnapshot();
+    return new Iterator<TimeValuePair>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < sortedList.size();
+      }
+
+      @Override
+      public TimeValuePair next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return sortedList.getTimeValuePair(index++);
+      }
+    };
+  }
 
+  @Override
+  public boolean isEmpty() {
+    return list.size() == 0;
   }
 
   @Override
-  public void reset() {
-    this.list = PrimitiveArrayListFactory.getByDataType(dataType);
+  public synchronized void reset() {
+    list.clear();
   }
 
   @Override
@@ -23,6 +23,7 @@ import java.util.Map;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.LongStatistics;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
@@ -54,7 +55,14 @@ public class OverflowMemtable {
     for (DataPoint dataPoint : tsRecord.dataPointList) {
       memTable.write(tsRecord.deviceId, dataPoint.getMeasurementId(), dataPoint.getType(),
               tsRecord.time,
-              dataPoint.getValue().toString());
+              dataPoint.getValue());
+    }
+  }
+
+  public void insert(BatchInsertPlan plan) {
+    for (int i = 0; i < plan.getMeasurements().size(); i++) {
+      memTable.write(plan.getDeviceId(), plan.getMeasurements().get(i),
+          plan.getDataTypes().get(i), plan.getTimes(), plan.getColumns()[i], plan.getRowCount());
     }
   }
 
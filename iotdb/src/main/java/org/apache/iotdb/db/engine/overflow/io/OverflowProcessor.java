@@ -50,6 +50,7 @@ import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.OverflowProcessorException;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.utils.ImmediateFuture;
@@ -74,12 +75,12 @@ public class OverflowProcessor extends Processor {
   private OverflowResource workResource;
   private OverflowResource mergeResource;
 
-  private OverflowMemtable workSupport;
+  private volatile OverflowMemtable workSupport;
   private OverflowMemtable flushSupport;
 
   private volatile Future<Boolean> flushFuture = new ImmediateFuture<>(true);
   private volatile boolean isMerge;
-  private int valueCount;
+  private AtomicLong valueCount = new AtomicLong();
   private String parentPath;
   private long lastFlushTime = -1;
   private AtomicLong dataPathCount = new AtomicLong();
@@ -172,14 +173,58 @@ public class OverflowProcessor extends Processor {
    * insert one time-series record
    */
   public void insert(TSRecord tsRecord) throws IOException {
+    insertWithoutFlush(tsRecord);
+    flushIfFull();
+  }
+
+  /**
+   * insert all rows of a batch into the overflow memtable, the memory is reported once for the
+   * whole batch.
+   */
+  public void insert(BatchInsertPlan plan) throws IOException {
+    insertWithoutFlush(plan);
+    flushIfFull();
+  }
+
+  /**
+   * insert one time-series record without flushing. It can be called concurrently by insertions
+   * sharing the read lock of the filenode processor, which call {@link #flushIfFull()} later under
+   * the write lock.
+   */
+  public void insertWithoutFlush(TSRecord tsRecord) {
     // memory control
     long memUage = MemUtils.getRecordSize(tsRecord);
     BasicMemController.getInstance().reportUse(this, memUage);
     // write data
     workSupport.insert(tsRecord);
-    valueCount++;
-    // check flush
-    memUage = memSize.addAndGet(memUage);
+    valueCount.incrementAndGet();
+    memSize.addAndGet(memUage);
+  }
+
+  /**
+   * insert all rows of a batch without flushing, see {@link #insertWithoutFlush(TSRecord)}.
+   */
+  public void insertWithoutFlush(BatchInsertPlan plan) {
+    long memUage = MemUtils.getBatchInsertPlanSize(plan);
+    BasicMemController.getInstance().reportUse(this, memUage);
+    workSupport.insert(plan);
+    valueCount.addAndGet(plan.getRowCount());
+    memSize.addAndGet(memUage);
+  }
+
+  /**
+   * @return true if the memory usage of the work memtable is beyond the memThreshold.
+   */
+  public boolean shouldFlush() {
+    return memSize.get() > memThreshold;
+  }
+
+  /**
+   * flush the work memtable asynchronously if its memory usage is beyond the memThreshold. The
+   * caller must guarantee that no insertion is writing into this processor.
+   */
+  public void flushIfFull() throws IOException {
+    long memUage = memSize.get();
     if (memUage > memThreshold) {
       LOGGER.warn("The usage of memory {} in overflow processor {} reaches the threshold {}",
           MemUtils.bytesCntToStr(memUage), getProcessorName(),
@@ -195,7 +240,7 @@ public class OverflowProcessor extends Processor {
   public void update(String deviceId, String measurementId, long startTime, long endTime,
       TSDataType type, byte[] value) {
     workSupport.update(deviceId, measurementId, startTime, endTime, type, value);
-    valueCount++;
+    valueCount.incrementAndGet();
   }
 
   /**
@@ -206,7 +251,7 @@ public class OverflowProcessor extends Processor {
       TSDataType type, String value) {
     workSupport.update(deviceId, measurementId, startTime, endTime, type,
         convertStringToBytes(type, value));
-    valueCount++;
+    valueCount.incrementAndGet();
   }
 
   private byte[] convertStringToBytes(TSDataType type, String o) {
@@ -489,7 +534,7 @@ public class OverflowProcessor extends Processor {
     }
     lastFlushTime = System.currentTimeMillis();
     // value count
-    if (valueCount > 0) {
+    if (valueCount.get() > 0) {
       try {
         flushFuture.get();
       } catch (InterruptedException | ExecutionException e) {
@@ -516,7 +561,7 @@ public class OverflowProcessor extends Processor {
       }
       BasicMemController.getInstance().reportFree(this, memSize.get());
       memSize.set(0);
-      valueCount = 0;
+      valueCount.set(0);
       // switch from work to flush
       switchWorkToFlush();
       flushFuture = FlushManager.getInstance().submit( () ->
@@ -643,7 +688,7 @@ public class OverflowProcessor extends Processor {
     }
     OverflowProcessor that = (OverflowProcessor) o;
     return isMerge == that.isMerge &&
-            valueCount == that.valueCount &&
+            valueCount.get() == that.valueCount.get() &&
             lastFlushTime == that.lastFlushTime &&
             memThreshold == that.memThreshold &&
             Objects.equals(workResource, that.workResource) &&
@@ -664,7 +709,7 @@ public class OverflowProcessor extends Processor {
   @Override
   public int hashCode() {
     return Objects.hash(super.hashCode(), workResource, mergeResource, workSupport,
-            flushSupport, flushFuture, isMerge, valueCount, parentPath, lastFlushTime,
+            flushSupport, flushFuture, isMerge, valueCount.get(), parentPath, lastFlushTime,
             dataPathCount, queryFlushLock, overflowFlushAction, filenodeFlushAction, fileSchema,
             memThreshold, memSize, logNode, flushFuture);
   }
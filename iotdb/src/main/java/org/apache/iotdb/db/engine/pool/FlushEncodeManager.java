@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.pool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+/**
+ * FlushEncodeManager owns the pool that sorts, encodes and compresses the series of flushing
+ * memtables. It is shared by all flushes, whose threads in {@link FlushManager} only append the
+ * finished chunks to their files, so that encoding later series overlaps with writing earlier ones.
+ */
+public class FlushEncodeManager {
+
+  private ExecutorService pool;
+  private int threadCnt;
+
+  private FlushEncodeManager() {
+    this.threadCnt = IoTDBDescriptor.getInstance().getConfig().getFlushEncodeThreadNum();
+    pool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadCnt, ThreadName.FLUSH_ENCODE_SERVICE.getName());
+  }
+
+  public static FlushEncodeManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    return pool.submit(task);
+  }
+
+  public int getThreadCnt() {
+    return threadCnt;
+  }
+
+  private static class InstanceHolder {
+    private InstanceHolder(){
+      //allowed to do nothing
+    }
+    private static FlushEncodeManager instance = new FlushEncodeManager();
+  }
+}
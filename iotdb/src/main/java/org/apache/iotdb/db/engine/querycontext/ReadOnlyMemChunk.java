@@ -18,10 +18,12 @@
  */
 package org.apache.iotdb.db.engine.querycontext;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.memtable.TimeValuePairSorter;
 import org.apache.iotdb.db.utils.MathUtils;
@@ -29,6 +31,7 @@ import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsFloat;
+import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -40,6 +43,10 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
 
   private TSDataType dataType;
   private TimeValuePairSorter memSeries;
+  /**
+   * the sorted snapshot of a memtable chunk, null if this chunk is read from memSeries.
+   */
+  private TVList chunkData;
   private List<TimeValuePair> sortedTimeValuePairList;
 
   Map<String, String> props;
@@ -58,6 +65,19 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
     }
   }
 
+  /**
+   * init by TSDataType and the sorted snapshot of a memtable chunk, which is owned by this chunk
+   * from then on. The float and double values are rounded in place.
+   */
+  public ReadOnlyMemChunk(TSDataType dataType, TVList sortedData, Map<String, String> props) {
+    this(dataType, (TimeValuePairSorter) null, props);
+    this.chunkData = sortedData;
+    TSDataType listType = sortedData.getDataType();
+    if (listType == TSDataType.FLOAT || listType == TSDataType.DOUBLE) {
+      chunkData.roundValues(floatPrecision);
+    }
+  }
+
   private void checkInitialized() {
     if (!initialized) {
       init();
@@ -65,22 +85,18 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
   }
 
   private void init() {
-    sortedTimeValuePairList = memSeries.getSortedTimeValuePairList();
-    if (!(memSeries instanceof MemSeriesLazyMerger)) {
-      switch (dataType) {
-        case FLOAT:
-          sortedTimeValuePairList.replaceAll(x -> new TimeValuePair(x.getTimestamp(),
-              new TsFloat(
-                  MathUtils.roundWithGivenPrecision(x.getValue().getFloat(), floatPrecision))));
-          break;
-        case DOUBLE:
-          sortedTimeValuePairList.replaceAll(x -> new TimeValuePair(x.getTimestamp(),
-              new TsDouble(
-                  MathUtils.roundWithGivenPrecision(x.getValue().getDouble(), floatPrecision))));
-          break;
-        default:
-          break;
+    if (chunkData != null) {
+      sortedTimeValuePairList = new ArrayList<>(chunkData.size());
+      for (int i = 0; i < chunkData.size(); i++) {
+        sortedTimeValuePairList.add(chunkData.getTimeValuePair(i));
       }
+      initialized = true;
+      return;
+    }
+    sortedTimeValuePairList = memSeries.getSortedTimeValuePairList();
+    if (!(memSeries instanceof MemSeriesLazyMerger)
+        && (dataType == TSDataType.FLOAT || dataType == TSDataType.DOUBLE)) {
+      sortedTimeValuePairList.replaceAll(this::roundValue);
     }
     initialized = true;
   }
@@ -92,10 +108,29 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
     return dataType;
   }
 
+  /**
+   * get the sorted lists holding the points of this chunk, so that the points can be read by their
+   * primitive values. The lists are in ascending order of time and their values are rounded.
+   *
+   * @return null if the points of this chunk are not held by sorted lists
+   */
+  public List<TVList> getSortedTVLists() {
+    if (chunkData != null) {
+      return Collections.singletonList(chunkData);
+    }
+    if (memSeries instanceof MemSeriesLazyMerger) {
+      return ((MemSeriesLazyMerger) memSeries).getSortedTVLists();
+    }
+    return null;
+  }
+
   /**
    * only for test now.
    */
   public long getMaxTimestamp() {
+    if (chunkData != null) {
+      return chunkData.size() > 0 ? chunkData.getTime(chunkData.size() - 1) : -1;
+    }
     checkInitialized();
     if (!isEmpty()) {
       return sortedTimeValuePairList.get(sortedTimeValuePairList.size() - 1).getTimestamp();
@@ -108,6 +143,9 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
    * only for test now.
    */
   public long getMinTimestamp() {
+    if (chunkData != null) {
+      return chunkData.size() > 0 ? chunkData.getTime(0) : -1;
+    }
     checkInitialized();
     if (!isEmpty()) {
       return sortedTimeValuePairList.get(0).getTimestamp();
@@ -120,6 +158,10 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
    * only for test now.
    */
   public TsPrimitiveType getValueAtMaxTime() {
+    if (chunkData != null) {
+      return chunkData.size() > 0 ? chunkData.getTimeValuePair(chunkData.size() - 1).getValue()
+          : null;
+    }
     checkInitialized();
     if (!isEmpty()) {
       return sortedTimeValuePairList.get(sortedTimeValuePairList.size() - 1).getValue();
@@ -132,6 +174,9 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
    * only for test now.
    */
   public TsPrimitiveType getValueAtMinTime() {
+    if (chunkData != null) {
+      return chunkData.size() > 0 ? chunkData.getTimeValuePair(0).getValue() : null;
+    }
     checkInitialized();
     if (!isEmpty()) {
       return sortedTimeValuePairList.get(0).getValue();
@@ -148,12 +193,67 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
 
   @Override
   public Iterator<TimeValuePair> getIterator() {
-    checkInitialized();
-    return sortedTimeValuePairList.iterator();
+    if (initialized) {
+      return sortedTimeValuePairList.iterator();
+    }
+    if (chunkData != null) {
+      // only the points taken by the caller are boxed
+      return new Iterator<TimeValuePair>() {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+          return index < chunkData.size();
+        }
+
+        @Override
+        public TimeValuePair next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return chunkData.getTimeValuePair(index++);
+        }
+      };
+    }
+    // iterate the underlying data directly instead of materializing the whole list
+    Iterator<TimeValuePair> iterator = memSeries.getIterator();
+    if (memSeries instanceof MemSeriesLazyMerger
+        || (dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE)) {
+      return iterator;
+    }
+    return new Iterator<TimeValuePair>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public TimeValuePair next() {
+        return roundValue(iterator.next());
+      }
+    };
+  }
+
+  private TimeValuePair roundValue(TimeValuePair timeValuePair) {
+    if (dataType == TSDataType.FLOAT) {
+      return new TimeValuePair(timeValuePair.getTimestamp(), new TsFloat(
+          MathUtils.roundWithGivenPrecision(timeValuePair.getValue().getFloat(), floatPrecision)));
+    }
+    return new TimeValuePair(timeValuePair.getTimestamp(), new TsDouble(
+        MathUtils.roundWithGivenPrecision(timeValuePair.getValue().getDouble(), floatPrecision)));
   }
 
   @Override
   public boolean isEmpty() {
+    List<TVList> sortedLists = getSortedTVLists();
+    if (sortedLists != null) {
+      for (TVList sortedList : sortedLists) {
+        if (sortedList.size() > 0) {
+          return false;
+        }
+      }
+      return true;
+    }
     checkInitialized();
     return sortedTimeValuePairList.isEmpty();
   }
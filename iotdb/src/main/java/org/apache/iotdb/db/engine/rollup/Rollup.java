@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * Rollup holds the buckets of one rollup interval of one chunk. The bucket of a point starts at
+ * the point's timestamp rounded down to a multiple of the interval, and buckets without points are
+ * omitted.
+ */
+public class Rollup {
+
+  private String deviceId;
+  private String measurementId;
+  private TSDataType dataType;
+  private long interval;
+  private long startTime;
+  private long endTime;
+  private long numOfPoints;
+  private List<RollupBucket> buckets;
+
+  Rollup(String deviceId, String measurementId, TSDataType dataType, long interval) {
+    this.deviceId = deviceId;
+    this.measurementId = measurementId;
+    this.dataType = dataType;
+    this.interval = interval;
+    this.buckets = new ArrayList<>();
+  }
+
+  /**
+   * get the bucket of a point. Points must be given in ascending order of timestamp.
+   */
+  RollupBucket getBucket(long timestamp) {
+    RollupBucket lastBucket = buckets.isEmpty() ? null : buckets.get(buckets.size() - 1);
+    if (lastBucket == null) {
+      startTime = timestamp;
+    }
+    if (lastBucket == null || bucketStart(timestamp, interval) != bucketStart(
+        lastBucket.getMinTimestamp(), interval)) {
+      lastBucket = new RollupBucket(timestamp, dataType);
+      buckets.add(lastBucket);
+    }
+    endTime = timestamp;
+    numOfPoints++;
+    return lastBucket;
+  }
+
+  /**
+   * the start of the bucket a timestamp belongs to.
+   */
+  public static long bucketStart(long timestamp, long interval) {
+    return Math.floorDiv(timestamp, interval) * interval;
+  }
+
+  /**
+   * choose the coarsest interval whose buckets fit in the groups of a group by query, i.e. the
+   * unit is a multiple of the interval and the origin is the start of a bucket.
+   *
+   * @param intervals rollup intervals in ascending order
+   * @return 0 if no interval fits
+   */
+  public static long chooseInterval(long[] intervals, long unit, long origin) {
+    for (int i = intervals.length - 1; i >= 0; i--) {
+      if (unit % intervals[i] == 0 && bucketStart(origin, intervals[i]) == origin) {
+        return intervals[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * judge if the rollup is computed from the data of a chunk. Only a chunk without deleted data
+   * matches, as the buckets are not updated by deletions.
+   */
+  public boolean matches(ChunkMetaData chunkMetaData) {
+    return chunkMetaData.getStartTime() == startTime && chunkMetaData.getEndTime() == endTime
+        && chunkMetaData.getNumOfPoints() == numOfPoints
+        && chunkMetaData.getDeletedAt() < startTime;
+  }
+
+  public String getDeviceId() {
+    return deviceId;
+  }
+
+  public String getMeasurementId() {
+    return measurementId;
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  public long getInterval() {
+    return interval;
+  }
+
+  public List<RollupBucket> getBuckets() {
+    return buckets;
+  }
+
+  void serializeTo(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(deviceId, outputStream);
+    ReadWriteIOUtils.write(measurementId, outputStream);
+    ReadWriteIOUtils.write(dataType, outputStream);
+    ReadWriteIOUtils.write(interval, outputStream);
+    ReadWriteIOUtils.write(startTime, outputStream);
+    ReadWriteIOUtils.write(endTime, outputStream);
+    ReadWriteIOUtils.write(numOfPoints, outputStream);
+    ReadWriteIOUtils.write(buckets.size(), outputStream);
+    for (RollupBucket bucket : buckets) {
+      bucket.serializeTo(outputStream);
+    }
+  }
+
+  static Rollup deserializeFrom(ByteBuffer buffer) throws IOException {
+    String deviceId = ReadWriteIOUtils.readString(buffer);
+    String measurementId = ReadWriteIOUtils.readString(buffer);
+    TSDataType dataType = ReadWriteIOUtils.readDataType(buffer);
+    long interval = ReadWriteIOUtils.readLong(buffer);
+    Rollup rollup = new Rollup(deviceId, measurementId, dataType, interval);
+    rollup.startTime = ReadWriteIOUtils.readLong(buffer);
+    rollup.endTime = ReadWriteIOUtils.readLong(buffer);
+    rollup.numOfPoints = ReadWriteIOUtils.readLong(buffer);
+    int bucketNum = ReadWriteIOUtils.readInt(buffer);
+    for (int i = 0; i < bucketNum; i++) {
+      rollup.buckets.add(RollupBucket.deserializeFrom(buffer, dataType));
+    }
+    return rollup;
+  }
+}
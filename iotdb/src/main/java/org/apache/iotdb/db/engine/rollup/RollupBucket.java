@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * RollupBucket holds the count, sum, min, max, first and last of the points of one chunk in one
+ * rollup interval.
+ */
+public class RollupBucket {
+
+  private int count;
+  private long minTimestamp;
+  private long maxTimestamp;
+  private Statistics<?> statistics;
+
+  RollupBucket(long timestamp, TSDataType dataType) {
+    this.minTimestamp = timestamp;
+    this.maxTimestamp = timestamp;
+    this.statistics = Statistics.getStatsByType(dataType);
+  }
+
+  private RollupBucket(int count, long minTimestamp, long maxTimestamp,
+      Statistics<?> statistics) {
+    this.count = count;
+    this.minTimestamp = minTimestamp;
+    this.maxTimestamp = maxTimestamp;
+    this.statistics = statistics;
+  }
+
+  /**
+   * count a point whose value has been put into getStatistics().
+   */
+  void count(long timestamp) {
+    count++;
+    maxTimestamp = timestamp;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public long getMinTimestamp() {
+    return minTimestamp;
+  }
+
+  public long getMaxTimestamp() {
+    return maxTimestamp;
+  }
+
+  public Statistics<?> getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * a page header carrying the statistics of the bucket, so that the bucket can be aggregated like
+   * a page.
+   */
+  public PageHeader toPageHeader() {
+    return new PageHeader(0, 0, count, statistics, maxTimestamp, minTimestamp);
+  }
+
+  void serializeTo(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(count, outputStream);
+    ReadWriteIOUtils.write(minTimestamp, outputStream);
+    ReadWriteIOUtils.write(maxTimestamp, outputStream);
+    statistics.serialize(outputStream);
+  }
+
+  static RollupBucket deserializeFrom(ByteBuffer buffer, TSDataType dataType) throws IOException {
+    int count = ReadWriteIOUtils.readInt(buffer);
+    long minTimestamp = ReadWriteIOUtils.readLong(buffer);
+    long maxTimestamp = ReadWriteIOUtils.readLong(buffer);
+    Statistics<?> statistics = Statistics.deserialize(buffer, dataType);
+    return new RollupBucket(count, minTimestamp, maxTimestamp, statistics);
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * RollupBuilder computes the rollups of all intervals of a chunk while its points are written in
+ * ascending order of timestamp.
+ */
+public class RollupBuilder {
+
+  private List<Rollup> rollups;
+
+  public RollupBuilder(String deviceId, String measurementId, TSDataType dataType,
+      long[] intervals) {
+    rollups = new ArrayList<>(intervals.length);
+    for (long interval : intervals) {
+      rollups.add(new Rollup(deviceId, measurementId, dataType, interval));
+    }
+  }
+
+  public void update(long time, boolean value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  public void update(long time, int value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  public void update(long time, long value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  public void update(long time, float value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  public void update(long time, double value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  public void update(long time, Binary value) {
+    for (Rollup rollup : rollups) {
+      RollupBucket bucket = rollup.getBucket(time);
+      bucket.getStatistics().updateStats(value);
+      bucket.count(time);
+    }
+  }
+
+  /**
+   * @return the rollups of the written points, empty if no point is written
+   */
+  public List<Rollup> getRollups() {
+    List<Rollup> result = new ArrayList<>(rollups.size());
+    for (Rollup rollup : rollups) {
+      if (!rollup.getBuckets().isEmpty()) {
+        result.add(rollup);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RollupFile stores the rollups of a TsFile in another file in the same directory. Rollups are
+ * appended each time chunks are flushed into the TsFile, each prefixed by its length so that an
+ * incomplete one left by a crash is ignored. A rollup is only used for the chunk it matches, see
+ * {@link Rollup#matches}, so rollups of chunks lost in recovery are never used.
+ */
+public class RollupFile {
+
+  public static final String FILE_SUFFIX = ".rollup";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RollupFile.class);
+
+  private RollupFile() {
+    // util class
+  }
+
+  /**
+   * append rollups to the rollup file of a TsFile.
+   */
+  public static void append(String tsFilePath, List<Rollup> rollups) throws IOException {
+    if (rollups.isEmpty()) {
+      return;
+    }
+    PublicBAOS rollupBuffer = new PublicBAOS();
+    try (OutputStream outputStream = new FileOutputStream(tsFilePath + FILE_SUFFIX, true)) {
+      for (Rollup rollup : rollups) {
+        rollupBuffer.reset();
+        rollup.serializeTo(rollupBuffer);
+        ReadWriteIOUtils.write(rollupBuffer.size(), outputStream);
+        outputStream.write(rollupBuffer.getBuf(), 0, rollupBuffer.size());
+      }
+    }
+  }
+
+  /**
+   * read all rollups from the rollup file of a TsFile. Queries get them from
+   * {@link org.apache.iotdb.db.engine.cache.MetaDataCache} instead of reading the file each time.
+   *
+   * @return an empty list if the TsFile has no rollup file
+   */
+  public static List<Rollup> read(String tsFilePath) throws IOException {
+    List<Rollup> rollups = new ArrayList<>();
+    File file = new File(tsFilePath + FILE_SUFFIX);
+    if (!file.exists()) {
+      return rollups;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    while (buffer.remaining() >= Integer.BYTES) {
+      int length = ReadWriteIOUtils.readInt(buffer);
+      if (length < 0 || length > buffer.remaining()) {
+        LOGGER.warn("Ignore the incomplete rollup at {} of {}", buffer.position(), file);
+        break;
+      }
+      int nextPosition = buffer.position() + length;
+      rollups.add(Rollup.deserializeFrom(buffer));
+      buffer.position(nextPosition);
+    }
+    return rollups;
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.exception;
+
+/**
+ * BatchInsertException is thrown when a batch fails after some of its rows are inserted, the
+ * inserted rows are not rolled back.
+ */
+public class BatchInsertException extends FileNodeManagerException {
+
+  private static final long serialVersionUID = 2473718531632914702L;
+
+  private final int[] insertedRows;
+
+  /**
+   * @param insertedRows the indexes of the inserted rows in the batch
+   */
+  public BatchInsertException(String message, int[] insertedRows) {
+    super(message);
+    this.insertedRows = insertedRows;
+  }
+
+  public int[] getInsertedRows() {
+    return insertedRows;
+  }
+}
@@ -44,6 +44,7 @@ import org.apache.iotdb.db.qp.logical.sys.AuthorOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -120,6 +121,9 @@ public class OverflowQPExecutor extends QueryProcessExecutor {
         int result = multiInsert(insert.getDeviceId(), insert.getTime(), insert.getMeasurements(),
             insert.getValues());
         return result > 0;
+      case BATCHINSERT:
+        BatchInsertPlan batchInsert = (BatchInsertPlan) plan;
+        return insertBatch(batchInsert) == batchInsert.getRowCount();
       case CREATE_ROLE:
       case DELETE_ROLE:
       case CREATE_USER:
@@ -194,6 +198,12 @@ public class OverflowQPExecutor extends QueryProcessExecutor {
     return queryRouter.fill(fillPaths, queryTime, fillTypes, context);
   }
 
+  @Override
+  public QueryDataSet last(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, FileNodeManagerException {
+    return queryRouter.last(paths, context);
+  }
+
   @Override
   public QueryDataSet groupBy(List<Path> paths, List<String> aggres, IExpression expression,
       long unit, long origin, List<Pair<Long, Long>> intervals, QueryContext context)
@@ -298,6 +308,37 @@ public class OverflowQPExecutor extends QueryProcessExecutor {
     }
   }
 
+  @Override
+  public int insertBatch(BatchInsertPlan plan) throws ProcessorException {
+    String deviceId = plan.getDeviceId();
+    List<String> measurementList = plan.getMeasurements();
+    try {
+      MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
+      for (int i = 0; i < measurementList.size(); i++) {
+        if (!node.hasChild(measurementList.get(i))) {
+          throw new ProcessorException(
+              String.format("Current deviceId[%s] does not contains measurement:%s",
+                  deviceId, measurementList.get(i)));
+        }
+        MNode measurementNode = node.getChild(measurementList.get(i));
+        if (!measurementNode.isLeaf()) {
+          throw new ProcessorException(
+              String.format("Current Path is not leaf node. %s.%s", deviceId,
+                  measurementList.get(i)));
+        }
+        TSDataType dataType = measurementNode.getSchema().getType();
+        if (dataType != plan.getDataTypes().get(i)) {
+          throw new ProcessorException(
+              String.format("The data type of %s.%s is %s, but %s is given", deviceId,
+                  measurementList.get(i), dataType, plan.getDataTypes().get(i)));
+        }
+      }
+      return fileNodeManager.insertBatch(plan, false);
+    } catch (PathErrorException | FileNodeManagerException e) {
+      throw new ProcessorException(e.getMessage());
+    }
+  }
+
   @Override
   public List<String> getAllPaths(String originPath) throws PathErrorException {
     return MManager.getInstance().getPaths(originPath);
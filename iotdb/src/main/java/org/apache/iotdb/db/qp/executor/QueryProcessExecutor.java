@@ -30,7 +30,9 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
+import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -80,6 +82,9 @@ public abstract class QueryProcessExecutor {
       return fill(queryPlan.getPaths(), fillQueryPlan.getQueryTime(),
           fillQueryPlan.getFillType(), context);
     }
+    if (queryPlan instanceof LastQueryPlan) {
+      return last(queryPlan.getPaths(), context);
+    }
     return queryRouter.query(queryExpression, context);
   }
 
@@ -115,6 +120,9 @@ public abstract class QueryProcessExecutor {
       IFill> fillTypes, QueryContext context)
       throws ProcessorException, IOException, PathErrorException, FileNodeManagerException;
 
+  public abstract QueryDataSet last(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, FileNodeManagerException;
+
   /**
    * executeWithGlobalTimeFilter update command and return whether the operator is successful.
    *
@@ -193,6 +201,14 @@ public abstract class QueryProcessExecutor {
   public abstract int multiInsert(String deviceId, long insertTime, List<String> measurementList,
       List<String> insertValues) throws ProcessorException;
 
+  /**
+   * insert a batch of rows of one device without parsing or converting the values.
+   *
+   * @param plan the rows in columnar form
+   * @return the number of inserted rows
+   */
+  public abstract int insertBatch(BatchInsertPlan plan) throws ProcessorException;
+
   public abstract List<String> getAllPaths(String originPath) throws PathErrorException;
 
 }
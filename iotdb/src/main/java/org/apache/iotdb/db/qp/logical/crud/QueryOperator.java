@@ -36,6 +36,7 @@ public class QueryOperator extends SFWOperator {
   private boolean isGroupBy = false;
   private Map<TSDataType, IFill> fillTypes;
   private boolean isFill = false;
+  private boolean isLast = false;
   private int seriesLimit;
   private int seriesOffset;
   private boolean hasSlimit = false; // false if sql does not contain SLIMIT clause
@@ -52,6 +53,14 @@ public class QueryOperator extends SFWOperator {
     isFill = fill;
   }
 
+  public boolean isLast() {
+    return isLast;
+  }
+
+  public void setLast(boolean last) {
+    isLast = last;
+  }
+
   public Map<TSDataType, IFill> getFillTypes() {
     return fillTypes;
   }
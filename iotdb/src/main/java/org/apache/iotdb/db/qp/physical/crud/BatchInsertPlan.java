@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.crud;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.iotdb.db.qp.logical.Operator;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+
+/**
+ * BatchInsertPlan inserts many rows of one device at once. The values are kept in columns, one
+ * primitive array (boolean[], int[], long[], float[], double[] or Binary[]) per measurement, so
+ * that neither the values nor the timestamps are ever converted to String.
+ */
+public class BatchInsertPlan extends PhysicalPlan {
+
+  private String deviceId;
+  private List<String> measurements;
+  private List<TSDataType> dataTypes;
+  private long[] times;
+  private Object[] columns;
+  private int rowCount;
+
+  public BatchInsertPlan(String deviceId, List<String> measurements, List<TSDataType> dataTypes,
+      long[] times, Object[] columns, int rowCount) {
+    super(false, Operator.OperatorType.BATCHINSERT);
+    this.deviceId = deviceId;
+    this.measurements = measurements;
+    this.dataTypes = dataTypes;
+    this.times = times;
+    this.columns = columns;
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * make a batch of the single row of a TSRecord, its values are kept typed.
+   */
+  public BatchInsertPlan(TSRecord tsRecord) {
+    super(false, Operator.OperatorType.BATCHINSERT);
+    int size = tsRecord.dataPointList.size();
+    this.deviceId = tsRecord.deviceId;
+    this.measurements = new ArrayList<>(size);
+    this.dataTypes = new ArrayList<>(size);
+    this.times = new long[]{tsRecord.time};
+    this.columns = new Object[size];
+    this.rowCount = 1;
+    for (int i = 0; i < size; i++) {
+      DataPoint dataPoint = tsRecord.dataPointList.get(i);
+      measurements.add(dataPoint.getMeasurementId());
+      dataTypes.add(dataPoint.getType());
+      columns[i] = singletonColumn(dataPoint.getType(), dataPoint.getValue());
+    }
+  }
+
+  private static Object singletonColumn(TSDataType dataType, Object value) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[]{(Boolean) value};
+      case INT32:
+        return new int[]{(Integer) value};
+      case INT64:
+        return new long[]{(Long) value};
+      case FLOAT:
+        return new float[]{(Float) value};
+      case DOUBLE:
+        return new double[]{(Double) value};
+      case TEXT:
+        return new Binary[]{(Binary) value};
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  @Override
+  public List<Path> getPaths() {
+    List<Path> ret = new ArrayList<>();
+    for (String m : measurements) {
+      ret.add(new Path(deviceId + "." + m));
+    }
+    return ret;
+  }
+
+  public String getDeviceId() {
+    return deviceId;
+  }
+
+  public List<String> getMeasurements() {
+    return measurements;
+  }
+
+  public List<TSDataType> getDataTypes() {
+    return dataTypes;
+  }
+
+  public long[] getTimes() {
+    return times;
+  }
+
+  public Object[] getColumns() {
+    return columns;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public long getMinTime() {
+    long minTime = Long.MAX_VALUE;
+    for (int i = 0; i < rowCount; i++) {
+      minTime = Math.min(minTime, times[i]);
+    }
+    return minTime;
+  }
+
+  public long getMaxTime() {
+    long maxTime = Long.MIN_VALUE;
+    for (int i = 0; i < rowCount; i++) {
+      maxTime = Math.max(maxTime, times[i]);
+    }
+    return maxTime;
+  }
+
+  /**
+   * copy the rows from start (inclusive) to end (exclusive) into a new plan of the same device and
+   * measurements.
+   */
+  public BatchInsertPlan subPlan(int start, int end) {
+    int[] rows = new int[end - start];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = start + i;
+    }
+    return subPlan(rows, rows.length);
+  }
+
+  /**
+   * copy the given rows into a new plan of the same device and measurements.
+   *
+   * @param rows indexes of the rows to be copied
+   * @param size the number of valid indexes in rows
+   */
+  public BatchInsertPlan subPlan(int[] rows, int size) {
+    long[] subTimes = new long[size];
+    for (int i = 0; i < size; i++) {
+      subTimes[i] = times[rows[i]];
+    }
+    Object[] subColumns = new Object[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      subColumns[i] = copyRows(dataTypes.get(i), columns[i], rows, size);
+    }
+    BatchInsertPlan plan = new BatchInsertPlan(deviceId, measurements, dataTypes, subTimes,
+        subColumns, size);
+    plan.setProposer(getProposer());
+    return plan;
+  }
+
+  private static Object copyRows(TSDataType dataType, Object column, int[] rows, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[size];
+        for (int i = 0; i < size; i++) {
+          booleans[i] = ((boolean[]) column)[rows[i]];
+        }
+        return booleans;
+      case INT32:
+        int[] ints = new int[size];
+        for (int i = 0; i < size; i++) {
+          ints[i] = ((int[]) column)[rows[i]];
+        }
+        return ints;
+      case INT64:
+        long[] longs = new long[size];
+        for (int i = 0; i < size; i++) {
+          longs[i] = ((long[]) column)[rows[i]];
+        }
+        return longs;
+      case FLOAT:
+        float[] floats = new float[size];
+        for (int i = 0; i < size; i++) {
+          floats[i] = ((float[]) column)[rows[i]];
+        }
+        return floats;
+      case DOUBLE:
+        double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+          doubles[i] = ((double[]) column)[rows[i]];
+        }
+        return doubles;
+      case TEXT:
+        Binary[] binaries = new Binary[size];
+        for (int i = 0; i < size; i++) {
+          binaries[i] = ((Binary[]) column)[rows[i]];
+        }
+        return binaries;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BatchInsertPlan that = (BatchInsertPlan) o;
+    if (rowCount != that.rowCount || !Objects.equals(deviceId, that.deviceId)
+        || !Objects.equals(measurements, that.measurements)
+        || !Objects.equals(dataTypes, that.dataTypes)
+        || !Arrays.equals(Arrays.copyOf(times, rowCount), Arrays.copyOf(that.times, rowCount))) {
+      return false;
+    }
+    for (int i = 0; i < columns.length; i++) {
+      if (!Arrays.deepEquals(new Object[]{copyRows(dataTypes.get(i), columns[i], rowCount)},
+          new Object[]{copyRows(dataTypes.get(i), that.columns[i], rowCount)})) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(deviceId, measurements, rowCount);
+  }
+
+  private static Object copyRows(TSDataType dataType, Object column, int size) {
+    int[] rows = new int[size];
+    for (int i = 0; i < size; i++) {
+      rows[i] = i;
+    }
+    return copyRows(dataType, column, rows, size);
+  }
+
+  @Override
+  public String toString() {
+    return "BatchInsertPlan{deviceId=" + deviceId + ", measurements=" + measurements
+        + ", rowCount=" + rowCount + "}";
+  }
+}
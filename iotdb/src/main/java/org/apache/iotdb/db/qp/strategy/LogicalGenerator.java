@@ -102,6 +102,7 @@ public class LogicalGenerator {
         analyzeInsert(astNode);
         return;
       case TSParser.TOK_SELECT:
+      case TSParser.TOK_SELECT_LAST:
         analyzeSelectedPath(astNode);
         return;
       case TSParser.TOK_FROM:
@@ -554,6 +555,12 @@ public class LogicalGenerator {
           selectOp.addSelectPath(selectPath);
         }
       }
+    } else if (tokenIntType == TSParser.TOK_SELECT_LAST) {
+      int selChildCount = astNode.getChildCount();
+      for (int i = 0; i < selChildCount; i++) {
+        selectOp.addSelectPath(parsePath(astNode.getChild(i)));
+      }
+      ((QueryOperator) initializedOperator).setLast(true);
     } else if (tokenIntType == TSParser.TOK_PATH) {
       Path selectPath = parsePath(astNode);
       selectOp.addSelectPath(selectPath);
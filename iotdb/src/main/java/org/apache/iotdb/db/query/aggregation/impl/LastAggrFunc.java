@@ -25,12 +25,18 @@ import org.apache.iotdb.db.query.aggregation.AggregateFunction;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.merge.EngineReaderByTimeStamp;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
 public class LastAggrFunc extends AggregateFunction {
 
+  /**
+   * time of the last point, as the time of the result is reset by {@link #getResult()}.
+   */
+  private long lastTime;
+
   public LastAggrFunc(TSDataType dataType) {
     super(dataType);
   }
@@ -38,6 +44,7 @@ public class LastAggrFunc extends AggregateFunction {
   @Override
   public void init() {
     resultData.reSet();
+    lastTime = -1;
   }
 
   @Override
@@ -48,6 +55,17 @@ public class LastAggrFunc extends AggregateFunction {
     return resultData;
   }
 
+  /**
+   * get the last point found, null if there is no data.
+   */
+  public TimeValuePair getLastPoint() {
+    if (!resultData.isSetValue()) {
+      return null;
+    }
+    return new TimeValuePair(lastTime,
+        TsPrimitiveType.getByType(resultData.getDataType(), resultData.getValue()));
+  }
+
   @Override
   public void calculateValueFromPageHeader(PageHeader pageHeader) {
     Object lastVal = pageHeader.getStatistics().getLast();
@@ -141,9 +159,11 @@ public class LastAggrFunc extends AggregateFunction {
   private void updateLastResult(long time, Object value) {
     if (!resultData.isSetTime()) {
       resultData.putTimeAndValue(time, value);
+      lastTime = time;
     } else {
       if (time >= resultData.getTimestamp()) {
         resultData.putTimeAndValue(time, value);
+        lastTime = time;
       }
     }
   }
@@ -24,8 +24,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.exception.QueryCancelledException;
+import org.apache.iotdb.db.exception.QueryMemoryExceededException;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
 
 /**
  * QueryContext contains the shared information with in a query.
@@ -44,7 +48,30 @@ public class QueryContext {
    */
   private Map<String, List<Modification>> fileModCache = new HashMap<>();
 
-  private long jobId;
+  /**
+   * read by {@link org.apache.iotdb.db.service.TSServiceImpl#cancelOperation} from other threads.
+   */
+  private volatile long jobId;
+
+  /**
+   * size of the chunks read ahead for this query but not consumed yet.
+   */
+  private AtomicLong prefetchedChunkSize = new AtomicLong();
+
+  /**
+   * memory used by the readers of this query, see {@link #allocateMemory(long)}.
+   */
+  private long usedMemory;
+
+  /**
+   * set by {@link #cancel()} from any thread, checked by the readers and loops of the query.
+   */
+  private volatile boolean cancelled;
+
+  /**
+   * time in ms after which the query is stopped, Long.MAX_VALUE if there is none.
+   */
+  private volatile long deadline = Long.MAX_VALUE;
 
   public QueryContext() {
   }
@@ -57,7 +84,8 @@ public class QueryContext {
    * Find the modifications of timeseries 'path' in 'modFile'. If they are not in the cache, read
    * them from 'modFile' and put then into the cache.
    */
-  public List<Modification> getPathModifications(ModificationFile modFile, String path)
+  public synchronized List<Modification> getPathModifications(ModificationFile modFile,
+      String path)
       throws IOException {
 
     Map<String, List<Modification>> fileModifications =
@@ -92,4 +120,84 @@ public class QueryContext {
   public void setJobId(long jobId) {
     this.jobId = jobId;
   }
+
+  public long getPrefetchedChunkSize() {
+    return prefetchedChunkSize.get();
+  }
+
+  /**
+   * @param delta positive when a chunk is read ahead, negative when it is consumed or dropped
+   */
+  public void addPrefetchedChunkSize(long delta) {
+    prefetchedChunkSize.addAndGet(delta);
+  }
+
+  /**
+   * charge memory used by a reader of this query. The memory reserved for the query when it was
+   * admitted is used first, and more is reserved from the query memory without waiting.
+   *
+   * @throws QueryMemoryExceededException if the query would exceed its own budget, or the query
+   * memory is used up by other queries
+   */
+  public synchronized void allocateMemory(long size) throws QueryMemoryExceededException {
+    QueryResourceManager resourceManager = QueryResourceManager.getInstance();
+    long maxMemory = resourceManager.getMaxMemoryPerQuery();
+    if (usedMemory + size > maxMemory) {
+      throw new QueryMemoryExceededException(String.format(
+          "Query %d needs more than %d bytes of memory, which exceeds its budget", jobId,
+          maxMemory));
+    }
+    if (!resourceManager.reserveMemory(jobId, usedMemory + size)) {
+      throw new QueryMemoryExceededException(String.format(
+          "Query %d cannot get %d bytes of memory, which is used up by other queries", jobId,
+          usedMemory + size));
+    }
+    usedMemory += size;
+  }
+
+  public synchronized void releaseMemory(long size) {
+    usedMemory -= size;
+  }
+
+  public synchronized long getUsedMemory() {
+    return usedMemory;
+  }
+
+  /**
+   * stop the query. It takes effect the next time the query checks it by {@link
+   * #checkInterrupted()}.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * @param deadline time in ms after which the query is stopped, Long.MAX_VALUE for no limit
+   */
+  public void setDeadline(long deadline) {
+    this.deadline = deadline;
+  }
+
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * stop the query if it is cancelled or has passed its deadline. It is checked between batches
+   * and pages, so that a stopped query releases its readers soon.
+   *
+   * @throws QueryCancelledException if the query is cancelled or has passed its deadline
+   */
+  public void checkInterrupted() throws QueryCancelledException {
+    if (cancelled) {
+      throw new QueryCancelledException(String.format("Query %d is cancelled", jobId));
+    }
+    if (deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline) {
+      throw new QueryCancelledException(String.format("Query %d timed out", jobId));
+    }
+  }
 }
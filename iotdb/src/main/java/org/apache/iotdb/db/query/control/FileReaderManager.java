@@ -18,7 +18,9 @@
  */
 package org.apache.iotdb.db.query.control;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -26,10 +28,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.engine.cache.MetaDataCache;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.UnClosedTsFileReader;
+import org.apache.iotdb.tsfile.read.reader.MmapTsFileInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +73,16 @@ public class FileReaderManager implements IService {
    */
   private ConcurrentHashMap<String, AtomicInteger> unclosedReferenceMap;
 
+  /**
+   * the key of mappedFileSizeMap is the path of a closed file read through mmap and the value is
+   * the mapped size.
+   */
+  private ConcurrentHashMap<String, Long> mappedFileSizeMap;
+  /**
+   * total size of the mapped files, bounded by the mmap size limit of the config.
+   */
+  private long mappedSize;
+
   private ScheduledExecutorService executorService;
 
   private FileReaderManager() {
@@ -75,6 +90,7 @@ public class FileReaderManager implements IService {
     unclosedFileReaderMap = new ConcurrentHashMap<>();
     closedReferenceMap = new ConcurrentHashMap<>();
     unclosedReferenceMap = new ConcurrentHashMap<>();
+    mappedFileSizeMap = new ConcurrentHashMap<>();
     executorService = IoTDBThreadPoolFactory.newScheduledThreadPool(1,
         "opended-files-manager");
 
@@ -91,14 +107,14 @@ public class FileReaderManager implements IService {
 
     executorService.scheduleAtFixedRate(() -> {
       synchronized (this) {
-        clearMap(closedFileReaderMap, closedReferenceMap);
-        clearMap(unclosedFileReaderMap, unclosedReferenceMap);
+        clearMap(closedFileReaderMap, closedReferenceMap, true);
+        clearMap(unclosedFileReaderMap, unclosedReferenceMap, false);
       }
     }, 0, examinePeriod, TimeUnit.MILLISECONDS);
   }
 
   private void clearMap(Map<String, TsFileSequenceReader> readerMap,
-      Map<String, AtomicInteger> refMap) {
+      Map<String, AtomicInteger> refMap, boolean isClosed) {
     for (Map.Entry<String, TsFileSequenceReader> entry : readerMap.entrySet()) {
       TsFileSequenceReader reader = entry.getValue();
       int referenceNum = refMap.get(entry.getKey()).get();
@@ -111,6 +127,9 @@ public class FileReaderManager implements IService {
         }
         readerMap.remove(entry.getKey());
         refMap.remove(entry.getKey());
+        if (isClosed) {
+          releaseMappedSize(entry.getKey());
+        }
       }
     }
   }
@@ -137,7 +156,7 @@ public class FileReaderManager implements IService {
       }
 
       TsFileSequenceReader tsFileReader = !isClosed ? new UnClosedTsFileReader(filePath)
-          : new TsFileSequenceReader(filePath);
+          : createClosedFileReader(filePath);
 
       readerMap.put(filePath, tsFileReader);
       return tsFileReader;
@@ -146,6 +165,37 @@ public class FileReaderManager implements IService {
     return readerMap.get(filePath);
   }
 
+  /**
+   * A closed file no longer changes, so it is memory-mapped as long as the total mapped size stays
+   * within the limit. Otherwise, or when the mapping fails, it is read through its file channel.
+   */
+  private TsFileSequenceReader createClosedFileReader(String filePath) throws IOException {
+    long sizeLimit = IoTDBDescriptor.getInstance().getConfig().getMmapFileReaderSizeLimitInByte();
+    long fileSize = new File(filePath).length();
+    if (fileSize > 0 && mappedSize + fileSize <= sizeLimit) {
+      MmapTsFileInput input = null;
+      try {
+        input = new MmapTsFileInput(Paths.get(filePath));
+      } catch (IOException e) {
+        LOGGER.warn("Can not map file {}, read it without mmap.", filePath, e);
+      }
+      if (input != null) {
+        TsFileSequenceReader reader = new TsFileSequenceReader(filePath, input);
+        mappedSize += fileSize;
+        mappedFileSizeMap.put(filePath, fileSize);
+        return reader;
+      }
+    }
+    return new TsFileSequenceReader(filePath);
+  }
+
+  private void releaseMappedSize(String filePath) {
+    Long fileSize = mappedFileSizeMap.remove(filePath);
+    if (fileSize != null) {
+      mappedSize -= fileSize;
+    }
+  }
+
   /**
    * Increase the reference count of the reader specified by filePath. Only when the reference count
    * of a reader equals zero, the reader can be closed and removed.
@@ -171,10 +221,13 @@ public class FileReaderManager implements IService {
   }
 
   /**
-   * This method is used when the given file path is deleted.
+   * This method is used when the given file path is deleted. The chunks and metadata of the file
+   * cached in {@link ChunkCache} and {@link MetaDataCache} are removed as well.
    */
   public synchronized void closeFileAndRemoveReader(String filePath)
       throws IOException {
+    ChunkCache.getInstance().remove(filePath);
+    MetaDataCache.getInstance().remove(filePath);
     if (unclosedFileReaderMap.containsKey(filePath)) {
       unclosedReferenceMap.remove(filePath);
       unclosedFileReaderMap.get(filePath).close();
@@ -184,6 +237,7 @@ public class FileReaderManager implements IService {
       closedReferenceMap.remove(filePath);
       closedFileReaderMap.get(filePath).close();
       closedFileReaderMap.remove(filePath);
+      releaseMappedSize(filePath);
     }
   }
 
@@ -196,6 +250,7 @@ public class FileReaderManager implements IService {
       entry.getValue().close();
       closedReferenceMap.remove(entry.getKey());
       closedFileReaderMap.remove(entry.getKey());
+      releaseMappedSize(entry.getKey());
     }
     for (Map.Entry<String, TsFileSequenceReader> entry : unclosedFileReaderMap.entrySet()) {
       entry.getValue().close();
@@ -212,6 +267,13 @@ public class FileReaderManager implements IService {
         || (!isClosed && unclosedFileReaderMap.containsKey(filePath));
   }
 
+  /**
+   * This method is only for unit tests.
+   */
+  public synchronized long getMappedSize() {
+    return mappedSize;
+  }
+
   @Override
   public void start() {
     // Do nothing
@@ -19,12 +19,18 @@
 package org.apache.iotdb.db.query.control;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.filenode.FileNodeManager;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.FileNodeManagerException;
@@ -34,6 +40,7 @@ import org.apache.iotdb.tsfile.read.expression.ExpressionType;
 import org.apache.iotdb.tsfile.read.expression.IBinaryExpression;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
  * <p>
@@ -46,6 +53,12 @@ import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
  * 4. getQueryDataSource - open files for the job or reuse existing readers.
  * 5. endQueryForGivenJob - release the resource used by this job.
  * </p>
+ * <p>
+ * It also shares the query memory among the jobs. When a job begins, it reserves the estimated
+ * memory of its series, waiting for other jobs to end if the query memory is used up. The readers
+ * of a job charge their memory through its QueryContext, and the job fails once it needs more than
+ * its budget.
+ * </p>
  */
 public class QueryResourceManager {
 
@@ -89,11 +102,21 @@ public class QueryResourceManager {
   private JobFileManager filePathsManager;
   private AtomicLong maxJobId;
 
+  /**
+   * memory reserved by each job, guarded by memoryLock together with reservedMemory.
+   */
+  private Map<Long, Long> jobMemoryMap;
+  private long reservedMemory;
+  private ReentrantLock memoryLock;
+  private Condition memoryReleased;
 
   private QueryResourceManager() {
     queryTokensMap = new ConcurrentHashMap<>();
     filePathsManager = new JobFileManager();
     maxJobId = new AtomicLong(0);
+    jobMemoryMap = new HashMap<>();
+    memoryLock = new ReentrantLock();
+    memoryReleased = memoryLock.newCondition();
   }
 
   public static QueryResourceManager getInstance() {
@@ -108,6 +131,12 @@ public class QueryResourceManager {
     long jobId = maxJobId.incrementAndGet();
     queryTokensMap.computeIfAbsent(jobId, x -> new ConcurrentHashMap<>());
     filePathsManager.addJobId(jobId);
+    memoryLock.lock();
+    try {
+      jobMemoryMap.put(jobId, 0L);
+    } finally {
+      memoryLock.unlock();
+    }
     return jobId;
   }
 
@@ -117,6 +146,7 @@ public class QueryResourceManager {
    */
   public void beginQueryOfGivenQueryPaths(long jobId, List<Path> queryPaths)
       throws FileNodeManagerException {
+    admitQuery(jobId, queryPaths.size());
     Set<String> deviceIdSet = new HashSet<>();
     queryPaths.forEach(path -> deviceIdSet.add(path.getDevice()));
 
@@ -132,6 +162,7 @@ public class QueryResourceManager {
    */
   public void beginQueryOfGivenExpression(long jobId, IExpression expression)
       throws FileNodeManagerException {
+    admitQuery(jobId, countSeries(expression));
     Set<String> deviceIdSet = new HashSet<>();
     getUniquePaths(expression, deviceIdSet);
     for (String deviceId : deviceIdSet) {
@@ -143,8 +174,20 @@ public class QueryResourceManager {
   public QueryDataSource getQueryDataSource(Path selectedPath,
       QueryContext context)
       throws FileNodeManagerException {
+    return getQueryDataSource(selectedPath, context, null);
+  }
 
-    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath, null);
+  /**
+   * get the data source of a series, only the sealed tsfiles which may satisfy the filter are
+   * included.
+   *
+   * @param filter filter of the series, null for all the sealed tsfiles
+   */
+  public QueryDataSource getQueryDataSource(Path selectedPath, QueryContext context,
+      Filter filter) throws FileNodeManagerException {
+
+    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath,
+        filter);
     QueryDataSource queryDataSource = FileNodeManager.getInstance()
         .query(singleSeriesExpression, context);
 
@@ -159,6 +202,7 @@ public class QueryResourceManager {
    * query tokens created by this jdbc request must be cleared.
    */
   public void endQueryForGivenJob(long jobId) throws FileNodeManagerException {
+    releaseMemory(jobId);
     if (queryTokensMap.get(jobId) == null) {
       // no resource need to be released.
       return;
@@ -173,6 +217,125 @@ public class QueryResourceManager {
     filePathsManager.removeUsedFilesForGivenJob(jobId);
   }
 
+  /**
+   * reserve the estimated memory of reading the given number of series for the job, waiting up to
+   * the admission timeout for other jobs to release memory.
+   */
+  private void admitQuery(long jobId, int seriesNum) throws FileNodeManagerException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    long estimatedMemory = seriesNum * config.getEstimatedMemoryPerSeriesInByte();
+    long deadline = System.currentTimeMillis() + config.getQueryAdmissionTimeoutInMs();
+    memoryLock.lock();
+    try {
+      Long jobMemory = jobMemoryMap.get(jobId);
+      if (jobMemory == null) {
+        // the job is not assigned by assignJobId, its memory is only limited by its budget
+        return;
+      }
+      long targetMemory = Math.min(jobMemory + estimatedMemory, getMaxMemoryPerQuery());
+      long neededMemory = targetMemory - jobMemory;
+      while (reservedMemory + neededMemory > config.getQueryMemoryBudgetInByte()) {
+        long waitTime = deadline - System.currentTimeMillis();
+        if (waitTime <= 0) {
+          throw new FileNodeManagerException(String.format(
+              "Query %d cannot get %d bytes of memory in %d ms, the query memory is used up by "
+                  + "other queries", jobId, neededMemory, config.getQueryAdmissionTimeoutInMs()));
+        }
+        memoryReleased.await(waitTime, TimeUnit.MILLISECONDS);
+      }
+      if (neededMemory > 0) {
+        jobMemoryMap.put(jobId, targetMemory);
+        reservedMemory += neededMemory;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FileNodeManagerException(e);
+    } finally {
+      memoryLock.unlock();
+    }
+  }
+
+  /**
+   * make sure the job reserves at least the given memory, without waiting.
+   *
+   * @return false if the memory cannot be reserved because the query memory is used up
+   */
+  public boolean reserveMemory(long jobId, long size) {
+    memoryLock.lock();
+    try {
+      Long jobMemory = jobMemoryMap.get(jobId);
+      if (jobMemory == null || jobMemory >= size) {
+        return true;
+      }
+      long memoryBudget = IoTDBDescriptor.getInstance().getConfig().getQueryMemoryBudgetInByte();
+      if (reservedMemory + size - jobMemory > memoryBudget) {
+        return false;
+      }
+      reservedMemory += size - jobMemory;
+      jobMemoryMap.put(jobId, size);
+      return true;
+    } finally {
+      memoryLock.unlock();
+    }
+  }
+
+  /**
+   * release the memory reserved by the job, which unlike its query tokens may be done by any
+   * thread, e.g. when the job is cancelled from another connection. The job may still run until it
+   * notices the cancellation, its further reservations are not charged.
+   */
+  public void releaseMemory(long jobId) {
+    memoryLock.lock();
+    try {
+      Long jobMemory = jobMemoryMap.remove(jobId);
+      if (jobMemory != null && jobMemory > 0) {
+        reservedMemory -= jobMemory;
+        memoryReleased.signalAll();
+      }
+    } finally {
+      memoryLock.unlock();
+    }
+  }
+
+  /**
+   * the max memory of one job, bounded by the query memory.
+   */
+  public long getMaxMemoryPerQuery() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    long maxMemoryPerQuery = config.getMaxMemoryPerQueryInByte();
+    if (maxMemoryPerQuery <= 0 || maxMemoryPerQuery > config.getQueryMemoryBudgetInByte()) {
+      return config.getQueryMemoryBudgetInByte();
+    }
+    return maxMemoryPerQuery;
+  }
+
+  /**
+   * @return the number of jobs which are assigned but not ended yet.
+   */
+  public int getRunningJobNum() {
+    return queryTokensMap.size();
+  }
+
+  /**
+   * memory reserved by all the jobs.
+   */
+  public long getReservedMemory() {
+    memoryLock.lock();
+    try {
+      return reservedMemory;
+    } finally {
+      memoryLock.unlock();
+    }
+  }
+
+  private int countSeries(IExpression expression) {
+    if (expression.getType() == ExpressionType.AND || expression.getType() == ExpressionType.OR) {
+      return countSeries(((IBinaryExpression) expression).getLeft())
+          + countSeries(((IBinaryExpression) expression).getRight());
+    }
+    return expression.getType() == ExpressionType.SERIES ? 1 : 0;
+  }
+
   private void getUniquePaths(IExpression expression, Set<String> deviceIdSet) {
     if (expression.getType() == ExpressionType.AND || expression.getType() == ExpressionType.OR) {
       getUniquePaths(((IBinaryExpression) expression).getLeft(), deviceIdSet);
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * The result of a last query. Each series with data gives a row of its last time, its path and
+ * its last value. The value keeps the data type of its series, so the value column has no single
+ * data type when the series are of different types.
+ */
+public class LastQueryDataSet extends QueryDataSet {
+
+  private List<TimeValuePair> lastPoints;
+
+  private int index;
+
+  /**
+   * constructor of LastQueryDataSet.
+   *
+   * @param paths the selected series
+   * @param lastPoints the last point of each series, null for a series without data
+   */
+  public LastQueryDataSet(List<Path> paths, List<TimeValuePair> lastPoints) {
+    super(paths, Arrays.asList(TSDataType.TEXT, null));
+    this.lastPoints = lastPoints;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (index < lastPoints.size() && lastPoints.get(index) == null) {
+      index++;
+    }
+    return index < lastPoints.size();
+  }
+
+  @Override
+  public RowRecord next() {
+    if (!hasNext()) {
+      return null;
+    }
+    TimeValuePair last = lastPoints.get(index);
+    RowRecord record = new RowRecord(last.getTimestamp());
+    Field pathField = new Field(TSDataType.TEXT);
+    pathField.setBinaryV(new Binary(paths.get(index).getFullPath()));
+    record.addField(pathField);
+    record.addField(getField(last.getValue()));
+    index++;
+    return record;
+  }
+
+  private static Field getField(TsPrimitiveType value) {
+    Field field = new Field(value.getDataType());
+    switch (value.getDataType()) {
+      case BOOLEAN:
+        field.setBoolV(value.getBoolean());
+        break;
+      case INT32:
+        field.setIntV(value.getInt());
+        break;
+      case INT64:
+        field.setLongV(value.getLong());
+        break;
+      case FLOAT:
+        field.setFloatV(value.getFloat());
+        break;
+      case DOUBLE:
+        field.setDoubleV(value.getDouble());
+        break;
+      case TEXT:
+        field.setBinaryV(value.getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException("UnSupported: " + value.getDataType());
+    }
+    return field;
+  }
+}
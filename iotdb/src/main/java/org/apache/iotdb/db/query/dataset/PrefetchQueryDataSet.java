@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+
+/**
+ * PrefetchQueryDataSet computes the rows of a query dataset in blocks. Once a block is taken, the
+ * following blocks are computed in the background, so that the query goes on while the taken
+ * block is sent to the client. A query keeps at most max_prefetched_result_blocks blocks ahead,
+ * and no block is computed ahead when the blocks ahead of all queries take more than
+ * result_prefetch_memory_in_mb. The underlying dataset is only accessed by one thread at a time,
+ * and {@link #close()} must be called before the resources of the query are released.
+ */
+public class PrefetchQueryDataSet extends QueryDataSet {
+
+  /**
+   * estimated memory of the blocks computed ahead by all queries.
+   */
+  private static final AtomicLong prefetchedMemory = new AtomicLong();
+
+  private static final int ROW_OVERHEAD_IN_BYTE = 64;
+  private static final int FIELD_OVERHEAD_IN_BYTE = 40;
+
+  private final QueryDataSet dataSet;
+  private final int blockSize;
+
+  private final Deque<Block> blocks = new ArrayDeque<>();
+  /**
+   * whether the underlying dataset is being read, either by the background task or the caller.
+   */
+  private boolean busy;
+  private boolean finished;
+  private boolean closed;
+  private IOException exception;
+
+  private Iterator<RowRecord> currentBlock;
+
+  /**
+   * @param blockSize the number of rows in a block, usually the fetch size of the client
+   */
+  public PrefetchQueryDataSet(QueryDataSet dataSet, int blockSize) {
+    super(dataSet.getPaths(), dataSet.getDataTypes());
+    this.dataSet = dataSet;
+    this.blockSize = Math.max(1, blockSize);
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    while (currentBlock == null || !currentBlock.hasNext()) {
+      List<RowRecord> block = takeBlock();
+      if (block.isEmpty()) {
+        return false;
+      }
+      currentBlock = block.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public RowRecord next() throws IOException {
+    if (!hasNext()) {
+      return null;
+    }
+    return currentBlock.next();
+  }
+
+  /**
+   * take the next block, computing it if it is not computed ahead, and start computing the
+   * following blocks in the background.
+   *
+   * @return an empty list if there is no more row
+   */
+  private List<RowRecord> takeBlock() throws IOException {
+    List<RowRecord> block = null;
+    synchronized (this) {
+      while (busy && blocks.isEmpty()) {
+        waitForBlock();
+      }
+      if (!blocks.isEmpty()) {
+        Block taken = blocks.poll();
+        prefetchedMemory.addAndGet(-taken.size);
+        block = taken.rows;
+      } else if (exception != null) {
+        throw exception;
+      } else if (finished || closed) {
+        return new ArrayList<>();
+      } else {
+        busy = true;
+      }
+    }
+
+    if (block == null) {
+      // nothing is computed ahead, compute the block in the calling thread
+      try {
+        block = readBlock();
+      } finally {
+        synchronized (this) {
+          busy = false;
+          notifyAll();
+        }
+      }
+    }
+    startPrefetch();
+    return block;
+  }
+
+  private void waitForBlock() throws IOException {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted when waiting for a result block", e);
+    }
+  }
+
+  private List<RowRecord> readBlock() throws IOException {
+    List<RowRecord> block = new ArrayList<>(blockSize);
+    while (block.size() < blockSize && dataSet.hasNext()) {
+      block.add(dataSet.next());
+    }
+    if (block.size() < blockSize) {
+      synchronized (this) {
+        finished = true;
+      }
+    }
+    return block;
+  }
+
+  private synchronized void startPrefetch() {
+    if (canPrefetch()) {
+      busy = true;
+      QueryTaskPoolManager.getInstance().prefetchResult(this::prefetch);
+    }
+  }
+
+  private boolean canPrefetch() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    return !busy && !finished && !closed && exception == null
+        && blocks.size() < config.getMaxPrefetchedResultBlocks()
+        && prefetchedMemory.get() < config.getResultPrefetchMemoryInByte();
+  }
+
+  /**
+   * compute blocks ahead until enough blocks are ready.
+   */
+  private void prefetch() {
+    while (true) {
+      try {
+        List<RowRecord> rows = readBlock();
+        if (!rows.isEmpty()) {
+          Block block = new Block(rows);
+          prefetchedMemory.addAndGet(block.size);
+          synchronized (this) {
+            blocks.add(block);
+          }
+        }
+      } catch (IOException e) {
+        synchronized (this) {
+          exception = e;
+        }
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          exception = new IOException(e);
+        }
+      }
+      synchronized (this) {
+        busy = false;
+        if (!canPrefetch()) {
+          notifyAll();
+          return;
+        }
+        busy = true;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * stop computing ahead and drop the blocks computed ahead. It waits for the block being computed,
+   * so that the underlying dataset is not accessed any more once it returns.
+   */
+  public synchronized void close() throws IOException {
+    closed = true;
+    while (busy) {
+      waitForBlock();
+    }
+    for (Block block : blocks) {
+      prefetchedMemory.addAndGet(-block.size);
+    }
+    blocks.clear();
+    currentBlock = null;
+  }
+
+  /**
+   * This method is only for unit tests.
+   */
+  public static long getPrefetchedMemory() {
+    return prefetchedMemory.get();
+  }
+
+  private static class Block {
+
+    private final List<RowRecord> rows;
+    private final long size;
+
+    private Block(List<RowRecord> rows) {
+      this.rows = rows;
+      this.size = estimateSize(rows);
+    }
+
+    private static long estimateSize(List<RowRecord> rows) {
+      long size = 0;
+      for (RowRecord row : rows) {
+        size += ROW_OVERHEAD_IN_BYTE;
+        for (Field field : row.getFields()) {
+          size += FIELD_OVERHEAD_IN_BYTE;
+          if (field.getBinaryV() != null) {
+            size += field.getBinaryV().getLength();
+          }
+        }
+      }
+      return size;
+    }
+  }
+}
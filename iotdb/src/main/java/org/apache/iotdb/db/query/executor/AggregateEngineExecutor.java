@@ -22,7 +22,9 @@ package org.apache.iotdb.db.query.executor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.LastCache;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.FileNodeManagerException;
 import org.apache.iotdb.db.exception.PathErrorException;
@@ -38,11 +40,13 @@ import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.AggreResultDataPointReader;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutTimeGenerator;
 import org.apache.iotdb.db.query.factory.SeriesReaderFactory;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.merge.EngineReaderByTimeStamp;
 import org.apache.iotdb.db.query.reader.merge.PriorityMergeReader;
 import org.apache.iotdb.db.query.reader.sequence.SequenceDataReader;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -88,19 +92,35 @@ public class AggregateEngineExecutor {
     QueryResourceManager
         .getInstance().beginQueryOfGivenQueryPaths(context.getJobId(), selectedSeries);
 
-    List<SequenceDataReader> readersOfSequenceData = new ArrayList<>();
-    List<IPointReader> readersOfUnSequenceData = new ArrayList<>();
-    List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+    // the last points of the whole series are answered by the cache when it has them
+    LastCache lastCache = LastCache.getInstance();
+    boolean useLastCache = expression == null && lastCache.isEnabled();
+
+    // each series is aggregated by an independent task
+    List<Callable<AggreResultData>> tasks = new ArrayList<>();
     for (int i = 0; i < selectedSeries.size(); i++) {
       // construct AggregateFunction
-      TSDataType tsDataType = MManager.getInstance()
-          .getSeriesType(selectedSeries.get(i).getFullPath());
+      String seriesPath = selectedSeries.get(i).getFullPath();
+      TSDataType tsDataType = MManager.getInstance().getSeriesType(seriesPath);
       AggregateFunction function = AggreFuncFactory.getAggrFuncByName(aggres.get(i), tsDataType);
       function.init();
-      aggregateFunctions.add(function);
+
+      if (useLastCache && function instanceof LastAggrFunc) {
+        Callable<TimeValuePair> lastPointTask = lastPointTask(selectedSeries.get(i),
+            (LastAggrFunc) function, context);
+        tasks.add(() -> {
+          TimeValuePair last = lastPointTask.call();
+          AggreResultData resultData = new AggreResultData(tsDataType);
+          if (last != null) {
+            resultData.putTimeAndValue(0, last.getValue().getValue());
+          }
+          return resultData;
+        });
+        continue;
+      }
 
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(selectedSeries.get(i), context);
+          .getQueryDataSource(selectedSeries.get(i), context, timeFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       SequenceDataReader sequenceReader;
@@ -115,19 +135,63 @@ public class AggregateEngineExecutor {
       // unseq reader for all chunk groups in unSeqFile, memory
       PriorityMergeReader unSeqMergeReader = SeriesReaderFactory.getInstance()
           .createUnSeqMergeReader(queryDataSource.getOverflowSeriesDataSource(), timeFilter);
-      readersOfSequenceData.add(sequenceReader);
-      readersOfUnSequenceData.add(unSeqMergeReader);
-    }
-    List<AggreResultData> aggreResultDataList = new ArrayList<>();
-    //TODO use multi-thread
-    for (int i = 0; i < selectedSeries.size(); i++) {
-      AggreResultData aggreResultData = aggregateWithOutTimeGenerator(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
-      aggreResultDataList.add(aggreResultData);
+      Filter filter = timeFilter;
+      tasks.add(() -> aggregateWithOutTimeGenerator(function, sequenceReader, unSeqMergeReader,
+          filter, context));
     }
+    List<AggreResultData> aggreResultDataList = QueryTaskPoolManager.getInstance()
+        .invokeAll(tasks);
     return constructDataSet(aggreResultDataList);
   }
 
+  /**
+   * get the last point of each selected series, null for a series without data.
+   *
+   * @param context query context
+   */
+  public List<TimeValuePair> executeLast(QueryContext context)
+      throws FileNodeManagerException, IOException, PathErrorException, ProcessorException {
+    QueryResourceManager
+        .getInstance().beginQueryOfGivenQueryPaths(context.getJobId(), selectedSeries);
+    List<Callable<TimeValuePair>> tasks = new ArrayList<>();
+    for (Path path : selectedSeries) {
+      TSDataType tsDataType = MManager.getInstance().getSeriesType(path.getFullPath());
+      LastAggrFunc function = new LastAggrFunc(tsDataType);
+      function.init();
+      tasks.add(lastPointTask(path, function, context));
+    }
+    return QueryTaskPoolManager.getInstance().invokeAll(tasks);
+  }
+
+  /**
+   * create the task getting the last point of a whole series. The point is taken from the last
+   * cache if it has it, otherwise it is read from the data and offered to the cache.
+   */
+  private Callable<TimeValuePair> lastPointTask(Path path, LastAggrFunc function,
+      QueryContext context) throws FileNodeManagerException, IOException {
+    LastCache lastCache = LastCache.getInstance();
+    String seriesPath = path.getFullPath();
+    TimeValuePair cached = lastCache.get(seriesPath);
+    if (cached != null) {
+      return () -> cached;
+    }
+    // taken before the data source so that no insertion or invalidation is missed
+    long fillStamp = lastCache.getFillStamp(seriesPath);
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, context);
+    SequenceDataReader sequenceReader = new SequenceDataReader(
+        queryDataSource.getSeqDataSource(), null, context, true);
+    PriorityMergeReader unSeqMergeReader = SeriesReaderFactory.getInstance()
+        .createUnSeqMergeReader(queryDataSource.getOverflowSeriesDataSource(), null);
+    return () -> {
+      handleLastMaxTimeWithOutTimeGenerator(function, sequenceReader, unSeqMergeReader, null,
+          context);
+      TimeValuePair last = function.getLastPoint();
+      lastCache.fill(seriesPath, last, fillStamp);
+      return last;
+    };
+  }
+
   /**
    * calculation aggregate result with only time filter or no filter for one series.
    *
@@ -135,26 +199,37 @@ public class AggregateEngineExecutor {
    * @param sequenceReader sequence data reader
    * @param unSequenceReader unsequence data reader
    * @param filter time filter or null
+   * @param context query context, checked for cancellation between pages
    * @return one series aggregate result data
    */
   private AggreResultData aggregateWithOutTimeGenerator(AggregateFunction function,
-      SequenceDataReader sequenceReader, IPointReader unSequenceReader, Filter filter)
-      throws IOException, ProcessorException {
+      SequenceDataReader sequenceReader, IPointReader unSequenceReader, Filter filter,
+      QueryContext context) throws IOException, ProcessorException {
     if (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc) {
       return handleLastMaxTimeWithOutTimeGenerator(function, sequenceReader, unSequenceReader,
-          filter);
+          filter, context);
     }
 
-    while (sequenceReader.hasNext()) {
-      PageHeader pageHeader = sequenceReader.nextPageHeader();
-      // judge if overlap with unsequence data
-      if (canUseHeader(function, pageHeader, unSequenceReader, filter)) {
-        // cal by pageHeader
-        function.calculateValueFromPageHeader(pageHeader);
-        sequenceReader.skipPageData();
+    while (true) {
+      context.checkInterrupted();
+      PageHeader chunkHeader = sequenceReader.nextChunkHeader();
+      if (canUseHeader(function, chunkHeader, unSequenceReader, filter)) {
+        // cal by the statistics of the whole chunk without reading it
+        function.calculateValueFromPageHeader(chunkHeader);
+        sequenceReader.skipChunkData();
+      } else if (sequenceReader.hasNext()) {
+        PageHeader pageHeader = sequenceReader.nextPageHeader();
+        // judge if overlap with unsequence data
+        if (canUseHeader(function, pageHeader, unSequenceReader, filter)) {
+          // cal by pageHeader
+          function.calculateValueFromPageHeader(pageHeader);
+          sequenceReader.skipPageData();
+        } else {
+          // cal by pageData
+          function.calculateValueFromPageData(sequenceReader.nextBatch(), unSequenceReader);
+        }
       } else {
-        // cal by pageData
-        function.calculateValueFromPageData(sequenceReader.nextBatch(), unSequenceReader);
+        break;
       }
 
       if (function.isCalculatedAggregationResult()) {
@@ -202,14 +277,31 @@ public class AggregateEngineExecutor {
    * @param function aggregate function
    * @param sequenceReader sequence data reader
    * @param unSequenceReader unsequence data reader
+   * @param context query context, checked for cancellation between pages
    * @return BatchData-aggregate result
    */
   private AggreResultData handleLastMaxTimeWithOutTimeGenerator(AggregateFunction function,
-      SequenceDataReader sequenceReader, IPointReader unSequenceReader, Filter timeFilter)
-      throws IOException, ProcessorException {
+      SequenceDataReader sequenceReader, IPointReader unSequenceReader, Filter timeFilter,
+      QueryContext context) throws IOException, ProcessorException {
     long lastBatchTimeStamp = Long.MIN_VALUE;
     boolean isChunkEnd = false;
-    while (sequenceReader.hasNext()) {
+    while (true) {
+      context.checkInterrupted();
+      PageHeader chunkHeader = sequenceReader.nextChunkHeader();
+      if (chunkHeader != null && lastBatchTimeStamp != Long.MIN_VALUE) {
+        // the chunk is end.
+        break;
+      }
+      if (canUseHeader(function, chunkHeader, unSequenceReader, timeFilter)) {
+        // the latest chunk can be calculated by its statistics without reading it
+        function.calculateValueFromPageHeader(chunkHeader);
+        sequenceReader.skipChunkData();
+        break;
+      }
+      if (!sequenceReader.hasNext()) {
+        break;
+      }
+
       PageHeader pageHeader = sequenceReader.nextPageHeader();
       // judge if overlap with unsequence data
       if (canUseHeader(function, pageHeader, unSequenceReader, timeFilter)) {
@@ -273,7 +365,7 @@ public class AggregateEngineExecutor {
     }
     List<AggreResultData> batchDataList = aggregateWithTimeGenerator(aggregateFunctions,
         timestampGenerator,
-        readersOfSelectedSeries);
+        readersOfSelectedSeries, context);
     return constructDataSet(batchDataList);
   }
 
@@ -283,10 +375,11 @@ public class AggregateEngineExecutor {
   private List<AggreResultData> aggregateWithTimeGenerator(
       List<AggregateFunction> aggregateFunctions,
       EngineTimeGenerator timestampGenerator,
-      List<EngineReaderByTimeStamp> readersOfSelectedSeries)
+      List<EngineReaderByTimeStamp> readersOfSelectedSeries, QueryContext context)
       throws IOException {
 
     while (timestampGenerator.hasNext()) {
+      context.checkInterrupted();
 
       // generate timestamps for aggregate
       long[] timeArray = new long[aggregateFetchSize];
@@ -27,6 +27,7 @@ import org.apache.iotdb.db.exception.FileNodeManagerException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.dataset.LastQueryDataSet;
 import org.apache.iotdb.db.query.executor.groupby.GroupByWithOnlyTimeFilterDataSetDataSet;
 import org.apache.iotdb.db.query.executor.groupby.GroupByWithValueFilterDataSetDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
@@ -195,6 +196,17 @@ public class EngineQueryRouter {
     return fillEngineExecutor.execute(context);
   }
 
+  /**
+   * execute last query.
+   *
+   * @param paths select path list
+   */
+  public QueryDataSet last(List<Path> paths, QueryContext context)
+      throws FileNodeManagerException, PathErrorException, IOException, ProcessorException {
+    AggregateEngineExecutor engineExecutor = new AggregateEngineExecutor(paths, null, null);
+    return new LastQueryDataSet(paths, engineExecutor.executeLast(context));
+  }
+
   /**
    * sort intervals by start time and merge overlapping intervals.
    *
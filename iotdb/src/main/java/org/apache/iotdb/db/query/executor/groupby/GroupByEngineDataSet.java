@@ -38,8 +38,8 @@ public abstract class GroupByEngineDataSet extends QueryDataSet {
 
   protected long jobId;
   protected List<Path> selectedSeries;
-  private long unit;
-  private long origin;
+  protected long unit;
+  protected long origin;
   private List<Pair<Long, Long>> mergedIntervals;
 
   protected long startTime;
@@ -22,15 +22,20 @@ package org.apache.iotdb.db.query.executor.groupby;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.rollup.Rollup;
 import org.apache.iotdb.db.exception.FileNodeManagerException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.factory.SeriesReaderFactory;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.merge.PriorityMergeReader;
@@ -83,11 +88,16 @@ public class GroupByWithOnlyTimeFilterDataSetDataSet extends GroupByEngineDataSe
     }
     for (int i = 0; i < selectedSeries.size(); i++) {
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(selectedSeries.get(i), context);
+          .getQueryDataSource(selectedSeries.get(i), context, timeFilter);
+
+      // the sealed tsfiles are read by the coarsest rollup whose buckets fit in the groups
+      long[] rollupIntervals = IoTDBDescriptor.getInstance().getConfig().getRollupIntervals(
+          MManager.getInstance().getFileNameByPath(selectedSeries.get(i).getFullPath()));
+      long rollupInterval = Rollup.chooseInterval(rollupIntervals, unit, origin);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       SequenceDataReader sequenceReader = new SequenceDataReader(queryDataSource.getSeqDataSource(),
-          timeFilter, context, false);
+          timeFilter, context, rollupInterval);
 
       // unseq reader for all chunk groups in unSeqFile, memory
       PriorityMergeReader unSeqMergeReader = SeriesReaderFactory.getInstance()
@@ -107,13 +117,19 @@ public class GroupByWithOnlyTimeFilterDataSetDataSet extends GroupByEngineDataSe
     }
     hasCachedTimeInterval = false;
     RowRecord record = new RowRecord(startTime);
+    // each series is calculated by an independent task
+    List<Callable<AggreResultData>> tasks = new ArrayList<>();
     for (int i = 0; i < functions.size(); i++) {
-      AggreResultData res = null;
-      try {
-        res = nextSeries(i);
-      } catch (ProcessorException e) {
-        throw new IOException(e);
-      }
+      int idx = i;
+      tasks.add(() -> nextSeries(idx));
+    }
+    List<AggreResultData> results;
+    try {
+      results = QueryTaskPoolManager.getInstance().invokeAll(tasks);
+    } catch (ProcessorException e) {
+      throw new IOException(e);
+    }
+    for (AggreResultData res : results) {
       if (res == null) {
         record.addField(new Field(null));
       } else {
@@ -146,7 +162,24 @@ public class GroupByWithOnlyTimeFilterDataSetDataSet extends GroupByEngineDataSe
     }
 
     // continue checking sequence data
-    while (sequenceReader.hasNext()) {
+    while (true) {
+      PageHeader chunkHeader = sequenceReader.nextChunkHeader();
+      if (chunkHeader != null) {
+        if (chunkHeader.getMinTimestamp() >= endTime) {
+          // no point in the following sequence data with a timestamp less than endTime
+          break;
+        }
+        if (canUseHeader(chunkHeader.getMinTimestamp(), chunkHeader.getMaxTimestamp(),
+            unsequenceReader, function)) {
+          // the interval covers the whole chunk, cal by its statistics without reading it
+          function.calculateValueFromPageHeader(chunkHeader);
+          sequenceReader.skipChunkData();
+          continue;
+        }
+      }
+      if (!sequenceReader.hasNext()) {
+        break;
+      }
       PageHeader pageHeader = sequenceReader.nextPageHeader();
 
       // memory data
@@ -232,7 +265,20 @@ public class GroupByWithOnlyTimeFilterDataSetDataSet extends GroupByEngineDataSe
     }
 
     // skip the points in sequenceReader data whose timestamp are less than startTime
-    while (sequenceReader.hasNext()) {
+    while (true) {
+      PageHeader chunkHeader = sequenceReader.nextChunkHeader();
+      if (chunkHeader != null) {
+        if (chunkHeader.getMaxTimestamp() < startTime) {
+          // timestamps of all points in the chunk are less than startTime
+          sequenceReader.skipChunkData();
+          continue;
+        } else if (chunkHeader.getMinTimestamp() >= startTime) {
+          return;
+        }
+      }
+      if (!sequenceReader.hasNext()) {
+        return;
+      }
       PageHeader pageHeader = sequenceReader.nextPageHeader();
       // memory data
       if (pageHeader == null) {
@@ -302,6 +348,10 @@ public class GroupByWithOnlyTimeFilterDataSetDataSet extends GroupByEngineDataSe
   private boolean canUseHeader(long minTime, long maxTime, IPointReader unSequenceReader,
       AggregateFunction function)
       throws IOException, ProcessorException {
+    // some points are not in the current interval
+    if (maxTime >= endTime) {
+      return false;
+    }
     if (timeFilter != null && !timeFilter.containStartEndTime(minTime, maxTime)) {
       return false;
     }
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.ProcessorException;
+
+/**
+ * QueryTaskPoolManager owns the pool on which the series of aggregation and group by queries are
+ * read and aggregated concurrently. The pool is shared by all queries, and each query keeps at
+ * most queryParallelism tasks in the pool, so that a query over many series does not starve the
+ * others. Reads ahead of sequence readers run on a separate pool, so that they never wait behind
+ * the tasks of queries. Result blocks computed ahead of the client run on a third pool, since they
+ * invoke the tasks of their queries themselves.
+ */
+public class QueryTaskPoolManager {
+
+  private ExecutorService pool;
+  private ExecutorService prefetchPool;
+  private ExecutorService resultPrefetchPool;
+  private int parallelism;
+
+  private QueryTaskPoolManager() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    pool = IoTDBThreadPoolFactory.newFixedThreadPool(config.getQueryWorkerThreadNum(),
+        ThreadName.QUERY_WORKER_SERVICE.getName());
+    prefetchPool = IoTDBThreadPoolFactory.newFixedThreadPool(config.getQueryWorkerThreadNum(),
+        ThreadName.QUERY_PREFETCH_SERVICE.getName());
+    resultPrefetchPool = IoTDBThreadPoolFactory.newFixedThreadPool(
+        config.getQueryWorkerThreadNum(), ThreadName.QUERY_RESULT_PREFETCH_SERVICE.getName());
+    parallelism = Math.min(config.getQueryParallelism(), config.getQueryWorkerThreadNum());
+  }
+
+  public static QueryTaskPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * run the tasks of one query and wait for them. A single task, or all tasks when the
+   * parallelism is 1, runs in the calling thread.
+   *
+   * @return the results in the order of the tasks
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException, ProcessorException {
+    List<T> results = new ArrayList<>(tasks.size());
+    if (tasks.size() <= 1 || parallelism <= 1) {
+      for (Callable<T> task : tasks) {
+        try {
+          results.add(task.call());
+        } catch (Exception e) {
+          throw rethrow(e);
+        }
+      }
+      return results;
+    }
+
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (int i = 0; i < tasks.size(); i++) {
+        if (i >= parallelism) {
+          // keep at most parallelism tasks of this query in the pool
+          results.add(futures.get(i - parallelism).get());
+        }
+        futures.add(pool.submit(tasks.get(i)));
+      }
+      for (int i = results.size(); i < futures.size(); i++) {
+        results.add(futures.get(i).get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted when waiting for query tasks", e);
+    } catch (ExecutionException e) {
+      throw rethrow(e.getCause());
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * run a read ahead in the background. A read ahead still queued when its result is needed is
+   * dropped and the caller reads by itself, so nobody waits for this pool.
+   */
+  public void prefetch(Runnable task) {
+    prefetchPool.execute(task);
+  }
+
+  /**
+   * compute result blocks of a query ahead of the client in the background.
+   */
+  public void prefetchResult(Runnable task) {
+    resultPrefetchPool.execute(task);
+  }
+
+  private IOException rethrow(Throwable cause) throws ProcessorException {
+    if (cause instanceof ProcessorException) {
+      throw (ProcessorException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    return new IOException(cause);
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  private static class InstanceHolder {
+    private InstanceHolder(){
+      //allowed to do nothing
+    }
+    private static QueryTaskPoolManager instance = new QueryTaskPoolManager();
+  }
+}
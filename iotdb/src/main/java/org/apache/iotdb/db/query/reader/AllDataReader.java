@@ -22,16 +22,36 @@ package org.apache.iotdb.db.query.reader;
 import java.io.IOException;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
+/**
+ * <p>
+ * Merge the sequence data given in batches with the unsequence data given in points. The merge
+ * works at batch granularity: a sequence batch whose time range does not reach the next
+ * unsequence point is passed through untouched, and only a batch overlapping the unsequence data
+ * is merged point by point. Either iterate the merged data with {@link #nextBatch()} or with
+ * {@link #next()}, but not with both.
+ * </p>
+ */
 public class AllDataReader implements IPointReader {
 
+  /**
+   * max number of unsequence points put in one batch when there is no sequence data before them.
+   */
+  private static final int UNSEQ_BATCH_SIZE = 1024;
+
   private IBatchReader batchReader;
   private IPointReader pointReader;
 
   private boolean hasCachedBatchData;
   private BatchData batchData;
 
+  /**
+   * merged batch iterated by next().
+   */
+  private BatchData mergedData;
+
   /**
    * merge sequence reader, unsequence reader.
    */
@@ -44,53 +64,124 @@ public class AllDataReader implements IPointReader {
 
   @Override
   public boolean hasNext() throws IOException {
-    if (hasNextInBatchDataOrBatchReader()) {
-      return true;
+    while (mergedData == null || !mergedData.hasNext()) {
+      if (!hasNextBatch()) {
+        return false;
+      }
+      mergedData = nextBatch();
     }
-    // has value in pointReader
-    return pointReader != null && pointReader.hasNext();
+    return true;
   }
 
   @Override
   public TimeValuePair next() throws IOException {
+    if (!hasNext()) {
+      return null;
+    }
+    TimeValuePair timeValuePair = TimeValuePairUtils.getCurrentTimeValuePair(mergedData);
+    mergedData.next();
+    return timeValuePair;
+  }
 
-    // has next in both batch reader and point reader
-    if (hasNextInBothReader()) {
-      long timeInPointReader = pointReader.current().getTimestamp();
-      long timeInBatchData = batchData.currentTime();
-      if (timeInPointReader > timeInBatchData) {
-        TimeValuePair timeValuePair = TimeValuePairUtils.getCurrentTimeValuePair(batchData);
-        batchData.next();
-        return timeValuePair;
-      } else if (timeInPointReader == timeInBatchData) {
-        batchData.next();
-        return pointReader.next();
-      } else {
-        return pointReader.next();
+  /**
+   * judge if there is data in either the sequence or the unsequence reader.
+   */
+  public boolean hasNextBatch() throws IOException {
+    return hasNextInBatchDataOrBatchReader() || hasNextInPointReader();
+  }
+
+  /**
+   * get the next batch of merged data in time order, null if there is no more data.
+   */
+  public BatchData nextBatch() throws IOException {
+    boolean hasNextInBatch = hasNextInBatchDataOrBatchReader();
+    if (!hasNextInPointReader()) {
+      if (!hasNextInBatch) {
+        return null;
       }
+      hasCachedBatchData = false;
+      return batchData;
     }
 
-    // only has next in batch reader
-    if (hasNextInBatchDataOrBatchReader()) {
-      TimeValuePair timeValuePair = TimeValuePairUtils.getCurrentTimeValuePair(batchData);
-      batchData.next();
-      return timeValuePair;
+    long timeInPointReader = pointReader.current().getTimestamp();
+    if (!hasNextInBatch || timeInPointReader < batchData.currentTime()) {
+      // unsequence data before the sequence batch
+      return nextUnseqBatch(hasNextInBatch ? batchData.currentTime() : Long.MAX_VALUE);
     }
+    hasCachedBatchData = false;
+    if (timeInPointReader > batchData.getTimeByIndex(batchData.length() - 1)) {
+      // no overlap, pass the sequence batch through
+      return batchData;
+    }
+    return mergeBatch(batchData);
+  }
 
-    // only has next in point reader
-    if (pointReader != null && pointReader.hasNext()) {
-      return pointReader.next();
+  /**
+   * collect unsequence points before the given time.
+   */
+  private BatchData nextUnseqBatch(long bound) throws IOException {
+    BatchData batch = new BatchData(pointReader.current().getValue().getDataType(), true);
+    while (batch.length() < UNSEQ_BATCH_SIZE && hasNextInPointReader()
+        && pointReader.current().getTimestamp() < bound) {
+      putTimeValuePair(batch, pointReader.next());
     }
-    return null;
+    return batch;
   }
 
   /**
-   * judge if has next in both batch record and pointReader.
+   * merge the sequence batch with the unsequence points not after its last time. A sequence point
+   * is overwritten by an unsequence point of the same time.
    */
-  private boolean hasNextInBothReader() throws IOException {
-    if (!hasNextInBatchDataOrBatchReader()) {
-      return false;
+  private BatchData mergeBatch(BatchData sequenceData) throws IOException {
+    BatchData batch = new BatchData(sequenceData.getDataType(), true);
+    while (sequenceData.hasNext()) {
+      long timeInBatchData = sequenceData.currentTime();
+      if (hasNextInPointReader() && pointReader.current().getTimestamp() <= timeInBatchData) {
+        TimeValuePair timeValuePair = pointReader.next();
+        if (timeValuePair.getTimestamp() == timeInBatchData) {
+          sequenceData.next();
+        }
+        putTimeValuePair(batch, timeValuePair);
+      } else {
+        putCurrentPoint(batch, sequenceData);
+        sequenceData.next();
+      }
     }
+    return batch;
+  }
+
+  private void putTimeValuePair(BatchData batch, TimeValuePair timeValuePair) {
+    batch.putTime(timeValuePair.getTimestamp());
+    batch.putAnObject(timeValuePair.getValue().getValue());
+  }
+
+  private void putCurrentPoint(BatchData batch, BatchData sequenceData) {
+    batch.putTime(sequenceData.currentTime());
+    switch (sequenceData.getDataType()) {
+      case BOOLEAN:
+        batch.putBoolean(sequenceData.getBoolean());
+        break;
+      case INT32:
+        batch.putInt(sequenceData.getInt());
+        break;
+      case INT64:
+        batch.putLong(sequenceData.getLong());
+        break;
+      case FLOAT:
+        batch.putFloat(sequenceData.getFloat());
+        break;
+      case DOUBLE:
+        batch.putDouble(sequenceData.getDouble());
+        break;
+      case TEXT:
+        batch.putBinary(sequenceData.getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(sequenceData.getDataType()));
+    }
+  }
+
+  private boolean hasNextInPointReader() throws IOException {
     return pointReader != null && pointReader.hasNext();
   }
 
@@ -124,6 +215,8 @@ public class AllDataReader implements IPointReader {
   @Override
   public void close() throws IOException {
     batchReader.close();
-    pointReader.close();
+    if (pointReader != null) {
+      pointReader.close();
+    }
   }
 }
@@ -25,10 +25,22 @@ import org.apache.iotdb.tsfile.file.header.PageHeader;
 public interface IAggregateReader extends IBatchReader {
 
   /**
-   * Returns meta-information of batch data. If batch data comes from memory, return null. If batch
-   * data comes from page data, return pageHeader.
+   * Returns meta-information of batch data. If batch data comes from memory or some of the page
+   * data is deleted, return null. If batch data comes from page data, return pageHeader.
    */
   PageHeader nextPageHeader() throws IOException;
 
   void skipPageData() throws IOException;
+
+  /**
+   * Returns a header summarizing the whole next chunk, built from its metadata without reading the
+   * chunk. Returns null if the data before the chunk has not been read out, if there is no next
+   * chunk, or if the statistics of the chunk cannot be used, e.g. some of its data is deleted.
+   */
+  PageHeader nextChunkHeader() throws IOException;
+
+  /**
+   * Skip the chunk whose header is given by nextChunkHeader() without reading it.
+   */
+  void skipChunkData() throws IOException;
 }
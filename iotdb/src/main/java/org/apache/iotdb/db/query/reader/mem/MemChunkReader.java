@@ -20,11 +20,15 @@
 package org.apache.iotdb.db.query.reader.mem;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -39,11 +43,22 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
 
   private TSDataType dataType;
 
+  /**
+   * the sorted lists of the chunk, read by the primitive values of their points. Null if the chunk
+   * is read by timeValuePairIterator.
+   */
+  private List<TVList> sortedLists;
+  private int listIndex;
+  private int pointIndex;
+
   /**
    * memory data reader.
    */
   public MemChunkReader(ReadOnlyMemChunk readableChunk, Filter filter) {
-    timeValuePairIterator = readableChunk.getIterator();
+    sortedLists = readableChunk.getSortedTVLists();
+    if (sortedLists == null) {
+      timeValuePairIterator = readableChunk.getIterator();
+    }
     this.filter = filter;
     this.dataType = readableChunk.getDataType();
   }
@@ -53,6 +68,18 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
     if (hasCachedTimeValuePair) {
       return true;
     }
+    if (sortedLists != null) {
+      while (hasNextPoint()) {
+        TVList list = sortedLists.get(listIndex);
+        int index = pointIndex++;
+        if (filter == null || filter.satisfy(list.getTime(index), getValue(list, index))) {
+          hasCachedTimeValuePair = true;
+          cachedTimeValuePair = list.getTimeValuePair(index);
+          break;
+        }
+      }
+      return hasCachedTimeValuePair;
+    }
     while (timeValuePairIterator.hasNext()) {
       TimeValuePair timeValuePair = timeValuePairIterator.next();
       if (filter == null || filter
@@ -70,6 +97,12 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
     if (hasCachedTimeValuePair) {
       hasCachedTimeValuePair = false;
       return cachedTimeValuePair;
+    } else if (sortedLists != null) {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      hasCachedTimeValuePair = false;
+      return cachedTimeValuePair;
     } else {
       return timeValuePairIterator.next();
     }
@@ -78,6 +111,12 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
   @Override
   public TimeValuePair current() {
     if (!hasCachedTimeValuePair) {
+      if (sortedLists != null) {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return cachedTimeValuePair;
+      }
       cachedTimeValuePair = timeValuePairIterator.next();
       hasCachedTimeValuePair = true;
     }
@@ -92,6 +131,19 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
       batchData.putTime(cachedTimeValuePair.getTimestamp());
       batchData.putAnObject(cachedTimeValuePair.getValue().getValue());
     }
+    if (sortedLists != null) {
+      // the points are copied by their primitive values, only a filter needs them boxed
+      while (hasNextPoint()) {
+        TVList list = sortedLists.get(listIndex);
+        int index = pointIndex++;
+        long time = list.getTime(index);
+        if (filter == null || filter.satisfy(time, getValue(list, index))) {
+          batchData.putTime(time);
+          putValue(batchData, list, index);
+        }
+      }
+      return batchData;
+    }
     while (timeValuePairIterator.hasNext()) {
       TimeValuePair timeValuePair = timeValuePairIterator.next();
       if (filter == null || filter
@@ -103,6 +155,63 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
     return batchData;
   }
 
+  /**
+   * skip the exhausted lists.
+   *
+   * @return true if a point is left at pointIndex of the list at listIndex
+   */
+  private boolean hasNextPoint() {
+    while (listIndex < sortedLists.size() && pointIndex >= sortedLists.get(listIndex).size()) {
+      listIndex++;
+      pointIndex = 0;
+    }
+    return listIndex < sortedLists.size();
+  }
+
+  private Object getValue(TVList list, int index) {
+    switch (dataType) {
+      case BOOLEAN:
+        return list.getBoolean(index);
+      case INT32:
+        return list.getInt(index);
+      case INT64:
+        return list.getLong(index);
+      case FLOAT:
+        return list.getFloat(index);
+      case DOUBLE:
+        return list.getDouble(index);
+      case TEXT:
+        return list.getBinary(index);
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private void putValue(BatchData batchData, TVList list, int index) {
+    switch (dataType) {
+      case BOOLEAN:
+        batchData.putBoolean(list.getBoolean(index));
+        break;
+      case INT32:
+        batchData.putInt(list.getInt(index));
+        break;
+      case INT64:
+        batchData.putLong(list.getLong(index));
+        break;
+      case FLOAT:
+        batchData.putFloat(list.getFloat(index));
+        break;
+      case DOUBLE:
+        batchData.putDouble(list.getDouble(index));
+        break;
+      case TEXT:
+        batchData.putBinary(list.getBinary(index));
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
   @Override
   public void close() {
     // Do nothing because mem chunk reader will not open files
@@ -117,4 +226,15 @@ public class MemChunkReader implements IPointReader, IBatchReader, IAggregateRea
   public void skipPageData() {
     nextBatch();
   }
+
+  @Override
+  public PageHeader nextChunkHeader() {
+    // data in memory has no chunk statistics
+    return null;
+  }
+
+  @Override
+  public void skipChunkData() {
+    // there is never a chunk header to skip
+  }
 }
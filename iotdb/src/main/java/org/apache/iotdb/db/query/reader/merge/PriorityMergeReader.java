@@ -21,8 +21,8 @@ package org.apache.iotdb.db.query.reader.merge;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 
@@ -30,6 +30,8 @@ import org.apache.iotdb.db.utils.TimeValuePair;
  * <p>
  * Usage: (1) merge multiple chunk group readers in the unsequence file.
  * </p>
+ * The readers are kept in a binary heap of reader indexes ordered by the timestamp of each
+ * reader's head point and then by priority, so no object is allocated per merged point.
  */
 public class PriorityMergeReader implements IPointReader {
 
@@ -37,96 +39,122 @@ public class PriorityMergeReader implements IPointReader {
   public static final int HIGH_PRIORITY = 2;
 
   private List<IPointReader> readerList = new ArrayList<>();
-  private List<Integer> priorityList = new ArrayList<>();
-  private PriorityQueue<Element> heap = new PriorityQueue<>();
+
+  /**
+   * priority, head point and timestamp of the head point of each reader, by reader index.
+   */
+  private int[] priorities = new int[2];
+  private TimeValuePair[] heads = new TimeValuePair[2];
+  private long[] headTimes = new long[2];
+
+  /**
+   * reader indexes of the readers that have a head point.
+   */
+  private int[] heap = new int[2];
+  private int heapSize = 0;
 
   /**
    * The bigger the priority value is, the higher the priority of this reader is.
    */
   public void addReaderWithPriority(IPointReader reader, int priority) throws IOException {
+    int index = readerList.size();
+    readerList.add(reader);
+    if (index == priorities.length) {
+      int newLength = index * 2;
+      priorities = Arrays.copyOf(priorities, newLength);
+      heads = Arrays.copyOf(heads, newLength);
+      headTimes = Arrays.copyOf(headTimes, newLength);
+      heap = Arrays.copyOf(heap, newLength);
+    }
+    priorities[index] = priority;
     if (reader.hasNext()) {
-      heap.add(new Element(readerList.size(), reader.next(), priority));
+      setHead(index, reader.next());
+      heap[heapSize] = index;
+      siftUp(heapSize++);
     }
-    readerList.add(reader);
-    priorityList.add(priority);
   }
 
   @Override
   public boolean hasNext() {
-    return !heap.isEmpty();
+    return heapSize > 0;
   }
 
   @Override
   public TimeValuePair next() throws IOException {
-    Element top = heap.peek();
-    updateHeap(top);
-    return top.timeValuePair;
-  }
-
-  @Override
-  public TimeValuePair current() {
-    return heap.peek().timeValuePair;
-  }
-
-  private void updateHeap(Element top) throws IOException {
-    while (!heap.isEmpty() && heap.peek().timeValuePair.getTimestamp() == top.timeValuePair
-        .getTimestamp()) {
-      Element e = heap.poll();
-      IPointReader reader = readerList.get(e.index);
+    TimeValuePair top = heads[heap[0]];
+    long time = headTimes[heap[0]];
+    // points of the same time in readers of lower priority are overwritten by the top one
+    while (heapSize > 0 && headTimes[heap[0]] == time) {
+      int index = heap[0];
+      IPointReader reader = readerList.get(index);
       if (reader.hasNext()) {
-        heap.add(new Element(e.index, reader.next(), priorityList.get(e.index)));
+        setHead(index, reader.next());
+      } else {
+        heads[index] = null;
+        heap[0] = heap[--heapSize];
       }
+      siftDown(0);
     }
+    return top;
   }
 
   @Override
-  public void close() throws IOException {
-    for (IPointReader reader : readerList) {
-      reader.close();
-    }
+  public TimeValuePair current() {
+    return heads[heap[0]];
   }
 
-  protected class Element implements Comparable<Element> {
-
-    int index;
-    TimeValuePair timeValuePair;
-    Integer priority;
+  private void setHead(int index, TimeValuePair timeValuePair) {
+    heads[index] = timeValuePair;
+    headTimes[index] = timeValuePair.getTimestamp();
+  }
 
-    public Element(int index, TimeValuePair timeValuePair, int priority) {
-      this.index = index;
-      this.timeValuePair = timeValuePair;
-      this.priority = priority;
+  /**
+   * judge if the head point of reader a comes before the one of reader b.
+   */
+  private boolean before(int a, int b) {
+    if (headTimes[a] != headTimes[b]) {
+      return headTimes[a] < headTimes[b];
     }
+    return priorities[a] > priorities[b];
+  }
 
-    @Override
-    public int compareTo(Element o) {
-
-      if (this.timeValuePair.getTimestamp() > o.timeValuePair.getTimestamp()) {
-        return 1;
-      }
-
-      if (this.timeValuePair.getTimestamp() < o.timeValuePair.getTimestamp()) {
-        return -1;
+  private void siftUp(int pos) {
+    int index = heap[pos];
+    while (pos > 0) {
+      int parent = (pos - 1) >>> 1;
+      if (!before(index, heap[parent])) {
+        break;
       }
-
-      return o.priority.compareTo(this.priority);
+      heap[pos] = heap[parent];
+      pos = parent;
     }
+    heap[pos] = index;
+  }
 
-    @Override
-    public boolean equals(Object o) {
-      if (o instanceof Element) {
-        Element element = (Element) o;
-        if (this.timeValuePair.getTimestamp() == element.timeValuePair.getTimestamp()
-            && this.priority.equals(element.priority)) {
-          return true;
-        }
+  private void siftDown(int pos) {
+    if (pos >= heapSize) {
+      return;
+    }
+    int index = heap[pos];
+    int half = heapSize >>> 1;
+    while (pos < half) {
+      int child = 2 * pos + 1;
+      if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+        child++;
       }
-      return false;
+      if (!before(heap[child], index)) {
+        break;
+      }
+      heap[pos] = heap[child];
+      pos = child;
     }
+    heap[pos] = index;
+  }
 
-    @Override
-    public int hashCode() {
-      return (int) (timeValuePair.getTimestamp() * 31 + priority.hashCode());
+  @Override
+  public void close() throws IOException {
+    for (IPointReader reader : readerList) {
+      reader.close();
     }
   }
 }
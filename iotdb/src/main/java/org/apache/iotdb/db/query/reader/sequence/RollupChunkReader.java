@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.sequence;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.engine.rollup.RollupBucket;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithFilter;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+
+/**
+ * RollupChunkReader reads a chunk bucket by bucket of its rollup. Each bucket is given as a page
+ * header carrying its statistics, and the chunk is only loaded when the points of a bucket are
+ * read, in which case only the pages holding them are decoded.
+ */
+public class RollupChunkReader {
+
+  private ChunkLoader chunkLoader;
+  private ChunkMetaData chunkMetaData;
+  private Filter filter;
+  private List<RollupBucket> buckets;
+  private int bucketIndex;
+
+  private ChunkReader chunkReader;
+  private BatchData pageData;
+
+  /**
+   * init with the buckets of a chunk.
+   *
+   * @param filter null if no filter
+   */
+  public RollupChunkReader(ChunkLoader chunkLoader, ChunkMetaData chunkMetaData,
+      List<RollupBucket> buckets, Filter filter) {
+    this.chunkLoader = chunkLoader;
+    this.chunkMetaData = chunkMetaData;
+    this.buckets = buckets;
+    this.filter = filter;
+  }
+
+  public boolean hasNextBucket() {
+    return bucketIndex < buckets.size();
+  }
+
+  public PageHeader nextBucketHeader() {
+    return buckets.get(bucketIndex).toPageHeader();
+  }
+
+  public void skipBucket() {
+    bucketIndex++;
+  }
+
+  /**
+   * read the points of the next bucket which satisfy the filter.
+   */
+  public BatchData nextBatch() throws IOException {
+    RollupBucket bucket = buckets.get(bucketIndex++);
+    if (chunkReader == null) {
+      Chunk chunk = chunkLoader.getChunk(chunkMetaData);
+      chunkReader = filter == null ? new ChunkReaderWithoutFilter(chunk)
+          : new ChunkReaderWithFilter(chunk, filter);
+    }
+    BatchData batchData = new BatchData(chunkMetaData.getTsDataType(), true);
+    while (true) {
+      if (pageData == null || !pageData.hasNext()) {
+        if (!chunkReader.hasNextBatch()) {
+          break;
+        }
+        PageHeader pageHeader = chunkReader.nextPageHeader();
+        if (pageHeader.getMaxTimestamp() < bucket.getMinTimestamp()) {
+          // the page only has points of skipped buckets
+          chunkReader.skipPageData();
+          continue;
+        }
+        if (pageHeader.getMinTimestamp() > bucket.getMaxTimestamp()) {
+          break;
+        }
+        pageData = chunkReader.nextBatch();
+        continue;
+      }
+      long time = pageData.currentTime();
+      if (time > bucket.getMaxTimestamp()) {
+        break;
+      }
+      if (time >= bucket.getMinTimestamp()) {
+        putCurrentPoint(batchData, pageData);
+      }
+      pageData.next();
+    }
+    return batchData;
+  }
+
+  private void putCurrentPoint(BatchData batch, BatchData data) {
+    batch.putTime(data.currentTime());
+    switch (data.getDataType()) {
+      case BOOLEAN:
+        batch.putBoolean(data.getBoolean());
+        break;
+      case INT32:
+        batch.putInt(data.getInt());
+        break;
+      case INT64:
+        batch.putLong(data.getLong());
+        break;
+      case FLOAT:
+        batch.putFloat(data.getFloat());
+        break;
+      case DOUBLE:
+        batch.putDouble(data.getDouble());
+        break;
+      case TEXT:
+        batch.putBinary(data.getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(data.getDataType()));
+    }
+  }
+}
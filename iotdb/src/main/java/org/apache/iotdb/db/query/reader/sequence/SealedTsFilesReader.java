@@ -23,10 +23,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.CachedChunkLoader;
+import org.apache.iotdb.db.engine.cache.MetaDataCache;
 import org.apache.iotdb.db.engine.filenode.TsFileResource;
 import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupBucket;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.utils.QueryUtils;
@@ -35,16 +41,17 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
-import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithoutFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(SealedTsFilesReader.class);
+
   private Path seriesPath;
   private List<TsFileResource> sealedTsFiles;
   private int indexOfNextTsFileResource;
@@ -53,6 +60,15 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
   private QueryContext context;
   private boolean isReverse;
 
+  /**
+   * the rollup interval whose buckets are given as pages, 0 if rollups are not used.
+   */
+  private long rollupInterval;
+  private TsFileResource currentTsFile;
+  private CachedChunkLoader chunkLoader;
+  private List<Rollup> rollups;
+  private RollupChunkReader rollupChunkReader;
+
   /**
    * init with seriesPath, sealedTsFiles, filter, context.
    *
@@ -68,6 +84,20 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
     this.filter = filter;
   }
 
+  /**
+   * init with seriesPath, sealedTsFiles, filter, context and the rollup interval. The chunks rolled
+   * up in the interval are read bucket by bucket, each bucket is given as a page by
+   * nextPageHeader().
+   *
+   * @param filter null if no filter
+   * @param rollupInterval 0 if rollups are not used
+   */
+  public SealedTsFilesReader(Path seriesPath, List<TsFileResource> sealedTsFiles, Filter filter,
+      QueryContext context, long rollupInterval) {
+    this(seriesPath, sealedTsFiles, filter, context, false);
+    this.rollupInterval = rollupInterval;
+  }
+
   /**
    * init with seriesPath and sealedTsFiles.
    */
@@ -95,9 +125,16 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
 
   @Override
   public boolean hasNext() throws IOException {
+    context.checkInterrupted();
+
+    // try to get next bucket from current rolled up chunk
+    if (rollupChunkReader != null && rollupChunkReader.hasNextBucket()) {
+      return true;
+    }
+    rollupChunkReader = null;
 
     // try to get next batch data from current reader
-    if (seriesReader != null && seriesReader.hasNextBatch()) {
+    if (seriesReader != null && hasNextInCurrentFile()) {
       return true;
     }
 
@@ -111,7 +148,7 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
         continue;
       }
 
-      if (seriesReader.hasNextBatch()) {
+      if (hasNextInCurrentFile()) {
         return true;
       }
     }
@@ -119,6 +156,36 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
     return false;
   }
 
+  private boolean hasNextInCurrentFile() throws IOException {
+    if (rollupInterval > 0) {
+      // a chunk which has not been loaded is read by its rollup if possible
+      ChunkMetaData chunkMetaData = seriesReader.nextChunkMetaData();
+      List<RollupBucket> buckets = chunkMetaData == null ? null : getRollupBuckets(chunkMetaData);
+      if (buckets != null) {
+        seriesReader.skipChunk();
+        rollupChunkReader = new RollupChunkReader(chunkLoader, chunkMetaData, buckets, filter);
+        return true;
+      }
+    }
+    return seriesReader.hasNextBatch();
+  }
+
+  /**
+   * @return null if the chunk has no matched rollup
+   */
+  private List<RollupBucket> getRollupBuckets(ChunkMetaData chunkMetaData) throws IOException {
+    if (rollups == null) {
+      rollups = MetaDataCache.getInstance()
+          .getRollups(currentTsFile.getFilePath(), seriesPath, rollupInterval);
+    }
+    for (Rollup rollup : rollups) {
+      if (rollup.matches(chunkMetaData)) {
+        return rollup.getBuckets();
+      }
+    }
+    return null;
+  }
+
   private boolean singleTsFileSatisfied(TsFileResource tsfile) {
 
     if (filter == null) {
@@ -137,8 +204,8 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(tsfile.getFilePath(), true);
 
-    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(tsFileReader);
-    List<ChunkMetaData> metaDataList = metadataQuerier.getChunkMetaDataList(seriesPath);
+    List<ChunkMetaData> metaDataList = MetaDataCache.getInstance()
+        .getChunkMetaDataList(tsFileReader, seriesPath);
 
     List<Modification> pathModifications = context.getPathModifications(tsfile.getModFile(),
         seriesPath.getFullPath());
@@ -146,7 +213,13 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
       QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
     }
 
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    if (chunkLoader != null) {
+      chunkLoader.release();
+    }
+    chunkLoader = new CachedChunkLoader(tsFileReader, context);
+    currentTsFile = tsfile;
+    rollups = null;
+    prefetchNextFileMetadata();
 
     if (isReverse) {
       Collections.reverse(metaDataList);
@@ -159,13 +232,45 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
     }
   }
 
+  /**
+   * load the chunk metadata of the next satisfied file into the MetaDataCache in the background,
+   * so that it is ready when the current file is read out.
+   */
+  private void prefetchNextFileMetadata() {
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnableChunkPrefetch()) {
+      return;
+    }
+    for (int i = indexOfNextTsFileResource; i < sealedTsFiles.size(); i++) {
+      TsFileResource tsfile = sealedTsFiles.get(i);
+      if (singleTsFileSatisfied(tsfile)) {
+        QueryTaskPoolManager.getInstance().prefetch(() -> {
+          try {
+            TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
+                .get(tsfile.getFilePath(), true);
+            MetaDataCache.getInstance().getChunkMetaDataList(tsFileReader, seriesPath);
+          } catch (IOException e) {
+            // the metadata is read again when the file is reached
+            LOGGER.debug("Can not read ahead the metadata of {}", tsfile.getFilePath(), e);
+          }
+        });
+        return;
+      }
+    }
+  }
+
   @Override
   public BatchData nextBatch() throws IOException {
+    if (rollupChunkReader != null) {
+      return rollupChunkReader.nextBatch();
+    }
     return seriesReader.nextBatch();
   }
 
   @Override
   public void close() throws IOException {
+    if (chunkLoader != null) {
+      chunkLoader.release();
+    }
     if (seriesReader != null) {
       seriesReader.close();
     }
@@ -173,11 +278,54 @@ public class SealedTsFilesReader implements IBatchReader, IAggregateReader {
 
   @Override
   public PageHeader nextPageHeader() throws IOException {
-    return seriesReader.nextPageHeader();
+    if (rollupChunkReader != null) {
+      return rollupChunkReader.nextBucketHeader();
+    }
+    // the statistics of a page with deleted data cannot be used, so it is read like memory data
+    return seriesReader.isPageDataDeleted() ? null : seriesReader.nextPageHeader();
   }
 
   @Override
   public void skipPageData() {
-    seriesReader.skipPageData();
+    if (rollupChunkReader != null) {
+      rollupChunkReader.skipBucket();
+    } else {
+      seriesReader.skipPageData();
+    }
+  }
+
+  @Override
+  public PageHeader nextChunkHeader() throws IOException {
+    if (rollupChunkReader != null && rollupChunkReader.hasNextBucket()) {
+      // the current chunk has not been read out
+      return null;
+    }
+    rollupChunkReader = null;
+    while (true) {
+      if (seriesReader != null) {
+        ChunkMetaData chunkMetaData = seriesReader.nextChunkMetaData();
+        if (chunkMetaData != null) {
+          return QueryUtils.getChunkHeader(chunkMetaData);
+        }
+        if (seriesReader.hasNextBatch()) {
+          // the current chunk has not been read out
+          return null;
+        }
+      }
+
+      // only the metadata of the next satisfied file is read
+      if (indexOfNextTsFileResource >= sealedTsFiles.size()) {
+        return null;
+      }
+      TsFileResource tsfile = sealedTsFiles.get(indexOfNextTsFileResource++);
+      if (singleTsFileSatisfied(tsfile)) {
+        initSingleTsFileReader(tsfile, context);
+      }
+    }
+  }
+
+  @Override
+  public void skipChunkData() {
+    seriesReader.skipChunk();
   }
 }
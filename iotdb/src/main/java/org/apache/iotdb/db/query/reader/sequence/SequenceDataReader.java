@@ -55,6 +55,22 @@ public class SequenceDataReader implements IBatchReader, IAggregateReader {
    */
   public SequenceDataReader(GlobalSortedSeriesDataSource sources, Filter filter,
       QueryContext context, boolean isReverse) throws IOException {
+    this(sources, filter, context, isReverse, 0);
+  }
+
+  /**
+   * init with globalSortedSeriesDataSource, filter, context and the rollup interval whose buckets
+   * are given as pages for the sealed TsFiles.
+   *
+   * @param rollupInterval 0 if rollups are not used
+   */
+  public SequenceDataReader(GlobalSortedSeriesDataSource sources, Filter filter,
+      QueryContext context, long rollupInterval) throws IOException {
+    this(sources, filter, context, false, rollupInterval);
+  }
+
+  private SequenceDataReader(GlobalSortedSeriesDataSource sources, Filter filter,
+      QueryContext context, boolean isReverse, long rollupInterval) throws IOException {
     seriesReaders = new ArrayList<>();
 
     curReaderInitialized = false;
@@ -82,7 +98,7 @@ public class SequenceDataReader implements IBatchReader, IAggregateReader {
       if (sources.hasSealedTsFiles()) {
         seriesReaders.add(
             new SealedTsFilesReader(sources.getSeriesPath(), sources.getSealedTsFiles(), filter,
-                context, isReverse));
+                context, rollupInterval));
       }
 
       // add reader for unSealed TsFile
@@ -145,4 +161,21 @@ public class SequenceDataReader implements IBatchReader, IAggregateReader {
   public void skipPageData() throws IOException {
     currentSeriesReader.skipPageData();
   }
+
+  @Override
+  public PageHeader nextChunkHeader() throws IOException {
+    if (!curReaderInitialized) {
+      if (nextSeriesReaderIndex >= seriesReaders.size()) {
+        return null;
+      }
+      currentSeriesReader = seriesReaders.get(nextSeriesReaderIndex++);
+      curReaderInitialized = true;
+    }
+    return currentSeriesReader.nextChunkHeader();
+  }
+
+  @Override
+  public void skipChunkData() throws IOException {
+    currentSeriesReader.skipChunkData();
+  }
 }
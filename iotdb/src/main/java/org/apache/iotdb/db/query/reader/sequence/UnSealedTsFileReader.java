@@ -26,6 +26,7 @@ import org.apache.iotdb.db.engine.querycontext.UnsealedTsFile;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -91,11 +92,23 @@ public class UnSealedTsFileReader implements IBatchReader, IAggregateReader {
 
   @Override
   public PageHeader nextPageHeader() throws IOException {
-    return unSealedReader.nextPageHeader();
+    // the statistics of a page with deleted data cannot be used, so it is read like memory data
+    return unSealedReader.isPageDataDeleted() ? null : unSealedReader.nextPageHeader();
   }
 
   @Override
   public void skipPageData() {
     unSealedReader.skipPageData();
   }
+
+  @Override
+  public PageHeader nextChunkHeader() throws IOException {
+    ChunkMetaData chunkMetaData = unSealedReader.nextChunkMetaData();
+    return chunkMetaData == null ? null : QueryUtils.getChunkHeader(chunkMetaData);
+  }
+
+  @Override
+  public void skipChunkData() {
+    unSealedReader.skipChunk();
+  }
 }
@@ -87,11 +87,11 @@ public class EngineNodeConstructor {
       QueryContext context)
       throws IOException, FileNodeManagerException {
 
-    QueryDataSource queryDataSource = QueryResourceManager.getInstance().getQueryDataSource(
-        singleSeriesExpression.getSeriesPath(), context);
-
     Filter filter = singleSeriesExpression.getFilter();
 
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance().getQueryDataSource(
+        singleSeriesExpression.getSeriesPath(), context, filter);
+
     // reader for all sequence data
     SequenceDataReader tsFilesReader = new SequenceDataReader(queryDataSource.getSeqDataSource(),
         filter, context);
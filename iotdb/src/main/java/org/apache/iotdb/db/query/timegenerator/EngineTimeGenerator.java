@@ -32,8 +32,15 @@ import org.apache.iotdb.tsfile.read.query.timegenerator.node.Node;
  */
 public class EngineTimeGenerator implements TimeGenerator {
 
+  /**
+   * the query is checked for cancellation every so many timestamps.
+   */
+  private static final int CHECK_INTERVAL_MASK = 1023;
+
   private IExpression expression;
   private Node operatorNode;
+  private QueryContext context;
+  private int generatedNum;
 
   /**
    * Constructor of EngineTimeGenerator.
@@ -41,6 +48,7 @@ public class EngineTimeGenerator implements TimeGenerator {
   public EngineTimeGenerator(IExpression expression, QueryContext context)
       throws FileNodeManagerException {
     this.expression = expression;
+    this.context = context;
     initNode(context);
   }
 
@@ -56,6 +64,9 @@ public class EngineTimeGenerator implements TimeGenerator {
 
   @Override
   public long next() throws IOException {
+    if ((++generatedNum & CHECK_INTERVAL_MASK) == 0) {
+      context.checkInterrupted();
+    }
     return operatorNode.next();
   }
 
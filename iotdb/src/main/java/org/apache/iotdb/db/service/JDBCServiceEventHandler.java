@@ -59,10 +59,12 @@ public class JDBCServiceEventHandler implements TServerEventHandler {
     this.startLatch.countDown();
   }
 
+  /**
+   * called by the connection thread before it waits for each request.
+   */
   @Override
   public void processContext(ServerContext arg0, TTransport arg1, TTransport arg2) {
-    // TODO Auto-generated method stub
-
+    serviceImpl.releaseCancelledQueries();
   }
 
 }
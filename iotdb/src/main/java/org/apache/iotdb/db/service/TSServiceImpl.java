@@ -27,6 +27,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.auth.AuthException;
 import org.apache.iotdb.db.auth.AuthorityChecker;
 import org.apache.iotdb.db.auth.authorizer.IAuthorizer;
@@ -39,6 +41,7 @@ import org.apache.iotdb.db.exception.ArgsErrorException;
 import org.apache.iotdb.db.exception.FileNodeManagerException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.QueryCancelledException;
 import org.apache.iotdb.db.exception.qp.IllegalASTFormatException;
 import org.apache.iotdb.db.exception.qp.QueryProcessorException;
 import org.apache.iotdb.db.metadata.MManager;
@@ -47,17 +50,21 @@ import org.apache.iotdb.db.qp.QueryProcessor;
 import org.apache.iotdb.db.qp.executor.OverflowQPExecutor;
 import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.dataset.PrefetchQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.ServerProperties;
+import org.apache.iotdb.service.rpc.thrift.TSBatchInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
@@ -73,15 +80,17 @@ import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
 import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
 import org.apache.iotdb.service.rpc.thrift.TSProtocolVersion;
-import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSSetTimeZoneReq;
 import org.apache.iotdb.service.rpc.thrift.TSSetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
 import org.apache.iotdb.service.rpc.thrift.TS_Status;
 import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.thrift.TException;
 import org.apache.thrift.server.ServerContext;
 import org.slf4j.Logger;
@@ -96,6 +105,11 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   private static final Logger LOGGER = LoggerFactory.getLogger(TSServiceImpl.class);
   private static final String INFO_NOT_LOGIN = "{}: Not login.";
   private static final String ERROR_NOT_LOGIN = "Not login";
+  /**
+   * the latest protocol version supported by the server.
+   */
+  private static final TSProtocolVersion SERVER_PROTOCOL_VERSION =
+      TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V2;
 
   private QueryProcessor processor = new QueryProcessor(new OverflowQPExecutor());
   // Record the username for every rpc connection. Username.get() is null if
@@ -104,8 +118,16 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   private ThreadLocal<HashMap<String, PhysicalPlan>> queryStatus = new ThreadLocal<>();
   private ThreadLocal<HashMap<String, QueryDataSet>> queryRet = new ThreadLocal<>();
   private ThreadLocal<ZoneId> zoneIds = new ThreadLocal<>();
+  // the protocol version agreed with the client of every rpc connection
+  private ThreadLocal<TSProtocolVersion> protocolVersions = new ThreadLocal<>();
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   private ThreadLocal<Map<Long, QueryContext>> contextMapLocal = new ThreadLocal<>();
+  // the query operations of all rpc connections by operation id, so that a query can be cancelled
+  // from another connection of its user while its own connection is busy fetching it
+  private Map<Long, QueryOperation> queryOperations = new ConcurrentHashMap<>();
+  private AtomicLong maxOperationId = new AtomicLong(0);
+  // the operation id of every query statement of every rpc connection
+  private ThreadLocal<HashMap<String, Long>> operationIds = new ThreadLocal<>();
 
   public TSServiceImpl() throws IOException {
     // do nothing because there is no need
@@ -129,19 +151,20 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       LOGGER.error("meet error while logging in.", e);
       status = false;
     }
+    TSProtocolVersion protocolVersion = negotiateProtocolVersion(req.getClient_protocol());
     TS_Status tsStatus;
     if (status) {
       tsStatus = new TS_Status(TS_StatusCode.SUCCESS_STATUS);
       tsStatus.setErrorMessage("login successfully.");
       username.set(req.getUsername());
       zoneIds.set(config.getZoneID());
+      protocolVersions.set(protocolVersion);
       initForOneSession();
     } else {
       tsStatus = new TS_Status(TS_StatusCode.ERROR_STATUS);
       tsStatus.setErrorMessage("login failed. Username or password is wrong.");
     }
-    TSOpenSessionResp resp = new TSOpenSessionResp(tsStatus,
-        TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V1);
+    TSOpenSessionResp resp = new TSOpenSessionResp(tsStatus, protocolVersion);
     resp.setSessionHandle(
         new TS_SessionHandle(new TSHandleIdentifier(ByteBuffer.wrap(req.getUsername().getBytes()),
             ByteBuffer.wrap(req.getPassword().getBytes()))));
@@ -152,9 +175,22 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return resp;
   }
 
+  /**
+   * the session uses the older one of the client's protocol version and the server's. A client
+   * newer than the server can not send its version at all, as the request fails to be read; the
+   * client retries with an older version then.
+   */
+  private TSProtocolVersion negotiateProtocolVersion(TSProtocolVersion clientProtocolVersion) {
+    if (clientProtocolVersion.getValue() > SERVER_PROTOCOL_VERSION.getValue()) {
+      return SERVER_PROTOCOL_VERSION;
+    }
+    return clientProtocolVersion;
+  }
+
   private void initForOneSession() {
     queryStatus.set(new HashMap<>());
     queryRet.set(new HashMap<>());
+    operationIds.set(new HashMap<>());
   }
 
   @Override
@@ -173,19 +209,113 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       if (zoneIds.get() != null) {
         zoneIds.remove();
       }
+      protocolVersions.remove();
+      if (operationIds.get() != null) {
+        // the queries of the session can not be cancelled any more
+        operationIds.get().values().forEach(queryOperations::remove);
+        operationIds.remove();
+      }
     }
     return new TSCloseSessionResp(tsStatus);
   }
 
   @Override
   public TSCancelOperationResp cancelOperation(TSCancelOperationReq req) throws TException {
+    if (!checkLogin()) {
+      LOGGER.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+      return new TSCancelOperationResp(getErrorStatus(ERROR_NOT_LOGIN));
+    }
+    long operationId = getOperationId(req.getOperationHandle());
+    QueryOperation operation = queryOperations.get(operationId);
+    if (operation == null) {
+      // not a query, or the query is closed
+      return new TSCancelOperationResp(new TS_Status(TS_StatusCode.SUCCESS_STATUS));
+    }
+    if (!operation.username.equals(username.get())) {
+      return new TSCancelOperationResp(getErrorStatus("No permissions to cancel this query."));
+    }
+    LOGGER.info("{}: cancel query {}", IoTDBConstant.GLOBAL_DB_NAME,
+        operation.context.getJobId());
+    // a running query stops at its next check and is released by its own connection
+    operation.context.cancel();
+    // the memory admits other queries at once, while the query tokens can only be released by the
+    // connection thread of the query, see releaseCancelledQueries()
+    QueryResourceManager.getInstance().releaseMemory(operation.context.getJobId());
+
+    // a query of this connection is not running, release it at once
+    String statement = null;
+    for (Map.Entry<String, Long> entry : operationIds.get().entrySet()) {
+      if (entry.getValue() == operationId) {
+        statement = entry.getKey();
+      }
+    }
+    if (statement != null) {
+      try {
+        releaseStoppedQuery(statement, operation.context);
+      } catch (FileNodeManagerException e) {
+        LOGGER.error("Error in cancelOperation : {}", e.getMessage());
+        return new TSCancelOperationResp(getErrorStatus(e.getMessage()));
+      }
+    }
     return new TSCancelOperationResp(new TS_Status(TS_StatusCode.SUCCESS_STATUS));
   }
 
+  /**
+   * release the queries of this connection cancelled by other connections. The query tokens of a
+   * query are bound to the connection thread which took them, and the thread is blocked in reading
+   * the next request while its connection is idle. So it is called by {@link
+   * JDBCServiceEventHandler} each time the connection serves a request, and the queries cancelled
+   * while the connection stays idle keep their tokens until its next request or until it is closed.
+   */
+  void releaseCancelledQueries() {
+    HashMap<String, Long> statementOperationIds = operationIds.get();
+    if (statementOperationIds == null) {
+      return;
+    }
+    for (Map.Entry<String, Long> entry : statementOperationIds.entrySet()) {
+      QueryOperation operation = queryOperations.get(entry.getValue());
+      if (operation != null && operation.context.isCancelled()) {
+        try {
+          releaseStoppedQuery(entry.getKey(), operation.context);
+        } catch (FileNodeManagerException e) {
+          LOGGER.error("{}: Error in releasing query resource: ", IoTDBConstant.GLOBAL_DB_NAME, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the id of a query operation, -1 if the handle is not of a query
+   */
+  private long getOperationId(TSOperationHandle operationHandle) {
+    ByteBuffer guid = operationHandle.getOperationId().bufferForGuid();
+    if (guid == null || guid.remaining() != Long.BYTES) {
+      return -1;
+    }
+    return guid.getLong(guid.position());
+  }
+
+  /**
+   * release the dataset and the resources of a cancelled or timed out query at once, instead of
+   * when the client closes it. The statement is kept, so that fetching it again reports the
+   * cancellation instead of running the query from the beginning.
+   */
+  private void releaseStoppedQuery(String statement, QueryContext context)
+      throws FileNodeManagerException {
+    closeDataSet(queryRet.get().remove(statement));
+    Map<Long, QueryContext> contextMap = contextMapLocal.get();
+    // the query has not begun, or is released already
+    if (contextMap != null && contextMap.values().remove(context)) {
+      QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
+    }
+  }
+
   @Override
   public TSCloseOperationResp closeOperation(TSCloseOperationReq req) throws TException {
     LOGGER.info("{}: receive close operation", IoTDBConstant.GLOBAL_DB_NAME);
     try {
+      // stop computing results ahead before the resources of the queries are released
+      closeDataSets();
 
       releaseQueryResource(req);
 
@@ -207,8 +337,30 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
       }
     } else {
-      QueryResourceManager.getInstance()
-          .endQueryForGivenJob(contextMap.remove(req.queryId).getJobId());
+      QueryContext context = contextMap.remove(req.queryId);
+      if (context != null) {
+        // the query may be released already, or never fetched
+        QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
+      }
+    }
+  }
+
+  private void closeDataSets() {
+    if (queryRet.get() == null) {
+      return;
+    }
+    for (QueryDataSet queryDataSet : queryRet.get().values()) {
+      closeDataSet(queryDataSet);
+    }
+  }
+
+  private void closeDataSet(QueryDataSet queryDataSet) {
+    if (queryDataSet instanceof PrefetchQueryDataSet) {
+      try {
+        ((PrefetchQueryDataSet) queryDataSet).close();
+      } catch (IOException e) {
+        LOGGER.error("Error in closing a prefetching dataset : {}", e.getMessage());
+      }
     }
   }
 
@@ -219,6 +371,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     if (this.queryStatus.get() != null) {
       this.queryStatus.get().clear();
     }
+    if (this.operationIds.get() != null) {
+      this.operationIds.get().values().forEach(queryOperations::remove);
+      this.operationIds.get().clear();
+    }
   }
 
   private TS_Status getErrorStatus(String message) {
@@ -446,6 +602,53 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  /**
+   * insert a batch of rows of one device. The values are decoded from the binary columns directly
+   * into primitive arrays, no SQL is parsed.
+   */
+  @Override
+  public TSExecuteBatchStatementResp insertBatch(TSBatchInsertionReq req) throws TException {
+    try {
+      if (!checkLogin()) {
+        LOGGER.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+        return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, ERROR_NOT_LOGIN, null);
+      }
+      // the fields come from the client, they are checked before anything is allocated for them
+      if (req.getTypesSize() != req.getMeasurementsSize()) {
+        return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, String
+            .format("%d measurements are given with %d data types", req.getMeasurementsSize(),
+                req.getTypesSize()), null);
+      }
+      List<TSDataType> dataTypes = new ArrayList<>(req.getTypesSize());
+      for (int type : req.getTypes()) {
+        if (type < 0 || type >= TSDataType.values().length) {
+          return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS,
+              "Unknown data type: " + type, null);
+        }
+        dataTypes.add(TSDataType.deserialize((short) type));
+      }
+      int size = req.getSize();
+      try {
+        RowBatch.checkSerializedSize(req.bufferForTimestamps(), req.bufferForValues(), dataTypes,
+            size);
+      } catch (IllegalArgumentException e) {
+        return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage(), null);
+      }
+      long[] times = RowBatch.deserializeTimestamps(req.bufferForTimestamps(), size);
+      Object[] columns = RowBatch.deserializeValues(req.bufferForValues(), dataTypes, size);
+      BatchInsertPlan plan = new BatchInsertPlan(req.getDeviceId(), req.getMeasurements(),
+          dataTypes, times, columns, size);
+      plan.setProposer(username.get());
+
+      TSExecuteStatementResp resp = executeUpdateStatement(plan);
+      return getTSBathExecuteStatementResp(resp.getStatus().getStatusCode(),
+          resp.getStatus().getErrorMessage(), null);
+    } catch (Exception e) {
+      LOGGER.error("{}: error occurs when inserting a batch", IoTDBConstant.GLOBAL_DB_NAME, e);
+      return getTSBathExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage(), null);
+    }
+  }
+
   @Override
   public TSExecuteStatementResp executeStatement(TSExecuteStatementReq req) throws TException {
     try {
@@ -534,6 +737,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
               columns.add(p.getFullPath());
             }
             break;
+          case LAST:
+            columns.add("timeseries");
+            columns.add("value");
+            break;
           case AGGREGATION:
           case GROUPBY:
             List<String> aggregations = plan.getAggregations();
@@ -558,6 +765,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
               columns.add(p.getFullPath());
             }
             break;
+          case LAST:
+            columns.add("timeseries");
+            columns.add("value");
+            break;
           case AGGREGATION:
           case GROUPBY:
             List<String> aggregations = plan.getAggregations();
@@ -576,14 +787,14 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       resp.setOperationType(plan.getOperatorType().toString());
+      long queryOperationId = recordANewQuery(statement, plan);
       TSHandleIdentifier operationId = new TSHandleIdentifier(
-          ByteBuffer.wrap(username.get().getBytes()),
+          ByteBuffer.allocate(Long.BYTES).putLong(0, queryOperationId),
           ByteBuffer.wrap("PASS".getBytes()));
       TSOperationHandle operationHandle;
       resp.setColumns(columns);
       operationHandle = new TSOperationHandle(operationId, true);
       resp.setOperationHandle(operationHandle);
-      recordANewQuery(statement, plan);
       return resp;
     } catch (Exception e) {
       LOGGER.error("{}: Internal server error: ", IoTDBConstant.GLOBAL_DB_NAME, e);
@@ -593,6 +804,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 
   @Override
   public TSFetchResultsResp fetchResults(TSFetchResultsReq req) throws TException {
+    QueryContext context = null;
     try {
       if (!checkLogin()) {
         return getTSFetchResultsResp(TS_StatusCode.ERROR_STATUS, "Not login.");
@@ -603,36 +815,94 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         return getTSFetchResultsResp(TS_StatusCode.ERROR_STATUS, "Has not executed statement");
       }
 
+      context = getQueryContext(statement);
+      // the timeout only limits the time spent in this fetch, not the time the client spends
+      // between fetches
+      if (req.isSetTimeout() && req.getTimeout() > 0) {
+        context.setDeadline(System.currentTimeMillis() + req.getTimeout());
+      }
+      try {
+        context.checkInterrupted();
+      } catch (QueryCancelledException e) {
+        // cancelled or timed out before, do not run the query again. A query cancelled by
+        // another connection is released here
+        return stopQuery(statement, context, e);
+      }
+
       int fetchSize = req.getFetch_size();
       QueryDataSet queryDataSet;
       if (!queryRet.get().containsKey(statement)) {
-        queryDataSet = createNewDataSet(statement, fetchSize, req);
+        queryDataSet = createNewDataSet(statement, fetchSize, req, context);
       } else {
         queryDataSet = queryRet.get().get(statement);
       }
-      TSQueryDataSet result = Utils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
-      boolean hasResultSet = !result.getRecords().isEmpty();
+      List<RowRecord> records = Utils.fetchRecords(queryDataSet, fetchSize);
+      boolean hasResultSet = !records.isEmpty();
       if (!hasResultSet && queryRet.get() != null) {
-        queryRet.get().remove(statement);
+        closeDataSet(queryRet.get().remove(statement));
       }
       TSFetchResultsResp resp = getTSFetchResultsResp(TS_StatusCode.SUCCESS_STATUS,
           "FetchResult successfully. Has more result: " + hasResultSet);
       resp.setHasResultSet(hasResultSet);
-      resp.setQueryDataSet(result);
+      TSColumnarDataSet columnarDataSet = null;
+      if (hasResultSet && protocolVersions.get() != null && protocolVersions.get().getValue()
+          >= TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V2.getValue()) {
+        columnarDataSet = Utils.convertToColumnarDataSet(records);
+      }
+      if (columnarDataSet != null) {
+        resp.setColumnarDataSet(columnarDataSet);
+      } else {
+        resp.setQueryDataSet(Utils.convertToTSQueryDataSet(records));
+      }
       return resp;
     } catch (Exception e) {
+      QueryCancelledException cancelledException = getQueryCancelledException(e);
+      if (cancelledException != null) {
+        return stopQuery(req.getStatement(), context, cancelledException);
+      }
       LOGGER.error("{}: Internal server error: ", IoTDBConstant.GLOBAL_DB_NAME, e);
       return getTSFetchResultsResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
+    } finally {
+      if (context != null) {
+        context.setDeadline(Long.MAX_VALUE);
+      }
+    }
+  }
+
+  /**
+   * @return the QueryCancelledException that stopped the fetch, null if it failed for another
+   * reason. A prefetched query reports it wrapped.
+   */
+  private QueryCancelledException getQueryCancelledException(Throwable e) {
+    while (e != null) {
+      if (e instanceof QueryCancelledException) {
+        return (QueryCancelledException) e;
+      }
+      e = e.getCause();
+    }
+    return null;
+  }
+
+  private TSFetchResultsResp stopQuery(String statement, QueryContext context,
+      QueryCancelledException e) {
+    LOGGER.info("{}: {}", IoTDBConstant.GLOBAL_DB_NAME, e.getMessage());
+    // a timed out query is stopped for good as well, the partial results are lost
+    context.cancel();
+    try {
+      releaseStoppedQuery(statement, context);
+    } catch (FileNodeManagerException e1) {
+      LOGGER.error("{}: Error in releasing query resource: ", IoTDBConstant.GLOBAL_DB_NAME, e1);
     }
+    return getTSFetchResultsResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
   }
 
-  private QueryDataSet createNewDataSet(String statement, int fetchSize, TSFetchResultsReq req)
-      throws PathErrorException, QueryFilterOptimizationException, FileNodeManagerException,
-      ProcessorException, IOException {
+  private QueryDataSet createNewDataSet(String statement, int fetchSize, TSFetchResultsReq req,
+      QueryContext context) throws PathErrorException, QueryFilterOptimizationException,
+      FileNodeManagerException, ProcessorException, IOException {
     PhysicalPlan physicalPlan = queryStatus.get().get(statement);
     processor.getExecutor().setFetchSize(fetchSize);
 
-    QueryContext context = new QueryContext(QueryResourceManager.getInstance().assignJobId());
+    context.setJobId(QueryResourceManager.getInstance().assignJobId());
     Map<Long, QueryContext> contextMap = contextMapLocal.get();
     if (contextMap == null) {
       contextMap = new HashMap<>();
@@ -642,6 +912,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 
     QueryDataSet queryDataSet = processor.getExecutor().processQuery((QueryPlan) physicalPlan,
         context);
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableResultPrefetch()) {
+      queryDataSet = new PrefetchQueryDataSet(queryDataSet, fetchSize);
+    }
     queryRet.get().put(statement, queryDataSet);
     return queryDataSet;
   }
@@ -752,12 +1025,33 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return resp;
   }
 
-  private void recordANewQuery(String statement, PhysicalPlan physicalPlan) {
+  /**
+   * @return the id by which the query can be cancelled
+   */
+  private long recordANewQuery(String statement, PhysicalPlan physicalPlan) {
     queryStatus.get().put(statement, physicalPlan);
     // refresh current queryRet for statement
     if (queryRet.get().containsKey(statement)) {
-      queryRet.get().remove(statement);
+      closeDataSet(queryRet.get().remove(statement));
+    }
+    Long previousOperationId = operationIds.get().get(statement);
+    if (previousOperationId != null) {
+      queryOperations.remove(previousOperationId);
     }
+    long operationId = maxOperationId.incrementAndGet();
+    queryOperations.put(operationId, new QueryOperation(username.get(), new QueryContext()));
+    operationIds.get().put(statement, operationId);
+    return operationId;
+  }
+
+  /**
+   * the context of a query statement, created when the statement is executed so that the query
+   * can be cancelled before it is fetched.
+   */
+  private QueryContext getQueryContext(String statement) {
+    Long operationId = operationIds.get().get(statement);
+    QueryOperation operation = operationId == null ? null : queryOperations.get(operationId);
+    return operation == null ? new QueryContext() : operation.context;
   }
 
   /**
@@ -853,4 +1147,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     properties.getSupportedTimeAggregationOperations().add(IoTDBConstant.MIN_TIME);
     return properties;
   }
+
+  private static class QueryOperation {
+
+    private String username;
+    private QueryContext context;
+
+    private QueryOperation(String username, QueryContext context) {
+      this.username = username;
+      this.context = context;
+    }
+  }
 }
@@ -17,12 +17,16 @@ package org.apache.iotdb.db.service;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSRowRecord;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowBlock;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 
@@ -43,15 +47,49 @@ public class Utils {
   public static TSQueryDataSet convertQueryDataSetByFetchSize(QueryDataSet queryDataSet,
       int fetchsize)
       throws IOException {
+    return convertToTSQueryDataSet(fetchRecords(queryDataSet, fetchsize));
+  }
+
+  /**
+   * get at most fetchSize rows from the query dataset.
+   */
+  public static List<RowRecord> fetchRecords(QueryDataSet queryDataSet, int fetchSize)
+      throws IOException {
+    List<RowRecord> records = new ArrayList<>();
+    while (records.size() < fetchSize && queryDataSet.hasNext()) {
+      records.add(queryDataSet.next());
+    }
+    return records;
+  }
+
+  /**
+   * convert rows into the columnar form.
+   *
+   * @param records not empty, all rows have the same number of fields
+   * @return null if a column has values of different data types
+   */
+  public static TSColumnarDataSet convertToColumnarDataSet(List<RowRecord> records) {
+    RowBlock block = RowBlock.fromRecords(records, records.get(0).getFields().size());
+    if (block == null) {
+      return null;
+    }
+    TSDataType[] dataTypes = block.getTypes();
+    List<Integer> types = new ArrayList<>(dataTypes.length);
+    for (TSDataType dataType : dataTypes) {
+      types.add(dataType == null ? -1 : (int) dataType.serialize());
+    }
+    return new TSColumnarDataSet(block.getRowCount(), block.getTimestamps(), types,
+        Arrays.asList(block.getBitmaps()), Arrays.asList(block.getValues()));
+  }
+
+  /**
+   * convert rows into the row form.
+   */
+  public static TSQueryDataSet convertToTSQueryDataSet(List<RowRecord> records) {
     TSQueryDataSet tsQueryDataSet = new TSQueryDataSet();
-    tsQueryDataSet.setRecords(new ArrayList<>());
-    for (int i = 0; i < fetchsize; i++) {
-      if (queryDataSet.hasNext()) {
-        RowRecord rowRecord = queryDataSet.next();
-        tsQueryDataSet.getRecords().add(convertToTSRecord(rowRecord));
-      } else {
-        break;
-      }
+    tsQueryDataSet.setRecords(new ArrayList<>(records.size()));
+    for (RowRecord rowRecord : records) {
+      tsQueryDataSet.getRecords().add(convertToTSRecord(rowRecord));
     }
     return tsQueryDataSet;
   }
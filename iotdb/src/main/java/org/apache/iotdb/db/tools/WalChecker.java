@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.exception.SysCheckException;
+import org.apache.iotdb.db.writelog.io.MappedSegmentLogWriter;
 import org.apache.iotdb.db.writelog.io.RAFLogReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,29 +70,45 @@ public class WalChecker {
       File storageWalFolder = storageWalFolders[dirIndex];
       LOGGER.debug("Checking the No.{} directory {}", dirIndex, storageWalFolder.getName());
       File walFile = new File(storageWalFolder, WAL_FILE_NAME);
-      if (!walFile.exists()) {
+      List<File> segments;
+      try {
+        segments = MappedSegmentLogWriter.listActiveSegments(storageWalFolder.getPath());
+      } catch (IOException e) {
+        LOGGER.error("Cannot list the log segments in {}", storageWalFolder, e);
+        failedFiles.add(storageWalFolder);
+        continue;
+      }
+      if (!walFile.exists() && segments.isEmpty()) {
         LOGGER.debug("No wal file in this dir, skipping");
         continue;
       }
-
-      RAFLogReader logReader = null;
-      try {
-        logReader = new RAFLogReader(walFile);
-        while (logReader.hasNext()) {
-          logReader.next();
-        }
-      } catch (IOException e) {
-        failedFiles.add(walFile);
-        LOGGER.error("{} fails the check because", walFile.getAbsoluteFile(), e);
-      } finally {
-        if( logReader != null) {
-          logReader.close();
-        }
+      // the ids defined in a segment may be used by the following ones, so they share a reader
+      RAFLogReader logReader = new RAFLogReader();
+      if (walFile.exists()) {
+        checkFile(logReader, walFile, 0, failedFiles);
+      }
+      for (File segment : segments) {
+        checkFile(logReader, segment, MappedSegmentLogWriter.SEGMENT_HEADER_SIZE, failedFiles);
       }
     }
     return failedFiles;
   }
 
+  private void checkFile(RAFLogReader logReader, File walFile, long startPosition,
+      List<File> failedFiles) {
+    try {
+      logReader.open(walFile, startPosition);
+      while (logReader.hasNext()) {
+        logReader.next();
+      }
+    } catch (IOException e) {
+      failedFiles.add(walFile);
+      LOGGER.error("{} fails the check because", walFile.getAbsoluteFile(), e);
+    } finally {
+      logReader.close();
+    }
+  }
+
   // a temporary method which should be in the integrated self-check module in the future
   public static void report(List<File> failedFiles) {
     if (failedFiles.isEmpty()) {
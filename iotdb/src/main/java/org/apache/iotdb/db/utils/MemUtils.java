@@ -19,6 +19,8 @@
 package org.apache.iotdb.db.utils;
 
 import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.BooleanDataPoint;
@@ -51,6 +53,44 @@ public class MemUtils {
     return memSize;
   }
 
+  /**
+   * function for getting the size of all points in a batch, computed in the same way as {@link
+   * #getRecordSize(TSRecord)}.
+   */
+  public static long getBatchInsertPlanSize(BatchInsertPlan plan) {
+    long memSize = 0;
+    int rowCount = plan.getRowCount();
+    for (int i = 0; i < plan.getDataTypes().size(); i++) {
+      TSDataType dataType = plan.getDataTypes().get(i);
+      if (dataType == TSDataType.TEXT) {
+        Binary[] binaries = (Binary[]) plan.getColumns()[i];
+        for (int j = 0; j < rowCount; j++) {
+          memSize += 8L + binaries[j].getLength() * 2;
+        }
+      } else {
+        memSize += rowCount * getPointSize(dataType);
+      }
+    }
+    return memSize;
+  }
+
+  private static long getPointSize(TSDataType dataType) {
+    switch (dataType) {
+      case INT32:
+        return 8L + 4L;
+      case INT64:
+        return 8L + 8L;
+      case FLOAT:
+        return 8L + 4L;
+      case DOUBLE:
+        return 8L + 8L;
+      case BOOLEAN:
+        return 8L + 1L;
+      default:
+        return 8L + 8L;
+    }
+  }
+
   private static long getPointSize(DataPoint dataPoint) {
     switch (dataPoint.getType()) {
       case INT32:
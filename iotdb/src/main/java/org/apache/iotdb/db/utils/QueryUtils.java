@@ -19,10 +19,24 @@
 
 package org.apache.iotdb.db.utils;
 
+import java.io.IOException;
 import java.util.List;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
+import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.Eq;
+import org.apache.iotdb.tsfile.read.filter.operator.Gt;
+import org.apache.iotdb.tsfile.read.filter.operator.GtEq;
+import org.apache.iotdb.tsfile.read.filter.operator.Lt;
+import org.apache.iotdb.tsfile.read.filter.operator.LtEq;
+import org.apache.iotdb.tsfile.read.filter.operator.OrFilter;
+import org.apache.iotdb.tsfile.utils.Pair;
 
 public class QueryUtils {
 
@@ -30,6 +44,64 @@ public class QueryUtils {
     // util class
   }
 
+  /**
+   * get the smallest time range covering all the times which may satisfy a filter. Only the time
+   * conditions narrow the range as a value condition may be satisfied at any time.
+   *
+   * @param filter null for no filter
+   * @return the inclusive bounds of the range, the left one is greater if no time satisfies
+   */
+  public static Pair<Long, Long> getTimeRange(Filter filter) {
+    if (filter instanceof AndFilter) {
+      Pair<Long, Long> left = getTimeRange(((AndFilter) filter).getLeft());
+      Pair<Long, Long> right = getTimeRange(((AndFilter) filter).getRight());
+      return new Pair<>(Math.max(left.left, right.left), Math.min(left.right, right.right));
+    }
+    if (filter instanceof OrFilter) {
+      Pair<Long, Long> left = getTimeRange(((OrFilter) filter).getLeft());
+      Pair<Long, Long> right = getTimeRange(((OrFilter) filter).getRight());
+      return new Pair<>(Math.min(left.left, right.left), Math.max(left.right, right.right));
+    }
+    if (filter instanceof UnaryFilter
+        && ((UnaryFilter<?>) filter).getFilterType() == FilterType.TIME_FILTER) {
+      long time = (Long) ((UnaryFilter<?>) filter).getValue();
+      if (filter instanceof Eq) {
+        return new Pair<>(time, time);
+      } else if (filter instanceof Gt) {
+        return time == Long.MAX_VALUE ? new Pair<>(Long.MAX_VALUE, Long.MIN_VALUE)
+            : new Pair<>(time + 1, Long.MAX_VALUE);
+      } else if (filter instanceof GtEq) {
+        return new Pair<>(time, Long.MAX_VALUE);
+      } else if (filter instanceof Lt) {
+        return time == Long.MIN_VALUE ? new Pair<>(Long.MAX_VALUE, Long.MIN_VALUE)
+            : new Pair<>(Long.MIN_VALUE, time - 1);
+      } else if (filter instanceof LtEq) {
+        return new Pair<>(Long.MIN_VALUE, time);
+      }
+    }
+    return new Pair<>(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * build a header summarizing the whole chunk from its metadata, so that aggregations can use the
+   * statistics of the chunk as if it were a single page.
+   *
+   * @return null if some data of the chunk is deleted or its statistics are not available
+   */
+  public static PageHeader getChunkHeader(ChunkMetaData chunkMetaData) throws IOException {
+    if (chunkMetaData.getDeletedAt() >= chunkMetaData.getStartTime()
+        || chunkMetaData.getNumOfPoints() > Integer.MAX_VALUE) {
+      return null;
+    }
+    Statistics statistics = Statistics
+        .deserialize(chunkMetaData.getDigest(), chunkMetaData.getTsDataType());
+    if (statistics == null) {
+      return null;
+    }
+    return new PageHeader(0, 0, (int) chunkMetaData.getNumOfPoints(), statistics,
+        chunkMetaData.getEndTime(), chunkMetaData.getStartTime());
+  }
+
   /**
    * modifyChunkMetaData iterates the chunkMetaData and applies all available modifications on it to
    * generate a ModifiedChunkMetadata.
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsBoolean;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+public class BooleanTVList extends TVList {
+
+  private List<boolean[]> values;
+
+  private boolean[] tempValues;
+
+  public BooleanTVList() {
+    super();
+    values = new ArrayList<>();
+  }
+
+  @Override
+  public TSDataType getDataType() {
+    return TSDataType.BOOLEAN;
+  }
+
+  @Override
+  public void putBoolean(long time, boolean value) {
+    prepareWrite(time);
+    values.get(size / ARRAY_SIZE)[size % ARRAY_SIZE] = value;
+    size++;
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value, int length) {
+    putColumn(time, value, length);
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    checkIndex(index);
+    return values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+  }
+
+  @Override
+  public TimeValuePair getTimeValuePair(int index) {
+    return new TimeValuePair(getTime(index), new TsBoolean(getBoolean(index)));
+  }
+
+  @Override
+  public BooleanTVList clone() {
+    BooleanTVList cloneList = new BooleanTVList();
+    cloneAs(cloneList);
+    for (boolean[] valueArray : values) {
+      cloneList.values.add(valueArray.clone());
+    }
+    return cloneList;
+  }
+
+  @Override
+  protected void addValueArray() {
+    values.add((boolean[]) PrimitiveArrayPool.getInstance()
+        .getPrimitiveDataListByType(TSDataType.BOOLEAN));
+  }
+
+  @Override
+  protected void releaseValueArrays() {
+    for (boolean[] valueArray : values) {
+      PrimitiveArrayPool.getInstance().release(TSDataType.BOOLEAN, valueArray);
+    }
+    values.clear();
+  }
+
+  @Override
+  protected void copyValues(Object valueColumn, int srcIndex, int arrayIndex, int offset,
+      int length) {
+    System.arraycopy(valueColumn, srcIndex, values.get(arrayIndex), offset, length);
+  }
+
+  @Override
+  protected void moveValue(int src, int dest) {
+    values.get(dest / ARRAY_SIZE)[dest % ARRAY_SIZE] =
+        values.get(src / ARRAY_SIZE)[src % ARRAY_SIZE];
+  }
+
+  @Override
+  protected void initTempValues(int length) {
+    tempValues = new boolean[length];
+  }
+
+  @Override
+  protected void saveToTemp(int index, int tempIndex) {
+    tempValues[tempIndex] = values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+  }
+
+  @Override
+  protected void restoreFromTemp(int tempIndex, int index) {
+    values.get(index / ARRAY_SIZE)[index % ARRAY_SIZE] = tempValues[tempIndex];
+  }
+
+  @Override
+  protected void clearTempValues() {
+    tempValues = null;
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.memcontrol.BasicMemController;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * Manage the primitive arrays of TVLists. All arrays have the same fixed size, so an array released
+ * by the memtable of one series after a flush can be reused by any other series of the same data
+ * type, instead of being garbage collected and allocated again.<br> The timestamp arrays share the
+ * pool of INT64 values since both are long[].<br> The arrays cached in the pool are not counted by
+ * the memtables, so their size is reported by {@link #getCachedSize()}. A released array is only
+ * cached if the memory usage together with the cached arrays stays below the warning threshold of
+ * {@link BasicMemController}, otherwise it is left to the GC.
+ */
+public class PrimitiveArrayPool {
+
+  public static final int ARRAY_SIZE = IoTDBDescriptor.getInstance().getConfig()
+      .getPrimitiveArraySize();
+
+  private final Map<TSDataType, ArrayDeque<Object>> primitiveArraysMap = new EnumMap<>(
+      TSDataType.class);
+
+  /**
+   * total size in byte of the arrays cached in the pool.
+   */
+  private final AtomicLong cachedSize = new AtomicLong(0);
+
+  private PrimitiveArrayPool() {
+    for (TSDataType dataType : TSDataType.values()) {
+      primitiveArraysMap.put(dataType, new ArrayDeque<>());
+    }
+  }
+
+  public static PrimitiveArrayPool getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * get an array of ARRAY_SIZE elements for the given data type, e.g., a long[] for INT64.
+   */
+  public Object getPrimitiveDataListByType(TSDataType dataType) {
+    ArrayDeque<Object> dataListQueue = primitiveArraysMap.get(dataType);
+    Object dataArray;
+    synchronized (dataListQueue) {
+      dataArray = dataListQueue.poll();
+    }
+    if (dataArray != null) {
+      cachedSize.addAndGet(-getArraySize(dataType));
+      return dataArray;
+    }
+    return newArray(dataType);
+  }
+
+  public long[] getTimestampArray() {
+    return (long[]) getPrimitiveDataListByType(TSDataType.INT64);
+  }
+
+  /**
+   * give an array back to the pool, the caller must not use it any more.
+   */
+  public void release(TSDataType dataType, Object dataArray) {
+    long arraySize = getArraySize(dataType);
+    if (!BasicMemController.getInstance().isSafeToKeep(cachedSize.get() + arraySize)) {
+      // leave it to the GC so that the memory can be reclaimed
+      return;
+    }
+    if (dataType == TSDataType.TEXT) {
+      // do not keep the binaries reachable
+      Arrays.fill((Binary[]) dataArray, null);
+    }
+    ArrayDeque<Object> dataListQueue = primitiveArraysMap.get(dataType);
+    synchronized (dataListQueue) {
+      dataListQueue.push(dataArray);
+    }
+    cachedSize.addAndGet(arraySize);
+  }
+
+  public void releaseTimestampArray(long[] timestampArray) {
+    release(TSDataType.INT64, timestampArray);
+  }
+
+  /**
+   * @return the total size in byte of the arrays which are cached in the pool and not used by any
+   * memtable.
+   */
+  public long getCachedSize() {
+    return cachedSize.get();
+  }
+
+  /**
+   * drop all cached arrays.
+   */
+  public void clear() {
+    for (Map.Entry<TSDataType, ArrayDeque<Object>> entry : primitiveArraysMap.entrySet()) {
+      synchronized (entry.getValue()) {
+        cachedSize.addAndGet(-getArraySize(entry.getKey()) * entry.getValue().size());
+        entry.getValue().clear();
+      }
+    }
+  }
+
+  private static Object newArray(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[ARRAY_SIZE];
+      case INT32:
+        return new int[ARRAY_SIZE];
+      case INT64:
+        return new long[ARRAY_SIZE];
+      case FLOAT:
+        return new float[ARRAY_SIZE];
+      case DOUBLE:
+        return new double[ARRAY_SIZE];
+      case TEXT:
+        return new Binary[ARRAY_SIZE];
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+
+  /**
+   * @return the size in byte of one array of the given data type, the references of a Binary[]
+   * are counted as 8 bytes each.
+   */
+  private static long getArraySize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return ARRAY_SIZE;
+      case INT32:
+      case FLOAT:
+        return 4L * ARRAY_SIZE;
+      case INT64:
+      case DOUBLE:
+      case TEXT:
+        return 8L * ARRAY_SIZE;
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
+  }
+}
@@ -0,0 +1,402 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * TVList stores the timestamps and the primitive values of one series in memory. The data is kept
+ * in a list of fixed-size arrays borrowed from {@link PrimitiveArrayPool}, so that no reflection
+ * and no boxing is needed when writing, sorting and reading the data, and the arrays can be
+ * recycled by {@link #clear()} after a flush.<br> The list remembers whether the data is appended
+ * in strictly ascending order of time, in which case {@link #sort()} returns immediately.
+ */
+public abstract class TVList {
+
+  protected static final int ARRAY_SIZE = PrimitiveArrayPool.ARRAY_SIZE;
+  /**
+   * ranges shorter than this are sorted by insertion sort before they are merged.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  protected List<long[]> timestamps;
+  protected int size;
+
+  /**
+   * true if the timestamps are strictly ascending, i.e., sorted and without duplicates.
+   */
+  private boolean sorted = true;
+  private long maxTime = Long.MIN_VALUE;
+
+  private long[] tempTimestamps;
+
+  public TVList() {
+    timestamps = new ArrayList<>();
+    size = 0;
+  }
+
+  public static TVList newList(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new BooleanTVList();
+      case INT32:
+        return new IntTVList();
+      case INT64:
+        return new LongTVList();
+      case FLOAT:
+        return new FloatTVList();
+      case DOUBLE:
+        return new DoubleTVList();
+      case TEXT:
+        return new BinaryTVList();
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+
+  public abstract TSDataType getDataType();
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isSorted() {
+    return sorted;
+  }
+
+  public long getTime(int index) {
+    checkIndex(index);
+    return timestamps.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+  }
+
+  public void putLong(long time, long value) {
+    throw new UnsupportedOperationException("putLong() is not supported by " + getDataType());
+  }
+
+  public void putInt(long time, int value) {
+    throw new UnsupportedOperationException("putInt() is not supported by " + getDataType());
+  }
+
+  public void putFloat(long time, float value) {
+    throw new UnsupportedOperationException("putFloat() is not supported by " + getDataType());
+  }
+
+  public void putDouble(long time, double value) {
+    throw new UnsupportedOperationException("putDouble() is not supported by " + getDataType());
+  }
+
+  public void putBinary(long time, Binary value) {
+    throw new UnsupportedOperationException("putBinary() is not supported by " + getDataType());
+  }
+
+  public void putBoolean(long time, boolean value) {
+    throw new UnsupportedOperationException("putBoolean() is not supported by " + getDataType());
+  }
+
+  public void putLongs(long[] time, long[] value, int length) {
+    throw new UnsupportedOperationException("putLongs() is not supported by " + getDataType());
+  }
+
+  public void putInts(long[] time, int[] value, int length) {
+    throw new UnsupportedOperationException("putInts() is not supported by " + getDataType());
+  }
+
+  public void putFloats(long[] time, float[] value, int length) {
+    throw new UnsupportedOperationException("putFloats() is not supported by " + getDataType());
+  }
+
+  public void putDoubles(long[] time, double[] value, int length) {
+    throw new UnsupportedOperationException("putDoubles() is not supported by " + getDataType());
+  }
+
+  public void putBinaries(long[] time, Binary[] value, int length) {
+    throw new UnsupportedOperationException("putBinaries() is not supported by " + getDataType());
+  }
+
+  public void putBooleans(long[] time, boolean[] value, int length) {
+    throw new UnsupportedOperationException("putBooleans() is not supported by " + getDataType());
+  }
+
+  public long getLong(int index) {
+    throw new UnsupportedOperationException("getLong() is not supported by " + getDataType());
+  }
+
+  public int getInt(int index) {
+    throw new UnsupportedOperationException("getInt() is not supported by " + getDataType());
+  }
+
+  public float getFloat(int index) {
+    throw new UnsupportedOperationException("getFloat() is not supported by " + getDataType());
+  }
+
+  public double getDouble(int index) {
+    throw new UnsupportedOperationException("getDouble() is not supported by " + getDataType());
+  }
+
+  public Binary getBinary(int index) {
+    throw new UnsupportedOperationException("getBinary() is not supported by " + getDataType());
+  }
+
+  public boolean getBoolean(int index) {
+    throw new UnsupportedOperationException("getBoolean() is not supported by " + getDataType());
+  }
+
+  /**
+   * round the values in place to the given number of digits after the decimal point, only
+   * supported by the lists of floats and doubles.
+   */
+  public void roundValues(int precision) {
+    throw new UnsupportedOperationException("roundValues() is not supported by " + getDataType());
+  }
+
+  /**
+   * get the data point at the given index as a TimeValuePair, the value is boxed.
+   */
+  public abstract TimeValuePair getTimeValuePair(int index);
+
+  /**
+   * make a deep copy of this list, later writes to or sorting of this list do not affect the copy.
+   */
+  @Override
+  public abstract TVList clone();
+
+  /**
+   * sort the data by time in place and remove the duplicated timestamps. If several points share
+   * one timestamp, the one written last is kept. Does nothing if the data was appended in order.
+   */
+  public void sort() {
+    if (sorted) {
+      return;
+    }
+    tempTimestamps = new long[size];
+    initTempValues(size);
+    try {
+      for (int lo = 0; lo < size; lo += INSERTION_SORT_THRESHOLD) {
+        insertionSort(lo, Math.min(lo + INSERTION_SORT_THRESHOLD, size));
+      }
+      for (int width = INSERTION_SORT_THRESHOLD; width < size; width *= 2) {
+        for (int lo = 0; lo + width < size; lo += 2 * width) {
+          merge(lo, lo + width, Math.min(lo + 2 * width, size));
+        }
+      }
+    } finally {
+      tempTimestamps = null;
+      clearTempValues();
+    }
+    removeDuplicates();
+    sorted = true;
+  }
+
+  /**
+   * a stable insertion sort of [lo, hi), using the first temp slot as the pivot.
+   */
+  private void insertionSort(int lo, int hi) {
+    for (int i = lo + 1; i < hi; i++) {
+      long pivotTime = getTimeUnchecked(i);
+      if (getTimeUnchecked(i - 1) <= pivotTime) {
+        continue;
+      }
+      saveToTemp(i, 0);
+      int j = i;
+      while (j > lo && getTimeUnchecked(j - 1) > pivotTime) {
+        setTime(j, getTimeUnchecked(j - 1));
+        moveValue(j - 1, j);
+        j--;
+      }
+      setTime(j, pivotTime);
+      restoreFromTemp(0, j);
+    }
+  }
+
+  /**
+   * a stable merge of the sorted ranges [lo, mid) and [mid, hi). Only the left range is copied to
+   * the temp arrays. If the two ranges are already in order, nothing is moved.
+   */
+  private void merge(int lo, int mid, int hi) {
+    if (getTimeUnchecked(mid - 1) <= getTimeUnchecked(mid)) {
+      return;
+    }
+    int leftLength = mid - lo;
+    for (int i = 0; i < leftLength; i++) {
+      tempTimestamps[i] = getTimeUnchecked(lo + i);
+      saveToTemp(lo + i, i);
+    }
+    int left = 0;
+    int right = mid;
+    int dest = lo;
+    while (left < leftLength && right < hi) {
+      if (getTimeUnchecked(right) < tempTimestamps[left]) {
+        setTime(dest, getTimeUnchecked(right));
+        moveValue(right, dest);
+        right++;
+      } else {
+        setTime(dest, tempTimestamps[left]);
+        restoreFromTemp(left, dest);
+        left++;
+      }
+      dest++;
+    }
+    while (left < leftLength) {
+      setTime(dest, tempTimestamps[left]);
+      restoreFromTemp(left, dest);
+      left++;
+      dest++;
+    }
+  }
+
+  /**
+   * keep only the last point of each run of equal timestamps, the list must be sorted.
+   */
+  private void removeDuplicates() {
+    int dest = 0;
+    for (int i = 0; i < size; i++) {
+      if (i + 1 < size && getTimeUnchecked(i) == getTimeUnchecked(i + 1)) {
+        continue;
+      }
+      if (dest != i) {
+        setTime(dest, getTimeUnchecked(i));
+        moveValue(i, dest);
+      }
+      dest++;
+    }
+    size = dest;
+  }
+
+  /**
+   * make room for one more point and update the order information, called before the point is
+   * written at index {@link #size}.
+   */
+  protected void prepareWrite(long time) {
+    updateOrder(time);
+    int arrayIndex = size / ARRAY_SIZE;
+    if (arrayIndex == timestamps.size()) {
+      timestamps.add(PrimitiveArrayPool.getInstance().getTimestampArray());
+      addValueArray();
+    }
+    timestamps.get(arrayIndex)[size % ARRAY_SIZE] = time;
+  }
+
+  private void updateOrder(long time) {
+    if (time <= maxTime) {
+      sorted = false;
+    } else {
+      maxTime = time;
+    }
+  }
+
+  /**
+   * append the first length points of a time column and a value column. The points are copied
+   * into the arrays of this list run by run with System.arraycopy instead of one by one.
+   *
+   * @param valueColumn an array of the primitive type of this list
+   */
+  protected void putColumn(long[] time, Object valueColumn, int length) {
+    int index = 0;
+    while (index < length) {
+      int arrayIndex = size / ARRAY_SIZE;
+      int offset = size % ARRAY_SIZE;
+      if (arrayIndex == timestamps.size()) {
+        timestamps.add(PrimitiveArrayPool.getInstance().getTimestampArray());
+        addValueArray();
+      }
+      int runLength = Math.min(length - index, ARRAY_SIZE - offset);
+      for (int i = index; i < index + runLength; i++) {
+        updateOrder(time[i]);
+      }
+      System.arraycopy(time, index, timestamps.get(arrayIndex), offset, runLength);
+      copyValues(valueColumn, index, arrayIndex, offset, runLength);
+      index += runLength;
+      size += runLength;
+    }
+  }
+
+  /**
+   * give all arrays back to {@link PrimitiveArrayPool} and empty this list. The caller must make
+   * sure that nobody reads this list any more.
+   */
+  public void clear() {
+    for (long[] timestampArray : timestamps) {
+      PrimitiveArrayPool.getInstance().releaseTimestampArray(timestampArray);
+    }
+    timestamps.clear();
+    releaseValueArrays();
+    size = 0;
+    sorted = true;
+    maxTime = Long.MIN_VALUE;
+  }
+
+  protected long getTimeUnchecked(int index) {
+    return timestamps.get(index / ARRAY_SIZE)[index % ARRAY_SIZE];
+  }
+
+  private void setTime(int index, long time) {
+    timestamps.get(index / ARRAY_SIZE)[index % ARRAY_SIZE] = time;
+  }
+
+  protected void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException("index: " + index);
+    }
+  }
+
+  /**
+   * copy the timestamps and the order information into a newly created list. The copy does not
+   * borrow arrays from the pool, it is left to the GC.
+   */
+  protected void cloneAs(TVList cloneList) {
+    for (long[] timestampArray : timestamps) {
+      cloneList.timestamps.add(timestampArray.clone());
+    }
+    cloneList.size = size;
+    cloneList.sorted = sorted;
+    cloneList.maxTime = maxTime;
+  }
+
+  /**
+   * borrow one more value array from {@link PrimitiveArrayPool}.
+   */
+  protected abstract void addValueArray();
+
+  protected abstract void releaseValueArrays();
+
+  /**
+   * copy length values of the column starting from srcIndex into the value array at arrayIndex,
+   * starting from offset.
+   */
+  protected abstract void copyValues(Object valueColumn, int srcIndex, int arrayIndex, int offset,
+      int length);
+
+  /**
+   * copy the value at index src to index dest.
+   */
+  protected abstract void moveValue(int src, int dest);
+
+  protected abstract void initTempValues(int length);
+
+  protected abstract void saveToTemp(int index, int tempIndex);
+
+  protected abstract void restoreFromTemp(int tempIndex, int index);
+
+  protected abstract void clearTempValues();
+}
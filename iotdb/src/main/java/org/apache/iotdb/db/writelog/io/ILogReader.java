@@ -19,14 +19,17 @@
 package org.apache.iotdb.db.writelog.io;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Iterator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 
 public interface ILogReader {
 
-  void open(File file) throws FileNotFoundException;
+  void open(File file) throws IOException;
+
+  /**
+   * open a log file and skip the first bytes of it, e.g., the header of a log segment.
+   */
+  void open(File file, long startPosition) throws IOException;
 
   void close();
 
@@ -19,12 +19,19 @@
 package org.apache.iotdb.db.writelog.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public interface ILogWriter {
 
   void write(List<byte[]> logCache) throws IOException;
 
+  /**
+   * Write logs that are already framed (length, checksum and content of each log) in the buffer,
+   * from its position to its limit. Unlike write(List), the logs are not forced here.
+   */
+  void write(ByteBuffer logBuffer) throws IOException;
+
   void force() throws IOException;
 
   void close() throws IOException;
@@ -34,6 +34,7 @@ public class LogWriter implements ILogWriter {
   private FileOutputStream fileOutputStream;
   private FileChannel outputStream;
   private CRC32 checkSummer = new CRC32();
+  private ByteBuffer buffer;
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   public LogWriter(String logFilePath) {
@@ -42,29 +43,54 @@ public class LogWriter implements ILogWriter {
 
   @Override
   public void write(List<byte[]> logCache) throws IOException {
-    if (outputStream == null) {
-      fileOutputStream = new FileOutputStream(logFile, true);
-      outputStream = fileOutputStream.getChannel();
-    }
     int totalSize = 0;
     for (byte[] bytes : logCache) {
-      totalSize += 4 + 8 + bytes.length;
+      totalSize += getLogSize(bytes);
+    }
+    // the buffer is reused by the following syncs unless a larger one is needed
+    if (buffer == null || buffer.capacity() < totalSize) {
+      buffer = ByteBuffer.allocate(totalSize);
     }
-    ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+    buffer.clear();
     for (byte[] bytes : logCache) {
-      buffer.putInt(bytes.length);
-      checkSummer.reset();
-      checkSummer.update(bytes);
-      buffer.putLong(checkSummer.getValue());
-      buffer.put(bytes);
+      putLog(buffer, bytes, checkSummer);
     }
     buffer.flip();
-    outputStream.write(buffer);
+    write(buffer);
     if (config.getForceWalPeriodInMs() == 0) {
       outputStream.force(true);
     }
   }
 
+  @Override
+  public void write(ByteBuffer logBuffer) throws IOException {
+    if (outputStream == null) {
+      fileOutputStream = new FileOutputStream(logFile, true);
+      outputStream = fileOutputStream.getChannel();
+    }
+    while (logBuffer.hasRemaining()) {
+      outputStream.write(logBuffer);
+    }
+  }
+
+  /**
+   * Frame a log into the buffer as its length, its CRC32 checksum and its content.
+   */
+  public static void putLog(ByteBuffer buffer, byte[] logBytes, CRC32 checkSummer) {
+    buffer.putInt(logBytes.length);
+    checkSummer.reset();
+    checkSummer.update(logBytes);
+    buffer.putLong(checkSummer.getValue());
+    buffer.put(logBytes);
+  }
+
+  /**
+   * @return the size of a log in the file, including its length and its checksum.
+   */
+  public static int getLogSize(byte[] logBytes) {
+    return 4 + 8 + logBytes.length;
+  }
+
   @Override
   public void force() throws IOException {
     if (outputStream != null) {
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.utils.CommonUtils;
+import org.apache.iotdb.db.writelog.transfer.LogDictionary;
+import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MappedLogReader reads a log file through a MappedByteBuffer. Each log is checked and decoded in
+ * place, without being copied into a byte array first. The file must be smaller than 2GB.
+ */
+public class MappedLogReader implements ILogReader {
+
+  private static final Logger logger = LoggerFactory.getLogger(MappedLogReader.class);
+  private MappedByteBuffer mappedBuffer;
+  private String filepath;
+  private CRC32 checkSummer = new CRC32();
+  private PhysicalPlan planBuffer = null;
+  private LogDictionary dictionary = new LogDictionary();
+
+  /**
+   * @return true if the file can be read by a MappedLogReader.
+   */
+  public static boolean canMap(File logFile) {
+    return logFile.length() <= Integer.MAX_VALUE;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    if (planBuffer != null) {
+      return true;
+    }
+
+    if (mappedBuffer.remaining() < 12) {
+      return false;
+    }
+
+    int logSize = mappedBuffer.getInt();
+    if (logSize == 0) {
+      // the end of the logs in a pre-allocated segment
+      mappedBuffer.position(mappedBuffer.limit());
+      return false;
+    }
+    final long checkSum = mappedBuffer.getLong();
+    if (logSize < 0 || logSize > mappedBuffer.remaining()) {
+      throw new IOException("The log size " + logSize + " is incorrect!");
+    }
+    ByteBuffer log = mappedBuffer.slice();
+    log.limit(logSize);
+    checkSummer.reset();
+    checkSummer.update(log.duplicate());
+    if (checkSummer.getValue() != checkSum) {
+      throw new IOException("The check sum is incorrect!");
+    }
+    planBuffer = PhysicalPlanLogTransfer.logToOperator(log, dictionary);
+    mappedBuffer.position(mappedBuffer.position() + logSize);
+    return true;
+  }
+
+  @Override
+  public PhysicalPlan next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    PhysicalPlan ret = planBuffer;
+    planBuffer = null;
+    return ret;
+  }
+
+  @Override
+  public void close() {
+    if (mappedBuffer != null) {
+      try {
+        CommonUtils.destroyBuffer(mappedBuffer);
+      } catch (Exception e) {
+        logger.warn("Cannot unmap log file {}", filepath, e);
+      }
+      mappedBuffer = null;
+    }
+  }
+
+  @Override
+  public void open(File logFile) throws IOException {
+    open(logFile, 0);
+  }
+
+  @Override
+  public void open(File logFile, long startPosition) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(logFile, "r")) {
+      mappedBuffer = raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length());
+    }
+    mappedBuffer.position((int) Math.min(startPosition, mappedBuffer.limit()));
+    this.filepath = logFile.getPath();
+  }
+}
@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MappedSegmentLogWriter writes the logs of a log node into pre-allocated segment files through a
+ * MappedByteBuffer. A segment starts with its sequence number, and the logs in it are followed by
+ * a zero length which tells the reader where they end. A segment retired by a flush is marked as
+ * FREE_SEGMENT and recycled by a later segment, so no file is created, deleted or reopened when a
+ * memtable is switched.
+ */
+public class MappedSegmentLogWriter implements ILogWriter {
+
+  public static final String SEGMENT_PREFIX = "wal-segment-";
+  public static final long FREE_SEGMENT = -1;
+  public static final int SEGMENT_HEADER_SIZE = 8;
+  private static final Logger logger = LoggerFactory.getLogger(MappedSegmentLogWriter.class);
+  /**
+   * The free segments beyond this number are deleted when they are retired.
+   */
+  private static final int MAX_FREE_SEGMENTS = 4;
+
+  private String logDirectory;
+  private long segmentSize;
+  private boolean opened = false;
+  /**
+   * The segments which are not retired, in the order of their sequence numbers. The last one is
+   * being written if currentBuffer is not null.
+   */
+  private Deque<Segment> activeSegments = new ArrayDeque<>();
+  private Deque<File> freeSegments = new ArrayDeque<>();
+  private long nextSequence;
+  private int nextFileIndex;
+  private MappedByteBuffer currentBuffer;
+  private CRC32 checkSummer = new CRC32();
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  public MappedSegmentLogWriter(String logDirectory, long segmentSize) {
+    this.logDirectory = logDirectory;
+    this.segmentSize = segmentSize;
+  }
+
+  @Override
+  public synchronized void write(List<byte[]> logCache) throws IOException {
+    for (byte[] bytes : logCache) {
+      ensureRoom(LogWriter.getLogSize(bytes));
+      LogWriter.putLog(currentBuffer, bytes, checkSummer);
+    }
+    terminate();
+    if (config.getForceWalPeriodInMs() == 0) {
+      force();
+    }
+  }
+
+  @Override
+  public synchronized void write(ByteBuffer logBuffer) throws IOException {
+    while (logBuffer.hasRemaining()) {
+      int position = logBuffer.position();
+      int logSize = 4 + 8 + logBuffer.getInt(position);
+      ensureRoom(logSize);
+      ByteBuffer log = logBuffer.duplicate();
+      log.limit(position + logSize);
+      currentBuffer.put(log);
+      logBuffer.position(position + logSize);
+    }
+    terminate();
+  }
+
+  @Override
+  public synchronized void force() {
+    if (currentBuffer != null) {
+      currentBuffer.force();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    releaseCurrentSegment();
+    activeSegments.clear();
+    freeSegments.clear();
+    opened = false;
+  }
+
+  /**
+   * Stop writing the current segment so that the following logs go to a new segment.
+   *
+   * @return the sequence number before which all segments hold only the logs written before this
+   * call.
+   */
+  public synchronized long rollSegment() throws IOException {
+    open();
+    if (currentBuffer == null) {
+      return nextSequence;
+    }
+    if (currentBuffer.position() == SEGMENT_HEADER_SIZE) {
+      return activeSegments.getLast().sequence;
+    }
+    releaseCurrentSegment();
+    return nextSequence;
+  }
+
+  /**
+   * Retire the segments whose sequence numbers are less than the given one, they are recycled by
+   * the following segments.
+   */
+  public synchronized void retireSegmentsBefore(long sequence) throws IOException {
+    open();
+    while (!activeSegments.isEmpty() && activeSegments.getFirst().sequence < sequence
+        && !(currentBuffer != null && activeSegments.size() == 1)) {
+      Segment segment = activeSegments.removeFirst();
+      if (segment.file.length() == segmentSize && freeSegments.size() < MAX_FREE_SEGMENTS) {
+        markFree(segment.file);
+        freeSegments.add(segment.file);
+      } else if (!segment.file.delete()) {
+        logger.error("Cannot delete log segment {}", segment.file);
+      }
+    }
+  }
+
+  private void open() throws IOException {
+    if (opened) {
+      return;
+    }
+    List<Segment> segments = new ArrayList<>();
+    File[] files = new File(logDirectory).listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+    if (files != null) {
+      for (File file : files) {
+        nextFileIndex = Math.max(nextFileIndex,
+            Integer.parseInt(file.getName().substring(SEGMENT_PREFIX.length())) + 1);
+        long sequence = readSequence(file);
+        if (sequence != FREE_SEGMENT) {
+          segments.add(new Segment(file, sequence));
+          nextSequence = Math.max(nextSequence, sequence + 1);
+        } else if (file.length() == segmentSize) {
+          freeSegments.add(file);
+        } else if (!file.delete()) {
+          logger.error("Cannot delete log segment {}", file);
+        }
+      }
+    }
+    segments.sort((o1, o2) -> Long.compare(o1.sequence, o2.sequence));
+    activeSegments.addAll(segments);
+    opened = true;
+  }
+
+  private void ensureRoom(int logSize) throws IOException {
+    open();
+    if (currentBuffer != null && currentBuffer.remaining() >= logSize) {
+      return;
+    }
+    releaseCurrentSegment();
+    // a log larger than a segment gets a segment of its own size, which is not recycled
+    long capacity = Math.max(segmentSize, (long) SEGMENT_HEADER_SIZE + logSize);
+    File file;
+    if (capacity == segmentSize && !freeSegments.isEmpty()) {
+      file = freeSegments.removeFirst();
+    } else {
+      file = new File(logDirectory, SEGMENT_PREFIX + nextFileIndex++);
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      if (raf.length() != capacity) {
+        raf.setLength(capacity);
+      }
+      currentBuffer = raf.getChannel().map(MapMode.READ_WRITE, 0, capacity);
+    }
+    long sequence = nextSequence++;
+    currentBuffer.putLong(sequence);
+    // a recycled segment still holds the logs of its last use
+    currentBuffer.putInt(SEGMENT_HEADER_SIZE, 0);
+    activeSegments.add(new Segment(file, sequence));
+  }
+
+  /**
+   * mark the end of the logs in the current segment.
+   */
+  private void terminate() {
+    if (currentBuffer != null && currentBuffer.remaining() >= 4) {
+      currentBuffer.putInt(currentBuffer.position(), 0);
+    }
+  }
+
+  private void releaseCurrentSegment() {
+    if (currentBuffer == null) {
+      return;
+    }
+    currentBuffer.force();
+    try {
+      CommonUtils.destroyBuffer(currentBuffer);
+    } catch (Exception e) {
+      logger.warn("Cannot unmap log segment {}", activeSegments.getLast().file, e);
+    }
+    currentBuffer = null;
+  }
+
+  private static void markFree(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.writeLong(FREE_SEGMENT);
+    }
+  }
+
+  private static long readSequence(File file) throws IOException {
+    if (file.length() < SEGMENT_HEADER_SIZE) {
+      return FREE_SEGMENT;
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      return raf.readLong();
+    }
+  }
+
+  /**
+   * list the segments holding logs in the given directory in the order they were written.
+   */
+  public static List<File> listActiveSegments(String logDirectory) throws IOException {
+    List<Segment> segments = new ArrayList<>();
+    File[] files = new File(logDirectory).listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+    if (files != null) {
+      for (File file : files) {
+        long sequence = readSequence(file);
+        if (sequence != FREE_SEGMENT) {
+          segments.add(new Segment(file, sequence));
+        }
+      }
+    }
+    segments.sort((o1, o2) -> Long.compare(o1.sequence, o2.sequence));
+    List<File> result = new ArrayList<>(segments.size());
+    for (Segment segment : segments) {
+      result.add(segment.file);
+    }
+    return result;
+  }
+
+  /**
+   * retire the given segments, e.g., after their logs are recovered. They must not be written by
+   * a writer.
+   */
+  public static void retireSegments(List<File> segments) throws IOException {
+    for (File file : segments) {
+      markFree(file);
+    }
+  }
+
+  private static class Segment {
+
+    private File file;
+    private long sequence;
+
+    private Segment(File file, long sequence) {
+      this.file = file;
+      this.sequence = sequence;
+    }
+  }
+}
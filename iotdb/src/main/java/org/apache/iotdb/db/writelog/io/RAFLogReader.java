@@ -22,9 +22,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
 import java.util.zip.CRC32;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.writelog.transfer.LogDictionary;
 import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +40,7 @@ public class RAFLogReader implements ILogReader {
   private byte[] buffer = new byte[bufferSize];
   private CRC32 checkSummer = new CRC32();
   private PhysicalPlan planBuffer = null;
+  private LogDictionary dictionary = new LogDictionary();
 
   public RAFLogReader() {
     // allowed to construct RAFLogReader without input.
@@ -58,6 +61,11 @@ public class RAFLogReader implements ILogReader {
     }
 
     int logSize = logRaf.readInt();
+    if (logSize == 0) {
+      // the end of the logs in a pre-allocated segment
+      logRaf.seek(logRaf.length());
+      return false;
+    }
     if (logSize > bufferSize) {
       bufferSize = logSize;
       buffer = new byte[bufferSize];
@@ -69,7 +77,8 @@ public class RAFLogReader implements ILogReader {
     if (checkSummer.getValue() != checkSum) {
       throw new IOException("The check sum is incorrect!");
     }
-    planBuffer = PhysicalPlanLogTransfer.logToOperator(buffer);
+    planBuffer = PhysicalPlanLogTransfer
+        .logToOperator(ByteBuffer.wrap(buffer, 0, logSize), dictionary);
     return true;
   }
 
@@ -100,4 +109,10 @@ public class RAFLogReader implements ILogReader {
     logRaf = new RandomAccessFile(logFile, "r");
     this.filepath = logFile.getPath();
   }
+
+  @Override
+  public void open(File logFile, long startPosition) throws IOException {
+    open(logFile);
+    logRaf.seek(startPosition);
+  }
 }
@@ -23,7 +23,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
@@ -33,6 +38,7 @@ import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.db.writelog.manager.WalRecoveryMonitor.NodeStatus;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +51,7 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
   private Thread syncThread;
   private Thread forceThread;
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private WalRecoveryMonitor recoveryMonitor = new WalRecoveryMonitor();
 
   private final Runnable syncTask = ()->{
       while (true) {
@@ -129,20 +136,90 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   /*
    * Warning : caller must guarantee thread safety.
+   *
+   * The log nodes are grouped by storage group and the groups are recovered concurrently by at
+   * most walRecoveryThreadNum threads, while the nodes of one group are recovered one by one. A
+   * failed group does not stop the others, the failures are reported after all groups finish.
    */
   @Override
   public void recover() throws RecoverException {
-    List<WriteLogNode> nodeList = new ArrayList<>(nodeMap.size());
-    nodeList.addAll(nodeMap.values());
-    nodeList.sort(null);
-    for (WriteLogNode node : nodeList) {
+    Map<String, List<WriteLogNode>> groupMap = new TreeMap<>();
+    for (WriteLogNode node : nodeMap.values()) {
+      groupMap.computeIfAbsent(getFileNodeName(node), k -> new ArrayList<>()).add(node);
+    }
+    recoveryMonitor.start(nodeMap.keySet());
+    if (groupMap.isEmpty()) {
+      recoveryMonitor.end();
+      return;
+    }
+    int threadNum = Math.min(config.getWalRecoveryThreadNum(), groupMap.size());
+    logger.info("Start recovering {} log nodes of {} storage groups with {} threads",
+        nodeMap.size(), groupMap.size(), threadNum);
+    ExecutorService recoveryPool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadNum, ThreadName.WAL_RECOVERY.getName());
+    List<Future<List<String>>> futures = new ArrayList<>(groupMap.size());
+    for (List<WriteLogNode> group : groupMap.values()) {
+      group.sort(null);
+      futures.add(recoveryPool.submit(() -> recoverGroup(group)));
+    }
+    recoveryPool.shutdown();
+
+    List<String> failedNodes = new ArrayList<>();
+    try {
+      for (Future<List<String>> future : futures) {
+        failedNodes.addAll(future.get());
+      }
+    } catch (InterruptedException e) {
+      recoveryPool.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new RecoverException("Interrupted while recovering write ahead logs", e);
+    } catch (ExecutionException e) {
+      throw new RecoverException(e.getCause());
+    } finally {
+      recoveryMonitor.end();
+    }
+    logger.info("Recovering {} log nodes finished in {}ms, {} failed", nodeMap.size(),
+        recoveryMonitor.getElapsedTimeInMs(), failedNodes.size());
+    if (!failedNodes.isEmpty()) {
+      throw new RecoverException(
+          String.format("%d log nodes failed to recover: %s", failedNodes.size(), failedNodes));
+    }
+  }
+
+  /**
+   * recover the log nodes of one storage group in order. Once a node fails, the rest are skipped
+   * because they share the same filenode.
+   *
+   * @return the identifiers of the failed nodes.
+   */
+  private List<String> recoverGroup(List<WriteLogNode> group) {
+    List<String> failedNodes = new ArrayList<>();
+    for (WriteLogNode node : group) {
+      String identifier = node.getIdentifier();
+      if (!failedNodes.isEmpty()) {
+        logger.error("{} is skipped because {} failed to recover", identifier, failedNodes);
+        recoveryMonitor.endNode(identifier, NodeStatus.SKIPPED);
+        continue;
+      }
+      recoveryMonitor.startNode(identifier);
       try {
         node.recover();
-      } catch (RecoverException e) {
-        logger.error("{} failed to recover because {}", node.toString(), e.getMessage());
-        throw e;
+        recoveryMonitor.endNode(identifier, NodeStatus.RECOVERED);
+      } catch (RecoverException | RuntimeException e) {
+        logger.error("{} failed to recover", identifier, e);
+        recoveryMonitor.endNode(identifier, NodeStatus.FAILED);
+        failedNodes.add(identifier);
       }
     }
+    return failedNodes;
+  }
+
+  private String getFileNodeName(WriteLogNode node) {
+    return node.getIdentifier().split("-")[0];
+  }
+
+  public WalRecoveryMonitorMBean getRecoveryMonitor() {
+    return recoveryMonitor;
   }
 
   @Override
@@ -233,6 +310,7 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   @Override
   public void stop() {
+    recoveryMonitor.deregister();
     if (!config.isEnableWal()) {
       return;
     }
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.manager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.service.JMXService;
+
+/**
+ * WalRecoveryMonitor records the progress and the time cost of each log node during the recovery
+ * of write ahead logs, and exposes them through JMX.
+ */
+public class WalRecoveryMonitor implements WalRecoveryMonitorMBean {
+
+  public static final String MBEAN_NAME = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE, "WalRecovery");
+
+  private Map<String, NodeProgress> progressMap = new ConcurrentHashMap<>();
+  private volatile long startTime;
+  private volatile long endTime;
+  private boolean registered = false;
+
+  /**
+   * reset the progress before a recovery of the given log nodes starts.
+   */
+  synchronized void start(Collection<String> identifiers) {
+    if (!registered) {
+      JMXService.registerMBean(this, MBEAN_NAME);
+      registered = true;
+    }
+    progressMap.clear();
+    for (String identifier : identifiers) {
+      progressMap.put(identifier, new NodeProgress());
+    }
+    startTime = System.currentTimeMillis();
+    endTime = 0;
+  }
+
+  synchronized void end() {
+    endTime = System.currentTimeMillis();
+  }
+
+  synchronized void deregister() {
+    if (registered) {
+      JMXService.deregisterMBean(MBEAN_NAME);
+      registered = false;
+    }
+  }
+
+  void startNode(String identifier) {
+    NodeProgress progress = progressMap.get(identifier);
+    progress.startTime = System.currentTimeMillis();
+    progress.status = NodeStatus.RECOVERING;
+  }
+
+  void endNode(String identifier, NodeStatus status) {
+    NodeProgress progress = progressMap.get(identifier);
+    if (progress.startTime > 0) {
+      progress.endTime = System.currentTimeMillis();
+    }
+    progress.status = status;
+  }
+
+  NodeStatus getStatus(String identifier) {
+    NodeProgress progress = progressMap.get(identifier);
+    return progress == null ? null : progress.status;
+  }
+
+  @Override
+  public int getTotalNodeNum() {
+    return progressMap.size();
+  }
+
+  @Override
+  public int getRecoveredNodeNum() {
+    return countStatus(NodeStatus.RECOVERED);
+  }
+
+  @Override
+  public int getFailedNodeNum() {
+    return countStatus(NodeStatus.FAILED);
+  }
+
+  @Override
+  public long getElapsedTimeInMs() {
+    if (startTime == 0) {
+      return 0;
+    }
+    return (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+  }
+
+  @Override
+  public Map<String, String> getNodeStatus() {
+    Map<String, String> ret = new TreeMap<>();
+    for (Map.Entry<String, NodeProgress> entry : progressMap.entrySet()) {
+      ret.put(entry.getKey(), entry.getValue().status.name());
+    }
+    return ret;
+  }
+
+  @Override
+  public Map<String, Long> getNodeRecoveryTimeInMs() {
+    Map<String, Long> ret = new TreeMap<>();
+    for (Map.Entry<String, NodeProgress> entry : progressMap.entrySet()) {
+      ret.put(entry.getKey(), entry.getValue().getTimeCost());
+    }
+    return ret;
+  }
+
+  private int countStatus(NodeStatus status) {
+    int cnt = 0;
+    for (NodeProgress progress : progressMap.values()) {
+      if (progress.status == status) {
+        cnt++;
+      }
+    }
+    return cnt;
+  }
+
+  enum NodeStatus {
+    PENDING, RECOVERING, RECOVERED, FAILED,
+    // a previous log node of the same storage group failed
+    SKIPPED
+  }
+
+  private static class NodeProgress {
+
+    private volatile NodeStatus status = NodeStatus.PENDING;
+    private volatile long startTime;
+    private volatile long endTime;
+
+    private long getTimeCost() {
+      if (startTime == 0) {
+        return 0;
+      }
+      return (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.manager;
+
+import java.util.Map;
+
+public interface WalRecoveryMonitorMBean {
+
+  int getTotalNodeNum();
+
+  int getRecoveredNodeNum();
+
+  int getFailedNodeNum();
+
+  long getElapsedTimeInMs();
+
+  /**
+   * @return the status of each log node, one of PENDING, RECOVERING, RECOVERED, FAILED and SKIPPED.
+   */
+  Map<String, String> getNodeStatus();
+
+  /**
+   * @return how long the recovery of each log node took, or has taken so far if it is running.
+   */
+  Map<String, Long> getNodeRecoveryTimeInMs();
+}
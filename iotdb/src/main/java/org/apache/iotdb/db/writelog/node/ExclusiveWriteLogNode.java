@@ -20,22 +20,34 @@ package org.apache.iotdb.db.writelog.node;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.RecoverException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.utils.ImmediateFuture;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.writelog.LogPosition;
 import org.apache.iotdb.db.writelog.io.ILogWriter;
 import org.apache.iotdb.db.writelog.io.LogWriter;
+import org.apache.iotdb.db.writelog.io.MappedSegmentLogWriter;
 import org.apache.iotdb.db.writelog.recover.ExclusiveLogRecoverPerformer;
 import org.apache.iotdb.db.writelog.recover.RecoverPerformer;
+import org.apache.iotdb.db.writelog.transfer.LogDictionary;
 import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,16 +69,66 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   private ILogWriter currentFileWriter;
 
+  /**
+   * The same writer as currentFileWriter if WAL segments are enabled, otherwise null.
+   */
+  private MappedSegmentLogWriter segmentWriter;
+
+  /**
+   * The segment sequence numbers returned by rolling the segments when flushes start, a flush
+   * retires the segments before its sequence number when it ends.
+   */
+  private Deque<Long> flushBoundaries = new ArrayDeque<>();
+
   private RecoverPerformer recoverPerformer;
 
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   private List<byte[]> logCache = new ArrayList<>(config.getFlushWalThreshold());
 
+  /**
+   * Encodes the ids in the logs. The logs must be written in the order they are encoded, so it is
+   * used under the lock of write() or groupLock, and it is reset when a flush starts so that the
+   * logs after a flush never refer to the ids defined by the logs before it.
+   */
+  private LogDictionary dictionary = new LogDictionary();
+
   private ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private ReadWriteLock forceLock = new ReentrantReadWriteLock();
 
+  /**
+   * The group being collected by group commit: the framed logs appended since the last commit
+   * and the future completed when they are forced. Both are guarded by groupLock.
+   */
+  private ByteBuffer groupBuffer;
+
+  private CompletableFuture<Void> groupFuture;
+
+  /**
+   * The buffer of the last committed group, reused by the next group. Guarded by commitLock.
+   */
+  private ByteBuffer spareGroupBuffer;
+
+  private boolean groupSubmitted = false;
+
+  /**
+   * Set when a group fails to be written, as the ids defined by its logs are not in the file. The
+   * dictionary is reset before the next log is encoded. Guarded by groupLock.
+   */
+  private boolean dictionaryLost = false;
+
+  private Lock appendLock = new ReentrantLock();
+
+  private Lock groupLock = new ReentrantLock();
+
+  private Condition groupBufferAvailable = groupLock.newCondition();
+
+  /**
+   * Serializes the commits of groups so that the groups reach the file in order.
+   */
+  private Lock commitLock = new ReentrantLock();
+
   /**
    * constructor of ExclusiveWriteLogNode.
    *
@@ -82,7 +144,12 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
     recoverPerformer = new ExclusiveLogRecoverPerformer(restoreFilePath, processorStoreFilePath,
         this);
-    currentFileWriter = new LogWriter(logDirectory + File.separator + WAL_FILE_NAME);
+    if (config.isEnableWalSegment()) {
+      segmentWriter = new MappedSegmentLogWriter(logDirectory, config.getWalSegmentSize());
+      currentFileWriter = segmentWriter;
+    } else {
+      currentFileWriter = new LogWriter(logDirectory + File.separator + WAL_FILE_NAME);
+    }
   }
 
   public void setRecoverPerformer(RecoverPerformer recoverPerformer) {
@@ -94,9 +161,15 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
    */
   @Override
   public LogPosition write(PhysicalPlan plan) throws IOException {
+    if (config.isEnableWalGroupCommit()) {
+      // the logs of all plans go through the groups so that they reach the file in the order they
+      // are written and encoded, e.g. a deletion never lands after a later insertion.
+      appendToGroup(plan);
+      return null;
+    }
     lockForWrite();
     try {
-      byte[] logBytes = PhysicalPlanLogTransfer.operatorToLog(plan);
+      byte[] logBytes = PhysicalPlanLogTransfer.operatorToLog(plan, dictionary);
       logCache.add(logBytes);
 
       if (logCache.size() >= config.getFlushWalThreshold()) {
@@ -108,30 +181,214 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     return null;
   }
 
+  @Override
+  public Future<Void> append(PhysicalPlan plan) throws IOException {
+    if (!config.isEnableWalGroupCommit()) {
+      write(plan);
+      return new ImmediateFuture<>(null);
+    }
+    return appendToGroup(plan);
+  }
+
+  private Future<Void> appendToGroup(PhysicalPlan plan) throws IOException {
+    // the logs are appended in the order they are encoded, as required by the dictionary
+    appendLock.lock();
+    try {
+      while (true) {
+        byte[] logBytes = encode(plan);
+        int logSize = LogWriter.getLogSize(logBytes);
+        CRC32 checkSummer = new CRC32();
+        groupLock.lock();
+        try {
+          if (groupBuffer == null) {
+            groupBuffer = ByteBuffer.allocateDirect(config.getWalGroupCommitBufferSize());
+          }
+          if (logSize <= groupBuffer.capacity()) {
+            while (!dictionaryLost && groupBuffer.remaining() < logSize) {
+              groupBufferAvailable.await();
+            }
+            if (dictionaryLost) {
+              // a group failed meanwhile, the log may refer to the ids defined by it
+              continue;
+            }
+            LogWriter.putLog(groupBuffer, logBytes, checkSummer);
+            return joinGroup();
+          }
+        } finally {
+          groupLock.unlock();
+        }
+        // a log larger than the buffer is committed on its own after the current group
+        commitGroup();
+        if (isDictionaryLost()) {
+          continue;
+        }
+        ByteBuffer logBuffer = ByteBuffer.allocate(logSize);
+        LogWriter.putLog(logBuffer, logBytes, checkSummer);
+        logBuffer.flip();
+        commitAlone(logBuffer);
+        return new ImmediateFuture<>(null);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /*
+   * Warning : caller must have appendLock.
+   */
+  private byte[] encode(PhysicalPlan plan) throws IOException {
+    groupLock.lock();
+    try {
+      if (dictionaryLost) {
+        dictionary.reset();
+        dictionaryLost = false;
+      }
+    } finally {
+      groupLock.unlock();
+    }
+    return PhysicalPlanLogTransfer.operatorToLog(plan, dictionary);
+  }
+
+  private boolean isDictionaryLost() {
+    groupLock.lock();
+    try {
+      return dictionaryLost;
+    } finally {
+      groupLock.unlock();
+    }
+  }
+
+  /**
+   * Roll back the ids defined by the logs which fail to be written. The logs appended after them
+   * may refer to those ids, so they fail as well.
+   */
+  private void loseDictionary(IOException e) {
+    groupLock.lock();
+    try {
+      dictionaryLost = true;
+      if (groupFuture != null) {
+        groupFuture.completeExceptionally(e);
+        groupFuture = null;
+      }
+      if (groupBuffer != null) {
+        groupBuffer.clear();
+      }
+      groupBufferAvailable.signalAll();
+    } finally {
+      groupLock.unlock();
+    }
+  }
+
+  /*
+   * Warning : caller must have groupLock.
+   */
+  private Future<Void> joinGroup() {
+    if (groupFuture == null) {
+      groupFuture = new CompletableFuture<>();
+    }
+    if (!groupSubmitted) {
+      groupSubmitted = true;
+      WalGroupCommitter.getInstance().submit(this);
+    }
+    return groupFuture;
+  }
+
+  /*
+   * Warning : caller must have appendLock.
+   */
+  private void commitAlone(ByteBuffer logBuffer) throws IOException {
+    commitLock.lock();
+    try {
+      currentFileWriter.write(logBuffer);
+      currentFileWriter.force();
+    } catch (IOException e) {
+      loseDictionary(e);
+      throw e;
+    } finally {
+      commitLock.unlock();
+    }
+  }
+
+  /**
+   * Write and force the logs collected by group commit, then complete the future of the group.
+   * The logs appended meanwhile go to the other buffer and form the next group.
+   */
+  void commitGroup() {
+    commitLock.lock();
+    try {
+      ByteBuffer toCommit;
+      CompletableFuture<Void> future;
+      groupLock.lock();
+      try {
+        groupSubmitted = false;
+        if (groupBuffer == null || groupBuffer.position() == 0) {
+          return;
+        }
+        toCommit = groupBuffer;
+        future = groupFuture;
+        groupBuffer = spareGroupBuffer != null ? spareGroupBuffer
+            : ByteBuffer.allocateDirect(config.getWalGroupCommitBufferSize());
+        groupFuture = null;
+        groupBufferAvailable.signalAll();
+      } finally {
+        groupLock.unlock();
+      }
+
+      toCommit.flip();
+      logger.debug("Log node {} starts group commit, {} bytes to be forced", identifier,
+          toCommit.remaining());
+      try {
+        currentFileWriter.write(toCommit);
+        currentFileWriter.force();
+        future.complete(null);
+      } catch (IOException e) {
+        logger.error("Log node {} group commit failed", identifier, e);
+        future.completeExceptionally(e);
+        loseDictionary(e);
+      }
+      toCommit.clear();
+      spareGroupBuffer = toCommit;
+    } finally {
+      commitLock.unlock();
+    }
+  }
+
   @Override
   public void recover() throws RecoverException {
-    close();
+    try {
+      close();
+    } catch (IOException e) {
+      // the logs which fail to be written are lost, the ones in the file can still be replayed
+      logger.error("Log node {} cannot write its cached logs before recovery", identifier, e);
+    }
     recoverPerformer.recover();
   }
 
   @Override
-  public void close() {
-    sync();
-    forceWal();
-    lockForOther();
-    lockForForceOther();
+  public void close() throws IOException {
+    commitGroup();
     try {
-      this.currentFileWriter.close();
-      logger.debug("Log node {} closed successfully", identifier);
-    } catch (IOException e) {
-      logger.error("Cannot close log node {} because {}", identifier, e.getMessage());
+      sync();
+    } finally {
+      forceWal();
+      lockForOther();
+      lockForForceOther();
+      try {
+        this.currentFileWriter.close();
+        logger.debug("Log node {} closed successfully", identifier);
+      } catch (IOException e) {
+        logger.error("Cannot close log node {} because {}", identifier, e.getMessage());
+      }
+      unlockForForceOther();
+      unlockForOther();
     }
-    unlockForForceOther();
-    unlockForOther();
   }
 
   @Override
-  public void forceSync() {
+  public void forceSync() throws IOException {
     sync();
   }
 
@@ -144,8 +401,19 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
    * Warning : caller must have lock.
    */
   @Override
-  public void notifyStartFlush() {
+  public void notifyStartFlush() throws IOException {
+    if (segmentWriter != null) {
+      // the logs so far belong to the memtable to be flushed, they are kept in the segments
+      // before the boundary, and the following logs go to new segments.
+      commitGroup();
+      sync();
+      forceWal();
+      flushBoundaries.add(segmentWriter.rollSegment());
+      dictionary.reset();
+      return;
+    }
     close();
+    dictionary.reset();
     File oldLogFile = new File(logDirectory + File.separator + WAL_FILE_NAME);
     File newLogFile = new File(logDirectory + File.separator + WAL_FILE_NAME + OLD_SUFFIX);
     if (!oldLogFile.exists()) {
@@ -164,6 +432,17 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
    */
   @Override
   public void notifyEndFlush(List<LogPosition> logPositions) {
+    if (segmentWriter != null) {
+      Long boundary = flushBoundaries.poll();
+      if (boundary != null) {
+        try {
+          segmentWriter.retireSegmentsBefore(boundary);
+        } catch (IOException e) {
+          logger.error("Log node {} cannot retire log segments", identifier, e);
+        }
+      }
+      return;
+    }
     discard();
   }
 
@@ -179,6 +458,7 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public void delete() throws IOException {
+    commitGroup();
     lockForOther();
     try {
       logCache.clear();
@@ -216,7 +496,12 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     forceLock.writeLock().unlock();
   }
 
-  private void sync() {
+  /**
+   * Write the cached logs. If they fail to be written, the ids they define are not in the file, so
+   * the dictionary is reset before the next log is encoded and the failure is thrown to the writer
+   * whose log triggers the sync.
+   */
+  private void sync() throws IOException {
     lockForOther();
     try {
       logger.debug("Log node {} starts sync, {} logs to be synced", identifier, logCache.size());
@@ -226,9 +511,12 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
       try {
         currentFileWriter.write(logCache);
       } catch (IOException e) {
-        logger.error("Log node {} sync failed", identifier, e);
+        logger.error("Log node {} sync failed, {} logs are lost", identifier, logCache.size(), e);
+        dictionary.reset();
+        throw e;
+      } finally {
+        logCache.clear();
       }
-      logCache.clear();
       logger.debug("Log node {} ends sync.", identifier);
     } finally {
       unlockForOther();
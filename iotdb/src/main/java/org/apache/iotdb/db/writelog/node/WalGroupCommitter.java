@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WalGroupCommitter owns the single log thread of group commit. A log node is submitted when the
+ * first log of a new group is appended to it; the log thread then writes and forces the whole
+ * group of each submitted node at once and completes the future of the group.
+ */
+class WalGroupCommitter {
+
+  private static final Logger logger = LoggerFactory.getLogger(WalGroupCommitter.class);
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private BlockingQueue<ExclusiveWriteLogNode> dirtyNodes = new LinkedBlockingQueue<>();
+
+  private WalGroupCommitter() {
+    Thread logThread = new Thread(this::commitLoop, ThreadName.WAL_GROUP_COMMIT_DAEMON.getName());
+    logThread.setDaemon(true);
+    logThread.start();
+  }
+
+  static WalGroupCommitter getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * submit a node which has a group to be committed.
+   */
+  void submit(ExclusiveWriteLogNode node) {
+    dirtyNodes.add(node);
+  }
+
+  private void commitLoop() {
+    List<ExclusiveWriteLogNode> nodes = new ArrayList<>();
+    while (true) {
+      try {
+        nodes.add(dirtyNodes.take());
+        // gather the logs of more insertions into this group, trading latency for throughput
+        if (config.getWalGroupCommitWaitInMs() > 0) {
+          Thread.sleep(config.getWalGroupCommitWaitInMs());
+        }
+      } catch (InterruptedException e) {
+        logger.info("WAL group commit thread exits.");
+        Thread.currentThread().interrupt();
+        return;
+      }
+      dirtyNodes.drainTo(nodes);
+      for (ExclusiveWriteLogNode node : nodes) {
+        node.commitGroup();
+      }
+      nodes.clear();
+    }
+  }
+
+  private static class InstanceHolder {
+    private InstanceHolder(){}
+
+    private static WalGroupCommitter instance = new WalGroupCommitter();
+  }
+}
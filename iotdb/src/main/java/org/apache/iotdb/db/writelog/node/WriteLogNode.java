@@ -20,6 +20,7 @@ package org.apache.iotdb.db.writelog.node;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 import org.apache.iotdb.db.exception.RecoverException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.writelog.LogPosition;
@@ -36,6 +37,17 @@ public interface WriteLogNode {
    */
   LogPosition write(PhysicalPlan plan) throws IOException;
 
+  /**
+   * Write a log like write(), and return a future that is done when the log is durable. If group
+   * commit is enabled, the log is written and forced together with the logs of other insertions by
+   * a log thread, so the caller should release its locks before waiting for the future; otherwise
+   * the log is cached like write() and the future is done immediately.
+   *
+   * @param plan -plan
+   * @return a future done when the log is durable, it fails if the log cannot be written.
+   */
+  Future<Void> append(PhysicalPlan plan) throws IOException;
+
   /**
    * First judge the stage of recovery by status of files, and then recover from that stage.
    */
@@ -25,7 +25,6 @@ import static org.apache.iotdb.db.writelog.RecoverStage.RECOVER_FILE;
 import static org.apache.iotdb.db.writelog.RecoverStage.REPLAY_LOG;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +36,9 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.exception.RecoverException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.writelog.RecoverStage;
+import org.apache.iotdb.db.writelog.io.ILogReader;
+import org.apache.iotdb.db.writelog.io.MappedLogReader;
+import org.apache.iotdb.db.writelog.io.MappedSegmentLogWriter;
 import org.apache.iotdb.db.writelog.io.RAFLogReader;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.replay.ConcreteLogReplayer;
@@ -50,8 +52,10 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
   public static final String RECOVER_SUFFIX = "-recover";
   public static final String FLAG_SEPERATOR = "-";
   private static final Logger logger = LoggerFactory.getLogger(ExclusiveLogRecoverPerformer.class);
-  // The two fields can be made static only because the recovery is a serial process.
-  private static RAFLogReader rafLogReader = new RAFLogReader();
+  // log nodes of different storage groups are recovered concurrently, so each has its own readers
+  private RAFLogReader rafLogReader = new RAFLogReader();
+  // log files smaller than 2GB are decoded in place from a mapped buffer
+  private MappedLogReader mappedLogReader = new MappedLogReader();
   private ExclusiveWriteLogNode writeLogNode;
   private String recoveryFlagPath;
   private String restoreFilePath;
@@ -61,6 +65,8 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
   private RecoverPerformer fileNodeRecoverPerformer;
   // recovery of Overflow maybe different from BufferWrite
   private boolean isOverflow;
+  // the log segments replayed, they are retired in the clean up stage
+  private List<File> replayedSegments;
 
   /**
    * constructor of ExclusiveLogRecoverPerformer.
@@ -102,9 +108,16 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
 
     if (files == null || files.length == 0) {
       File[] logFiles = logDir
-          .listFiles((dir, name) -> name.contains(ExclusiveWriteLogNode.WAL_FILE_NAME));
+          .listFiles((dir, name) -> name.contains(ExclusiveWriteLogNode.WAL_FILE_NAME)
+              && !name.startsWith(MappedSegmentLogWriter.SEGMENT_PREFIX));
+      List<File> segments;
+      try {
+        segments = MappedSegmentLogWriter.listActiveSegments(writeLogNode.getLogDirectory());
+      } catch (IOException e) {
+        throw new RecoverException(e);
+      }
       // no flag is set, and there exists log file, start from beginning.
-      if (logFiles != null && logFiles.length > 0) {
+      if ((logFiles != null && logFiles.length > 0) || !segments.isEmpty()) {
         return RecoverStage.BACK_UP;
       } else {
         // no flag is set, and there is no log file, do not recover.
@@ -259,20 +272,22 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
     replayLog();
   }
 
-  private int replayLogFile(File logFile) throws RecoverException, IOException {
+  private int replayLogFile(File logFile, long startPosition)
+      throws RecoverException, IOException {
     int failedCnt = 0;
     if (logFile.exists()) {
+      ILogReader logReader = MappedLogReader.canMap(logFile) ? mappedLogReader : rafLogReader;
       try {
-        rafLogReader.open(logFile);
-      } catch (FileNotFoundException e) {
+        logReader.open(logFile, startPosition);
+      } catch (IOException e) {
         logger
             .error("Log node {} cannot read old log file, because ", writeLogNode.getIdentifier(),
                 e);
         throw new RecoverException("Cannot read old log file, recovery aborted.");
       }
-      while (rafLogReader.hasNext()) {
+      while (logReader.hasNext()) {
         try {
-          PhysicalPlan physicalPlan = rafLogReader.next();
+          PhysicalPlan physicalPlan = logReader.next();
           if (physicalPlan == null) {
             logger.error("Log node {} read a bad log", writeLogNode.getIdentifier());
             throw new RecoverException("Cannot read old log file, recovery aborted.");
@@ -283,7 +298,7 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
           logger.error("Log node {}", writeLogNode.getLogDirectory(), e);
         }
       }
-      rafLogReader.close();
+      logReader.close();
     }
     return failedCnt;
   }
@@ -295,7 +310,7 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
         writeLogNode.getLogDirectory() + File.separator + ExclusiveWriteLogNode.WAL_FILE_NAME
             + ExclusiveWriteLogNode.OLD_SUFFIX);
     try {
-      failedEntryCnt += replayLogFile(oldLogFile);
+      failedEntryCnt += replayLogFile(oldLogFile, 0);
     } catch (IOException e) {
       throw new RecoverException(e);
     }
@@ -303,7 +318,17 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
     File newLogFile = new File(
         writeLogNode.getLogDirectory() + File.separator + ExclusiveWriteLogNode.WAL_FILE_NAME);
     try {
-      failedEntryCnt += replayLogFile(newLogFile);
+      failedEntryCnt += replayLogFile(newLogFile, 0);
+    } catch (IOException e) {
+      throw new RecoverException(e);
+    }
+    // then replay log segments in the order they were written
+    try {
+      replayedSegments = MappedSegmentLogWriter
+          .listActiveSegments(writeLogNode.getLogDirectory());
+      for (File segment : replayedSegments) {
+        failedEntryCnt += replayLogFile(segment, MappedSegmentLogWriter.SEGMENT_HEADER_SIZE);
+      }
     } catch (IOException e) {
       throw new RecoverException(e);
     }
@@ -357,6 +382,18 @@ public class ExclusiveLogRecoverPerformer implements RecoverPerformer {
         logger.error("Log node {} cannot delete new log file", writeLogNode.getLogDirectory());
         failedFiles.add(newLogFile.getPath());
     }
+    // retire log segments, they are kept to be recycled
+    try {
+      if (replayedSegments == null) {
+        replayedSegments = MappedSegmentLogWriter
+            .listActiveSegments(writeLogNode.getLogDirectory());
+      }
+      MappedSegmentLogWriter.retireSegments(replayedSegments);
+    } catch (IOException e) {
+      logger.error("Log node {} cannot retire log segments", writeLogNode.getLogDirectory(), e);
+      failedFiles.add(writeLogNode.getLogDirectory() + File.separator
+          + MappedSegmentLogWriter.SEGMENT_PREFIX + "*");
+    }
     if (!failedFiles.isEmpty()) {
       throw new RecoverException(
           "File clean failed. Failed files are " + failedFiles.toString());
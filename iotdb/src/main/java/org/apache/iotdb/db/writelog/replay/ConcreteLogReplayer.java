@@ -25,6 +25,7 @@ import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -48,6 +49,8 @@ public class ConcreteLogReplayer implements LogReplayer {
       if (plan instanceof InsertPlan) {
         InsertPlan insertPlan = (InsertPlan) plan;
         multiInsert(insertPlan);
+      } else if (plan instanceof BatchInsertPlan) {
+        FileNodeManager.getInstance().insertBatch((BatchInsertPlan) plan, true);
       } else if (plan instanceof UpdatePlan) {
         UpdatePlan updatePlan = (UpdatePlan) plan;
         update(updatePlan);
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.writelog.transfer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import org.apache.iotdb.db.auth.AuthException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 
@@ -27,4 +28,21 @@ interface Codec<T extends PhysicalPlan> {
   byte[] encode(T t);
 
   T decode(byte[] bytes) throws IOException;
+
+  /**
+   * encode with the ids of the previous logs of the same log node. Codecs not using a dictionary
+   * ignore it.
+   */
+  default byte[] encode(T t, LogDictionary dictionary) {
+    return encode(t);
+  }
+
+  /**
+   * decode a log from the position of the buffer, which is in the end of the log afterwards.
+   */
+  default T decode(ByteBuffer buffer, LogDictionary dictionary) throws IOException {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return decode(bytes);
+  }
 }
@@ -34,6 +34,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.qp.logical.sys.AuthorOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -47,6 +48,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
 
 public class CodecInstances {
 
@@ -226,6 +228,129 @@ public class CodecInstances {
     }
   };
 
+  static final Codec<BatchInsertPlan> batchInsertPlanCodec = new Codec<BatchInsertPlan>() {
+    ThreadLocal<ByteBuffer> localBuffer = new ThreadLocal<>();
+
+    @Override
+    public byte[] encode(BatchInsertPlan plan) {
+      int type = SystemLogOperator.BATCHINSERT;
+      checkBufferAndPutType(localBuffer, type);
+      ByteBuffer buffer = localBuffer.get();
+
+      putString(buffer, plan.getDeviceId());
+      List<String> measurementList = plan.getMeasurements();
+      List<TSDataType> dataTypeList = plan.getDataTypes();
+      buffer.putInt(measurementList.size());
+      for (int i = 0; i < measurementList.size(); i++) {
+        putString(buffer, measurementList.get(i));
+        buffer.put((byte) dataTypeList.get(i).serialize());
+      }
+
+      int rowCount = plan.getRowCount();
+      buffer.putInt(rowCount);
+      long[] times = plan.getTimes();
+      for (int i = 0; i < rowCount; i++) {
+        buffer.putLong(times[i]);
+      }
+      Object[] columns = plan.getColumns();
+      for (int i = 0; i < columns.length; i++) {
+        RowBatch.serializeColumn(buffer, dataTypeList.get(i), columns[i], rowCount);
+      }
+
+      return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
+    }
+
+    @Override
+    public BatchInsertPlan decode(byte[] bytes) throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      buffer.get(); // read and skip an int representing "type"
+
+      String device = readString(buffer);
+      int mmListLength = buffer.getInt();
+      List<String> measurementsList = new ArrayList<>(mmListLength);
+      List<TSDataType> dataTypeList = new ArrayList<>(mmListLength);
+      for (int i = 0; i < mmListLength; i++) {
+        measurementsList.add(readString(buffer));
+        dataTypeList.add(TSDataType.deserialize(buffer.get()));
+      }
+
+      int rowCount = buffer.getInt();
+      long[] times = RowBatch.deserializeTimestamps(buffer, rowCount);
+      Object[] columns = RowBatch.deserializeValues(buffer, dataTypeList, rowCount);
+      return new BatchInsertPlan(device, measurementsList, dataTypeList, times, columns, rowCount);
+    }
+  };
+
+  /**
+   * The binary format of BatchInsertPlan: the device and measurement ids are encoded by the
+   * dictionary of the log node, the timestamps and the values are written as primitives. A row
+   * inserted by TSRecord is logged as a batch of one row.
+   */
+  static final Codec<BatchInsertPlan> typedBatchInsertPlanCodec = new Codec<BatchInsertPlan>() {
+    ThreadLocal<ByteBuffer> localBuffer = new ThreadLocal<>();
+
+    @Override
+    public byte[] encode(BatchInsertPlan plan) {
+      return encode(plan, new LogDictionary());
+    }
+
+    @Override
+    public byte[] encode(BatchInsertPlan plan, LogDictionary dictionary) {
+      int type = SystemLogOperator.TYPED_BATCHINSERT;
+      checkBufferAndPutType(localBuffer, type);
+      ByteBuffer buffer = localBuffer.get();
+      buffer.put((byte) SystemLogOperator.LOG_FORMAT_VERSION);
+
+      dictionary.put(buffer, plan.getDeviceId());
+      List<String> measurementList = plan.getMeasurements();
+      List<TSDataType> dataTypeList = plan.getDataTypes();
+      buffer.putInt(measurementList.size());
+      for (int i = 0; i < measurementList.size(); i++) {
+        dictionary.put(buffer, measurementList.get(i));
+        buffer.put((byte) dataTypeList.get(i).serialize());
+      }
+
+      int rowCount = plan.getRowCount();
+      buffer.putInt(rowCount);
+      RowBatch.serializeColumn(buffer, TSDataType.INT64, plan.getTimes(), rowCount);
+      Object[] columns = plan.getColumns();
+      for (int i = 0; i < columns.length; i++) {
+        RowBatch.serializeColumn(buffer, dataTypeList.get(i), columns[i], rowCount);
+      }
+
+      return Arrays.copyOfRange(buffer.array(), 0, buffer.position());
+    }
+
+    @Override
+    public BatchInsertPlan decode(byte[] bytes) throws IOException {
+      return decode(ByteBuffer.wrap(bytes), new LogDictionary());
+    }
+
+    @Override
+    public BatchInsertPlan decode(ByteBuffer buffer, LogDictionary dictionary)
+        throws IOException {
+      buffer.get(); // read and skip an int representing "type"
+      int version = buffer.get();
+      if (version > SystemLogOperator.LOG_FORMAT_VERSION) {
+        throw new IOException("Unsupported log format version " + version);
+      }
+
+      String device = dictionary.get(buffer);
+      int mmListLength = buffer.getInt();
+      List<String> measurementsList = new ArrayList<>(mmListLength);
+      List<TSDataType> dataTypeList = new ArrayList<>(mmListLength);
+      for (int i = 0; i < mmListLength; i++) {
+        measurementsList.add(dictionary.get(buffer));
+        dataTypeList.add(TSDataType.deserialize(buffer.get()));
+      }
+
+      int rowCount = buffer.getInt();
+      long[] times = (long[]) RowBatch.deserializeColumn(buffer, TSDataType.INT64, rowCount);
+      Object[] columns = RowBatch.deserializeValues(buffer, dataTypeList, rowCount);
+      return new BatchInsertPlan(device, measurementsList, dataTypeList, times, columns, rowCount);
+    }
+  };
+
   static final Codec<MetadataPlan> metadataPlanCodec = new Codec<MetadataPlan>() {
     ThreadLocal<ByteBuffer> localBuffer = new ThreadLocal<>();
 
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LogDictionary maps the device and measurement ids in write ahead logs to ints. An id is written
+ * as a string only in the first log using it after the dictionary is reset, the following logs
+ * refer to it by its int. As every int is defined before it is used, a reader can always read the
+ * logs from any point where the writer reset its dictionary. Not thread-safe.
+ */
+public class LogDictionary {
+
+  /**
+   * The dictionary is reset when it grows beyond this size.
+   */
+  private static final int MAX_SIZE = 64 * 1024;
+
+  private Map<String, Integer> ids = new HashMap<>();
+  private List<String> words = new ArrayList<>();
+
+  /**
+   * write a reference to the word, or the definition of the word if it is not in the dictionary.
+   */
+  public void put(ByteBuffer buffer, String word) {
+    Integer id = ids.get(word);
+    if (id != null) {
+      buffer.putInt(id);
+      return;
+    }
+    if (ids.size() >= MAX_SIZE) {
+      reset();
+    }
+    id = ids.size();
+    ids.put(word, id);
+    // a definition is written as -(id + 1) followed by the word
+    buffer.putInt(-id - 1);
+    CodecInstances.putString(buffer, word);
+  }
+
+  /**
+   * read a reference or a definition written by put().
+   */
+  public String get(ByteBuffer buffer) throws IOException {
+    int ref = buffer.getInt();
+    if (ref >= 0) {
+      if (ref >= words.size() || words.get(ref) == null) {
+        throw new IOException("Undefined id " + ref + " in write ahead log");
+      }
+      return words.get(ref);
+    }
+    int id = -ref - 1;
+    String word = CodecInstances.readString(buffer);
+    while (words.size() <= id) {
+      words.add(null);
+    }
+    words.set(id, word);
+    return word;
+  }
+
+  public void reset() {
+    ids.clear();
+    words.clear();
+  }
+}
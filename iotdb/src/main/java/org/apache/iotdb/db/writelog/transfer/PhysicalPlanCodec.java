@@ -41,7 +41,10 @@ public enum PhysicalPlanCodec {
   METADATAPLAN(SystemLogOperator.METADATA, CodecInstances.metadataPlanCodec),
   AUTHORPLAN(SystemLogOperator.AUTHOR, CodecInstances.authorPlanCodec),
   LOADDATAPLAN(SystemLogOperator.LOADDATA, CodecInstances.loadDataPlanCodec),
-  PROPERTYPLAN(SystemLogOperator.PROPERTY, CodecInstances.propertyPlanCodec);
+  PROPERTYPLAN(SystemLogOperator.PROPERTY, CodecInstances.propertyPlanCodec),
+  BATCHINSERTPLAN(SystemLogOperator.BATCHINSERT, CodecInstances.batchInsertPlanCodec),
+  TYPEDBATCHINSERTPLAN(SystemLogOperator.TYPED_BATCHINSERT,
+      CodecInstances.typedBatchInsertPlanCodec);
 
   private static final HashMap<Integer, PhysicalPlanCodec> codecMap = new HashMap<>();
 
@@ -20,8 +20,16 @@ package org.apache.iotdb.db.writelog.transfer;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.WALOverSizedException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 public class PhysicalPlanLogTransfer {
 
@@ -29,11 +37,23 @@ public class PhysicalPlanLogTransfer {
   }
 
   public static byte[] operatorToLog(PhysicalPlan plan) throws IOException {
+    return operatorToLog(plan, new LogDictionary());
+  }
+
+  /**
+   * encode a plan into a log, the ids in it are encoded by the dictionary of the log node.
+   */
+  public static byte[] operatorToLog(PhysicalPlan plan, LogDictionary dictionary)
+      throws IOException {
     Codec<PhysicalPlan> codec;
     switch (plan.getOperatorType()) {
       case INSERT:
         codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.INSERT).codec;
         break;
+      case BATCHINSERT:
+        codec = (Codec<PhysicalPlan>) PhysicalPlanCodec
+            .fromOpcode(SystemLogOperator.TYPED_BATCHINSERT).codec;
+        break;
       case UPDATE:
         codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(SystemLogOperator.UPDATE).codec;
         break;
@@ -75,16 +95,110 @@ public class PhysicalPlanLogTransfer {
             "SystemLogOperator given is not supported. " + plan.getOperatorType());
     }
     try {
-      return codec.encode(plan);
+      return codec.encode(plan, dictionary);
     } catch (BufferOverflowException e) {
+      // the ids defined by the log which is not written must be defined again
+      dictionary.reset();
       throw new WALOverSizedException("Plan " + plan.toString() + " is too big to write to WAL");
     }
   }
 
+  /**
+   * split a batch into batches of consecutive rows, so that the log of each fits into a log entry
+   * of max_log_entry_size. The size of a log is bounded as if all its ids were defined in it.
+   *
+   * @return the batch itself if its log fits
+   * @throws WALOverSizedException if the log of a single row does not fit
+   */
+  public static List<BatchInsertPlan> splitToLogEntries(BatchInsertPlan plan)
+      throws WALOverSizedException {
+    int maxLogSize = IoTDBDescriptor.getInstance().getConfig().getMaxLogEntrySize();
+    List<TSDataType> dataTypes = plan.getDataTypes();
+    List<String> measurements = plan.getMeasurements();
+    // the type, the format version, the device, the number of measurements and the row count
+    long headerSize = 2 + getIdSize(plan.getDeviceId()) + 2 * Integer.BYTES;
+    long fixedRowSize = Long.BYTES;
+    for (int i = 0; i < measurements.size(); i++) {
+      headerSize += getIdSize(measurements.get(i)) + 1;
+      fixedRowSize += getFixedValueSize(dataTypes.get(i));
+    }
+
+    List<BatchInsertPlan> plans = new ArrayList<>();
+    int start = 0;
+    long logSize = headerSize;
+    for (int row = 0; row < plan.getRowCount(); row++) {
+      long rowSize = fixedRowSize + getTextSize(plan, row);
+      if (headerSize + rowSize > maxLogSize) {
+        throw new WALOverSizedException(String.format(
+            "Row %d of the batch of %s is too big to write to WAL", row, plan.getDeviceId()));
+      }
+      if (logSize + rowSize > maxLogSize) {
+        plans.add(plan.subPlan(start, row));
+        start = row;
+        logSize = headerSize;
+      }
+      logSize += rowSize;
+    }
+    if (start == 0) {
+      return Collections.singletonList(plan);
+    }
+    plans.add(plan.subPlan(start, plan.getRowCount()));
+    return plans;
+  }
+
+  /**
+   * the size of an id defined in a log: its reference, the length and the bytes of the string.
+   */
+  private static int getIdSize(String id) {
+    return 2 * Integer.BYTES + id.getBytes().length;
+  }
+
+  private static int getFixedValueSize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case DOUBLE:
+        return Long.BYTES;
+      case TEXT:
+        // the length, the bytes are counted by getTextSize()
+        return Integer.BYTES;
+      default:
+        throw new UnsupportedOperationException(String.valueOf(dataType));
+    }
+  }
+
+  private static long getTextSize(BatchInsertPlan plan, int row) {
+    long size = 0;
+    List<TSDataType> dataTypes = plan.getDataTypes();
+    Object[] columns = plan.getColumns();
+    for (int i = 0; i < dataTypes.size(); i++) {
+      if (dataTypes.get(i) == TSDataType.TEXT) {
+        size += ((Binary[]) columns[i])[row].getLength();
+      }
+    }
+    return size;
+  }
+
   public static PhysicalPlan logToOperator(byte[] opInBytes) throws IOException {
     // the first byte determines the opCode
     int opCode = opInBytes[0];
     Codec<PhysicalPlan> codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(opCode).codec;
     return codec.decode(opInBytes);
   }
+
+  /**
+   * decode a log from the position of the buffer to its limit, the ids in it are decoded by the
+   * dictionary of the log node.
+   */
+  public static PhysicalPlan logToOperator(ByteBuffer buffer, LogDictionary dictionary)
+      throws IOException {
+    // the first byte determines the opCode
+    int opCode = buffer.get(buffer.position());
+    Codec<PhysicalPlan> codec = (Codec<PhysicalPlan>) PhysicalPlanCodec.fromOpcode(opCode).codec;
+    return codec.decode(buffer, dictionary);
+  }
 }
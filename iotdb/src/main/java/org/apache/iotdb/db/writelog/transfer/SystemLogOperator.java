@@ -32,4 +32,11 @@ public class SystemLogOperator {
   public static final int AUTHOR = 4;
   public static final int LOADDATA = 5;
   public static final int PROPERTY = 6;
+  public static final int BATCHINSERT = 7;
+  public static final int TYPED_BATCHINSERT = 8;
+
+  /**
+   * The format version of the logs whose operators carry a version, i.e., TYPED_BATCHINSERT.
+   */
+  public static final int LOG_FORMAT_VERSION = 1;
 }
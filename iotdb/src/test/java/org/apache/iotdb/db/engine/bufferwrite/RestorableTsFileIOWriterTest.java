@@ -240,6 +240,52 @@ public class RestorableTsFileIOWriterTest {
     deleteInsertFile();
   }
 
+  @Test
+  public void testFlushManySeriesInOrder() throws IOException {
+    writer = new RestorableTsFileIOWriter(processorName, insertPath);
+    int deviceNum = 20;
+    int sensorNum = 10;
+    FileSchema schema = new FileSchema();
+    for (int j = 0; j < sensorNum; j++) {
+      schema.registerMeasurement(new MeasurementSchema("s" + j, TSDataType.INT64, TSEncoding.RLE));
+    }
+    // more series than the encoding window, each with its own number of points written backwards
+    IMemTable memTable = new PrimitiveMemTable();
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < sensorNum; j++) {
+        for (long time = i * sensorNum + j; time >= 0; time--) {
+          memTable.write("d" + i, "s" + j, TSDataType.INT64, time, String.valueOf(time));
+        }
+      }
+    }
+    MemTableFlushUtil.flushMemTable(schema, writer, memTable, 0);
+    writer.endFile(schema);
+
+    TsFileSequenceReader reader = new TsFileSequenceReader(insertPath);
+    TsFileMetaData metaData = reader.readFileMetadata();
+    assertEquals(deviceNum, metaData.getDeviceMap().size());
+    for (int i = 0; i < deviceNum; i++) {
+      List<ChunkGroupMetaData> chunkGroups = reader
+          .readTsDeviceMetaData(metaData.getDeviceMap().get("d" + i))
+          .getChunkGroupMetaDataList();
+      assertEquals(1, chunkGroups.size());
+      List<ChunkMetaData> chunks = chunkGroups.get(0).getChunkMetaDataList();
+      assertEquals(sensorNum, chunks.size());
+      // the chunks of a device are written in the order the memtable iterates its series
+      List<String> measurementIds = new ArrayList<>(
+          memTable.getMemTableMap().get("d" + i).keySet());
+      for (int j = 0; j < sensorNum; j++) {
+        ChunkMetaData chunk = chunks.get(j);
+        assertEquals(measurementIds.get(j), chunk.getMeasurementUid());
+        long points = i * sensorNum + Integer.parseInt(chunk.getMeasurementUid().substring(1)) + 1;
+        assertEquals(0, chunk.getStartTime());
+        assertEquals(points - 1, chunk.getEndTime());
+        assertEquals(points, chunk.getNumOfPoints());
+      }
+    }
+    reader.close();
+  }
+
   private void writeRestoreFile(OutputStream out, int metadataNum) throws IOException {
     TsDeviceMetadata tsDeviceMetadata = new TsDeviceMetadata();
     List<ChunkGroupMetaData> appendRowGroupMetaDatas = new ArrayList<>();
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkCacheTest {
+
+  private static final int SENSOR_NUM = 10;
+
+  private String filePath = "chunkCacheTest.tsfile";
+  private TsFileSequenceReader reader;
+  private List<ChunkMetaData> chunkMetaDataList;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    TsFileWriter writer = new TsFileWriter(new File(filePath));
+    for (int i = 0; i < SENSOR_NUM; i++) {
+      writer.addMeasurement(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.RLE));
+    }
+    for (long time = 0; time < 100; time++) {
+      TSRecord record = new TSRecord(time, "d0");
+      for (int i = 0; i < SENSOR_NUM; i++) {
+        record.addTuple(new LongDataPoint("s" + i, time));
+      }
+      writer.write(record);
+    }
+    writer.close();
+
+    reader = new TsFileSequenceReader(filePath);
+    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(reader);
+    chunkMetaDataList = metadataQuerier.getChunkMetaDataList(new Path("d0.s0"));
+    for (int i = 1; i < SENSOR_NUM; i++) {
+      chunkMetaDataList.addAll(metadataQuerier.getChunkMetaDataList(new Path("d0.s" + i)));
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    reader.close();
+    EnvironmentUtils.cleanDir(filePath);
+  }
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    ChunkCache cache = new ChunkCache(1024 * 1024);
+    Chunk first = cache.get(chunkMetaDataList.get(0), reader);
+    Chunk second = cache.get(chunkMetaDataList.get(0), reader);
+    assertSame(first, second);
+    cache.get(chunkMetaDataList.get(1), reader);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.getEntryNum());
+    assertEquals(1.0 / 3, cache.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void testEvictByBytes() throws IOException {
+    long chunkWeight = cachedWeight(chunkMetaDataList.get(0));
+    // every shard holds at most one chunk
+    ChunkCache cache = new ChunkCache(chunkWeight * 16 + 16);
+    for (int round = 0; round < 3; round++) {
+      for (ChunkMetaData metaData : chunkMetaDataList) {
+        cache.get(metaData, reader);
+      }
+    }
+    assertTrue(cache.getUsedMemoryInByte() <= cache.getCapacityInByte());
+    // a chunk missing from the cache must have been evicted by another one of its shard
+    assertEquals(cache.getEntryNum() < chunkMetaDataList.size(), cache.getEvictionCount() > 0);
+    assertEquals(cache.getEntryNum() * chunkWeight, cache.getUsedMemoryInByte());
+  }
+
+  @Test
+  public void testChunkLargerThanShardIsNotCached() throws IOException {
+    ChunkCache cache = new ChunkCache(16);
+    cache.get(chunkMetaDataList.get(0), reader);
+    cache.get(chunkMetaDataList.get(0), reader);
+    assertEquals(0, cache.getEntryNum());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testRemoveFile() throws IOException {
+    ChunkCache cache = new ChunkCache(1024 * 1024);
+    for (ChunkMetaData metaData : chunkMetaDataList) {
+      cache.get(metaData, reader);
+    }
+    assertEquals(chunkMetaDataList.size(), cache.getEntryNum());
+    cache.remove("another.tsfile");
+    assertEquals(chunkMetaDataList.size(), cache.getEntryNum());
+    cache.remove(filePath);
+    assertEquals(0, cache.getEntryNum());
+    assertEquals(0, cache.getUsedMemoryInByte());
+  }
+
+  @Test
+  public void testCachedChunkLoader() throws IOException {
+    ChunkMetaData metaData = chunkMetaDataList.get(0);
+    metaData.setDeletedAt(10);
+    Chunk chunk = new CachedChunkLoader(reader).getChunk(metaData);
+    assertEquals(10, chunk.getDeletedAt());
+    // consuming the returned chunk does not change the cached one
+    chunk.getData().position(chunk.getData().limit());
+    Chunk again = new CachedChunkLoader(reader).getChunk(metaData);
+    assertEquals(0, again.getData().position());
+    assertEquals(chunk.getData().limit(), again.getData().remaining());
+  }
+
+  @Test
+  public void testCachedChunkLoaderPrefetch() throws IOException, InterruptedException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableChunkPrefetch = config.isEnableChunkPrefetch();
+    config.setEnableChunkPrefetch(true);
+    try {
+      QueryContext context = new QueryContext();
+      CachedChunkLoader loader = new CachedChunkLoader(reader, context);
+      ChunkMetaData metaData = chunkMetaDataList.get(1);
+      loader.prefetch(metaData);
+      waitForPrefetch(context);
+      long prefetchedSize = context.getPrefetchedChunkSize();
+
+      Chunk chunk = loader.getChunk(metaData);
+      assertEquals(chunk.getData().capacity(), prefetchedSize);
+      assertEquals(0, context.getPrefetchedChunkSize());
+      assertEquals(0, chunk.getData().position());
+
+      // a chunk read ahead but not got is dropped
+      loader.prefetch(chunkMetaDataList.get(2));
+      waitForPrefetch(context);
+      loader.getChunk(chunkMetaDataList.get(3));
+      assertEquals(0, context.getPrefetchedChunkSize());
+    } finally {
+      config.setEnableChunkPrefetch(enableChunkPrefetch);
+    }
+  }
+
+  private void waitForPrefetch(QueryContext context) throws InterruptedException {
+    for (int i = 0; i < 100 && context.getPrefetchedChunkSize() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(context.getPrefetchedChunkSize() > 0);
+  }
+
+  private long cachedWeight(ChunkMetaData metaData) throws IOException {
+    ChunkCache cache = new ChunkCache(1024 * 1024);
+    cache.get(metaData, reader);
+    return cache.getUsedMemoryInByte();
+  }
+}
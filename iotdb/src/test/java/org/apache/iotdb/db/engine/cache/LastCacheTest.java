@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Test;
+
+public class LastCacheTest {
+
+  private static final String SERIES = "root.sg.d.s";
+
+  private static TimeValuePair point(long time) {
+    return new TimeValuePair(time, TsPrimitiveType.getByType(TSDataType.INT64, time));
+  }
+
+  private static void fill(LastCache cache, String seriesPath, long time) {
+    cache.fill(seriesPath, point(time), cache.getFillStamp(seriesPath));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    // each of the 16 shards holds 2 series
+    LastCache cache = new LastCache(32);
+    fill(cache, SERIES + "hot", 1);
+    for (int i = 0; i < 1000; i++) {
+      fill(cache, SERIES + i, i);
+      // the hot series is always the most recently used one of its shard
+      assertNotNull(cache.get(SERIES + "hot"));
+    }
+    assertTrue(cache.size() <= 32);
+    assertNotNull(cache.get(SERIES + 999));
+    assertNull(cache.get(SERIES + 0));
+
+    // the points inserted into the series which are not cached make no room
+    for (int i = 0; i < 1000; i++) {
+      cache.update(SERIES + "new" + i, TSDataType.INT64, 2000L + i, 2000L + i);
+    }
+    assertNotNull(cache.get(SERIES + "hot"));
+    assertNotNull(cache.get(SERIES + 999));
+    assertNull(cache.get(SERIES + "new0"));
+  }
+
+  @Test
+  public void testFillUnderIngestion() {
+    // more series are written than cached, the fills of the queried series still succeed
+    LastCache cache = new LastCache(32);
+    for (int i = 0; i < 1000; i++) {
+      cache.update(SERIES + i, TSDataType.INT64, i, (long) i);
+      long stamp = cache.getFillStamp(SERIES + "q" + i);
+      cache.update(SERIES + (i + 1000), TSDataType.INT64, i, (long) i);
+      cache.fill(SERIES + "q" + i, point(i), stamp);
+      assertEquals(i, cache.get(SERIES + "q" + i).getTimestamp());
+    }
+  }
+
+  @Test
+  public void testFillWithInsertion() {
+    LastCache cache = new LastCache(32);
+    // a query takes its stamp, then a point is inserted into the series it reads
+    long stamp = cache.getFillStamp(SERIES + "read");
+    cache.update(SERIES + "read", TSDataType.INT64, 10, 10L);
+    for (int i = 0; i < 1000; i++) {
+      fill(cache, SERIES + i, i);
+    }
+    // the point read by the query may miss the inserted one, which is newer
+    cache.fill(SERIES + "read", point(5), stamp);
+    assertEquals(10, cache.get(SERIES + "read").getTimestamp());
+  }
+
+  @Test
+  public void testFillAfterInvalidation() {
+    LastCache cache = new LastCache(32);
+    long stamp = cache.getFillStamp(SERIES + "read");
+    cache.invalidate(SERIES + "read");
+    // the point read by the query may have been deleted, so it is not filled
+    cache.fill(SERIES + "read", point(5), stamp);
+    assertNull(cache.get(SERIES + "read"));
+
+    fill(cache, SERIES + "read", 3);
+    assertEquals(3, cache.get(SERIES + "read").getTimestamp());
+  }
+
+  @Test
+  public void testFillAfterEviction() {
+    LastCache cache = new LastCache(32);
+    long stamp = cache.getFillStamp(SERIES + "read");
+    cache.update(SERIES + "read", TSDataType.INT64, 10, 10L);
+    // the fill is evicted by the fills started after it, with the point inserted meanwhile
+    for (int i = 0; i < 1000; i++) {
+      cache.getFillStamp(SERIES + i);
+    }
+    cache.fill(SERIES + "read", point(5), stamp);
+    assertNull(cache.get(SERIES + "read"));
+
+    fill(cache, SERIES + "read", 10);
+    assertEquals(10, cache.get(SERIES + "read").getTimestamp());
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.rollup.Rollup;
+import org.apache.iotdb.db.engine.rollup.RollupBuilder;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetaDataCacheTest {
+
+  private String filePath = "metaDataCacheTest.tsfile";
+  private TsFileSequenceReader reader;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    TsFileWriter writer = new TsFileWriter(new File(filePath));
+    writer.addMeasurement(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.RLE));
+    writer.addMeasurement(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+    for (long time = 0; time < 100; time++) {
+      for (String deviceId : new String[]{"d0", "d1"}) {
+        TSRecord record = new TSRecord(time, deviceId);
+        record.addTuple(new LongDataPoint("s0", time));
+        record.addTuple(new LongDataPoint("s1", time));
+        writer.write(record);
+      }
+    }
+    writer.close();
+    reader = new TsFileSequenceReader(filePath);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    reader.close();
+    EnvironmentUtils.cleanDir(filePath);
+    EnvironmentUtils.cleanDir(filePath + RollupFile.FILE_SUFFIX);
+  }
+
+  @Test
+  public void testSameAsReadFromFile() throws IOException {
+    MetaDataCache cache = new MetaDataCache(1024 * 1024);
+    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(reader);
+    for (int i = 0; i < 2; i++) {
+      Path path = new Path("d" + i + ".s1");
+      List<ChunkMetaData> expected = metadataQuerier.getChunkMetaDataList(path);
+      List<ChunkMetaData> cached = cache.getChunkMetaDataList(reader, path);
+      assertEquals(expected.size(), cached.size());
+      for (int j = 0; j < expected.size(); j++) {
+        assertEquals(expected.get(j).getOffsetOfChunkHeader(),
+            cached.get(j).getOffsetOfChunkHeader());
+        assertEquals(expected.get(j).getVersion(), cached.get(j).getVersion());
+        assertEquals(expected.get(j).getNumOfPoints(), cached.get(j).getNumOfPoints());
+      }
+    }
+    assertTrue(cache.getChunkMetaDataList(reader, new Path("d2.s1")).isEmpty());
+    assertNull(cache.getDeviceMetaData(reader, "d2"));
+    // the file metadata is read once, the device metadata once per device
+    assertEquals(0.75, cache.getFileMetaDataHitRate(), 0.0001);
+    assertEquals(0, cache.getDeviceMetaDataHitRate(), 0.0001);
+  }
+
+  @Test
+  public void testReturnedListIsACopy() throws IOException {
+    MetaDataCache cache = new MetaDataCache(1024 * 1024);
+    Path path = new Path("d0.s0");
+    List<ChunkMetaData> first = cache.getChunkMetaDataList(reader, path);
+    first.get(0).setDeletedAt(first.get(0).getEndTime());
+    first.clear();
+    List<ChunkMetaData> second = cache.getChunkMetaDataList(reader, path);
+    assertEquals(1, second.size());
+    assertEquals(-1, second.get(0).getDeletedAt());
+    assertEquals(1, cache.getChunkMetaDataHitRate() * 2, 0.0001);
+  }
+
+  @Test
+  public void testRemoveFile() throws IOException {
+    MetaDataCache cache = new MetaDataCache(1024 * 1024);
+    cache.getChunkMetaDataList(reader, new Path("d0.s0"));
+    assertEquals(3, cache.getEntryNum());
+    cache.remove("another.tsfile");
+    assertEquals(3, cache.getEntryNum());
+    cache.remove(filePath);
+    assertEquals(0, cache.getEntryNum());
+    assertEquals(0, cache.getUsedMemoryInByte());
+  }
+
+  @Test
+  public void testRollups() throws IOException {
+    List<Rollup> rollups = new ArrayList<>();
+    for (String deviceId : new String[]{"d0", "d1"}) {
+      RollupBuilder rollupBuilder = new RollupBuilder(deviceId, "s0", TSDataType.INT64,
+          new long[]{10, 50});
+      for (long time = 0; time < 100; time++) {
+        rollupBuilder.update(time, time);
+      }
+      rollups.addAll(rollupBuilder.getRollups());
+    }
+    RollupFile.append(filePath, rollups);
+
+    MetaDataCache cache = new MetaDataCache(1024 * 1024);
+    List<Rollup> cached = cache.getRollups(filePath, new Path("d1.s0"), 50);
+    assertEquals(1, cached.size());
+    assertEquals("d1", cached.get(0).getDeviceId());
+    assertEquals(2, cached.get(0).getBuckets().size());
+    assertEquals(10, cache.getRollups(filePath, new Path("d0.s0"), 10).get(0).getBuckets().size());
+    assertTrue(cache.getRollups(filePath, new Path("d0.s1"), 10).isEmpty());
+    assertTrue(cache.getRollups(filePath, new Path("d0.s0"), 20).isEmpty());
+
+    // the rollup file is read once for all series
+    EnvironmentUtils.cleanDir(filePath + RollupFile.FILE_SUFFIX);
+    assertEquals(1, cache.getRollups(filePath, new Path("d0.s0"), 50).size());
+    cache.remove(filePath);
+    assertTrue(cache.getRollups(filePath, new Path("d0.s0"), 50).isEmpty());
+  }
+}
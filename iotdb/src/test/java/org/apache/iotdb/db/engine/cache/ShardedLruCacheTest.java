@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ShardedLruCacheTest {
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws IOException {
+    // each of the 16 shards holds 100 bytes
+    ShardedLruCache<Integer, String> cache = new ShardedLruCache<>(1600, String::length);
+    String value = new String(new char[40]);
+    // 0, 16 and 32 fall into the same shard
+    cache.get(0, () -> value);
+    cache.get(16, () -> value);
+    cache.get(0, () -> value);
+    cache.get(32, () -> value);
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(80, cache.getUsedMemoryInByte());
+    assertEquals(value, cache.get(0, () -> null));
+    assertEquals(value, cache.get(32, () -> null));
+    assertNull(cache.get(16, () -> null));
+    // a value larger than a shard is never cached
+    cache.get(1, () -> new String(new char[101]));
+    assertEquals(2, cache.getEntryNum());
+  }
+
+  @Test
+  public void testLoadOnce() throws Exception {
+    ShardedLruCache<String, String> cache = new ShardedLruCache<>(1600, String::length);
+    AtomicInteger loadCount = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    int threadNum = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < threadNum; i++) {
+      futures.add(pool.submit(() -> cache.get("key", () -> {
+        loadCount.incrementAndGet();
+        try {
+          loading.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "value";
+      })));
+    }
+    // let all threads request the key before the loading one finishes
+    Thread.sleep(200);
+    loading.countDown();
+    for (Future<String> future : futures) {
+      assertEquals("value", future.get());
+    }
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+    assertEquals(1, loadCount.get());
+    assertEquals(1, cache.getEntryNum());
+  }
+
+  @Test
+  public void testLoadFailureIsNotCached() throws IOException {
+    ShardedLruCache<String, String> cache = new ShardedLruCache<>(1600, String::length);
+    try {
+      cache.get("key", () -> {
+        throw new IOException("cannot load");
+      });
+      fail();
+    } catch (IOException e) {
+      assertEquals("cannot load", e.getMessage());
+    }
+    assertEquals("value", cache.get("key", () -> "value"));
+  }
+
+  @Test
+  public void testRemoveIf() throws IOException {
+    ShardedLruCache<String, String> cache = new ShardedLruCache<>(1600, String::length);
+    cache.get("a1", () -> "v");
+    cache.get("a2", () -> "v");
+    cache.get("b1", () -> "v");
+    cache.removeIf(key -> key.startsWith("a"));
+    assertEquals(1, cache.getEntryNum());
+    assertEquals(1, cache.getUsedMemoryInByte());
+  }
+}
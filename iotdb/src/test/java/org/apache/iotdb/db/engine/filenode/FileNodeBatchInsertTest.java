@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.filenode;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
+import org.apache.iotdb.db.query.executor.EngineQueryRouter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.io.RAFLogReader;
+import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileNodeBatchInsertTest {
+
+  private static final String STORAGE_GROUP = "root.test";
+  private static final String DEVICE = "root.test.d1";
+  private static final List<String> MEASUREMENTS = Arrays.asList("s0", "s1");
+  private static final List<TSDataType> DATA_TYPES = Arrays
+      .asList(TSDataType.INT64, TSDataType.TEXT);
+  private static final int MAX_LOG_ENTRY_SIZE = 1024;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean enableWal;
+  private boolean enableGroupCommit;
+  private int maxLogEntrySize;
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    enableWal = config.isEnableWal();
+    enableGroupCommit = config.isEnableWalGroupCommit();
+    maxLogEntrySize = config.getMaxLogEntrySize();
+    config.setEnableWal(true);
+    // the logs are in the files once the insertions return
+    config.setEnableWalGroupCommit(true);
+    config.setMaxLogEntrySize(MAX_LOG_ENTRY_SIZE);
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    EnvironmentUtils.envSetUp();
+
+    MManager.getInstance().setStorageLevelToMTree(STORAGE_GROUP);
+    for (int i = 0; i < MEASUREMENTS.size(); i++) {
+      MManager.getInstance().addPathToMTree(DEVICE + "." + MEASUREMENTS.get(i),
+          DATA_TYPES.get(i).toString(), TSEncoding.PLAIN.toString());
+      FileNodeManager.getInstance().addTimeSeries(new Path(DEVICE, MEASUREMENTS.get(i)),
+          DATA_TYPES.get(i), TSEncoding.PLAIN, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    EnvironmentUtils.cleanEnv();
+    config.setEnableWal(enableWal);
+    config.setEnableWalGroupCommit(enableGroupCommit);
+    config.setMaxLogEntrySize(maxLogEntrySize);
+  }
+
+  private BatchInsertPlan createBatch(long startTime, int rowCount, int textLength) {
+    long[] times = new long[rowCount];
+    long[] longs = new long[rowCount];
+    Binary[] texts = new Binary[rowCount];
+    char[] chars = new char[textLength];
+    Arrays.fill(chars, 'a');
+    for (int i = 0; i < rowCount; i++) {
+      times[i] = startTime + i;
+      longs[i] = startTime + i;
+      texts[i] = new Binary(new String(chars));
+    }
+    return new BatchInsertPlan(DEVICE, MEASUREMENTS, DATA_TYPES, times,
+        new Object[]{longs, texts}, rowCount);
+  }
+
+  private String count() throws FileNodeManagerException, PathErrorException, IOException,
+      ProcessorException, QueryFilterOptimizationException {
+    QueryDataSet dataSet = new EngineQueryRouter().aggregate(
+        Collections.singletonList(new Path(DEVICE, MEASUREMENTS.get(0))),
+        Collections.singletonList(StatisticConstant.COUNT), null, TEST_QUERY_CONTEXT);
+    return dataSet.next().toString();
+  }
+
+  @Test
+  public void testBatchLargerThanLogEntry() throws Exception {
+    BatchInsertPlan plan = createBatch(0, 1000, 10);
+    assertEquals(1000, FileNodeManager.getInstance().insertBatch(plan, false));
+    assertEquals("0\t1000", count());
+
+    // the batch is logged in several entries holding all its rows in order
+    List<BatchInsertPlan> logs = new ArrayList<>();
+    for (File nodeFolder : new File(config.getWalFolder()).listFiles(File::isDirectory)) {
+      File walFile = new File(nodeFolder, ExclusiveWriteLogNode.WAL_FILE_NAME);
+      if (!walFile.exists()) {
+        continue;
+      }
+      RAFLogReader reader = new RAFLogReader(walFile);
+      while (reader.hasNext()) {
+        PhysicalPlan log = reader.next();
+        if (log instanceof BatchInsertPlan) {
+          logs.add((BatchInsertPlan) log);
+        }
+      }
+      reader.close();
+    }
+    assertTrue(logs.size() > 1);
+    long[] loggedTimes = new long[0];
+    for (BatchInsertPlan log : logs) {
+      int length = loggedTimes.length;
+      loggedTimes = Arrays.copyOf(loggedTimes, length + log.getRowCount());
+      System.arraycopy(log.getTimes(), 0, loggedTimes, length, log.getRowCount());
+    }
+    assertArrayEquals(plan.getTimes(), loggedTimes);
+  }
+
+  @Test
+  public void testRowLargerThanLogEntry() throws Exception {
+    FileNodeManager.getInstance().insertBatch(createBatch(0, 10, 10), false);
+    // the second row can not be logged, no row of the batch is inserted
+    BatchInsertPlan plan = createBatch(10, 2, 10);
+    ((Binary[]) plan.getColumns()[1])[1] = new Binary(new String(new char[MAX_LOG_ENTRY_SIZE]));
+    try {
+      FileNodeManager.getInstance().insertBatch(plan, false);
+      fail("a row larger than a log entry should be rejected");
+    } catch (FileNodeManagerException e) {
+      assertTrue(e.getMessage().contains("Row 1 of the batch of root.test.d1 is too big"));
+    }
+    assertEquals("0\t10", count());
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.filenode;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileNodeQueryTest {
+
+  private static final String STORAGE_GROUP = "root.test";
+  private static final String DEVICE_1 = "root.test.d1";
+  private static final String DEVICE_2 = "root.test.d2";
+  private static final String MEASUREMENT = "s0";
+  private static final int FILE_NUM = 10;
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    EnvironmentUtils.envSetUp();
+
+    MManager.getInstance().setStorageLevelToMTree(STORAGE_GROUP);
+    for (String device : new String[]{DEVICE_1, DEVICE_2}) {
+      MManager.getInstance().addPathToMTree(device + "." + MEASUREMENT,
+          TSDataType.INT64.toString(), TSEncoding.RLE.toString());
+      FileNodeManager.getInstance().addTimeSeries(new Path(device, MEASUREMENT),
+          TSDataType.INT64, TSEncoding.RLE, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+    }
+
+    // file i holds [100 * i, 100 * i + 99] of d1, d2 is only in the even files and the start time
+    // of its file is the end time of its previous file plus one
+    for (int i = 0; i < FILE_NUM; i++) {
+      insert(DEVICE_1, 100 * i, 100 * i + 99);
+      if (i % 2 == 0) {
+        insert(DEVICE_2, 100 * i, 100 * i + 99);
+      }
+      FileNodeManager.getInstance().closeAll();
+    }
+    // the unsealed file
+    insert(DEVICE_1, 100 * FILE_NUM, 100 * FILE_NUM + 99);
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private void insert(String device, long startTime, long endTime)
+      throws FileNodeManagerException {
+    for (long time = startTime; time <= endTime; time++) {
+      TSRecord record = new TSRecord(time, device);
+      record.addTuple(new LongDataPoint(MEASUREMENT, time));
+      FileNodeManager.getInstance().insert(record, false);
+    }
+  }
+
+  private List<TsFileResource> querySealedFiles(String device, Filter filter)
+      throws FileNodeManagerException {
+    Path path = new Path(device, MEASUREMENT);
+    QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(
+        TEST_QUERY_CONTEXT.getJobId(), Collections.singletonList(path));
+    QueryDataSource dataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, TEST_QUERY_CONTEXT, filter);
+    return dataSource.getSeqDataSource().getSealedTsFiles();
+  }
+
+  @Test
+  public void testSearchClosedFiles() throws FileNodeManagerException {
+    assertEquals(FILE_NUM, querySealedFiles(DEVICE_1, null).size());
+    assertEquals(FILE_NUM / 2, querySealedFiles(DEVICE_2, null).size());
+
+    List<TsFileResource> files = querySealedFiles(DEVICE_1,
+        FilterFactory.and(TimeFilter.gtEq(250L), TimeFilter.lt(400L)));
+    assertEquals(2, files.size());
+    assertEquals(200, files.get(0).getStartTime(DEVICE_1));
+    assertEquals(300, files.get(1).getStartTime(DEVICE_1));
+
+    files = querySealedFiles(DEVICE_2, TimeFilter.gt(499L));
+    assertEquals(2, files.size());
+    assertEquals(500, files.get(0).getStartTime(DEVICE_2));
+
+    assertEquals(1, querySealedFiles(DEVICE_1, TimeFilter.eq(599L)).size());
+    assertEquals(0, querySealedFiles(DEVICE_2, TimeFilter.gt(899L)).size());
+    assertEquals(0, querySealedFiles(DEVICE_1, TimeFilter.gt(100L * FILE_NUM)).size());
+    assertEquals(2, querySealedFiles(DEVICE_1,
+        FilterFactory.or(TimeFilter.lt(50L), TimeFilter.ltEq(100L))).size());
+  }
+}
@@ -39,6 +39,18 @@ public class MemtableBenchmark {
   }
 
   public static void main(String[] args) {
+    long stringTime = benchStringWrite();
+    long typedTime = benchTypedWrite();
+    System.out.println(String.format(
+        "Num of time series: %d, " + "Num of points for each time series: %d, "
+            + "The total time of string write: %d ms, of typed write: %d ms. ",
+        numOfMeasurement, numOfPoint, stringTime, typedTime));
+  }
+
+  /**
+   * write values in string format, which have to be parsed by the memtable.
+   */
+  private static long benchStringWrite() {
     IMemTable memTable = new PrimitiveMemTable();
     final long startTime = System.currentTimeMillis();
     // cpu not locality
@@ -48,11 +60,22 @@ public class MemtableBenchmark {
             String.valueOf(System.currentTimeMillis()));
       }
     }
+    return System.currentTimeMillis() - startTime;
+  }
 
-    final long endTime = System.currentTimeMillis();
-    System.out.println(String.format(
-        "Num of time series: %d, " + "Num of points for each time series: %d, "
-            + "The total time: %d ms. ",
-        numOfMeasurement, numOfPoint, endTime - startTime));
+  /**
+   * write values which are already typed, like the values carried by a TSRecord.
+   */
+  private static long benchTypedWrite() {
+    IMemTable memTable = new PrimitiveMemTable();
+    final long startTime = System.currentTimeMillis();
+    // cpu not locality
+    for (int i = 0; i < numOfPoint; i++) {
+      for (int j = 0; j < numOfMeasurement; j++) {
+        Object value = System.currentTimeMillis();
+        memTable.write(deviceId, measurementId[j], tsDataType, System.nanoTime(), value);
+      }
+    }
+    return System.currentTimeMillis() - startTime;
   }
 }
@@ -22,12 +22,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Random;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.query.reader.mem.MemChunkReader;
 import org.apache.iotdb.db.utils.MathUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Assert;
 import org.junit.Before;
@@ -87,6 +91,108 @@ public class PrimitiveMemTableTest {
     }
   }
 
+  @Test
+  public void concurrentWriteTest() throws InterruptedException {
+    // writers of different devices and of the same series write into one memtable concurrently
+    IMemTable memTable = new PrimitiveMemTable();
+    int threadNum = 4;
+    int dataSize = 10000;
+    Thread[] writers = new Thread[threadNum];
+    for (int i = 0; i < threadNum; i++) {
+      String deviceId = "d" + i;
+      int offset = i * dataSize;
+      writers[i] = new Thread(() -> {
+        for (int j = 0; j < dataSize; j++) {
+          memTable.write(deviceId, "s0", TSDataType.INT64, j, (long) j);
+          memTable.write("shared", "s0", TSDataType.INT64, offset + j, (long) (offset + j));
+        }
+      });
+    }
+    for (Thread writer : writers) {
+      writer.start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+
+    Assert.assertEquals(2 * threadNum * dataSize, memTable.size());
+    for (int i = 0; i < threadNum; i++) {
+      Assert.assertEquals(dataSize, memTable.getMemTableMap().get("d" + i).get("s0").count());
+    }
+    Iterator<TimeValuePair> it = memTable
+        .query("shared", "s0", TSDataType.INT64, Collections.emptyMap()).getIterator();
+    int i = 0;
+    while (it.hasNext()) {
+      TimeValuePair pair = it.next();
+      Assert.assertEquals(i, pair.getTimestamp());
+      Assert.assertEquals(i, pair.getValue().getLong());
+      i++;
+    }
+    Assert.assertEquals(threadNum * dataSize, i);
+  }
+
+  @Test
+  public void readByBatchTest() {
+    // two memtables are read through a lazy merger by their primitive values, as a query of the
+    // flushing and the working memtables does
+    IMemTable flushingMemTable = new PrimitiveMemTable();
+    IMemTable workingMemTable = new PrimitiveMemTable();
+    for (int i = 99; i >= 0; i--) {
+      flushingMemTable.write("d1", "s1", TSDataType.DOUBLE, i, 0.0);
+      flushingMemTable.write("d1", "s1", TSDataType.DOUBLE, i, i + 0.123456789);
+    }
+    for (int i = 100; i < 200; i++) {
+      workingMemTable.write("d1", "s1", TSDataType.DOUBLE, i, i + 0.123456789);
+    }
+    ReadOnlyMemChunk chunk = new ReadOnlyMemChunk(TSDataType.DOUBLE, new MemSeriesLazyMerger(
+        flushingMemTable.query("d1", "s1", TSDataType.DOUBLE, Collections.emptyMap()),
+        workingMemTable.query("d1", "s1", TSDataType.DOUBLE, Collections.emptyMap())),
+        Collections.emptyMap());
+    // the points written after the query are not read
+    workingMemTable.write("d1", "s1", TSDataType.DOUBLE, 200, 200.0);
+    Assert.assertEquals(2, chunk.getSortedTVLists().size());
+
+    MemChunkReader reader = new MemChunkReader(chunk, TimeFilter.gtEq(50));
+    Assert.assertTrue(reader.hasNext());
+    Assert.assertEquals(50, reader.next().getTimestamp());
+    BatchData batchData = reader.nextBatch();
+    Assert.assertEquals(149, batchData.length());
+    for (int i = 51; i < 200; i++) {
+      Assert.assertTrue(batchData.hasNext());
+      Assert.assertEquals(i, batchData.currentTime());
+      Assert.assertEquals(MathUtils.roundWithGivenPrecision(i + 0.123456789),
+          batchData.getDouble(), delta);
+      batchData.next();
+    }
+    Assert.assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void typedWriteTest() {
+    IMemTable memTable = new PrimitiveMemTable();
+    String deviceId = "d1";
+    int dataSize = 1000;
+    for (int i = 0; i < dataSize; i++) {
+      memTable.write(deviceId, "s1", TSDataType.INT64, i, (Object) (long) i);
+      memTable.write(deviceId, "s2", TSDataType.TEXT, i, (Object) Binary.valueOf(String.valueOf(i)));
+    }
+    Iterator<TimeValuePair> longIterator = memTable
+        .query(deviceId, "s1", TSDataType.INT64, Collections.emptyMap())
+        .getSortedTimeValuePairList().iterator();
+    Iterator<TimeValuePair> textIterator = memTable
+        .query(deviceId, "s2", TSDataType.TEXT, Collections.emptyMap())
+        .getSortedTimeValuePairList().iterator();
+    for (int i = 0; i < dataSize; i++) {
+      TimeValuePair longPair = longIterator.next();
+      Assert.assertEquals(i, longPair.getTimestamp());
+      Assert.assertEquals(i, longPair.getValue().getLong());
+      TimeValuePair textPair = textIterator.next();
+      Assert.assertEquals(i, textPair.getTimestamp());
+      Assert.assertEquals(String.valueOf(i), textPair.getValue().getStringValue());
+    }
+    Assert.assertFalse(longIterator.hasNext());
+  }
+
   private void write(IMemTable memTable, String deviceId, String sensorId, TSDataType dataType,
       int size) {
     int dataSize = 100;
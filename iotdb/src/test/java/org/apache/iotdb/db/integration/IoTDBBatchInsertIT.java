@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.apache.iotdb.db.integration.Constant.TIMESTAMP_STR;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.jdbc.IoTDBConnection;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Notice that, all test begins with "IoTDB" is integration test. All test which will start the
+ * IoTDB server should be defined as integration test.
+ */
+public class IoTDBBatchInsertIT {
+
+  private static IoTDB daemon;
+
+  private static String[] sqls = new String[]{
+      "SET STORAGE GROUP TO root.vehicle",
+      "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+      "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=DOUBLE, ENCODING=GORILLA",
+      "CREATE TIMESERIES root.vehicle.d0.s2 WITH DATATYPE=TEXT, ENCODING=PLAIN",
+      "CREATE TIMESERIES root.vehicle.d0.s3 WITH DATATYPE=BOOLEAN, ENCODING=PLAIN"
+  };
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    daemon = IoTDB.getInstance();
+    daemon.active();
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    daemon.stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void insertBatchTest() throws SQLException {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root")) {
+      RowBatch rowBatch = new RowBatch("root.vehicle.d0", Arrays.asList("s0", "s1", "s2", "s3"),
+          Arrays.asList(TSDataType.INT32, TSDataType.DOUBLE, TSDataType.TEXT, TSDataType.BOOLEAN),
+          100);
+      // the rows of the second batch are older than the rows of the first one
+      for (int batch = 1; batch >= 0; batch--) {
+        rowBatch.reset();
+        for (int i = 0; i < rowBatch.getMaxBatchSize(); i++) {
+          long time = batch * 100L + i;
+          rowBatch.addRow(time, (int) time, time * 0.5, new Binary("t" + time), time % 2 == 0);
+        }
+        ((IoTDBConnection) connection).insertBatch(rowBatch);
+      }
+
+      try (Statement statement = connection.createStatement()) {
+        Assert.assertTrue(statement.execute("select * from root.vehicle.d0"));
+        ResultSet resultSet = statement.getResultSet();
+        long expectedTime = 0;
+        while (resultSet.next()) {
+          Assert.assertEquals(expectedTime, resultSet.getLong(TIMESTAMP_STR));
+          Assert.assertEquals(expectedTime, resultSet.getInt("root.vehicle.d0.s0"));
+          Assert.assertEquals(expectedTime * 0.5, resultSet.getDouble("root.vehicle.d0.s1"), 0);
+          Assert.assertEquals("t" + expectedTime, resultSet.getString("root.vehicle.d0.s2"));
+          Assert.assertEquals(expectedTime % 2 == 0, resultSet.getBoolean("root.vehicle.d0.s3"));
+          expectedTime++;
+        }
+        Assert.assertEquals(200, expectedTime);
+      }
+    }
+  }
+
+  @Test(expected = SQLException.class)
+  public void insertBatchWithWrongTypeTest() throws SQLException {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root")) {
+      RowBatch rowBatch = new RowBatch("root.vehicle.d0", Arrays.asList("s0"),
+          Arrays.asList(TSDataType.INT64), 1);
+      rowBatch.addRow(1000L, 1L);
+      ((IoTDBConnection) connection).insertBatch(rowBatch);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IoTDBQueryCancelIT {
+
+  private static final String QUERY = "select s0 from root.cancel.d0";
+
+  private IoTDB daemon;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    daemon = IoTDB.getInstance();
+    daemon.active();
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.cancel");
+      statement.execute("CREATE TIMESERIES root.cancel.d0.s0 WITH DATATYPE=INT64, ENCODING=RLE");
+      for (int time = 1; time <= 100; time++) {
+        statement.execute(String.format(
+            "insert into root.cancel.d0(timestamp,s0) values(%d,%d)", time, time));
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    daemon.stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private Connection getConnection() throws SQLException {
+    return DriverManager.getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+  }
+
+  /**
+   * start the query and cancel it while its connection is idle. JDBC always sends the cancellation
+   * by a session of its own.
+   */
+  private ResultSet startAndCancel(Statement statement) throws SQLException {
+    statement.setFetchSize(10);
+    ResultSet resultSet = statement.executeQuery(QUERY);
+    assertTrue(resultSet.next());
+    assertEquals(1, QueryResourceManager.getInstance().getRunningJobNum());
+    assertTrue(QueryResourceManager.getInstance().getReservedMemory() > 0);
+
+    statement.cancel();
+    // the memory is released at once, the query tokens only by the connection of the query
+    assertEquals(0, QueryResourceManager.getInstance().getReservedMemory());
+    assertEquals(1, QueryResourceManager.getInstance().getRunningJobNum());
+    return resultSet;
+  }
+
+  @Test
+  public void testReleasedByFetch() throws SQLException {
+    try (Connection connection = getConnection();
+        Statement statement = connection.createStatement()) {
+      ResultSet resultSet = startAndCancel(statement);
+      try {
+        while (resultSet.next()) {
+          // the rows fetched before the cancellation
+        }
+        fail("fetching a cancelled query should fail");
+      } catch (SQLException e) {
+        assertTrue(e.getMessage().contains("is cancelled"));
+      }
+      assertEquals(0, QueryResourceManager.getInstance().getRunningJobNum());
+    }
+  }
+
+  @Test
+  public void testReleasedByAnotherRequest() throws SQLException, InterruptedException {
+    try (Connection connection = getConnection();
+        Statement statement = connection.createStatement();
+        Statement anotherStatement = connection.createStatement()) {
+      startAndCancel(statement);
+      anotherStatement.execute("insert into root.cancel.d0(timestamp,s0) values(101,101)");
+      // released by the connection thread once the request is served
+      long deadline = System.currentTimeMillis() + 10000;
+      while (QueryResourceManager.getInstance().getRunningJobNum() > 0
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, QueryResourceManager.getInstance().getRunningJobNum());
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.qp.plan;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -30,6 +31,7 @@ import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
+import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
@@ -204,6 +206,42 @@ public class PhysicalPlanTest {
     }
   }
 
+  @Test
+  public void testLast() throws QueryProcessorException, ArgsErrorException, ProcessorException {
+    String sqlStr = "SELECT LAST s1 FROM root.vehicle.d1, root.vehicle.d2";
+    PhysicalPlan plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    assertTrue(plan instanceof LastQueryPlan);
+    assertEquals(2, plan.getPaths().size());
+    assertEquals("root.vehicle.d1.s1", plan.getPaths().get(0).getFullPath());
+
+    // last as an aggregation is still parsed
+    sqlStr = "SELECT last(s1) FROM root.vehicle.d1";
+    plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    assertTrue(plan instanceof AggregationPlan);
+
+    // a measurement may be named by the keyword last
+    processor.getExecutor().insert(new Path("root.vehicle.d1.last"), 10, "10");
+    sqlStr = "SELECT last FROM root.vehicle.d1";
+    plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    assertFalse(plan instanceof LastQueryPlan);
+    assertEquals("root.vehicle.d1.last", plan.getPaths().get(0).getFullPath());
+    sqlStr = "SELECT LAST last FROM root.vehicle.d1";
+    plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    assertTrue(plan instanceof LastQueryPlan);
+    assertEquals("root.vehicle.d1.last", plan.getPaths().get(0).getFullPath());
+  }
+
+  @Test
+  public void testLastWithFilter() throws QueryProcessorException, ArgsErrorException {
+    String sqlStr = "SELECT LAST s1 FROM root.vehicle.d1 WHERE time > 5000";
+    try {
+      processor.parseSQLToPhysicalPlan(sqlStr);
+      fail();
+    } catch (Exception e) {
+      assertEquals("Last query doesn't support where clause", e.getMessage());
+    }
+  }
+
   @Test
   public void testQuery1() throws QueryProcessorException, ArgsErrorException, ProcessorException {
     String sqlStr = "SELECT s1 FROM root.vehicle.d1 WHERE time > 5000";
@@ -33,6 +33,7 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.executor.QueryProcessExecutor;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -131,6 +132,12 @@ public class MemIntQpExecutor extends QueryProcessExecutor {
     return null;
   }
 
+  @Override
+  public QueryDataSet last(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, FileNodeManagerException {
+    return null;
+  }
+
 
   @Override
   public boolean judgePathExists(Path path) {
@@ -205,6 +212,11 @@ public class MemIntQpExecutor extends QueryProcessExecutor {
     return 0;
   }
 
+  @Override
+  public int insertBatch(BatchInsertPlan plan) {
+    return 0;
+  }
+
   private class TestSeries {
 
     public TreeMap<Long, Integer> data = new TreeMap<>();
@@ -18,12 +18,162 @@
  */
 package org.apache.iotdb.db.query.control;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.filenode.FileNodeManager;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.QueryMemoryExceededException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 public class QueryResourceManagerTest {
 
+  private static final long MB = 1024L * 1024;
+
+  private String processorName = "root.test";
+  private List<Path> paths = new ArrayList<>();
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private long prevMemoryBudget;
+  private long prevMaxMemoryPerQuery;
+  private long prevMemoryPerSeries;
+  private long prevAdmissionTimeout;
+
+  private QueryResourceManager resourceManager = QueryResourceManager.getInstance();
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    EnvironmentUtils.envSetUp();
+    prevMemoryBudget = config.getQueryMemoryBudgetInByte();
+    prevMaxMemoryPerQuery = config.getMaxMemoryPerQueryInByte();
+    prevMemoryPerSeries = config.getEstimatedMemoryPerSeriesInByte();
+    prevAdmissionTimeout = config.getQueryAdmissionTimeoutInMs();
+    config.setQueryMemoryBudgetInByte(MB);
+    config.setMaxMemoryPerQueryInByte(0);
+    config.setEstimatedMemoryPerSeriesInByte(MB / 4);
+    config.setQueryAdmissionTimeoutInMs(200);
+
+    MManager.getInstance().setStorageLevelToMTree(processorName);
+    for (int i = 0; i < 4; i++) {
+      MManager.getInstance().addPathToMTree(processorName + ".s" + i, "INT64", "PLAIN");
+      FileNodeManager.getInstance().addTimeSeries(new Path(processorName, "s" + i),
+          TSDataType.INT64, TSEncoding.PLAIN, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+      paths.add(new Path(processorName, "s" + i));
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    EnvironmentUtils.cleanEnv();
+    config.setQueryMemoryBudgetInByte(prevMemoryBudget);
+    config.setMaxMemoryPerQueryInByte(prevMaxMemoryPerQuery);
+    config.setEstimatedMemoryPerSeriesInByte(prevMemoryPerSeries);
+    config.setQueryAdmissionTimeoutInMs(prevAdmissionTimeout);
+  }
+
+  @Test
+  public void testAdmission() throws FileNodeManagerException, InterruptedException {
+    long reserved = resourceManager.getReservedMemory();
+    long firstJob = resourceManager.assignJobId();
+    resourceManager.beginQueryOfGivenQueryPaths(firstJob, paths);
+    assertEquals(reserved + MB, resourceManager.getReservedMemory());
+
+    // the query memory is used up by the first job
+    long secondJob = resourceManager.assignJobId();
+    try {
+      resourceManager.beginQueryOfGivenQueryPaths(secondJob, paths.subList(0, 1));
+      fail();
+    } catch (FileNodeManagerException e) {
+      assertTrue(e.getMessage().contains("used up"));
+    }
+
+    resourceManager.endQueryForGivenJob(firstJob);
+    assertEquals(reserved, resourceManager.getReservedMemory());
+
+    // the waiting job is admitted once the job holding the memory ends
+    long thirdJob = resourceManager.assignJobId();
+    assertTrue(resourceManager.reserveMemory(thirdJob, MB - reserved));
+    config.setQueryAdmissionTimeoutInMs(10000);
+    Thread thread = new Thread(() -> {
+      try {
+        Thread.sleep(100);
+        resourceManager.endQueryForGivenJob(thirdJob);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (FileNodeManagerException e) {
+        fail(e.getMessage());
+      }
+    });
+    thread.start();
+    resourceManager.beginQueryOfGivenQueryPaths(secondJob, paths.subList(0, 1));
+    thread.join();
+    assertEquals(reserved + MB / 4, resourceManager.getReservedMemory());
+
+    resourceManager.endQueryForGivenJob(secondJob);
+    assertEquals(reserved, resourceManager.getReservedMemory());
+  }
+
   @Test
-  public void test() {
-    //TODO
+  public void testQueryBudget() throws IOException, FileNodeManagerException {
+    config.setMaxMemoryPerQueryInByte(MB / 2);
+    long jobId = resourceManager.assignJobId();
+    QueryContext context = new QueryContext(jobId);
+    context.allocateMemory(MB / 4);
+    context.allocateMemory(MB / 4);
+    try {
+      context.allocateMemory(1);
+      fail();
+    } catch (QueryMemoryExceededException e) {
+      assertTrue(e.getMessage().contains("budget"));
+    }
+    context.releaseMemory(MB / 4);
+    context.allocateMemory(MB / 8);
+    assertEquals(MB * 3 / 8, context.getUsedMemory());
+    resourceManager.endQueryForGivenJob(jobId);
+  }
+
+  @Test
+  public void testMemoryUsedUpByOtherQueries() throws IOException, FileNodeManagerException {
+    long reserved = resourceManager.getReservedMemory();
+    long firstJob = resourceManager.assignJobId();
+    assertTrue(resourceManager.reserveMemory(firstJob, MB - reserved));
+
+    long secondJob = resourceManager.assignJobId();
+    assertFalse(resourceManager.reserveMemory(secondJob, 1));
+    QueryContext context = new QueryContext(secondJob);
+    try {
+      context.allocateMemory(1);
+      fail();
+    } catch (QueryMemoryExceededException e) {
+      assertTrue(e.getMessage().contains("used up"));
+    }
+
+    resourceManager.endQueryForGivenJob(firstJob);
+    context.allocateMemory(1);
+    resourceManager.endQueryForGivenJob(secondJob);
+    assertEquals(reserved, resourceManager.getReservedMemory());
   }
 }
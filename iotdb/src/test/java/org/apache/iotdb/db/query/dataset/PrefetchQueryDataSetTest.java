@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.junit.Test;
+
+public class PrefetchQueryDataSetTest {
+
+  @Test
+  public void testReadAll() throws IOException {
+    CountingDataSet dataSet = new CountingDataSet(100, -1);
+    PrefetchQueryDataSet prefetchDataSet = new PrefetchQueryDataSet(dataSet, 7);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(prefetchDataSet.hasNext());
+      RowRecord record = prefetchDataSet.next();
+      assertEquals(i, record.getTimestamp());
+      assertEquals(i, record.getFields().get(0).getLongV());
+    }
+    assertFalse(prefetchDataSet.hasNext());
+    prefetchDataSet.close();
+    assertEquals(0, PrefetchQueryDataSet.getPrefetchedMemory());
+  }
+
+  @Test
+  public void testCloseEarly() throws IOException {
+    CountingDataSet dataSet = new CountingDataSet(10000, -1);
+    PrefetchQueryDataSet prefetchDataSet = new PrefetchQueryDataSet(dataSet, 10);
+    for (int i = 0; i < 15; i++) {
+      assertEquals(i, prefetchDataSet.next().getTimestamp());
+    }
+    prefetchDataSet.close();
+    assertEquals(0, PrefetchQueryDataSet.getPrefetchedMemory());
+    // nothing is read from the underlying dataset once it is closed
+    int read = dataSet.read;
+    assertFalse(prefetchDataSet.hasNext());
+    assertEquals(read, dataSet.read);
+    // at most the blocks allowed ahead are read beyond the consumed rows
+    assertTrue(read <= 20 + 10 * 2);
+  }
+
+  @Test
+  public void testException() throws IOException {
+    CountingDataSet dataSet = new CountingDataSet(100, 25);
+    PrefetchQueryDataSet prefetchDataSet = new PrefetchQueryDataSet(dataSet, 10);
+    int count = 0;
+    try {
+      while (prefetchDataSet.hasNext()) {
+        prefetchDataSet.next();
+        count++;
+      }
+      fail();
+    } catch (IOException e) {
+      assertEquals("failed at 25", e.getMessage());
+    } finally {
+      prefetchDataSet.close();
+    }
+    assertEquals(20, count);
+    assertEquals(0, PrefetchQueryDataSet.getPrefetchedMemory());
+  }
+
+  /**
+   * a dataset of rows 0 ... size - 1, which counts the rows read and fails at the given row.
+   */
+  private static class CountingDataSet extends QueryDataSet {
+
+    private final int size;
+    private final int failAt;
+    private volatile int read;
+
+    private CountingDataSet(int size, int failAt) {
+      super(Collections.singletonList(new Path("root.vehicle.d0.s0")),
+          Collections.singletonList(TSDataType.INT64));
+      this.size = size;
+      this.failAt = failAt;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return read < size;
+    }
+
+    @Override
+    public RowRecord next() throws IOException {
+      if (read == failAt) {
+        throw new IOException("failed at " + read);
+      }
+      RowRecord record = new RowRecord(read);
+      Field field = new Field(TSDataType.INT64);
+      field.setLongV(read);
+      record.addField(field);
+      read++;
+      return record;
+    }
+  }
+}
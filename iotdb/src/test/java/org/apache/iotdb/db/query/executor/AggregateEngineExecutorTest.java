@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.QueryCancelledException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.QueryTestUtils;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AggregateEngineExecutorTest {
+
+  private static final String DEVICE = "root.test";
+  private static final String[] MEASUREMENTS = {"s0", "s1"};
+  private static final List<String> AGGREGATIONS = Arrays
+      .asList(StatisticConstant.COUNT, StatisticConstant.MIN_VALUE, StatisticConstant.MAX_VALUE,
+          StatisticConstant.FIRST, StatisticConstant.LAST, StatisticConstant.MIN_TIME,
+          StatisticConstant.MAX_TIME);
+
+  private EngineQueryRouter router = new EngineQueryRouter();
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    EnvironmentUtils.envSetUp();
+    QueryTestUtils.createSeries(DEVICE, MEASUREMENTS);
+    QueryTestUtils.insertOverlappedData(DEVICE, MEASUREMENTS);
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testAggregateWithUnsequenceDataAndDeletion()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    for (int i = 0; i < MEASUREMENTS.length; i++) {
+      List<Path> paths = new ArrayList<>();
+      for (int j = 0; j < AGGREGATIONS.size(); j++) {
+        paths.add(new Path(DEVICE, MEASUREMENTS[i]));
+      }
+      QueryDataSet dataSet = router.aggregate(paths, AGGREGATIONS, null, TEST_QUERY_CONTEXT);
+      RowRecord record = dataSet.next();
+      assertFalse(dataSet.hasNext());
+      if (i == 0) {
+        // s0: 1..2000 with 500..509 overwritten by negative values
+        assertEquals("0\t2000\t-509\t2000\t1\t2000\t1\t2000", record.toString());
+      } else {
+        // s1: 1501..2000 with the rest deleted
+        assertEquals("0\t500\t1501\t2000\t1501\t2000\t1501\t2000", record.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testGroupByCoveringChunks()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    List<Path> paths = Arrays.asList(new Path(DEVICE, MEASUREMENTS[0]),
+        new Path(DEVICE, MEASUREMENTS[1]));
+    List<String> aggregations = Arrays.asList(StatisticConstant.COUNT, StatisticConstant.COUNT);
+    List<Pair<Long, Long>> intervals = Collections.singletonList(new Pair<>(1L, 2999L));
+    QueryDataSet dataSet = router.groupBy(paths, aggregations, null, 1500, 1, intervals,
+        TEST_QUERY_CONTEXT);
+    List<String> records = new ArrayList<>();
+    while (dataSet.hasNext()) {
+      records.add(dataSet.next().toString());
+    }
+    assertEquals(Arrays.asList("1\t1500\t0", "1501\t500\t500"), records);
+  }
+
+  @Test
+  public void testCancelAndTimeout()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    List<Path> paths = Collections.singletonList(new Path(DEVICE, MEASUREMENTS[0]));
+    List<String> aggregations = Collections.singletonList(StatisticConstant.COUNT);
+
+    QueryContext context = new QueryContext(QueryResourceManager.getInstance().assignJobId());
+    context.cancel();
+    try {
+      router.aggregate(paths, aggregations, null, context);
+      fail("a cancelled query should not run");
+    } catch (QueryCancelledException e) {
+      assertEquals("Query " + context.getJobId() + " is cancelled", e.getMessage());
+    } finally {
+      QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
+    }
+
+    context = new QueryContext(QueryResourceManager.getInstance().assignJobId());
+    context.setDeadline(System.currentTimeMillis() - 1);
+    try {
+      router.aggregate(paths, aggregations, null, context);
+      fail("a timed out query should not run");
+    } catch (QueryCancelledException e) {
+      assertEquals("Query " + context.getJobId() + " timed out", e.getMessage());
+    } finally {
+      QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
+    }
+
+    // the files are released, a query afterwards reads them again
+    QueryDataSet dataSet = router.aggregate(paths, aggregations, null, TEST_QUERY_CONTEXT);
+    assertEquals("0\t2000", dataSet.next().toString());
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.filenode.FileNodeManager;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.reader.sequence.SequenceDataReader;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.QueryTestUtils;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupByRollupTest {
+
+  private static final String DEVICE = "root.test";
+  private static final String[] MEASUREMENTS = {"s0", "s1"};
+  private static final List<String> AGGREGATIONS = Arrays
+      .asList(StatisticConstant.COUNT, StatisticConstant.SUM, StatisticConstant.MEAN,
+          StatisticConstant.MIN_VALUE, StatisticConstant.MAX_VALUE, StatisticConstant.FIRST,
+          StatisticConstant.LAST, StatisticConstant.MIN_TIME, StatisticConstant.MAX_TIME);
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private Map<String, long[]> prevRollupIntervals;
+  private EngineQueryRouter router = new EngineQueryRouter();
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    EnvironmentUtils.envSetUp();
+    prevRollupIntervals = config.getRollupIntervals();
+    Map<String, long[]> rollupIntervals = new HashMap<>();
+    rollupIntervals.put(DEVICE, new long[]{100, 1000});
+    config.setRollupIntervals(rollupIntervals);
+
+    QueryTestUtils.createSeries(DEVICE, MEASUREMENTS);
+    QueryTestUtils.insertOverlappedData(DEVICE, MEASUREMENTS);
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    config.setRollupIntervals(prevRollupIntervals);
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testReadBuckets() throws IOException, FileNodeManagerException {
+    Path path = new Path(DEVICE, MEASUREMENTS[0]);
+    QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(
+        TEST_QUERY_CONTEXT.getJobId(), Collections.singletonList(path));
+    QueryDataSource dataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, TEST_QUERY_CONTEXT);
+    SequenceDataReader reader = new SequenceDataReader(dataSource.getSeqDataSource(), null,
+        TEST_QUERY_CONTEXT, 100);
+    assertTrue(reader.hasNext());
+    PageHeader header = reader.nextPageHeader();
+    assertEquals(1, header.getMinTimestamp());
+    assertEquals(99, header.getMaxTimestamp());
+    assertEquals(99, header.getNumOfValues());
+    assertEquals(4950, header.getStatistics().getSum(), 0);
+    reader.skipPageData();
+
+    assertTrue(reader.hasNext());
+    header = reader.nextPageHeader();
+    assertEquals(100, header.getMinTimestamp());
+    assertEquals(199, header.getMaxTimestamp());
+    assertEquals(100L, reader.nextBatch().length());
+  }
+
+  @Test
+  public void testGroupBySameAsRawData()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    assertGroupBySameAsRawData();
+  }
+
+  @Test
+  public void testRollupAfterMerge()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    long prevOverflowFileSizeThreshold = config.getOverflowFileSizeThreshold();
+    config.setOverflowFileSizeThreshold(0);
+    try {
+      FileNodeManager.getInstance().mergeAll();
+    } finally {
+      config.setOverflowFileSizeThreshold(prevOverflowFileSizeThreshold);
+    }
+
+    // the unsequence data is in the rollup of the merged file
+    Path path = new Path(DEVICE, MEASUREMENTS[0]);
+    QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(
+        TEST_QUERY_CONTEXT.getJobId(), Collections.singletonList(path));
+    QueryDataSource dataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, TEST_QUERY_CONTEXT);
+    SequenceDataReader reader = new SequenceDataReader(dataSource.getSeqDataSource(), null,
+        TEST_QUERY_CONTEXT, 100);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(reader.hasNext());
+      reader.skipPageData();
+    }
+    assertTrue(reader.hasNext());
+    PageHeader header = reader.nextPageHeader();
+    assertEquals(500, header.getMinTimestamp());
+    assertEquals(-509L, header.getStatistics().getMin());
+
+    assertGroupBySameAsRawData();
+  }
+
+  private void assertGroupBySameAsRawData()
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    // tier 100, 1000, 100 with a time filter cutting buckets, and no tier for the origin
+    long[][] unitAndOrigins = {{100, 0}, {1000, 0}, {300, 0}, {25, 5}};
+    List<Pair<Long, Long>> intervals = Arrays.asList(new Pair<>(1L, 2000L),
+        new Pair<>(50L, 1949L));
+    for (long[] unitAndOrigin : unitAndOrigins) {
+      for (Pair<Long, Long> interval : intervals) {
+        Map<String, long[]> rollupIntervals = config.getRollupIntervals();
+        List<String> withRollups = groupBy(unitAndOrigin[0], unitAndOrigin[1], interval);
+        config.setRollupIntervals(new HashMap<>());
+        List<String> withoutRollups = groupBy(unitAndOrigin[0], unitAndOrigin[1], interval);
+        config.setRollupIntervals(rollupIntervals);
+        assertEquals(withoutRollups, withRollups);
+      }
+    }
+  }
+
+  private List<String> groupBy(long unit, long origin, Pair<Long, Long> interval)
+      throws IOException, FileNodeManagerException, PathErrorException, ProcessorException,
+      QueryFilterOptimizationException {
+    List<Path> paths = new ArrayList<>();
+    List<String> aggregations = new ArrayList<>();
+    for (String measurement : MEASUREMENTS) {
+      for (String aggregation : AGGREGATIONS) {
+        paths.add(new Path(DEVICE, measurement));
+        aggregations.add(aggregation);
+      }
+    }
+    QueryDataSet dataSet = router.groupBy(paths, aggregations, null, unit, origin,
+        Collections.singletonList(interval), TEST_QUERY_CONTEXT);
+    List<String> records = new ArrayList<>();
+    while (dataSet.hasNext()) {
+      records.add(dataSet.next().toString());
+    }
+    return records;
+  }
+}
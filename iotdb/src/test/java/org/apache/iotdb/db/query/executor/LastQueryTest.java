@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.engine.cache.LastCache;
+import org.apache.iotdb.db.engine.filenode.FileNodeManager;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.QueryTestUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LastQueryTest {
+
+  private static final String DEVICE = "root.test";
+  private static final String[] MEASUREMENTS = {"s0", "s1", "s2"};
+  // s2 has no data
+  private static final String[] WRITTEN_MEASUREMENTS = Arrays.copyOf(MEASUREMENTS, 2);
+
+  private EngineQueryRouter router = new EngineQueryRouter();
+  private List<Path> paths = new ArrayList<>();
+
+  @Before
+  public void setUp() throws MetadataArgsErrorException, PathErrorException, IOException,
+      FileNodeManagerException, StartupException {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.closeMemControl();
+    EnvironmentUtils.envSetUp();
+    QueryTestUtils.createSeries(DEVICE, MEASUREMENTS);
+    for (String measurement : MEASUREMENTS) {
+      paths.add(new Path(DEVICE, measurement));
+    }
+
+    // a sealed file and data in memory
+    insert(1, 100, 1);
+    FileNodeManager.getInstance().closeAll();
+    insert(101, 200, 1);
+  }
+
+  @After
+  public void tearDown() throws IOException, FileNodeManagerException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private void insert(long startTime, long endTime, long sign) throws FileNodeManagerException {
+    QueryTestUtils.insert(DEVICE, WRITTEN_MEASUREMENTS, startTime, endTime, sign);
+  }
+
+  @Test
+  public void testLastQuery() throws IOException, FileNodeManagerException, PathErrorException,
+      ProcessorException {
+    // the first query fills the cache, the second one is answered by it
+    for (int i = 0; i < 2; i++) {
+      QueryDataSet dataSet = router.last(paths, TEST_QUERY_CONTEXT);
+      checkRow(dataSet, 200, MEASUREMENTS[0], 200);
+      checkRow(dataSet, 200, MEASUREMENTS[1], 200);
+      assertFalse(dataSet.hasNext());
+      assertNotNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[0]));
+      assertNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[2]));
+    }
+
+    // insertions update the cached points, the older ones are ignored
+    insert(201, 210, 1);
+    insert(50, 60, -1);
+    TimeValuePair last = LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[0]);
+    assertEquals(210, last.getTimestamp());
+    assertEquals(210L, last.getValue().getLong());
+    QueryDataSet dataSet = router.last(paths, TEST_QUERY_CONTEXT);
+    checkRow(dataSet, 210, MEASUREMENTS[0], 210);
+    checkRow(dataSet, 210, MEASUREMENTS[1], 210);
+    assertFalse(dataSet.hasNext());
+  }
+
+  @Test
+  public void testInvalidation() throws IOException, FileNodeManagerException,
+      PathErrorException, ProcessorException {
+    router.last(paths, TEST_QUERY_CONTEXT);
+    FileNodeManager.getInstance().delete(DEVICE, MEASUREMENTS[1], 200);
+    assertNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[1]));
+    assertNotNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[0]));
+
+    // a series inserted before it is filled again is not taken as cached
+    insert(150, 150, -1);
+    assertNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[1]));
+
+    QueryDataSet dataSet = router.last(paths, TEST_QUERY_CONTEXT);
+    checkRow(dataSet, 200, MEASUREMENTS[0], 200);
+    checkRow(dataSet, 150, MEASUREMENTS[1], -150);
+    assertFalse(dataSet.hasNext());
+    assertEquals(150,
+        LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[1]).getTimestamp());
+  }
+
+  @Test
+  public void testLastAggregation() throws IOException, FileNodeManagerException,
+      PathErrorException, ProcessorException, QueryFilterOptimizationException {
+    List<String> aggregations = Collections.nCopies(paths.size(), StatisticConstant.LAST);
+    for (int i = 0; i < 2; i++) {
+      QueryDataSet dataSet = router.aggregate(paths, aggregations, null, TEST_QUERY_CONTEXT);
+      assertTrue(dataSet.hasNext());
+      RowRecord record = dataSet.next();
+      assertEquals(200L, record.getFields().get(0).getLongV());
+      assertEquals(200L, record.getFields().get(1).getLongV());
+      assertNull(record.getFields().get(2).getDataType());
+    }
+    assertNotNull(LastCache.getInstance().get(DEVICE + "." + MEASUREMENTS[1]));
+  }
+
+  private void checkRow(QueryDataSet dataSet, long time, String measurement, long value)
+      throws IOException {
+    assertTrue(dataSet.hasNext());
+    RowRecord record = dataSet.next();
+    assertEquals(time, record.getTimestamp());
+    assertEquals(DEVICE + "." + measurement,
+        record.getFields().get(0).getBinaryV().getStringValue());
+    assertEquals(TSDataType.INT64, record.getFields().get(1).getDataType());
+    assertEquals(value, record.getFields().get(1).getLongV());
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.junit.Test;
+
+public class QueryTaskPoolManagerTest {
+
+  private QueryTaskPoolManager manager = QueryTaskPoolManager.getInstance();
+
+  @Test
+  public void testResultsInOrderWithinParallelism() throws IOException, ProcessorException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      int value = i;
+      tasks.add(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep((50 - value) % 7);
+        running.decrementAndGet();
+        return value;
+      });
+    }
+    List<Integer> results = manager.invokeAll(tasks);
+    assertEquals(50, results.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, (int) results.get(i));
+    }
+    assertTrue(maxRunning.get() <= Math.max(1, manager.getParallelism()));
+  }
+
+  @Test
+  public void testExceptionOfTask() throws ProcessorException {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      int value = i;
+      tasks.add(() -> {
+        if (value == 5) {
+          throw new IOException("failed task");
+        }
+        return value;
+      });
+    }
+    try {
+      manager.invokeAll(tasks);
+      fail();
+    } catch (IOException e) {
+      assertEquals("failed task", e.getMessage());
+    }
+  }
+}
@@ -20,7 +20,13 @@
 package org.apache.iotdb.db.query.reader;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.iotdb.db.query.reader.merge.PriorityMergeReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -45,6 +51,59 @@ public class AllDataReaderTest {
     testWithNullPointReader();
   }
 
+  @Test
+  public void testBatchMerge() throws IOException {
+    List<BatchData> batches = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      BatchData batch = new BatchData(TSDataType.INT64, true);
+      for (long time = i * 10; time < i * 10 + 10; time++) {
+        batch.putTime(time);
+        batch.putLong(time);
+      }
+      batches.add(batch);
+    }
+    Iterator<BatchData> iterator = batches.iterator();
+    IBatchReader batchReader = new IBatchReader() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public BatchData nextBatch() {
+        return iterator.next();
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    PriorityMergeReader pointReader = new PriorityMergeReader();
+    pointReader.addReaderWithPriority(new FakedIPointReader(-5, 1, 1, 100), 1);
+    pointReader.addReaderWithPriority(new FakedIPointReader(15, 1, 1, 100), 1);
+    pointReader.addReaderWithPriority(new FakedIPointReader(35, 1, 1, 100), 1);
+    AllDataReader reader = new AllDataReader(batchReader, pointReader);
+
+    // unsequence point before all sequence data
+    BatchData batch = reader.nextBatch();
+    Assert.assertEquals(1, batch.length());
+    Assert.assertEquals(-5, batch.currentTime());
+    // batches not overlapping unsequence data are passed through
+    Assert.assertTrue(batches.get(0) == reader.nextBatch());
+    // the overlapping batch is merged, the sequence point at 15 is overwritten
+    batch = reader.nextBatch();
+    Assert.assertEquals(10, batch.length());
+    for (long time = 10; time < 20; time++) {
+      Assert.assertEquals(time, batch.currentTime());
+      Assert.assertEquals(time == 15 ? 15 % 100 : time, batch.getLong());
+      batch.next();
+    }
+    Assert.assertTrue(batches.get(2) == reader.nextBatch());
+    batch = reader.nextBatch();
+    Assert.assertEquals(35, batch.currentTime());
+    Assert.assertFalse(reader.hasNextBatch());
+  }
+
   private void testWithOutNullReader() throws IOException {
     int cnt = 0;
     while (reader1.hasNext()) {
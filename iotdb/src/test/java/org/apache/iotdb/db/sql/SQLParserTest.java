@@ -194,6 +194,95 @@ public class SQLParserTest {
     }
   }
 
+  @Test
+  public void multiInsertWithKeywordMeasurement() throws ParseException {
+    // a measurement may be named by the keyword last
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_INSERT", "TOK_PATH", "TOK_ROOT", "vehicle", "d0",
+            "TOK_MULT_IDENTIFIER", "TOK_TIME", "s0", "last", "TOK_MULT_VALUE", "12345678", "1",
+            "2"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST(
+        "insert into root.vehicle.d0 (timestamp, s0, last) values(12345678, 1, 2)");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    assertEquals(ans.size(), rec.size());
+    for (int i = 0; i < rec.size(); i++) {
+      assertEquals(ans.get(i), rec.get(i));
+    }
+  }
+
+  @Test
+  public void selectLast() throws ParseException {
+    // the latest values of the series
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT_LAST", "TOK_PATH", "s1", "TOK_PATH", "s2",
+            "TOK_FROM", "TOK_PATH", "TOK_ROOT", "vehicle", "d0", "TOK_PATH", "TOK_ROOT", "vehicle",
+            "d1"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST(
+        "select last s1, s2 from root.vehicle.d0, root.vehicle.d1");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    assertEquals(ans.size(), rec.size());
+    for (int i = 0; i < rec.size(); i++) {
+      assertEquals(ans.get(i), rec.get(i));
+    }
+  }
+
+  @Test
+  public void selectLastAggregation() throws ParseException {
+    // last followed by a parenthesis is still the aggregation
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT", "TOK_PATH", "TOK_CLUSTER", "TOK_PATH", "s1",
+            "last", "TOK_FROM", "TOK_PATH", "TOK_ROOT", "vehicle", "d0"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST("select last(s1) from root.vehicle.d0");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    assertEquals(ans.size(), rec.size());
+    for (int i = 0; i < rec.size(); i++) {
+      assertEquals(ans.get(i), rec.get(i));
+    }
+  }
+
+  @Test
+  public void selectMeasurementNamedLast() throws ParseException {
+    // a measurement named last is selected when no suffix path follows
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT", "TOK_PATH", "last", "TOK_PATH", "s1",
+            "TOK_FROM", "TOK_PATH", "TOK_ROOT", "vehicle", "d0"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST("select last, s1 from root.vehicle.d0");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    assertEquals(ans.size(), rec.size());
+    for (int i = 0; i < rec.size(); i++) {
+      assertEquals(ans.get(i), rec.get(i));
+    }
+  }
+
+  @Test
+  public void selectLastOfMeasurementNamedLast() throws ParseException {
+    // the latest value of a measurement named last
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT_LAST", "TOK_PATH", "last", "TOK_FROM",
+            "TOK_PATH", "TOK_ROOT", "vehicle", "d0"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST("select last last from root.vehicle.d0");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    assertEquals(ans.size(), rec.size());
+    for (int i = 0; i < rec.size(); i++) {
+      assertEquals(ans.get(i), rec.get(i));
+    }
+  }
+
   @Test
   public void updateValueWithTimeFilter1() throws ParseException {
     // template for test case
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.apache.iotdb.db.engine.filenode.FileNodeManager;
+import org.apache.iotdb.db.exception.FileNodeManagerException;
+import org.apache.iotdb.db.exception.MetadataArgsErrorException;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+
+/**
+ * Data preparation shared by the unit tests of the query engine. The environment should be set up
+ * by {@link EnvironmentUtils#envSetUp()} before.
+ */
+public class QueryTestUtils {
+
+  private QueryTestUtils() {
+  }
+
+  /**
+   * create a storage group of the device and an INT64 series for each measurement.
+   */
+  public static void createSeries(String device, String... measurements)
+      throws PathErrorException, IOException, MetadataArgsErrorException,
+      FileNodeManagerException {
+    MManager.getInstance().setStorageLevelToMTree(device);
+    for (String measurement : measurements) {
+      MManager.getInstance().addPathToMTree(device + "." + measurement,
+          TSDataType.INT64.toString(), TSEncoding.RLE.toString());
+      FileNodeManager.getInstance().addTimeSeries(new Path(device, measurement),
+          TSDataType.INT64, TSEncoding.RLE, CompressionType.valueOf(TSFileConfig.compressor),
+          Collections.emptyMap());
+    }
+  }
+
+  /**
+   * insert the value sign * time into each measurement at every time of [startTime, endTime].
+   */
+  public static void insert(String device, String[] measurements, long startTime, long endTime,
+      long sign) throws FileNodeManagerException {
+    for (long time = startTime; time <= endTime; time++) {
+      TSRecord record = new TSRecord(time, device);
+      for (String measurement : measurements) {
+        record.addTuple(new LongDataPoint(measurement, sign * time));
+      }
+      FileNodeManager.getInstance().insert(record, false);
+    }
+  }
+
+  /**
+   * write time 1 to 2000 into two sealed files, overwrite time 500 to 509 with negative values as
+   * unsequence data, and delete the second measurement before time 1500.
+   */
+  public static void insertOverlappedData(String device, String[] measurements)
+      throws FileNodeManagerException {
+    insert(device, measurements, 1, 1000, 1);
+    FileNodeManager.getInstance().closeAll();
+    insert(device, measurements, 1001, 2000, 1);
+    FileNodeManager.getInstance().closeAll();
+    insert(device, measurements, 500, 509, -1);
+    FileNodeManager.getInstance().delete(device, measurements[1], 1500);
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TVListTest {
+
+  @Test
+  public void testInOrder() {
+    int count = 10000;
+    TVList tvList = TVList.newList(TSDataType.INT32);
+    for (int i = 0; i < count; i++) {
+      tvList.putInt(i, i);
+    }
+    Assert.assertTrue(tvList.isSorted());
+    tvList.sort();
+    Assert.assertEquals(count, tvList.size());
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getInt(i));
+    }
+  }
+
+  @Test
+  public void testSortAndRemoveDuplicates() {
+    int count = 10000;
+    TVList tvList = TVList.newList(TSDataType.INT64);
+    // descending timestamps, then every timestamp again with a newer value
+    for (int i = count - 1; i >= 0; i--) {
+      tvList.putLong(i, -i);
+    }
+    for (int i = 0; i < count; i++) {
+      tvList.putLong(i, i);
+    }
+    Assert.assertFalse(tvList.isSorted());
+    tvList.sort();
+    Assert.assertTrue(tvList.isSorted());
+    Assert.assertEquals(count, tvList.size());
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testRandomOrder() {
+    int count = 3000;
+    TVList tvList = TVList.newList(TSDataType.DOUBLE);
+    for (int i = 0; i < count; i++) {
+      // a permutation of [0, count) since 7 and count are coprime
+      long time = (i * 7L) % count;
+      tvList.putDouble(time, time + 0.5);
+    }
+    tvList.sort();
+    Assert.assertEquals(count, tvList.size());
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i + 0.5, tvList.getDouble(i), 0);
+    }
+  }
+
+  @Test
+  public void testPutColumn() {
+    int count = 1000;
+    long[] times = new long[count];
+    double[] values = new double[count];
+    for (int i = 0; i < count; i++) {
+      times[i] = i;
+      values[i] = i * 0.5;
+    }
+    TVList tvList = TVList.newList(TSDataType.DOUBLE);
+    tvList.putDouble(-1, -0.5);
+    tvList.putDoubles(times, values, count - 1);
+    Assert.assertEquals(count, tvList.size());
+    Assert.assertTrue(tvList.isSorted());
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i - 1, tvList.getTime(i));
+      Assert.assertEquals((i - 1) * 0.5, tvList.getDouble(i), 0);
+    }
+
+    // a column out of order is sorted and deduplicated as usual
+    tvList.putDoubles(new long[]{5, 3000, 2000}, new double[]{-1, -2, -3}, 3);
+    Assert.assertFalse(tvList.isSorted());
+    tvList.sort();
+    Assert.assertEquals(count + 2, tvList.size());
+    Assert.assertEquals(-1, tvList.getDouble(6), 0);
+    Assert.assertEquals(2000, tvList.getTime(count));
+    Assert.assertEquals(3000, tvList.getTime(count + 1));
+  }
+
+  @Test
+  public void testClone() {
+    TVList tvList = TVList.newList(TSDataType.TEXT);
+    for (int i = 100; i > 0; i--) {
+      tvList.putBinary(i, Binary.valueOf(String.valueOf(i)));
+    }
+    TVList cloneList = tvList.clone();
+    tvList.sort();
+    tvList.putBinary(101, Binary.valueOf("101"));
+    Assert.assertEquals(101, tvList.size());
+    Assert.assertEquals(100, cloneList.size());
+    Assert.assertEquals(100, cloneList.getTime(0));
+    cloneList.sort();
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i + 1, cloneList.getTime(i));
+      Assert.assertEquals(String.valueOf(i + 1), cloneList.getBinary(i).getStringValue());
+    }
+  }
+
+  @Test
+  public void testClear() {
+    TVList tvList = TVList.newList(TSDataType.FLOAT);
+    for (int i = 0; i < 1000; i++) {
+      tvList.putFloat(1000 - i, i);
+    }
+    tvList.clear();
+    Assert.assertEquals(0, tvList.size());
+    Assert.assertTrue(tvList.isSorted());
+    // the list can be written again with arrays from the pool
+    for (int i = 0; i < 1000; i++) {
+      tvList.putFloat(i, i);
+    }
+    Assert.assertTrue(tvList.isSorted());
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getFloat(i), 0);
+    }
+  }
+}
@@ -19,10 +19,13 @@
 package org.apache.iotdb.db.writelog;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Map;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.MetadataArgsErrorException;
@@ -34,6 +37,7 @@ import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.apache.iotdb.db.writelog.manager.WalRecoveryMonitorMBean;
 import org.apache.iotdb.db.writelog.manager.WriteLogNodeManager;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -136,4 +140,46 @@ public class WriteLogNodeManagerTest {
     }
     manager.recover();
   }
+
+  @Test
+  public void testRecoverIsolatesFailure() throws IOException {
+    // this test makes the bufferwrite node of a storage group fail, the overflow node of the same
+    // storage group should be skipped while the other storage group is still recovered
+    File tempRestore = File.createTempFile("managerTest", "restore");
+    File tempProcessorStore = File.createTempFile("managerTest", "processorStore");
+
+    MultiFileLogNodeManager manager = MultiFileLogNodeManager.getInstance();
+    for (int i = 0; i < 2; i++) {
+      for (String suffix : Arrays.asList("-bufferwrite", "-overflow")) {
+        manager.getNode("root.isolationTest" + i + suffix, tempRestore.getPath(),
+            tempProcessorStore.getPath());
+      }
+    }
+    WriteLogNode failedNode = manager.getNode("root.isolationTest0-bufferwrite", null, null);
+    assertTrue(new File(failedNode.getLogDirectory(), "recover-flag-ILLEGAL").createNewFile());
+
+    try {
+      manager.recover();
+      fail("recover should fail");
+    } catch (RecoverException e) {
+      assertTrue(e.getMessage().contains("root.isolationTest0-bufferwrite"));
+    }
+    WalRecoveryMonitorMBean monitor = manager.getRecoveryMonitor();
+    Map<String, String> status = monitor.getNodeStatus();
+    assertEquals(4, monitor.getTotalNodeNum());
+    assertEquals(1, monitor.getFailedNodeNum());
+    assertEquals(2, monitor.getRecoveredNodeNum());
+    assertEquals("FAILED", status.get("root.isolationTest0-bufferwrite"));
+    assertEquals("SKIPPED", status.get("root.isolationTest0-overflow"));
+    assertEquals("RECOVERED", status.get("root.isolationTest1-bufferwrite"));
+    assertEquals("RECOVERED", status.get("root.isolationTest1-overflow"));
+
+    for (int i = 0; i < 2; i++) {
+      for (String suffix : Arrays.asList("-bufferwrite", "-overflow")) {
+        manager.deleteNode("root.isolationTest" + i + suffix);
+      }
+    }
+    tempRestore.delete();
+    tempProcessorStore.delete();
+  }
 }
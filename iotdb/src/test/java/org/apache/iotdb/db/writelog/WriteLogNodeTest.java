@@ -24,17 +24,25 @@ import static junit.framework.TestCase.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
 import java.util.zip.CRC32;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.io.MappedSegmentLogWriter;
+import org.apache.iotdb.db.writelog.io.RAFLogReader;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.After;
 import org.junit.Before;
@@ -284,4 +292,243 @@ public class WriteLogNodeTest {
     tempProcessorStore.delete();
     tempRestore.getParentFile().delete();
   }
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    // this test appends logs with group commit, the logs must be in the file once their futures
+    // are done, even if no sync is triggered.
+    boolean enableGroupCommit = config.isEnableWalGroupCommit();
+    int bufferSize = config.getWalGroupCommitBufferSize();
+    config.setEnableWalGroupCommit(true);
+    config.setWalGroupCommitBufferSize(256);
+    File tempRestore = new File("testtemp", "restore");
+    File tempProcessorStore = new File("testtemp", "processorStore");
+    tempRestore.getParentFile().mkdirs();
+    tempRestore.createNewFile();
+    tempProcessorStore.createNewFile();
+    CRC32 crc32 = new CRC32();
+
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(),
+        tempProcessorStore.getPath());
+
+    List<InsertPlan> plans = new ArrayList<>();
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      InsertPlan bwInsertPlan = new InsertPlan(1, "root.logTestDevice", i,
+          Arrays.asList("s1", "s2", "s3", "s4"),
+          Arrays.asList("1.0", "15", "str", "false"));
+      plans.add(bwInsertPlan);
+      futures.add(logNode.append(bwInsertPlan));
+    }
+    // a log larger than the buffer is committed on its own
+    List<String> measurements = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      measurements.add("s" + i);
+      values.add(String.valueOf(i));
+    }
+    InsertPlan largePlan = new InsertPlan(1, "root.logTestDevice", 100, measurements, values);
+    plans.add(largePlan);
+    futures.add(logNode.append(largePlan));
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+
+    File walFile = new File(
+        config.getWalFolder() + File.separator + "root.logTestDevice" + File.separator + "wal");
+    RandomAccessFile raf = new RandomAccessFile(walFile, "r");
+    byte[] buffer = new byte[10 * 1024 * 1024];
+    for (InsertPlan plan : plans) {
+      int logSize = raf.readInt();
+      long checksum = raf.readLong();
+      raf.read(buffer, 0, logSize);
+      crc32.reset();
+      crc32.update(buffer, 0, logSize);
+      assertEquals(checksum, crc32.getValue());
+      InsertPlan plan2 = (InsertPlan) PhysicalPlanLogTransfer.logToOperator(buffer);
+      assertEquals(plan.getTime(), plan2.getTime());
+      assertEquals(plan.getMeasurements(), plan2.getMeasurements());
+      assertEquals(plan.getValues(), plan2.getValues());
+    }
+    assertEquals(raf.length(), raf.getFilePointer());
+    raf.close();
+
+    logNode.delete();
+    tempRestore.delete();
+    tempProcessorStore.delete();
+    tempRestore.getParentFile().delete();
+    config.setEnableWalGroupCommit(enableGroupCommit);
+    config.setWalGroupCommitBufferSize(bufferSize);
+  }
+
+  @Test
+  public void testGroupCommitWithDeletion() throws Exception {
+    // this test mixes a deletion written by write() with batch insertions appended by group
+    // commit, the logs must be replayed in the order they are written.
+    boolean enableGroupCommit = config.isEnableWalGroupCommit();
+    config.setEnableWalGroupCommit(true);
+    File tempRestore = new File("testtemp", "restore");
+    File tempProcessorStore = new File("testtemp", "processorStore");
+    tempRestore.getParentFile().mkdirs();
+    tempRestore.createNewFile();
+    tempProcessorStore.createNewFile();
+
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(),
+        tempProcessorStore.getPath());
+    BatchInsertPlan insertPlan1 = new BatchInsertPlan("root.logTestDevice",
+        Arrays.asList("s1", "s2"), Arrays.asList(TSDataType.INT64, TSDataType.INT64),
+        new long[]{1, 2}, new Object[]{new long[]{1, 2}, new long[]{3, 4}}, 2);
+    DeletePlan deletePlan = new DeletePlan(2, new Path("root.logTestDevice.s1"));
+    // the second batch defines a new id, after the deletion
+    BatchInsertPlan insertPlan2 = new BatchInsertPlan("root.logTestDevice",
+        Arrays.asList("s1", "s3"), Arrays.asList(TSDataType.INT64, TSDataType.INT64),
+        new long[]{3}, new Object[]{new long[]{5}, new long[]{6}}, 1);
+    Future<Void> future1 = logNode.append(insertPlan1);
+    logNode.write(deletePlan);
+    Future<Void> future2 = logNode.append(insertPlan2);
+    future1.get();
+    future2.get();
+
+    // the logs are in the file before the node is closed
+    RAFLogReader reader = new RAFLogReader(new File(
+        config.getWalFolder() + File.separator + "root.logTestDevice" + File.separator + "wal"));
+    List<PhysicalPlan> plans = new ArrayList<>();
+    while (reader.hasNext()) {
+      plans.add(reader.next());
+    }
+    reader.close();
+    assertEquals(3, plans.size());
+    assertEquals(insertPlan1, plans.get(0));
+    assertEquals(deletePlan, plans.get(1));
+    assertEquals(insertPlan2, plans.get(2));
+
+    logNode.delete();
+    tempRestore.delete();
+    tempProcessorStore.delete();
+    tempRestore.getParentFile().delete();
+    config.setEnableWalGroupCommit(enableGroupCommit);
+  }
+
+  @Test
+  public void testSyncFailure() throws IOException {
+    // this test fails a sync by putting a directory where the log file should be, the logs
+    // written after the failure must not refer to the ids defined by the lost logs.
+    File tempRestore = new File("testtemp", "restore");
+    File tempProcessorStore = new File("testtemp", "processorStore");
+    tempRestore.getParentFile().mkdirs();
+    tempRestore.createNewFile();
+    tempProcessorStore.createNewFile();
+
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(),
+        tempProcessorStore.getPath());
+    File walFile = new File(logNode.getLogDirectory(), ExclusiveWriteLogNode.WAL_FILE_NAME);
+    assertTrue(walFile.mkdirs());
+    BatchInsertPlan lostPlan = new BatchInsertPlan("root.logTestDevice",
+        Arrays.asList("s1", "s2"), Arrays.asList(TSDataType.INT64, TSDataType.INT64),
+        new long[]{1}, new Object[]{new long[]{1}, new long[]{2}}, 1);
+    logNode.write(lostPlan);
+    boolean caught = false;
+    try {
+      logNode.forceSync();
+    } catch (IOException e) {
+      caught = true;
+    }
+    assertTrue(caught);
+
+    assertTrue(walFile.delete());
+    BatchInsertPlan insertPlan = new BatchInsertPlan("root.logTestDevice",
+        Arrays.asList("s1", "s2"), Arrays.asList(TSDataType.INT64, TSDataType.INT64),
+        new long[]{2}, new Object[]{new long[]{3}, new long[]{4}}, 1);
+    logNode.write(insertPlan);
+    logNode.forceSync();
+
+    RAFLogReader reader = new RAFLogReader(walFile);
+    List<PhysicalPlan> plans = new ArrayList<>();
+    while (reader.hasNext()) {
+      plans.add(reader.next());
+    }
+    reader.close();
+    assertEquals(1, plans.size());
+    assertEquals(insertPlan, plans.get(0));
+
+    logNode.delete();
+    tempRestore.delete();
+    tempProcessorStore.delete();
+    tempRestore.getParentFile().delete();
+  }
+
+  @Test
+  public void testSegmentedNotifyFlush() throws IOException {
+    // this test writes logs into small segments, then checks that a flush retires only the
+    // segments before it and that the retired segments are recycled.
+    boolean enableWalSegment = config.isEnableWalSegment();
+    long walSegmentSize = config.getWalSegmentSize();
+    config.setEnableWalSegment(true);
+    config.setWalSegmentSize(256);
+    File tempRestore = new File("testtemp", "restore");
+    File tempProcessorStore = new File("testtemp", "processorStore");
+    tempRestore.getParentFile().mkdirs();
+    tempRestore.createNewFile();
+    tempProcessorStore.createNewFile();
+
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice", tempRestore.getPath(),
+        tempProcessorStore.getPath());
+    for (int i = 0; i < 10; i++) {
+      logNode.write(new InsertPlan(1, "root.logTestDevice", i,
+          Arrays.asList("s1", "s2", "s3", "s4"), Arrays.asList("1.0", "15", "str", "false")));
+    }
+    logNode.forceSync();
+    List<File> flushedSegments = MappedSegmentLogWriter
+        .listActiveSegments(logNode.getLogDirectory());
+    assertTrue(flushedSegments.size() > 1);
+    assertEquals(10, countLogs(flushedSegments));
+
+    logNode.notifyStartFlush();
+    logNode.write(new InsertPlan(1, "root.logTestDevice", 10,
+        Arrays.asList("s1", "s2", "s3", "s4"), Arrays.asList("1.0", "15", "str", "false")));
+    logNode.forceSync();
+    assertEquals(11, countLogs(MappedSegmentLogWriter
+        .listActiveSegments(logNode.getLogDirectory())));
+
+    logNode.notifyEndFlush(null);
+    List<File> segments = MappedSegmentLogWriter.listActiveSegments(logNode.getLogDirectory());
+    assertEquals(1, segments.size());
+    assertEquals(1, countLogs(segments));
+    File[] segmentFiles = new File(logNode.getLogDirectory()).listFiles();
+    assertTrue(segmentFiles != null);
+    int segmentFileCount = segmentFiles.length;
+
+    // the next logs are written into recycled segments
+    logNode.notifyStartFlush();
+    for (int i = 11; i < 15; i++) {
+      logNode.write(new InsertPlan(1, "root.logTestDevice", i,
+          Arrays.asList("s1", "s2", "s3", "s4"), Arrays.asList("1.0", "15", "str", "false")));
+    }
+    logNode.forceSync();
+    logNode.notifyEndFlush(null);
+    assertEquals(4, countLogs(MappedSegmentLogWriter
+        .listActiveSegments(logNode.getLogDirectory())));
+    assertEquals(segmentFileCount, new File(logNode.getLogDirectory()).listFiles().length);
+
+    logNode.delete();
+    tempRestore.delete();
+    tempProcessorStore.delete();
+    tempRestore.getParentFile().delete();
+    config.setEnableWalSegment(enableWalSegment);
+    config.setWalSegmentSize(walSegmentSize);
+  }
+
+  private int countLogs(List<File> segments) throws IOException {
+    int count = 0;
+    for (File segment : segments) {
+      RAFLogReader reader = new RAFLogReader();
+      reader.open(segment, MappedSegmentLogWriter.SEGMENT_HEADER_SIZE);
+      while (reader.hasNext()) {
+        reader.next();
+        count++;
+      }
+      reader.close();
+    }
+    return count;
+  }
 }
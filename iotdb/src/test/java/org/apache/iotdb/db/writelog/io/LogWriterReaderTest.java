@@ -19,6 +19,8 @@
 package org.apache.iotdb.db.writelog.io;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -27,11 +29,15 @@ import java.util.Arrays;
 import java.util.List;
 import org.apache.iotdb.db.exception.WALOverSizedException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
+import org.apache.iotdb.db.writelog.transfer.LogDictionary;
 import org.apache.iotdb.db.writelog.transfer.PhysicalPlanLogTransfer;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -62,6 +68,41 @@ public class LogWriterReaderTest {
     }
   }
 
+  @Test
+  public void testDictionaryAndMappedRead() throws IOException {
+    LogDictionary dictionary = new LogDictionary();
+    List<BatchInsertPlan> batchPlans = new ArrayList<>();
+    List<byte[]> batchLogs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      BatchInsertPlan plan = new BatchInsertPlan("root.d1", Arrays.asList("s1", "s2"),
+          Arrays.asList(TSDataType.INT64, TSDataType.TEXT), new long[]{i, i + 1},
+          new Object[]{new long[]{i, i * 2}, new Binary[]{new Binary("a"), new Binary("b")}}, 2);
+      batchPlans.add(plan);
+      batchLogs.add(PhysicalPlanLogTransfer.operatorToLog(plan, dictionary));
+    }
+    // the ids are written only in the first log
+    assertTrue(batchLogs.get(1).length < batchLogs.get(0).length);
+    assertEquals(batchLogs.get(1).length, batchLogs.get(2).length);
+
+    LogWriter writer = new LogWriter(filePath);
+    writer.write(batchLogs);
+    try {
+      writer.close();
+      ILogReader[] readers = {new MappedLogReader(), new RAFLogReader()};
+      for (ILogReader reader : readers) {
+        reader.open(new File(filePath));
+        List<PhysicalPlan> res = new ArrayList<>();
+        while (reader.hasNext()) {
+          res.add(reader.next());
+        }
+        reader.close();
+        assertEquals(batchPlans, res);
+      }
+    } finally {
+      new File(filePath).delete();
+    }
+  }
+
   @Test
   public void testWriteAndRead() throws IOException {
     LogWriter writer = new LogWriter(filePath);
@@ -28,6 +28,7 @@ import org.apache.iotdb.db.exception.ArgsErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.exception.qp.QueryProcessorException;
 import org.apache.iotdb.db.qp.QueryProcessor;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
@@ -36,7 +37,9 @@ import org.apache.iotdb.db.qp.physical.sys.LoadDataPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
 import org.apache.iotdb.db.qp.utils.MemIntQpExecutor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Test;
 
 public class PhysicalPlanLogTransferTest {
@@ -48,6 +51,14 @@ public class PhysicalPlanLogTransferTest {
   private UpdatePlan updatePlan = new UpdatePlan(0, 100, "2.0",
       new Path("root.vehicle.device.sensor"));
   private LoadDataPlan loadDataPlan = new LoadDataPlan("/tmp/data/vehicle", "sensor");
+  private BatchInsertPlan batchInsertPlan = new BatchInsertPlan("device",
+      Arrays.asList("s1", "s2", "s3", "s4", "s5", "s6"),
+      Arrays.asList(TSDataType.DOUBLE, TSDataType.INT32, TSDataType.TEXT, TSDataType.BOOLEAN,
+          TSDataType.INT64, TSDataType.FLOAT), new long[]{100, 101, 99},
+      new Object[]{new double[]{0.1, 0.2, 0.3}, new int[]{100, 200, 300},
+          new Binary[]{new Binary("a"), new Binary("bc"), new Binary("")},
+          new boolean[]{true, false, true}, new long[]{1, 2, 3}, new float[]{1.5f, 2.5f, 3.5f}},
+      3);
 
   @Test
   public void operatorToLog()
@@ -58,6 +69,12 @@ public class PhysicalPlanLogTransferTest {
     byte[] insertPlanProperty = insertPlanCodec.encode(insertPlan);
     assertArrayEquals(insertPlanProperty, insertPlanBytesTest);
 
+    /** BatchInsert Plan test **/
+    byte[] batchInsertPlanBytesTest = PhysicalPlanLogTransfer.operatorToLog(batchInsertPlan);
+    Codec<BatchInsertPlan> batchInsertPlanCodec = CodecInstances.typedBatchInsertPlanCodec;
+    byte[] batchInsertPlanProperty = batchInsertPlanCodec.encode(batchInsertPlan);
+    assertArrayEquals(batchInsertPlanProperty, batchInsertPlanBytesTest);
+
     /** Delete Plan test **/
     byte[] deletePlanBytesTest = PhysicalPlanLogTransfer.operatorToLog(deletePlan);
     Codec<DeletePlan> deletePlanCodec = CodecInstances.deletePlanCodec;
@@ -112,6 +129,19 @@ public class PhysicalPlanLogTransferTest {
         .logToOperator(insertPlanBytesTest);
     assertEquals(insertPlanTest, insertPlan);
 
+    /** BatchInsert Plan test **/
+    byte[] batchInsertPlanBytesTest = PhysicalPlanLogTransfer.operatorToLog(batchInsertPlan);
+    BatchInsertPlan batchInsertPlanTest = (BatchInsertPlan) PhysicalPlanLogTransfer
+        .logToOperator(batchInsertPlanBytesTest);
+    assertEquals(batchInsertPlan, batchInsertPlanTest);
+    assertEquals(batchInsertPlan.subPlan(new int[]{2, 0}, 2),
+        batchInsertPlanTest.subPlan(new int[]{2, 0}, 2));
+    // the logs of the previous format can still be read
+    byte[] untypedBatchInsertPlanBytes = CodecInstances.batchInsertPlanCodec
+        .encode(batchInsertPlan);
+    assertEquals(batchInsertPlan,
+        PhysicalPlanLogTransfer.logToOperator(untypedBatchInsertPlanBytes));
+
     /** Delete Plan test **/
     byte[] deletePlanBytesTest = PhysicalPlanLogTransfer.operatorToLog(deletePlan);
     DeletePlan deletePlanTest = (DeletePlan) PhysicalPlanLogTransfer
@@ -46,15 +46,20 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 import org.apache.iotdb.service.rpc.thrift.ServerProperties;
+import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
+import org.apache.iotdb.service.rpc.thrift.TSCancelOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSGetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
 import org.apache.iotdb.service.rpc.thrift.TSProtocolVersion;
 import org.apache.iotdb.service.rpc.thrift.TSSetTimeZoneReq;
 import org.apache.iotdb.service.rpc.thrift.TSSetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.transport.TSocket;
@@ -87,6 +92,7 @@ public class IoTDBConnection implements Connection {
     params = Utils.parseUrl(url, info);
 
     supportedProtocols.add(TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V1);
+    supportedProtocols.add(TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V2);
 
     openTransport();
     client = new TSIService.Client(new TBinaryProtocol(transport));
@@ -418,13 +424,14 @@ public class IoTDBConnection implements Connection {
   }
 
   private void openSession() throws SQLException {
-    TSOpenSessionReq openReq = new TSOpenSessionReq(TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V1);
-
-    openReq.setUsername(params.getUsername());
-    openReq.setPassword(params.getPassword());
-
     try {
-      TSOpenSessionResp openResp = client.openSession(openReq);
+      TSOpenSessionResp openResp;
+      try {
+        openResp = requestSession(TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V2);
+      } catch (TApplicationException e) {
+        // a server older than V2 can not read the request
+        openResp = requestSession(TSProtocolVersion.TSFILE_SERVICE_PROTOCOL_V1);
+      }
 
       // validate connection
       try {
@@ -453,6 +460,43 @@ public class IoTDBConnection implements Connection {
     isClosed = false;
   }
 
+  private TSOpenSessionResp requestSession(TSProtocolVersion protocolVersion) throws TException {
+    TSOpenSessionReq openReq = new TSOpenSessionReq(protocolVersion);
+    openReq.setUsername(params.getUsername());
+    openReq.setPassword(params.getPassword());
+    return client.openSession(openReq);
+  }
+
+  /**
+   * cancel a query of this connection. The client of this connection is busy while the query is
+   * fetched, so the request is sent by a session of its own.
+   */
+  void cancelOperation(TSOperationHandle operationHandle) throws SQLException {
+    TSocket cancelTransport = new TSocket(params.getHost(), params.getPort(),
+        Config.connectionTimeoutInMs);
+    try {
+      cancelTransport.open();
+      TSIService.Iface cancelClient = new TSIService.Client(new TBinaryProtocol(cancelTransport));
+      TSOpenSessionReq openReq = new TSOpenSessionReq(protocol);
+      openReq.setUsername(params.getUsername());
+      openReq.setPassword(params.getPassword());
+      TSOpenSessionResp openResp = cancelClient.openSession(openReq);
+      Utils.verifySuccess(openResp.getStatus());
+      try {
+        TSCancelOperationResp cancelResp = cancelClient
+            .cancelOperation(new TSCancelOperationReq(operationHandle));
+        Utils.verifySuccess(cancelResp.getStatus());
+      } finally {
+        cancelClient.closeSession(new TSCloseSessionReq(openResp.getSessionHandle()));
+      }
+    } catch (TException e) {
+      throw new SQLException("Error occurs when canceling statement because " + e.getMessage(),
+          e);
+    } finally {
+      cancelTransport.close();
+    }
+  }
+
   public boolean reconnect() {
     boolean flag = false;
     for (int i = 1; i <= Config.RETRY_NUM; i++) {
@@ -498,6 +542,19 @@ public class IoTDBConnection implements Connection {
     return client.getProperties();
   }
 
+  /**
+   * insert a batch of rows of one device in columnar form, see {@link
+   * IoTDBStatement#insertBatch(RowBatch)}.
+   */
+  public void insertBatch(RowBatch rowBatch) throws SQLException {
+    if (isClosed) {
+      throw new SQLException("Cannot insert a batch because connection is closed");
+    }
+    try (IoTDBStatement statement = new IoTDBStatement(this, client, sessionHandle, zoneId)) {
+      statement.insertBatch(rowBatch);
+    }
+  }
+
   public TSProtocolVersion getProtocol() {
     return protocol;
   }
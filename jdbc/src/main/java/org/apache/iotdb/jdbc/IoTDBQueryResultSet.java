@@ -54,6 +54,7 @@ import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowBlock;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.thrift.TException;
 import org.slf4j.LoggerFactory;
@@ -77,6 +78,11 @@ public class IoTDBQueryResultSet implements ResultSet {
   private Map<String, Integer> columnInfoMap;
   private RowRecord record;
   private Iterator<RowRecord> recordItr;
+  /**
+   * the rows fetched in columnar form, whose current row is the current record. Null if the rows
+   * are fetched as RowRecords.
+   */
+  private RowBlock rowBlock;
   private int rowsFetched = 0;
   private int maxRows; // defined in TsfileStatement
   private int fetchSize;
@@ -701,18 +707,27 @@ public class IoTDBQueryResultSet implements ResultSet {
 
   // the next record rule without constraints
   private boolean nextWithoutConstraints() throws SQLException {
-    if ((recordItr == null || !recordItr.hasNext()) && !emptyResultSet) {
+    if (!hasNextInFetchedRows() && !emptyResultSet) {
       TSFetchResultsReq req = new TSFetchResultsReq(sql, fetchSize, queryId);
 
       try {
+        int timeout = statement.getQueryTimeout();
+        if (timeout > 0) {
+          req.setTimeout(timeout * 1000L);
+        }
         TSFetchResultsResp resp = client.fetchResults(req);
         Utils.verifySuccess(resp.getStatus());
         if (!resp.hasResultSet) {
           emptyResultSet = true;
+        } else if (resp.isSetColumnarDataSet()) {
+          // the values are decoded only when they are got
+          rowBlock = Utils.convertRowBlock(resp.getColumnarDataSet());
+          recordItr = null;
         } else {
           TSQueryDataSet tsQueryDataSet = resp.getQueryDataSet();
           List<RowRecord> records = Utils.convertRowRecords(tsQueryDataSet);
           recordItr = records.iterator();
+          rowBlock = null;
         }
       } catch (TException e) {
         throw new SQLException(
@@ -724,10 +739,21 @@ public class IoTDBQueryResultSet implements ResultSet {
       return false;
     }
 
-    record = recordItr.next();
+    if (rowBlock != null) {
+      rowBlock.next();
+    } else {
+      record = recordItr.next();
+    }
     return true;
   }
 
+  private boolean hasNextInFetchedRows() {
+    if (rowBlock != null) {
+      return rowBlock.hasNext();
+    }
+    return recordItr != null && recordItr.hasNext();
+  }
+
   @Override
   // the next record rule considering both the maxRows constraint and the LIMIT&OFFSET constraint
   public boolean next() throws SQLException {
@@ -1214,7 +1240,7 @@ public class IoTDBQueryResultSet implements ResultSet {
   }
 
   private void checkRecord() throws SQLException {
-    if (record == null) {
+    if (record == null && rowBlock == null) {
       throw new SQLException("No record remains");
     }
   }
@@ -1232,6 +1258,9 @@ public class IoTDBQueryResultSet implements ResultSet {
 
   private String getValueByName(String columnName) throws SQLException {
     checkRecord();
+    if (rowBlock != null) {
+      return getValueInRowBlock(columnName);
+    }
     if (columnName.equals(TIMESTAMP_STR)) {
       return String.valueOf(record.getTimestamp());
     }
@@ -1245,4 +1274,12 @@ public class IoTDBQueryResultSet implements ResultSet {
     }
     return null;
   }
+
+  private String getValueInRowBlock(String columnName) {
+    if (columnName.equals(TIMESTAMP_STR)) {
+      return String.valueOf(rowBlock.currentTime());
+    }
+    int column = columnInfoMap.get(columnName) - 2;
+    return rowBlock.isNull(column) ? null : rowBlock.getField(column).getStringValue();
+  }
 }
@@ -30,8 +30,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
-import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
-import org.apache.iotdb.service.rpc.thrift.TSCancelOperationResp;
+import org.apache.iotdb.service.rpc.thrift.TSBatchInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationResp;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementReq;
@@ -44,6 +43,8 @@ import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
 import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
 import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,7 +61,7 @@ public class IoTDBStatement implements Statement {
   private ResultSet resultSet = null;
   private IoTDBConnection connection;
   private int fetchSize = Config.fetchSize;
-  private int queryTimeout = 10;
+  private int queryTimeout = 0;
   private TSIService.Iface client = null;
   private TS_SessionHandle sessionHandle = null;
   private TSOperationHandle operationHandle = null;
@@ -132,14 +133,8 @@ public class IoTDBStatement implements Statement {
     if (isCancelled) {
       return;
     }
-    try {
-      if (operationHandle != null) {
-        TSCancelOperationReq closeReq = new TSCancelOperationReq(operationHandle);
-        TSCancelOperationResp closeResp = client.cancelOperation(closeReq);
-        Utils.verifySuccess(closeResp.getStatus());
-      }
-    } catch (Exception e) {
-      throw new SQLException("Error occurs when canceling statement because " + e.getMessage(), e);
+    if (operationHandle != null) {
+      connection.cancelOperation(operationHandle);
     }
     isCancelled = true;
   }
@@ -318,6 +313,47 @@ public class IoTDBStatement implements Statement {
     }
   }
 
+  /**
+   * insert a batch of rows of one device. The rows are sent in columnar binary form and applied
+   * by the server without parsing any SQL, which is much cheaper than {@link #executeBatch()} for
+   * large batches.
+   *
+   * @param rowBatch the rows to be inserted, only the first batchSize rows are sent
+   */
+  public void insertBatch(RowBatch rowBatch) throws SQLException {
+    checkConnection("insertBatch");
+    isClosed = false;
+    try {
+      insertBatchInternal(rowBatch);
+    } catch (TException e) {
+      boolean flag = connection.reconnect();
+      reInit();
+      if (flag) {
+        try {
+          insertBatchInternal(rowBatch);
+        } catch (TException e2) {
+          throw new SQLException(
+              "Fail to insert a batch after reconnecting. please check server status", e2);
+        }
+      } else {
+        throw new SQLException(
+            "Fail to reconnect to server when inserting a batch. please check server status", e);
+      }
+    }
+  }
+
+  private void insertBatchInternal(RowBatch rowBatch) throws TException, IoTDBSQLException {
+    List<Integer> types = new ArrayList<>(rowBatch.dataTypes.size());
+    for (TSDataType dataType : rowBatch.dataTypes) {
+      types.add((int) dataType.serialize());
+    }
+    TSBatchInsertionReq req = new TSBatchInsertionReq(sessionHandle, rowBatch.deviceId,
+        rowBatch.measurements, types, rowBatch.serializeTimestamps(), rowBatch.serializeValues(),
+        rowBatch.batchSize);
+    TSExecuteBatchStatementResp resp = client.insertBatch(req);
+    Utils.verifySuccess(resp.getStatus());
+  }
+
   @Override
   public ResultSet executeQuery(String sql) throws SQLException {
     checkConnection("execute query");
@@ -18,11 +18,13 @@
  */
 package org.apache.iotdb.jdbc;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSRowRecord;
@@ -31,6 +33,7 @@ import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowBlock;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.utils.Binary;
 
@@ -119,6 +122,23 @@ public class Utils {
     return records;
   }
 
+  /**
+   * wrap a columnar data set as a row block, without decoding any value.
+   *
+   * @param dataSet -columnar data set
+   * @return -row block reading the buffers of the data set
+   */
+  public static RowBlock convertRowBlock(TSColumnarDataSet dataSet) {
+    TSDataType[] types = new TSDataType[dataSet.getTypesSize()];
+    for (int i = 0; i < types.length; i++) {
+      int type = dataSet.getTypes().get(i);
+      types[i] = type < 0 ? null : TSDataType.deserialize((short) type);
+    }
+    return new RowBlock(dataSet.getRowCount(), dataSet.bufferForTimestamps(), types,
+        dataSet.getBitmaps().toArray(new ByteBuffer[0]),
+        dataSet.getValues().toArray(new ByteBuffer[0]));
+  }
+
   /**
    *
    * @param field -the field need to add new data
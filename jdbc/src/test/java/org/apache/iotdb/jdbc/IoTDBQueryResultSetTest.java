@@ -49,6 +49,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -139,6 +140,37 @@ public class IoTDBQueryResultSetTest {
     when(fetchResultsResp.getStatus()).thenReturn(Status_SUCCESS);
   }
 
+  @SuppressWarnings("resource")
+  @Test
+  public void testQueryTimeout() throws Exception {
+    when(execResp.getColumns()).thenReturn(new ArrayList<>());
+    when(execResp.getOperationType()).thenReturn("QUERY");
+    fetchResultsResp.hasResultSet = false;
+
+    statement.setQueryTimeout(5);
+    statement.execute("select s1 from root.vehicle.d0");
+    statement.getResultSet().next();
+
+    ArgumentCaptor<TSFetchResultsReq> fetchReq = ArgumentCaptor.forClass(TSFetchResultsReq.class);
+    verify(client).fetchResults(fetchReq.capture());
+    Assert.assertEquals(5000, fetchReq.getValue().getTimeout());
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void testCancel() throws Exception {
+    // nothing to cancel before a query is executed
+    statement.cancel();
+    verify(connection, times(0)).cancelOperation(any(TSOperationHandle.class));
+
+    when(execResp.getColumns()).thenReturn(new ArrayList<>());
+    when(execResp.getOperationType()).thenReturn("QUERY");
+    statement.execute("select s1 from root.vehicle.d0");
+    statement.cancel();
+    // cancelled by the connection in a session of its own
+    verify(connection).cancelOperation(operationHandle);
+  }
+
   @SuppressWarnings("resource")
   @Test
   public void testQuery() throws Exception {
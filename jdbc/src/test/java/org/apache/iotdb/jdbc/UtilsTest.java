@@ -19,13 +19,16 @@
 package org.apache.iotdb.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import org.apache.iotdb.service.rpc.thrift.TSColumnarDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSRowRecord;
@@ -33,6 +36,7 @@ import org.apache.iotdb.service.rpc.thrift.TS_Status;
 import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowBlock;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.junit.After;
 import org.junit.Before;
@@ -82,6 +86,30 @@ public class UtilsTest {
     fail();
   }
 
+  @Test
+  public void testConvertRowBlock() {
+    // two rows, an INT64 column with a value in the second row only and a column without value
+    ByteBuffer timestamps = ByteBuffer.allocate(2 * Long.BYTES);
+    timestamps.putLong(100L).putLong(200L).flip();
+    ByteBuffer values = ByteBuffer.allocate(Long.BYTES);
+    values.putLong(-9999999999L).flip();
+    TSColumnarDataSet dataSet = new TSColumnarDataSet(2, timestamps,
+        Arrays.asList((int) TSDataType.INT64.serialize(), -1),
+        Arrays.asList(ByteBuffer.wrap(new byte[]{2}), ByteBuffer.wrap(new byte[]{0})),
+        Arrays.asList(values, ByteBuffer.allocate(0)));
+
+    RowBlock block = Utils.convertRowBlock(dataSet);
+    block.next();
+    assertEquals(100L, block.currentTime());
+    assertTrue(block.isNull(0));
+    assertTrue(block.isNull(1));
+    block.next();
+    assertEquals(200L, block.currentTime());
+    assertEquals(-9999999999L, block.getField(0).getLongV());
+    assertTrue(block.isNull(1));
+    assertFalse(block.hasNext());
+  }
+
   @Test
   public void testConvertRowRecords() {
     final int DATA_TYPE_NUM = 6;
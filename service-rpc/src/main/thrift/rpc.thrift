@@ -44,7 +44,8 @@ struct TS_Status {
 
 struct TSHandleIdentifier {
   // 16 byte globally unique identifier This is the public ID of the handle and can be used for reporting.
-  // In current version, it is not used.
+  // In current version, it is only used by queries, whose guid is an 8 byte id by which the query
+  // can be cancelled from any session of the same user.
   1: required binary guid,
 
   // 16 byte secret generated by the server and used to verify that the handle is not being hijacked by another user.
@@ -77,6 +78,8 @@ struct TSExecuteStatementResp {
 
 enum TSProtocolVersion {
   TSFILE_SERVICE_PROTOCOL_V1,
+  // Query results may be fetched in columnar form, see TSColumnarDataSet
+  TSFILE_SERVICE_PROTOCOL_V2,
 }
 
 // Client-side handle to persistent session information on the server-side.
@@ -147,6 +150,29 @@ struct TSExecuteBatchStatementReq{
   2: required list<string> statements
 }
 
+// Insert a batch of rows of one device in columnar form, the rows are not parsed as SQL.
+struct TSBatchInsertionReq {
+  // The session to execute the insertion against
+  1: required TS_SessionHandle sessionHandle
+
+  2: required string deviceId
+
+  3: required list<string> measurements
+
+  // The data type of each measurement, see TSDataType.serialize()
+  4: required list<i32> types
+
+  // size * 8 bytes, one big-endian long per row
+  5: required binary timestamps
+
+  // The value columns one after another, in the order of measurements. A column of a fixed
+  // size type holds one value per row, a TEXT value is its length (i32) followed by its bytes
+  6: required binary values
+
+  // The number of rows
+  7: required i32 size
+}
+
 
 struct TSGetOperationStatusReq {
   // Session to run this request against
@@ -201,16 +227,41 @@ struct TSQueryDataSet{
 	1: required list<TSRowRecord> records
 }
 
+// A block of rows of a query result in columnar form, sent to the clients of
+// TSFILE_SERVICE_PROTOCOL_V2 and later instead of a TSQueryDataSet, unless a column of the
+// block has values of different data types
+struct TSColumnarDataSet{
+  // The number of rows
+  1: required i32 rowCount
+
+  // rowCount * 8 bytes, one big-endian long per row
+  2: required binary timestamps
+
+  // The data type of each column, see TSDataType.serialize(), -1 if the column has no value
+  3: required list<i32> types
+
+  // One bitmap of (rowCount + 7) / 8 bytes per column, the (i % 8)-th lowest bit of the
+  // (i / 8)-th byte is set if the i-th row has a value in the column
+  4: required list<binary> bitmaps
+
+  // The values of each column one after another, only rows having a value are included. A
+  // TEXT value is its length (i32) followed by its bytes, a BOOLEAN value is one byte
+  5: required list<binary> values
+}
+
 struct TSFetchResultsReq{
 	1: required string statement
 	2: required i32 fetch_size
 	3: required i64 queryId
+	// Max time in ms the server may spend on this fetch, no limit if not set
+	4: optional i64 timeout
 }
 
 struct TSFetchResultsResp{
 	1: required TS_Status status
 	2: required bool hasResultSet
 	3: optional TSQueryDataSet queryDataSet
+	4: optional TSColumnarDataSet columnarDataSet
 }
 
 struct TSFetchMetadataResp{
@@ -261,6 +312,8 @@ service TSIService {
 
 	TSExecuteBatchStatementResp executeBatchStatement(1:TSExecuteBatchStatementReq req);
 
+	TSExecuteBatchStatementResp insertBatch(1:TSBatchInsertionReq req);
+
 	TSExecuteStatementResp executeQueryStatement(1:TSExecuteStatementReq req);
 
 	TSExecuteStatementResp executeUpdateStatement(1:TSExecuteStatementReq req);
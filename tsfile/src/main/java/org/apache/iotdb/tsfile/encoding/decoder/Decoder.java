@@ -130,6 +130,82 @@ public abstract class Decoder {
     throw new TsFileDecodingException("Method readBigDecimal is not supproted by Decoder");
   }
 
+  /**
+   * read at most length values into values[offset, offset + length), stopping early when the
+   * buffer has no more values. Decoders that can decode a whole block at once override these
+   * methods, the default ones read the values one by one.
+   *
+   * @return the number of values read
+   */
+  public int readBooleans(ByteBuffer buffer, boolean[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readBoolean(buffer);
+    }
+    return read;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readInt(buffer);
+    }
+    return read;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readLong(buffer);
+    }
+    return read;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readFloat(buffer);
+    }
+    return read;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readDouble(buffer);
+    }
+    return read;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readBinaries(ByteBuffer buffer, Binary[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      values[offset + read++] = readBinary(buffer);
+    }
+    return read;
+  }
+
   public abstract boolean hasNext(ByteBuffer buffer) throws IOException;
 
   public abstract void reset();
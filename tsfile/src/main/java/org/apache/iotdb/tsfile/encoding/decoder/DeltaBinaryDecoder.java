@@ -114,6 +114,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) {
+      int read = 0;
+      while (read < length) {
+        if (nextReadIndex < readIntTotalCount) {
+          // copy the rest of the decoded pack at once
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        } else if (buffer.hasRemaining()) {
+          values[offset + read++] = loadIntBatch(buffer);
+        } else {
+          break;
+        }
+      }
+      return read;
+    }
+
     /**
      * if remaining data has been run out, load next pack from InputStream.
      *
@@ -231,6 +250,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) {
+      int read = 0;
+      while (read < length) {
+        if (nextReadIndex < readIntTotalCount) {
+          // copy the rest of the decoded pack at once
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        } else if (buffer.hasRemaining()) {
+          values[offset + read++] = loadIntBatch(buffer);
+        } else {
+          break;
+        }
+      }
+      return read;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
@@ -22,6 +22,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -117,6 +118,54 @@ public class PlainDecoder extends Decoder {
     return new Binary(buf);
   }
 
+  @Override
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int length)
+      throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readInts(buffer, values, offset, length);
+    }
+    int read = Math.min(length, buffer.remaining() / Integer.BYTES);
+    littleEndianView(buffer).asIntBuffer().get(values, offset, read);
+    buffer.position(buffer.position() + read * Integer.BYTES);
+    return read;
+  }
+
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) {
+    int read = Math.min(length, buffer.remaining() / Long.BYTES);
+    littleEndianView(buffer).asLongBuffer().get(values, offset, read);
+    buffer.position(buffer.position() + read * Long.BYTES);
+    return read;
+  }
+
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int length)
+      throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readFloats(buffer, values, offset, length);
+    }
+    int read = Math.min(length, buffer.remaining() / Float.BYTES);
+    littleEndianView(buffer).asFloatBuffer().get(values, offset, read);
+    buffer.position(buffer.position() + read * Float.BYTES);
+    return read;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length) {
+    int read = Math.min(length, buffer.remaining() / Double.BYTES);
+    littleEndianView(buffer).asDoubleBuffer().get(values, offset, read);
+    buffer.position(buffer.position() + read * Double.BYTES);
+    return read;
+  }
+
+  /**
+   * readLong() and readDouble() always decode little endian values, so the batch versions do as
+   * well regardless of endianType.
+   */
+  private ByteBuffer littleEndianView(ByteBuffer buffer) {
+    return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
   @Override
   public boolean hasNext(ByteBuffer buffer) throws IOException {
     return buffer.remaining() > 0;
@@ -23,7 +23,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
 import org.apache.iotdb.tsfile.exception.write.UnknownColumnTypeException;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -93,6 +96,47 @@ public abstract class Statistics<T> {
     return statistics;
   }
 
+  /**
+   * build the statistics of a chunk from the statistics map of its digest.
+   *
+   * @return null if the digest does not carry all the statistics
+   */
+  public static Statistics deserialize(TsDigest digest, TSDataType dataType) throws IOException {
+    Map<String, ByteBuffer> statisticsMap = digest == null ? null : digest.getStatistics();
+    if (statisticsMap == null) {
+      return null;
+    }
+    Statistics statistics = getStatsByType(dataType);
+    // the same order as serialize()
+    String[] names = {StatisticConstant.MIN_VALUE, StatisticConstant.MAX_VALUE,
+        StatisticConstant.FIRST, StatisticConstant.LAST};
+    ByteBuffer[] values = new ByteBuffer[names.length];
+    int size = 0;
+    for (int i = 0; i < names.length; i++) {
+      values[i] = statisticsMap.get(names[i]);
+      if (values[i] == null) {
+        return null;
+      }
+      size += values[i].remaining() + (statistics.sizeOfDatum() == -1 ? Integer.BYTES : 0);
+    }
+    ByteBuffer sum = statisticsMap.get(StatisticConstant.SUM);
+    if (sum == null) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size + sum.remaining());
+    for (ByteBuffer value : values) {
+      if (statistics.sizeOfDatum() == -1) {
+        buffer.putInt(value.remaining());
+      }
+      buffer.put(value.duplicate());
+    }
+    buffer.put(sum.duplicate());
+    buffer.flip();
+    statistics.fill(buffer);
+    statistics.isEmpty = false;
+    return statistics;
+  }
+
   public abstract void setMinMaxFromBytes(byte[] minBytes, byte[] maxBytes);
 
   public abstract T getMin();
@@ -93,6 +93,24 @@ public class TsFileSequenceReader implements AutoCloseable{
     }
   }
 
+  /**
+   * Create a file reader of the given file reading through the given input, e.g. a {@link
+   * org.apache.iotdb.tsfile.read.reader.MmapTsFileInput}.
+   *
+   * @param file the data file, which names the reader
+   * @param input the input of the file
+   */
+  public TsFileSequenceReader(String file, TsFileInput input) throws IOException {
+    this.file = file;
+    this.tsFileInput = input;
+    try {
+      loadMetadataSize();
+    } catch (Throwable e) {
+      tsFileInput.close();
+      throw e;
+    }
+  }
+
   /**
    * Create a file reader of the given file. The reader will read the tail of the file to get the
    * file metadata size.Then the reader will skip the first TSFileConfig.MAGIC_STRING.length() bytes
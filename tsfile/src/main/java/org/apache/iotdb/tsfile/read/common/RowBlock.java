@@ -0,0 +1,283 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.common;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * RowBlock holds a block of rows of a query result in columnar binary form: a timestamp column,
+ * and for each value column a null bitmap and the non-null values packed one after another. A
+ * TEXT value is written as its length followed by its bytes, a BOOLEAN value as one byte. All
+ * values of a column are of one data type, and a column without any value has no data type.<br>
+ * A block is built from RowRecords by {@link #fromRecords(List, int)}, and is read row by row by
+ * {@link #next()}, a value being decoded only when it is asked for.
+ */
+public class RowBlock {
+
+  private int rowCount;
+  private ByteBuffer timestamps;
+  private TSDataType[] types;
+  private ByteBuffer[] bitmaps;
+  private ByteBuffer[] values;
+
+  /**
+   * index of the current row, -1 before the first call of next().
+   */
+  private int rowIndex = -1;
+  /**
+   * offset of the value of the current row in each value column, meaningless if the value is
+   * null.
+   */
+  private int[] valueOffsets;
+
+  /**
+   * The buffers are read from their current positions on.
+   *
+   * @param types the data type of each column, null if the column has no value
+   */
+  public RowBlock(int rowCount, ByteBuffer timestamps, TSDataType[] types, ByteBuffer[] bitmaps,
+      ByteBuffer[] values) {
+    this.rowCount = rowCount;
+    this.timestamps = timestamps.slice();
+    this.types = types;
+    this.bitmaps = new ByteBuffer[types.length];
+    this.values = new ByteBuffer[types.length];
+    for (int i = 0; i < types.length; i++) {
+      this.bitmaps[i] = bitmaps[i].slice();
+      this.values[i] = values[i].slice();
+    }
+    this.valueOffsets = new int[types.length];
+  }
+
+  /**
+   * build a block of the given rows, each having columnNum fields.
+   *
+   * @return null if a column has values of different data types
+   */
+  public static RowBlock fromRecords(List<RowRecord> records, int columnNum) {
+    TSDataType[] types = new TSDataType[columnNum];
+    int[] valueSizes = new int[columnNum];
+    for (RowRecord record : records) {
+      List<Field> fields = record.getFields();
+      for (int i = 0; i < columnNum; i++) {
+        Field field = fields.get(i);
+        if (isNull(field)) {
+          continue;
+        }
+        if (types[i] == null) {
+          types[i] = field.getDataType();
+        } else if (types[i] != field.getDataType()) {
+          return null;
+        }
+        valueSizes[i] += getSerializedSize(field);
+      }
+    }
+
+    int rowCount = records.size();
+    ByteBuffer timestamps = ByteBuffer.allocate(rowCount * Long.BYTES);
+    ByteBuffer[] bitmaps = new ByteBuffer[columnNum];
+    ByteBuffer[] values = new ByteBuffer[columnNum];
+    for (int i = 0; i < columnNum; i++) {
+      bitmaps[i] = ByteBuffer.allocate((rowCount + 7) / 8);
+      values[i] = ByteBuffer.allocate(valueSizes[i]);
+    }
+    for (int row = 0; row < rowCount; row++) {
+      RowRecord record = records.get(row);
+      timestamps.putLong(record.getTimestamp());
+      List<Field> fields = record.getFields();
+      for (int i = 0; i < columnNum; i++) {
+        Field field = fields.get(i);
+        if (!isNull(field)) {
+          bitmaps[i].put(row / 8, (byte) (bitmaps[i].get(row / 8) | (1 << (row % 8))));
+          serializeValue(values[i], field);
+        }
+      }
+    }
+    timestamps.flip();
+    for (int i = 0; i < columnNum; i++) {
+      values[i].flip();
+    }
+    return new RowBlock(rowCount, timestamps, types, bitmaps, values);
+  }
+
+  private static boolean isNull(Field field) {
+    return field == null || field.isNull() || field.getDataType() == null;
+  }
+
+  private static int getSerializedSize(Field field) {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return 4;
+      case INT64:
+      case DOUBLE:
+        return 8;
+      case TEXT:
+        return Integer.BYTES + field.getBinaryV().getLength();
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(field.getDataType()));
+    }
+  }
+
+  private static void serializeValue(ByteBuffer buffer, Field field) {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        buffer.put(field.getBoolV() ? (byte) 1 : (byte) 0);
+        break;
+      case INT32:
+        buffer.putInt(field.getIntV());
+        break;
+      case INT64:
+        buffer.putLong(field.getLongV());
+        break;
+      case FLOAT:
+        buffer.putFloat(field.getFloatV());
+        break;
+      case DOUBLE:
+        buffer.putDouble(field.getDoubleV());
+        break;
+      case TEXT:
+        buffer.putInt(field.getBinaryV().getLength());
+        buffer.put(field.getBinaryV().getValues());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(field.getDataType()));
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public ByteBuffer getTimestamps() {
+    return timestamps;
+  }
+
+  public TSDataType[] getTypes() {
+    return types;
+  }
+
+  public ByteBuffer[] getBitmaps() {
+    return bitmaps;
+  }
+
+  public ByteBuffer[] getValues() {
+    return values;
+  }
+
+  public boolean hasNext() {
+    return rowIndex + 1 < rowCount;
+  }
+
+  /**
+   * move to the next row, skipping the values of the current row.
+   */
+  public void next() {
+    if (rowIndex >= 0) {
+      for (int i = 0; i < types.length; i++) {
+        if (!isNull(i)) {
+          valueOffsets[i] += getValueSize(i);
+        }
+      }
+    }
+    rowIndex++;
+  }
+
+  public long currentTime() {
+    return timestamps.getLong(rowIndex * Long.BYTES);
+  }
+
+  /**
+   * @return whether the given column of the current row has no value
+   */
+  public boolean isNull(int column) {
+    return (bitmaps[column].get(rowIndex / 8) & (1 << (rowIndex % 8))) == 0;
+  }
+
+  /**
+   * @return the data type of the given column, null if the column has no value in this block
+   */
+  public TSDataType getDataType(int column) {
+    return types[column];
+  }
+
+  /**
+   * decode the value of the given column of the current row as a field.
+   */
+  public Field getField(int column) {
+    if (isNull(column)) {
+      Field field = new Field(null);
+      field.setNull();
+      return field;
+    }
+    ByteBuffer buffer = values[column];
+    int offset = valueOffsets[column];
+    Field field = new Field(types[column]);
+    switch (types[column]) {
+      case BOOLEAN:
+        field.setBoolV(buffer.get(offset) == 1);
+        break;
+      case INT32:
+        field.setIntV(buffer.getInt(offset));
+        break;
+      case INT64:
+        field.setLongV(buffer.getLong(offset));
+        break;
+      case FLOAT:
+        field.setFloatV(buffer.getFloat(offset));
+        break;
+      case DOUBLE:
+        field.setDoubleV(buffer.getDouble(offset));
+        break;
+      case TEXT:
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset + Integer.BYTES);
+        duplicate.get(bytes);
+        field.setBinaryV(new Binary(bytes));
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(types[column]));
+    }
+    return field;
+  }
+
+  private int getValueSize(int column) {
+    switch (types[column]) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return 4;
+      case INT64:
+      case DOUBLE:
+        return 8;
+      case TEXT:
+        return Integer.BYTES + values[column].getInt(valueOffsets[column]);
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(types[column]));
+    }
+  }
+}
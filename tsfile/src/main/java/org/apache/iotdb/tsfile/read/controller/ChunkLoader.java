@@ -29,6 +29,14 @@ public interface ChunkLoader {
    */
   Chunk getChunk(ChunkMetaData chunkMetaData) throws IOException;
 
+  /**
+   * hint that the chunk will be got next, so that it can be read ahead while the current chunk is
+   * being decoded. A loader reading synchronously ignores it.
+   */
+  default void prefetch(ChunkMetaData chunkMetaData) {
+    // read on demand by default
+  }
+
   /**
    * close the file reader.
    */
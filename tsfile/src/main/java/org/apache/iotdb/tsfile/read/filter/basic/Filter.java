@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.filter.basic;
 
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Filter is a top level filter abstraction.
@@ -61,4 +62,78 @@ public interface Filter {
    * @param endTime end time of a partition
    */
   boolean containStartEndTime(long startTime, long endTime);
+
+  /**
+   * To examine the points [0, size) of a batch in one call. A point is kept selected only if it
+   * is selected and satisfies the filter, points not selected are skipped. Filters override these
+   * methods with tight loops on primitives, the default ones examine the points one by one by
+   * satisfy(long, Object), which boxes every value.
+   *
+   * @param times times of the points
+   * @param values values of the points
+   * @param size number of the points
+   * @param selection whether each point is selected, updated in place
+   */
+  default void satisfyBooleans(long[] times, boolean[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @see #satisfyBooleans(long[], boolean[], int, boolean[])
+   */
+  default void satisfyInts(long[] times, int[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @see #satisfyBooleans(long[], boolean[], int, boolean[])
+   */
+  default void satisfyLongs(long[] times, long[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @see #satisfyBooleans(long[], boolean[], int, boolean[])
+   */
+  default void satisfyFloats(long[] times, float[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @see #satisfyBooleans(long[], boolean[], int, boolean[])
+   */
+  default void satisfyDoubles(long[] times, double[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @see #satisfyBooleans(long[], boolean[], int, boolean[])
+   */
+  default void satisfyBinaries(long[] times, Binary[] values, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfy(times[i], values[i]);
+      }
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.filter.basic;
 
 import java.io.Serializable;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Definition for unary filter operations.
@@ -47,6 +48,122 @@ public abstract class UnaryFilter<T extends Comparable<T>> implements Filter, Se
     return filterType;
   }
 
+  /**
+   * whether a point satisfies the filter by the result of comparing the point with the value of
+   * the filter, e.g., a positive result means the point is greater than the value.
+   */
+  protected abstract boolean satisfyCompareResult(int compareResult);
+
+  /**
+   * examine the times of the points if this is a time filter.
+   *
+   * @return false if this is not a time filter on a long value, then the points are not examined
+   */
+  private boolean satisfyTimes(long[] times, int size, boolean[] selection) {
+    if (filterType != FilterType.TIME_FILTER || !(value instanceof Long)) {
+      return false;
+    }
+    long bound = (Long) value;
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        selection[i] = satisfyCompareResult(Long.compare(times[i], bound));
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void satisfyBooleans(long[] times, boolean[] values, int size, boolean[] selection) {
+    if (satisfyTimes(times, size, selection)) {
+      return;
+    }
+    if (value instanceof Boolean) {
+      boolean bound = (Boolean) value;
+      for (int i = 0; i < size; i++) {
+        if (selection[i]) {
+          selection[i] = satisfyCompareResult(Boolean.compare(values[i], bound));
+        }
+      }
+    } else {
+      Filter.super.satisfyBooleans(times, values, size, selection);
+    }
+  }
+
+  @Override
+  public void satisfyInts(long[] times, int[] values, int size, boolean[] selection) {
+    if (satisfyTimes(times, size, selection)) {
+      return;
+    }
+    if (value instanceof Integer) {
+      int bound = (Integer) value;
+      for (int i = 0; i < size; i++) {
+        if (selection[i]) {
+          selection[i] = satisfyCompareResult(Integer.compare(values[i], bound));
+        }
+      }
+    } else {
+      Filter.super.satisfyInts(times, values, size, selection);
+    }
+  }
+
+  @Override
+  public void satisfyLongs(long[] times, long[] values, int size, boolean[] selection) {
+    if (satisfyTimes(times, size, selection)) {
+      return;
+    }
+    if (value instanceof Long) {
+      long bound = (Long) value;
+      for (int i = 0; i < size; i++) {
+        if (selection[i]) {
+          selection[i] = satisfyCompareResult(Long.compare(values[i], bound));
+        }
+      }
+    } else {
+      Filter.super.satisfyLongs(times, values, size, selection);
+    }
+  }
+
+  @Override
+  public void satisfyFloats(long[] times, float[] values, int size, boolean[] selection) {
+    if (satisfyTimes(times, size, selection)) {
+      return;
+    }
+    if (value instanceof Float) {
+      float bound = (Float) value;
+      for (int i = 0; i < size; i++) {
+        if (selection[i]) {
+          selection[i] = satisfyCompareResult(Float.compare(values[i], bound));
+        }
+      }
+    } else {
+      Filter.super.satisfyFloats(times, values, size, selection);
+    }
+  }
+
+  @Override
+  public void satisfyDoubles(long[] times, double[] values, int size, boolean[] selection) {
+    if (satisfyTimes(times, size, selection)) {
+      return;
+    }
+    if (value instanceof Double) {
+      double bound = (Double) value;
+      for (int i = 0; i < size; i++) {
+        if (selection[i]) {
+          selection[i] = satisfyCompareResult(Double.compare(values[i], bound));
+        }
+      }
+    } else {
+      Filter.super.satisfyDoubles(times, values, size, selection);
+    }
+  }
+
+  @Override
+  public void satisfyBinaries(long[] times, Binary[] values, int size, boolean[] selection) {
+    if (!satisfyTimes(times, size, selection)) {
+      Filter.super.satisfyBinaries(times, values, size, selection);
+    }
+  }
+
   @Override
   public abstract String toString();
 }
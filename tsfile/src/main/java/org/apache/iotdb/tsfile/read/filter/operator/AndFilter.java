@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.read.filter.operator;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Both the left and right operators of AndExpression must satisfy the condition.
@@ -55,6 +56,42 @@ public class AndFilter extends BinaryFilter {
         .containStartEndTime(startTime, endTime);
   }
 
+  @Override
+  public void satisfyBooleans(long[] times, boolean[] values, int size, boolean[] selection) {
+    left.satisfyBooleans(times, values, size, selection);
+    right.satisfyBooleans(times, values, size, selection);
+  }
+
+  @Override
+  public void satisfyInts(long[] times, int[] values, int size, boolean[] selection) {
+    left.satisfyInts(times, values, size, selection);
+    right.satisfyInts(times, values, size, selection);
+  }
+
+  @Override
+  public void satisfyLongs(long[] times, long[] values, int size, boolean[] selection) {
+    left.satisfyLongs(times, values, size, selection);
+    right.satisfyLongs(times, values, size, selection);
+  }
+
+  @Override
+  public void satisfyFloats(long[] times, float[] values, int size, boolean[] selection) {
+    left.satisfyFloats(times, values, size, selection);
+    right.satisfyFloats(times, values, size, selection);
+  }
+
+  @Override
+  public void satisfyDoubles(long[] times, double[] values, int size, boolean[] selection) {
+    left.satisfyDoubles(times, values, size, selection);
+    right.satisfyDoubles(times, values, size, selection);
+  }
+
+  @Override
+  public void satisfyBinaries(long[] times, Binary[] values, int size, boolean[] selection) {
+    left.satisfyBinaries(times, values, size, selection);
+    right.satisfyBinaries(times, values, size, selection);
+  }
+
   @Override
   public String toString() {
     return "(" + left + " && " + right + ")";
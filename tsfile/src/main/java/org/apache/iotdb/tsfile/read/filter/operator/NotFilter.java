@@ -19,8 +19,11 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * NotFilter necessary. Use InvertExpressionVisitor
@@ -62,6 +65,47 @@ public class NotFilter implements Filter, Serializable {
     return this.that;
   }
 
+  @Override
+  public void satisfyBooleans(long[] times, boolean[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyBooleans(times, values, size, thatSelection));
+  }
+
+  @Override
+  public void satisfyInts(long[] times, int[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyInts(times, values, size, thatSelection));
+  }
+
+  @Override
+  public void satisfyLongs(long[] times, long[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyLongs(times, values, size, thatSelection));
+  }
+
+  @Override
+  public void satisfyFloats(long[] times, float[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyFloats(times, values, size, thatSelection));
+  }
+
+  @Override
+  public void satisfyDoubles(long[] times, double[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyDoubles(times, values, size, thatSelection));
+  }
+
+  @Override
+  public void satisfyBinaries(long[] times, Binary[] values, int size, boolean[] selection) {
+    not(selection, size, thatSelection -> that.satisfyBinaries(times, values, size, thatSelection));
+  }
+
+  /**
+   * a point stays selected if it is selected and does not satisfy the inner filter.
+   */
+  private void not(boolean[] selection, int size, Consumer<boolean[]> thatFilter) {
+    boolean[] thatSelection = Arrays.copyOf(selection, size);
+    thatFilter.accept(thatSelection);
+    for (int i = 0; i < size; i++) {
+      selection[i] = selection[i] && !thatSelection[i];
+    }
+  }
+
   @Override
   public String toString() {
     return "NotFilter: " + that;
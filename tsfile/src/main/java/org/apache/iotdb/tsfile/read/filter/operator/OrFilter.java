@@ -19,9 +19,12 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Either of the left and right operators of AndExpression must satisfy the condition.
@@ -61,4 +64,57 @@ public class OrFilter extends BinaryFilter implements Serializable {
         .containStartEndTime(startTime, endTime);
   }
 
+  @Override
+  public void satisfyBooleans(long[] times, boolean[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyBooleans(times, values, size, leftSelection),
+        rightSelection -> right.satisfyBooleans(times, values, size, rightSelection));
+  }
+
+  @Override
+  public void satisfyInts(long[] times, int[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyInts(times, values, size, leftSelection),
+        rightSelection -> right.satisfyInts(times, values, size, rightSelection));
+  }
+
+  @Override
+  public void satisfyLongs(long[] times, long[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyLongs(times, values, size, leftSelection),
+        rightSelection -> right.satisfyLongs(times, values, size, rightSelection));
+  }
+
+  @Override
+  public void satisfyFloats(long[] times, float[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyFloats(times, values, size, leftSelection),
+        rightSelection -> right.satisfyFloats(times, values, size, rightSelection));
+  }
+
+  @Override
+  public void satisfyDoubles(long[] times, double[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyDoubles(times, values, size, leftSelection),
+        rightSelection -> right.satisfyDoubles(times, values, size, rightSelection));
+  }
+
+  @Override
+  public void satisfyBinaries(long[] times, Binary[] values, int size, boolean[] selection) {
+    or(selection, size, leftSelection -> left.satisfyBinaries(times, values, size, leftSelection),
+        rightSelection -> right.satisfyBinaries(times, values, size, rightSelection));
+  }
+
+  /**
+   * a point stays selected if it satisfies the left filter, or else the right one, which only
+   * examines the points not satisfying the left filter.
+   */
+  private void or(boolean[] selection, int size, Consumer<boolean[]> leftFilter,
+      Consumer<boolean[]> rightFilter) {
+    boolean[] leftSelection = Arrays.copyOf(selection, size);
+    leftFilter.accept(leftSelection);
+    boolean[] rightSelection = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      rightSelection[i] = selection[i] && !leftSelection[i];
+    }
+    rightFilter.accept(rightSelection);
+    for (int i = 0; i < size; i++) {
+      selection[i] = leftSelection[i] || rightSelection[i];
+    }
+  }
 }
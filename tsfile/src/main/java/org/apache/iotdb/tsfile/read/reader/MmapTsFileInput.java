@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import sun.reflect.generics.reflectiveObjects.NotImplementedException;
+
+/**
+ * A TsFileInput that maps a sealed file into memory read-only, so that positional reads copy from
+ * the page cache instead of issuing a system call each. The file must not be modified while it is
+ * mapped. The sequential reads and streams still go through the file channel. The mapping is
+ * released when the input is closed, and reads after that fail instead of touching the unmapped
+ * memory.
+ */
+public class MmapTsFileInput implements TsFileInput {
+
+  /**
+   * max size of one mapped region, a file larger than it is mapped in several regions.
+   */
+  static final int MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+  private FileChannel channel;
+  private long size;
+  private MappedByteBuffer[] regions;
+  private int regionSize;
+
+  /**
+   * reads hold the read lock so that close() does not unmap the regions under them.
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+
+  public MmapTsFileInput(Path file) throws IOException {
+    this(file, MAX_REGION_SIZE);
+  }
+
+  MmapTsFileInput(Path file, int regionSize) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      size = channel.size();
+      this.regionSize = regionSize;
+      int regionNum = (int) ((size + regionSize - 1) / regionSize);
+      regions = new MappedByteBuffer[regionNum];
+      for (int i = 0; i < regionNum; i++) {
+        long start = (long) i * regionSize;
+        regions[i] = channel.map(MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+      }
+    } catch (IOException e) {
+      unmapAll();
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public long size() throws IOException {
+    return size;
+  }
+
+  @Override
+  public long position() throws IOException {
+    return channel.position();
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) throws IOException {
+    channel.position(newPosition);
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    long position = channel.position();
+    int readSize = read(dst, position);
+    if (readSize > 0) {
+      channel.position(position + readSize);
+    }
+    return readSize;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position < 0) {
+      throw new IllegalArgumentException("Negative position " + position);
+    }
+    lock.readLock().lock();
+    try {
+      if (closed) {
+        throw new ClosedChannelException();
+      }
+      if (position >= size) {
+        return -1;
+      }
+      int readSize = 0;
+      while (dst.hasRemaining() && position < size) {
+        ByteBuffer region = regions[(int) (position / regionSize)].duplicate();
+        int offset = (int) (position % regionSize);
+        int length = Math.min(dst.remaining(), region.limit() - offset);
+        region.position(offset);
+        region.limit(offset + length);
+        dst.put(region);
+        position += length;
+        readSize += length;
+      }
+      return readSize;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    throw new NotImplementedException();
+  }
+
+  @Override
+  public FileChannel wrapAsFileChannel() throws IOException {
+    return channel;
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() throws IOException {
+    return Channels.newInputStream(channel);
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      unmapAll();
+      channel.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    throw new NotImplementedException();
+  }
+
+  private void unmapAll() throws IOException {
+    if (regions == null) {
+      return;
+    }
+    for (int i = 0; i < regions.length; i++) {
+      if (regions[i] != null) {
+        unmap(regions[i]);
+        regions[i] = null;
+      }
+    }
+  }
+
+  /**
+   * release a mapped buffer now rather than when it is garbage collected.
+   */
+  private static void unmap(MappedByteBuffer buffer) throws IOException {
+    try {
+      String[] javaVersionElements = System.getProperty("java.version").split("\\.");
+      if ("1".equals(javaVersionElements[0])) {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      } else {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafeField = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafeField.setAccessible(true);
+        Object theUnsafe = theUnsafeField.get(null);
+        unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe, buffer);
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Can not unmap the file buffer", e);
+    }
+  }
+}
@@ -126,6 +126,14 @@ public abstract class ChunkReader {
     return pageHeader;
   }
 
+  /**
+   * judge if some data of the page given by nextPageHeader() is deleted, in which case the
+   * statistics in its header do not match its data.
+   */
+  public boolean isPageDataDeleted() {
+    return pageHeader.getMinTimestamp() <= deletedAt;
+  }
+
   public void skipPageData() {
     skipBytesInStreamByLength(pageHeader.getCompressedSize());
     hasCachedPageHeader = false;
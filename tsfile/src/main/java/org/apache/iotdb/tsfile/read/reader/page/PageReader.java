@@ -30,6 +30,11 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 public class PageReader {
 
+  /**
+   * number of points decoded and filtered at a time.
+   */
+  private static final int DECODE_BATCH_SIZE = 1024;
+
   private TSDataType dataType;
 
   /** decoder for value column */
@@ -89,12 +94,7 @@ public class PageReader {
    * may return an empty BatchData
    */
   public BatchData nextBatch() throws IOException {
-    if (filter == null) {
-      data = getAllPageData();
-    } else {
-      data = getAllPageDataWithFilter();
-    }
-
+    data = getAllPageData();
     return data;
   }
 
@@ -102,141 +102,127 @@ public class PageReader {
     return data;
   }
 
+  /**
+   * decode the page DECODE_BATCH_SIZE points at a time into primitive arrays, and select the
+   * points not deleted and satisfying the filter in tight loops over the arrays.
+   */
   private BatchData getAllPageData() throws IOException {
-
     BatchData pageData = new BatchData(dataType, true);
-
-    while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
-      switch (dataType) {
-        case BOOLEAN:
-          boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBoolean(aBoolean);
+    long[] times = new long[DECODE_BATCH_SIZE];
+    boolean[] selection = new boolean[DECODE_BATCH_SIZE];
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readBooleans(valueBuffer, booleans, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyBooleans(times, booleans, size, selection);
           }
-          break;
-        case INT32:
-          int anInt = valueDecoder.readInt(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putInt(anInt);
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putBoolean(booleans[i]);
+            }
           }
-          break;
-        case INT64:
-          long aLong = valueDecoder.readLong(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putLong(aLong);
+        }
+        break;
+      case INT32:
+        int[] ints = new int[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readInts(valueBuffer, ints, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyInts(times, ints, size, selection);
           }
-          break;
-        case FLOAT:
-          float aFloat = valueDecoder.readFloat(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putFloat(aFloat);
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putInt(ints[i]);
+            }
           }
-          break;
-        case DOUBLE:
-          double aDouble = valueDecoder.readDouble(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putDouble(aDouble);
+        }
+        break;
+      case INT64:
+        long[] longs = new long[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readLongs(valueBuffer, longs, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyLongs(times, longs, size, selection);
           }
-          break;
-        case TEXT:
-          Binary aBinary = valueDecoder.readBinary(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBinary(aBinary);
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putLong(longs[i]);
+            }
           }
-          break;
-        default:
-          throw new UnSupportedDataTypeException(String.valueOf(dataType));
-      }
-    }
-    return pageData;
-  }
-
-  private BatchData getAllPageDataWithFilter() throws IOException {
-    BatchData pageData = new BatchData(dataType, true);
-
-    while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
-      switch (dataType) {
-        case BOOLEAN:
-          readBoolean(pageData, timestamp);
-          break;
-        case INT32:
-          readInt(pageData, timestamp);
-          break;
-        case INT64:
-          readLong(pageData, timestamp);
-          break;
-        case FLOAT:
-          readFloat(pageData, timestamp);
-          break;
-        case DOUBLE:
-          readDouble(pageData, timestamp);
-          break;
-        case TEXT:
-          readText(pageData, timestamp);
-          break;
-        default:
-          throw new UnSupportedDataTypeException(String.valueOf(dataType));
-      }
+        }
+        break;
+      case FLOAT:
+        float[] floats = new float[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readFloats(valueBuffer, floats, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyFloats(times, floats, size, selection);
+          }
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putFloat(floats[i]);
+            }
+          }
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = new double[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readDoubles(valueBuffer, doubles, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyDoubles(times, doubles, size, selection);
+          }
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putDouble(doubles[i]);
+            }
+          }
+        }
+        break;
+      case TEXT:
+        Binary[] binaries = new Binary[DECODE_BATCH_SIZE];
+        for (int size = nextTimes(times); size > 0; size = nextTimes(times)) {
+          size = valueDecoder.readBinaries(valueBuffer, binaries, 0, size);
+          select(times, size, selection);
+          if (filter != null) {
+            filter.satisfyBinaries(times, binaries, size, selection);
+          }
+          for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+              pageData.putTime(times[i]);
+              pageData.putBinary(binaries[i]);
+            }
+          }
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
-
     return pageData;
   }
 
-  private void readBoolean(BatchData pageData, long timestamp) {
-    boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBoolean)) {
-      pageData.putTime(timestamp);
-      pageData.putBoolean(aBoolean);
-    }
-  }
-
-  private void readInt(BatchData pageData, long timestamp) {
-    int anInt = valueDecoder.readInt(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, anInt)) {
-      pageData.putTime(timestamp);
-      pageData.putInt(anInt);
-    }
+  private int nextTimes(long[] times) throws IOException {
+    return timeDecoder.readLongs(timeBuffer, times, 0, times.length);
   }
 
-  private void readLong(BatchData pageData, long timestamp) {
-    long aLong = valueDecoder.readLong(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aLong)) {
-      pageData.putTime(timestamp);
-      pageData.putLong(aLong);
-    }
-  }
-
-  private void readFloat(BatchData pageData, long timestamp) {
-    float aFloat = valueDecoder.readFloat(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aFloat)) {
-      pageData.putTime(timestamp);
-      pageData.putFloat(aFloat);
-    }
-  }
-
-  private void readDouble(BatchData pageData, long timestamp) {
-    double aDouble = valueDecoder.readDouble(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aDouble)) {
-      pageData.putTime(timestamp);
-      pageData.putDouble(aDouble);
-    }
-  }
-
-  private void readText(BatchData pageData, long timestamp) {
-    Binary aBinary = valueDecoder.readBinary(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBinary)) {
-      pageData.putTime(timestamp);
-      pageData.putBinary(aBinary);
+  /**
+   * select the points not deleted.
+   */
+  private void select(long[] times, int size, boolean[] selection) {
+    for (int i = 0; i < size; i++) {
+      selection[i] = times[i] > deletedAt;
     }
   }
 
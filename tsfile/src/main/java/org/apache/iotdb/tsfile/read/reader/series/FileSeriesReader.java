@@ -67,6 +67,7 @@ public abstract class FileSeriesReader {
       if (chunkSatisfied(chunkMetaData)) {
         // chunk metadata satisfy the condition
         initChunkReader(chunkMetaData);
+        prefetchNextChunk();
 
         if (chunkReader.hasNextBatch()) {
           return true;
@@ -92,10 +93,40 @@ public abstract class FileSeriesReader {
     return chunkReader.nextPageHeader();
   }
 
+  public boolean isPageDataDeleted() {
+    return chunkReader.isPageDataDeleted();
+  }
+
   public void skipPageData() {
     chunkReader.skipPageData();
   }
 
+  /**
+   * get the metadata of the next satisfied chunk without loading the chunk.
+   *
+   * @return null if the current chunk still has batches or there is no more satisfied chunk
+   */
+  public ChunkMetaData nextChunkMetaData() throws IOException {
+    if (chunkReader != null && chunkReader.hasNextBatch()) {
+      return null;
+    }
+    while (chunkToRead < chunkMetaDataList.size()) {
+      ChunkMetaData chunkMetaData = chunkMetaDataList.get(chunkToRead);
+      if (chunkSatisfied(chunkMetaData)) {
+        return chunkMetaData;
+      }
+      chunkToRead++;
+    }
+    return null;
+  }
+
+  /**
+   * skip the chunk given by nextChunkMetaData() without loading it.
+   */
+  public void skipChunk() {
+    chunkToRead++;
+  }
+
   protected abstract void initChunkReader(ChunkMetaData chunkMetaData) throws IOException;
 
   protected abstract boolean chunkSatisfied(ChunkMetaData chunkMetaData);
@@ -104,6 +135,18 @@ public abstract class FileSeriesReader {
     chunkLoader.close();
   }
 
+  /**
+   * give the next satisfied chunk to the loader to read ahead.
+   */
+  private void prefetchNextChunk() {
+    for (int i = chunkToRead; i < chunkMetaDataList.size(); i++) {
+      if (chunkSatisfied(chunkMetaDataList.get(i))) {
+        chunkLoader.prefetch(chunkMetaDataList.get(i));
+        return;
+      }
+    }
+  }
+
   private ChunkMetaData nextChunkMeta() {
     return chunkMetaDataList.get(chunkToRead++);
   }
@@ -0,0 +1,360 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.record;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * RowBatch holds a batch of rows of one device in columnar form: one timestamp column and one
+ * primitive array per measurement (boolean[], int[], long[], float[], double[] or Binary[]). The
+ * i-th row consists of timestamps[i] and the i-th element of every value column.<br> A batch is
+ * filled by setting the elements at index {@link #batchSize} and then increasing batchSize, or by
+ * {@link #addRow(long, Object...)}.
+ */
+public class RowBatch {
+
+  /**
+   * deviceId of this RowBatch.
+   */
+  public String deviceId;
+  /**
+   * measurements of this RowBatch, one value column for each.
+   */
+  public List<String> measurements;
+  /**
+   * data types of the measurements.
+   */
+  public List<TSDataType> dataTypes;
+  public long[] timestamps;
+  public Object[] values;
+  /**
+   * the number of rows in this RowBatch.
+   */
+  public int batchSize;
+
+  private int maxBatchSize;
+
+  public RowBatch(String deviceId, List<String> measurements, List<TSDataType> dataTypes,
+      int maxBatchSize) {
+    if (measurements.size() != dataTypes.size()) {
+      throw new IllegalArgumentException(String
+          .format("%d measurements are given with %d data types", measurements.size(),
+              dataTypes.size()));
+    }
+    this.deviceId = deviceId;
+    this.measurements = measurements;
+    this.dataTypes = dataTypes;
+    this.maxBatchSize = maxBatchSize;
+    this.timestamps = new long[maxBatchSize];
+    this.values = new Object[measurements.size()];
+    for (int i = 0; i < dataTypes.size(); i++) {
+      values[i] = newColumn(dataTypes.get(i), maxBatchSize);
+    }
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public boolean isFull() {
+    return batchSize == maxBatchSize;
+  }
+
+  public void reset() {
+    batchSize = 0;
+  }
+
+  /**
+   * append one row, the values must be given in the order of the measurements and be of the java
+   * type of their data types (Boolean, Integer, Long, Float, Double or Binary).
+   */
+  public void addRow(long time, Object... rowValues) {
+    if (isFull()) {
+      throw new IllegalStateException("The row batch is full, size: " + maxBatchSize);
+    }
+    if (rowValues.length != values.length) {
+      throw new IllegalArgumentException(String
+          .format("%d values are given for %d measurements", rowValues.length, values.length));
+    }
+    timestamps[batchSize] = time;
+    for (int i = 0; i < values.length; i++) {
+      setValue(dataTypes.get(i), values[i], batchSize, rowValues[i]);
+    }
+    batchSize++;
+  }
+
+  /**
+   * serialize the first batchSize timestamps.
+   */
+  public ByteBuffer serializeTimestamps() {
+    ByteBuffer buffer = ByteBuffer.allocate(batchSize * Long.BYTES);
+    for (int i = 0; i < batchSize; i++) {
+      buffer.putLong(timestamps[i]);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * serialize the first batchSize values of all columns, column after column. A TEXT value is
+   * written as its length followed by its bytes, a BOOLEAN value as one byte.
+   */
+  public ByteBuffer serializeValues() {
+    ByteBuffer buffer = ByteBuffer.allocate(getValuesSerializedSize());
+    for (int i = 0; i < values.length; i++) {
+      serializeColumn(buffer, dataTypes.get(i), values[i], batchSize);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private int getValuesSerializedSize() {
+    int serializedSize = 0;
+    for (int i = 0; i < values.length; i++) {
+      switch (dataTypes.get(i)) {
+        case BOOLEAN:
+          serializedSize += batchSize;
+          break;
+        case INT32:
+        case FLOAT:
+          serializedSize += batchSize * 4;
+          break;
+        case INT64:
+        case DOUBLE:
+          serializedSize += batchSize * 8;
+          break;
+        case TEXT:
+          Binary[] binaries = (Binary[]) values[i];
+          for (int j = 0; j < batchSize; j++) {
+            serializedSize += Integer.BYTES + binaries[j].getLength();
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataTypes.get(i)));
+      }
+    }
+    return serializedSize;
+  }
+
+  /**
+   * check that the serialized timestamps and values of a batch of size rows match the size, before
+   * anything is allocated for them. A text value is at least the 4 bytes of its length.
+   *
+   * @throws IllegalArgumentException if the size is negative or the buffers do not match it
+   */
+  public static void checkSerializedSize(ByteBuffer timestamps, ByteBuffer values,
+      List<TSDataType> types, int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The size of the batch is negative: " + size);
+    }
+    if (timestamps.remaining() != (long) size * Long.BYTES) {
+      throw new IllegalArgumentException(String
+          .format("%d bytes of timestamps are given for %d rows", timestamps.remaining(), size));
+    }
+    long valueSize = 0;
+    boolean hasText = false;
+    for (TSDataType type : types) {
+      valueSize += (long) size * getMinValueSize(type);
+      hasText |= type == TSDataType.TEXT;
+    }
+    if (values.remaining() < valueSize || (!hasText && values.remaining() != valueSize)) {
+      throw new IllegalArgumentException(String
+          .format("%d bytes of values are given for %d rows of %d measurements",
+              values.remaining(), size, types.size()));
+    }
+  }
+
+  private static int getMinValueSize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case TEXT:
+        return Integer.BYTES;
+      case INT64:
+        return Long.BYTES;
+      case FLOAT:
+        return Float.BYTES;
+      case DOUBLE:
+        return Double.BYTES;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * read a timestamp column written by {@link #serializeTimestamps()}.
+   */
+  public static long[] deserializeTimestamps(ByteBuffer buffer, int size) {
+    long[] times = new long[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = buffer.getLong();
+    }
+    return times;
+  }
+
+  /**
+   * read the value columns written by {@link #serializeValues()}.
+   */
+  public static Object[] deserializeValues(ByteBuffer buffer, List<TSDataType> types, int size) {
+    Object[] columns = new Object[types.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = deserializeColumn(buffer, types.get(i), size);
+    }
+    return columns;
+  }
+
+  private static Object newColumn(TSDataType dataType, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[size];
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      case TEXT:
+        return new Binary[size];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private static void setValue(TSDataType dataType, Object column, int index, Object value) {
+    switch (dataType) {
+      case BOOLEAN:
+        ((boolean[]) column)[index] = (Boolean) value;
+        break;
+      case INT32:
+        ((int[]) column)[index] = (Integer) value;
+        break;
+      case INT64:
+        ((long[]) column)[index] = (Long) value;
+        break;
+      case FLOAT:
+        ((float[]) column)[index] = (Float) value;
+        break;
+      case DOUBLE:
+        ((double[]) column)[index] = (Double) value;
+        break;
+      case TEXT:
+        ((Binary[]) column)[index] = (Binary) value;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * write the first size values of a value column into the buffer, see {@link
+   * #serializeValues()} for the format.
+   */
+  public static void serializeColumn(ByteBuffer buffer, TSDataType dataType, Object column,
+      int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) column;
+        for (int i = 0; i < size; i++) {
+          buffer.put(booleans[i] ? (byte) 1 : (byte) 0);
+        }
+        break;
+      case INT32:
+        buffer.asIntBuffer().put((int[]) column, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        break;
+      case INT64:
+        buffer.asLongBuffer().put((long[]) column, 0, size);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        break;
+      case FLOAT:
+        buffer.asFloatBuffer().put((float[]) column, 0, size);
+        buffer.position(buffer.position() + size * Float.BYTES);
+        break;
+      case DOUBLE:
+        buffer.asDoubleBuffer().put((double[]) column, 0, size);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) column;
+        for (int i = 0; i < size; i++) {
+          buffer.putInt(binaries[i].getLength());
+          buffer.put(binaries[i].getValues());
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * read a value column of size values written by {@link #serializeColumn(ByteBuffer, TSDataType,
+   * Object, int)}.
+   */
+  public static Object deserializeColumn(ByteBuffer buffer, TSDataType dataType, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[size];
+        for (int i = 0; i < size; i++) {
+          booleans[i] = buffer.get() == 1;
+        }
+        return booleans;
+      case INT32:
+        int[] ints = new int[size];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        return ints;
+      case INT64:
+        long[] longs = new long[size];
+        buffer.asLongBuffer().get(longs);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        return longs;
+      case FLOAT:
+        float[] floats = new float[size];
+        buffer.asFloatBuffer().get(floats);
+        buffer.position(buffer.position() + size * Float.BYTES);
+        return floats;
+      case DOUBLE:
+        double[] doubles = new double[size];
+        buffer.asDoubleBuffer().get(doubles);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        return doubles;
+      case TEXT:
+        Binary[] binaries = new Binary[size];
+        for (int i = 0; i < size; i++) {
+          int length = buffer.getInt();
+          if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length of a text value: " + length);
+          }
+          byte[] bytes = new byte[length];
+          buffer.get(bytes);
+          binaries[i] = new Binary(bytes);
+        }
+        return binaries;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+}
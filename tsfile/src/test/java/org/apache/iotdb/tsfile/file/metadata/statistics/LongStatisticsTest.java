@@ -19,8 +19,17 @@
 package org.apache.iotdb.tsfile.file.metadata.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
 import org.junit.Test;
 
 public class LongStatisticsTest {
@@ -90,4 +99,33 @@ public class LongStatisticsTest {
     assertEquals(max2, (long) longStats3.getLast());
   }
 
+  @Test
+  public void testDeserializeFromDigest() throws IOException {
+    Statistics<Long> longStats = new LongStatistics();
+    longStats.updateStats(5L);
+    longStats.updateStats(-3L);
+    longStats.updateStats(7L);
+    Statistics<Long> digestStats = Statistics.deserialize(toDigest(longStats), TSDataType.INT64);
+    assertEquals(false, digestStats.isEmpty());
+    assertEquals(7L, (long) digestStats.getMax());
+    assertEquals(-3L, (long) digestStats.getMin());
+    assertEquals(5L, (long) digestStats.getFirst());
+    assertEquals(7L, (long) digestStats.getLast());
+    assertEquals(9, digestStats.getSum(), 0.0001d);
+
+    assertNull(Statistics.deserialize(new TsDigest(), TSDataType.INT64));
+  }
+
+  static TsDigest toDigest(Statistics<?> statistics) {
+    Map<String, ByteBuffer> statisticsMap = new HashMap<>();
+    statisticsMap.put(StatisticConstant.MAX_VALUE, ByteBuffer.wrap(statistics.getMaxBytes()));
+    statisticsMap.put(StatisticConstant.MIN_VALUE, ByteBuffer.wrap(statistics.getMinBytes()));
+    statisticsMap.put(StatisticConstant.FIRST, ByteBuffer.wrap(statistics.getFirstBytes()));
+    statisticsMap.put(StatisticConstant.SUM, ByteBuffer.wrap(statistics.getSumBytes()));
+    statisticsMap.put(StatisticConstant.LAST, ByteBuffer.wrap(statistics.getLastBytes()));
+    TsDigest digest = new TsDigest();
+    digest.setStatistics(statisticsMap);
+    return digest;
+  }
+
 }
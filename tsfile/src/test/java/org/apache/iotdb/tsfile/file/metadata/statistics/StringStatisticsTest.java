@@ -20,6 +20,9 @@ package org.apache.iotdb.tsfile.file.metadata.statistics;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Test;
 
@@ -67,4 +70,19 @@ public class StringStatisticsTest {
     assertEquals("aaa", (String) stringStats3.getFirst().getStringValue());
     assertEquals("ddd", stringStats3.getLast().getStringValue());
   }
+
+  @Test
+  public void testDeserializeFromDigest() throws IOException {
+    Statistics<Binary> binaryStats = new BinaryStatistics();
+    binaryStats.updateStats(new Binary("bbb"));
+    binaryStats.updateStats(new Binary("a"));
+    binaryStats.updateStats(new Binary("cc"));
+    Statistics<Binary> digestStats = Statistics
+        .deserialize(LongStatisticsTest.toDigest(binaryStats), TSDataType.TEXT);
+    assertEquals("cc", digestStats.getMax().getStringValue());
+    assertEquals("a", digestStats.getMin().getStringValue());
+    assertEquals("bbb", digestStats.getFirst().getStringValue());
+    assertEquals("cc", digestStats.getLast().getStringValue());
+  }
+
 }
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class RowBlockTest {
+
+  private static final int ROW_NUM = 20;
+
+  @Test
+  public void testFromRecords() {
+    List<RowRecord> records = new ArrayList<>();
+    for (int i = 0; i < ROW_NUM; i++) {
+      RowRecord record = new RowRecord(i * 10L);
+      record.addField(i % 3 == 0 ? nullField() : newField(TSDataType.INT32, i));
+      record.addField(newField(TSDataType.TEXT, i));
+      record.addField(i % 2 == 0 ? nullField() : newField(TSDataType.DOUBLE, i));
+      record.addField(nullField());
+      records.add(record);
+    }
+
+    RowBlock block = RowBlock.fromRecords(records, 4);
+    assertEquals(ROW_NUM, block.getRowCount());
+    assertEquals(TSDataType.INT32, block.getDataType(0));
+    assertEquals(TSDataType.TEXT, block.getDataType(1));
+    assertEquals(TSDataType.DOUBLE, block.getDataType(2));
+    assertNull(block.getDataType(3));
+
+    // read through buffers which do not start at 0, like those received by thrift
+    RowBlock received = new RowBlock(block.getRowCount(), shift(block.getTimestamps()),
+        block.getTypes(), shiftAll(block.getBitmaps()), shiftAll(block.getValues()));
+    for (int i = 0; i < ROW_NUM; i++) {
+      assertTrue(received.hasNext());
+      received.next();
+      assertEquals(i * 10L, received.currentTime());
+      assertEquals(i % 3 == 0, received.isNull(0));
+      if (i % 3 != 0) {
+        assertEquals(i, received.getField(0).getIntV());
+      }
+      // skip column 2 on even rows to check that unread values are skipped correctly
+      if (i % 2 == 1) {
+        assertEquals(i, received.getField(2).getDoubleV(), 0.0);
+      }
+      assertEquals(records.get(i).getFields().get(1).getStringValue(),
+          received.getField(1).getStringValue());
+      assertTrue(received.isNull(3));
+      assertTrue(received.getField(3).isNull());
+    }
+    assertFalse(received.hasNext());
+  }
+
+  @Test
+  public void testColumnWithSeveralTypes() {
+    List<RowRecord> records = new ArrayList<>();
+    RowRecord record = new RowRecord(1);
+    record.addField(newField(TSDataType.INT32, 1));
+    records.add(record);
+    record = new RowRecord(2);
+    record.addField(newField(TSDataType.INT64, 2));
+    records.add(record);
+    assertNull(RowBlock.fromRecords(records, 1));
+  }
+
+  private Field newField(TSDataType dataType, int value) {
+    Field field = new Field(dataType);
+    switch (dataType) {
+      case INT32:
+        field.setIntV(value);
+        break;
+      case INT64:
+        field.setLongV(value);
+        break;
+      case DOUBLE:
+        field.setDoubleV(value);
+        break;
+      case TEXT:
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < value; i++) {
+          builder.append('v');
+        }
+        field.setBinaryV(new Binary(builder.toString()));
+        break;
+      default:
+        throw new IllegalArgumentException(dataType.toString());
+    }
+    return field;
+  }
+
+  private Field nullField() {
+    Field field = new Field(null);
+    field.setNull();
+    return field;
+  }
+
+  private ByteBuffer[] shiftAll(ByteBuffer[] buffers) {
+    ByteBuffer[] shifted = new ByteBuffer[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      shifted[i] = shift(buffers[i]);
+    }
+    return shifted;
+  }
+
+  private ByteBuffer shift(ByteBuffer buffer) {
+    ByteBuffer shifted = ByteBuffer.allocate(buffer.remaining() + 3);
+    shifted.position(3);
+    shifted.put(buffer.duplicate());
+    shifted.position(3);
+    return shifted;
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MmapTsFileInputTest {
+
+  private static final String FILE_PATH = "mmapTsFileInputTest.tsfile";
+  private static final int FILE_SIZE = 10000;
+
+  private File file = new File(FILE_PATH);
+
+  @Before
+  public void setUp() throws IOException {
+    byte[] bytes = new byte[FILE_SIZE];
+    for (int i = 0; i < FILE_SIZE; i++) {
+      bytes[i] = (byte) i;
+    }
+    try (FileOutputStream outputStream = new FileOutputStream(file)) {
+      outputStream.write(bytes);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void testPositionalRead() throws IOException {
+    // small regions so that reads cross region boundaries
+    MmapTsFileInput input = new MmapTsFileInput(file.toPath(), 1000);
+    try {
+      Assert.assertEquals(FILE_SIZE, input.size());
+      ByteBuffer buffer = ByteBuffer.allocate(2500);
+      Assert.assertEquals(2500, input.read(buffer, 900));
+      for (int i = 0; i < 2500; i++) {
+        Assert.assertEquals((byte) (900 + i), buffer.get(i));
+      }
+
+      buffer.clear();
+      Assert.assertEquals(100, input.read(buffer, FILE_SIZE - 100));
+      Assert.assertEquals((byte) (FILE_SIZE - 1), buffer.get(99));
+
+      buffer.clear();
+      Assert.assertEquals(-1, input.read(buffer, FILE_SIZE));
+    } finally {
+      input.close();
+    }
+  }
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(file.toPath(), 1000);
+    try {
+      input.position(1500);
+      ByteBuffer buffer = ByteBuffer.allocate(1000);
+      Assert.assertEquals(1000, input.read(buffer));
+      Assert.assertEquals(2500, input.position());
+      Assert.assertEquals((byte) 1500, buffer.get(0));
+      Assert.assertEquals((byte) 2500, (byte) input.wrapAsInputStream().read());
+    } finally {
+      input.close();
+    }
+  }
+
+  @Test(expected = ClosedChannelException.class)
+  public void testReadAfterClose() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(file.toPath());
+    input.close();
+    input.read(ByteBuffer.allocate(10), 0);
+  }
+}
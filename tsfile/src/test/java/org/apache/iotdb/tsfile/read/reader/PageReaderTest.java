@@ -37,6 +37,10 @@ import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -142,6 +146,39 @@ public class PageReaderTest {
     test.test();
   }
 
+  @Test
+  public void testFilterAndDeletion() throws IOException {
+    int count = 10000;
+    long deletedAt = 99;
+    // (time >= 3000 && value < 8000) || !(value >= 500)
+    Filter filter = FilterFactory.or(
+        FilterFactory.and(TimeFilter.gtEq(3000L), ValueFilter.lt(8000L)),
+        ValueFilter.not(ValueFilter.gtEq(500L)));
+
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT64, 0));
+    for (long i = 0; i < count; i++) {
+      pageWriter.write(i, i);
+    }
+    ByteBuffer page = ByteBuffer.wrap(pageWriter.getUncompressedBytes().array());
+    PageReader pageReader = new PageReader(page, TSDataType.INT64,
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder(),
+        filter);
+    pageReader.setDeletedAt(deletedAt);
+    BatchData data = pageReader.nextBatch();
+
+    for (long i = 0; i < count; i++) {
+      if (i > deletedAt && filter.satisfy(i, i)) {
+        Assert.assertTrue(data.hasNext());
+        Assert.assertEquals(i, data.currentTime());
+        Assert.assertEquals(i, data.getLong());
+        data.next();
+      }
+    }
+    Assert.assertFalse(data.hasNext());
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.record;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class RowBatchTest {
+
+  private static final List<TSDataType> TYPES = Arrays.asList(TSDataType.INT64, TSDataType.TEXT);
+
+  private static RowBatch createBatch() {
+    RowBatch rowBatch = new RowBatch("root.sg.d1", Arrays.asList("s1", "s2"), TYPES, 10);
+    rowBatch.addRow(1, 1L, new Binary("a"));
+    rowBatch.addRow(2, 2L, new Binary("bc"));
+    return rowBatch;
+  }
+
+  @Test
+  public void testSerialize() {
+    RowBatch rowBatch = createBatch();
+    ByteBuffer timestamps = rowBatch.serializeTimestamps();
+    ByteBuffer values = rowBatch.serializeValues();
+    RowBatch.checkSerializedSize(timestamps, values, TYPES, 2);
+    assertArrayEquals(new long[]{1, 2}, RowBatch.deserializeTimestamps(timestamps, 2));
+    Object[] columns = RowBatch.deserializeValues(values, TYPES, 2);
+    assertArrayEquals(new long[]{1, 2}, (long[]) columns[0]);
+    assertArrayEquals(new Binary[]{new Binary("a"), new Binary("bc")}, (Binary[]) columns[1]);
+  }
+
+  @Test
+  public void testCheckSerializedSize() {
+    RowBatch rowBatch = createBatch();
+    ByteBuffer timestamps = rowBatch.serializeTimestamps();
+    ByteBuffer values = rowBatch.serializeValues();
+    // a negative size, a size larger than the timestamps and more rows than the values hold
+    assertRejected(timestamps, values, TYPES, -1);
+    assertRejected(timestamps, values, TYPES, Integer.MAX_VALUE);
+    assertRejected(timestamps, ByteBuffer.allocate(2 * 8 + 2 * 4 - 1), TYPES, 2);
+    // values of fixed size must match exactly
+    assertRejected(timestamps, ByteBuffer.allocate(2 * 8 + 1),
+        Arrays.asList(TSDataType.INT64), 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTextLength() {
+    ByteBuffer values = ByteBuffer.allocate(8);
+    values.putInt(Integer.MAX_VALUE);
+    values.flip();
+    RowBatch.deserializeValues(values, Arrays.asList(TSDataType.TEXT), 1);
+  }
+
+  private void assertRejected(ByteBuffer timestamps, ByteBuffer values, List<TSDataType> types,
+      int size) {
+    try {
+      RowBatch.checkSerializedSize(timestamps, values, types, size);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}